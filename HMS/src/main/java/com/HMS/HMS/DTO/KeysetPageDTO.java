@@ -0,0 +1,71 @@
+package com.HMS.HMS.DTO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paged list. Pass nextCursor back as cursor to read the following
+ * page; it is null on the last page.
+ */
+public class KeysetPageDTO<T> {
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private List<T> items;
+    private boolean hasMore;
+    private String nextCursor;
+
+    // Constructors
+    public KeysetPageDTO() {}
+
+    public KeysetPageDTO(List<T> items, boolean hasMore, String nextCursor) {
+        this.items = items;
+        this.hasMore = hasMore;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Page from rows fetched with one row more than pageSize, the extra row only telling
+     * whether another page follows
+     */
+    public KeysetPageDTO(List<T> rows, int pageSize, Function<T, ?> cursorOf) {
+        this.hasMore = rows.size() > pageSize;
+        this.items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        if (hasMore && !items.isEmpty()) {
+            this.nextCursor = String.valueOf(cursorOf.apply(items.get(items.size() - 1)));
+        }
+    }
+
+    /**
+     * The requested page size within 1..MAX_PAGE_SIZE
+     */
+    public static int pageSize(int requested) {
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
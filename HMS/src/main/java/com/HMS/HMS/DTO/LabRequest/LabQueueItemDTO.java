@@ -0,0 +1,140 @@
+package com.HMS.HMS.DTO.LabRequest;
+
+import com.HMS.HMS.model.LabRequest.LabRequestStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flat lab request row for the lab and ward queues. Header fields come from a
+ * constructor projection; test names are filled in from one grouped query over lab_tests.
+ */
+public class LabQueueItemDTO {
+    private Long id;
+    private String requestId;
+    private String patientNationalId;
+    private String patientName;
+    private String wardName;
+    private String bedNumber;
+    private String requestedBy;
+    private LocalDateTime requestDate;
+    private LabRequestStatus status;
+    private List<String> testNames = new ArrayList<>();
+    private int testCount;
+    private boolean urgent;
+    
+    // Constructors
+    public LabQueueItemDTO() {}
+    
+    public LabQueueItemDTO(Long id, String requestId, String patientNationalId, String patientName,
+                           String wardName, String bedNumber, String requestedBy,
+                           LocalDateTime requestDate, LabRequestStatus status) {
+        this.id = id;
+        this.requestId = requestId;
+        this.patientNationalId = patientNationalId;
+        this.patientName = patientName;
+        this.wardName = wardName;
+        this.bedNumber = bedNumber;
+        this.requestedBy = requestedBy;
+        this.requestDate = requestDate;
+        this.status = status;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getRequestId() {
+        return requestId;
+    }
+    
+    public void setRequestId(String requestId) {
+        this.requestId = requestId;
+    }
+    
+    public String getPatientNationalId() {
+        return patientNationalId;
+    }
+    
+    public void setPatientNationalId(String patientNationalId) {
+        this.patientNationalId = patientNationalId;
+    }
+    
+    public String getPatientName() {
+        return patientName;
+    }
+    
+    public void setPatientName(String patientName) {
+        this.patientName = patientName;
+    }
+    
+    public String getWardName() {
+        return wardName;
+    }
+    
+    public void setWardName(String wardName) {
+        this.wardName = wardName;
+    }
+    
+    public String getBedNumber() {
+        return bedNumber;
+    }
+    
+    public void setBedNumber(String bedNumber) {
+        this.bedNumber = bedNumber;
+    }
+    
+    public String getRequestedBy() {
+        return requestedBy;
+    }
+    
+    public void setRequestedBy(String requestedBy) {
+        this.requestedBy = requestedBy;
+    }
+    
+    public LocalDateTime getRequestDate() {
+        return requestDate;
+    }
+    
+    public void setRequestDate(LocalDateTime requestDate) {
+        this.requestDate = requestDate;
+    }
+    
+    public LabRequestStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(LabRequestStatus status) {
+        this.status = status;
+    }
+    
+    public List<String> getTestNames() {
+        return testNames;
+    }
+    
+    public void setTestNames(List<String> testNames) {
+        this.testNames = testNames;
+    }
+    
+    public int getTestCount() {
+        return testCount;
+    }
+    
+    public void setTestCount(int testCount) {
+        this.testCount = testCount;
+    }
+    
+    public boolean isUrgent() {
+        return urgent;
+    }
+    
+    public void setUrgent(boolean urgent) {
+        this.urgent = urgent;
+    }
+}
@@ -0,0 +1,61 @@
+package com.HMS.HMS.DTO.LabRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of a lab queue. Pass nextCursorDate and nextCursorId back as cursorDate and
+ * cursorId to read the following page; both are null on the last page.
+ */
+public class LabQueuePageDTO {
+    private List<LabQueueItemDTO> items;
+    private boolean hasMore;
+    private LocalDateTime nextCursorDate;
+    private Long nextCursorId;
+    
+    // Constructors
+    public LabQueuePageDTO() {}
+    
+    public LabQueuePageDTO(List<LabQueueItemDTO> items, boolean hasMore) {
+        this.items = items;
+        this.hasMore = hasMore;
+        if (hasMore && !items.isEmpty()) {
+            LabQueueItemDTO last = items.get(items.size() - 1);
+            this.nextCursorDate = last.getRequestDate();
+            this.nextCursorId = last.getId();
+        }
+    }
+    
+    // Getters and Setters
+    public List<LabQueueItemDTO> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<LabQueueItemDTO> items) {
+        this.items = items;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+    
+    public LocalDateTime getNextCursorDate() {
+        return nextCursorDate;
+    }
+    
+    public void setNextCursorDate(LocalDateTime nextCursorDate) {
+        this.nextCursorDate = nextCursorDate;
+    }
+    
+    public Long getNextCursorId() {
+        return nextCursorId;
+    }
+    
+    public void setNextCursorId(Long nextCursorId) {
+        this.nextCursorId = nextCursorId;
+    }
+}
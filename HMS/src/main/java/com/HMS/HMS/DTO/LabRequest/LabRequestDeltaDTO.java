@@ -0,0 +1,112 @@
+package com.HMS.HMS.DTO.LabRequest;
+
+import com.HMS.HMS.model.LabRequest.LabRequestStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Small change notice for one lab request, published on the per-ward lab topics.
+ * Clients that need the full request read it from the lab queue endpoints.
+ */
+public class LabRequestDeltaDTO {
+    
+    public enum Event {
+        CREATED, STATUS_CHANGED, RESULTS_SAVED
+    }
+    
+    private Event event;
+    private String requestId;
+    private String wardName;
+    private String patientName;
+    private LabRequestStatus status;
+    private boolean urgent;
+    private int testCount;
+    private int resultCount;
+    private LocalDateTime occurredAt;
+    
+    // Constructors
+    public LabRequestDeltaDTO() {}
+    
+    public LabRequestDeltaDTO(Event event, String requestId, String wardName, String patientName,
+                              LabRequestStatus status) {
+        this.event = event;
+        this.requestId = requestId;
+        this.wardName = wardName;
+        this.patientName = patientName;
+        this.status = status;
+        this.occurredAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Event getEvent() {
+        return event;
+    }
+    
+    public void setEvent(Event event) {
+        this.event = event;
+    }
+    
+    public String getRequestId() {
+        return requestId;
+    }
+    
+    public void setRequestId(String requestId) {
+        this.requestId = requestId;
+    }
+    
+    public String getWardName() {
+        return wardName;
+    }
+    
+    public void setWardName(String wardName) {
+        this.wardName = wardName;
+    }
+    
+    public String getPatientName() {
+        return patientName;
+    }
+    
+    public void setPatientName(String patientName) {
+        this.patientName = patientName;
+    }
+    
+    public LabRequestStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(LabRequestStatus status) {
+        this.status = status;
+    }
+    
+    public boolean isUrgent() {
+        return urgent;
+    }
+    
+    public void setUrgent(boolean urgent) {
+        this.urgent = urgent;
+    }
+    
+    public int getTestCount() {
+        return testCount;
+    }
+    
+    public void setTestCount(int testCount) {
+        this.testCount = testCount;
+    }
+    
+    public int getResultCount() {
+        return resultCount;
+    }
+    
+    public void setResultCount(int resultCount) {
+        this.resultCount = resultCount;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+    
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
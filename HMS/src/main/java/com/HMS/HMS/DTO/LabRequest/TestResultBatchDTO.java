@@ -0,0 +1,37 @@
+package com.HMS.HMS.DTO.LabRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Results for many lab requests submitted together, e.g. one analyser run
+ */
+public class TestResultBatchDTO {
+    private List<TestResultSubmissionDTO> submissions = new ArrayList<>();
+    private boolean markCompleted = false; // Set submitted requests to COMPLETED; only when the batch holds all their tests
+    
+    // Constructors
+    public TestResultBatchDTO() {}
+    
+    public TestResultBatchDTO(List<TestResultSubmissionDTO> submissions, boolean markCompleted) {
+        this.submissions = submissions;
+        this.markCompleted = markCompleted;
+    }
+    
+    // Getters and Setters
+    public List<TestResultSubmissionDTO> getSubmissions() {
+        return submissions;
+    }
+    
+    public void setSubmissions(List<TestResultSubmissionDTO> submissions) {
+        this.submissions = submissions;
+    }
+    
+    public boolean isMarkCompleted() {
+        return markCompleted;
+    }
+    
+    public void setMarkCompleted(boolean markCompleted) {
+        this.markCompleted = markCompleted;
+    }
+}
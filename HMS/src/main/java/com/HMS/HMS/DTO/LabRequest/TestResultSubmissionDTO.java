@@ -10,6 +10,7 @@ public class TestResultSubmissionDTO {
     private String notes;
     private String completedAt;
     private String completedBy;
+    private Map<String, String> equipment; // Optional analyser id per test name
     
     // Constructors
     public TestResultSubmissionDTO() {}
@@ -73,4 +74,12 @@ public class TestResultSubmissionDTO {
     public void setCompletedBy(String completedBy) {
         this.completedBy = completedBy;
     }
-}
\ No newline at end of file
+    
+    public Map<String, String> getEquipment() {
+        return equipment;
+    }
+    
+    public void setEquipment(Map<String, String> equipment) {
+        this.equipment = equipment;
+    }
+}
@@ -1,9 +1,12 @@
 package com.HMS.HMS.DTO.MedicationDTO;
 
+import java.time.LocalDate;
+
 public class UpdateStockRequestDTO {
     
     private Integer newStock;
     private String batchNumber;
+    private LocalDate expiryDate;
     
     // Constructors
     public UpdateStockRequestDTO() {}
@@ -30,11 +33,20 @@ public class UpdateStockRequestDTO {
         this.batchNumber = batchNumber;
     }
     
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+    
+    public void setExpiryDate(LocalDate expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+    
     @Override
     public String toString() {
         return "UpdateStockRequestDTO{" +
                "newStock=" + newStock +
                ", batchNumber='" + batchNumber + '\'' +
+               ", expiryDate=" + expiryDate +
                '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.HMS.HMS.DTO.PatientDTO;
+
+import java.time.LocalDate;
+
+public class PatientSearchResultDTO {
+    private String nationalId;
+    private String firstName;
+    private String lastName;
+    private String contactNumber;
+    private LocalDate dateOfBirth;
+    private String gender;
+    private int score;
+
+    public PatientSearchResultDTO() {
+    }
+
+    public PatientSearchResultDTO(String nationalId, String firstName, String lastName, String contactNumber,
+                                  LocalDate dateOfBirth, String gender, int score) {
+        this.nationalId = nationalId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.contactNumber = contactNumber;
+        this.dateOfBirth = dateOfBirth;
+        this.gender = gender;
+        this.score = score;
+    }
+
+    // Helper method to get full name
+    public String getFullName() {
+        return firstName + " " + lastName;
+    }
+
+    public String getNationalId() {
+        return nationalId;
+    }
+
+    public void setNationalId(String nationalId) {
+        this.nationalId = nationalId;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getContactNumber() {
+        return contactNumber;
+    }
+
+    public void setContactNumber(String contactNumber) {
+        this.contactNumber = contactNumber;
+    }
+
+    public LocalDate getDateOfBirth() {
+        return dateOfBirth;
+    }
+
+    public void setDateOfBirth(LocalDate dateOfBirth) {
+        this.dateOfBirth = dateOfBirth;
+    }
+
+    public String getGender() {
+        return gender;
+    }
+
+    public void setGender(String gender) {
+        this.gender = gender;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public void setScore(int score) {
+        this.score = score;
+    }
+}
@@ -202,6 +202,8 @@ public class PharmacyAnalyticsDTO {
         private BigDecimal dailyRevenue;
         private List<RevenueDataPointDTO> revenueHistory;
         private BigDecimal averageTransactionValue;
+        private BigDecimal totalCost;
+        private BigDecimal grossMargin;
 
         // Constructors and getters/setters
         public RevenueAnalyticsDTO() {}
@@ -220,6 +222,12 @@ public class PharmacyAnalyticsDTO {
 
         public BigDecimal getAverageTransactionValue() { return averageTransactionValue; }
         public void setAverageTransactionValue(BigDecimal averageTransactionValue) { this.averageTransactionValue = averageTransactionValue; }
+
+        public BigDecimal getTotalCost() { return totalCost; }
+        public void setTotalCost(BigDecimal totalCost) { this.totalCost = totalCost; }
+
+        public BigDecimal getGrossMargin() { return grossMargin; }
+        public void setGrossMargin(BigDecimal grossMargin) { this.grossMargin = grossMargin; }
     }
 
     // Supporting DTOs
@@ -302,18 +310,28 @@ public class PharmacyAnalyticsDTO {
     public static class RevenueDataPointDTO {
         private LocalDate date;
         private BigDecimal revenue;
+        private BigDecimal cost;
 
         public RevenueDataPointDTO(LocalDate date, BigDecimal revenue) {
             this.date = date;
             this.revenue = revenue;
         }
 
+        public RevenueDataPointDTO(LocalDate date, BigDecimal revenue, BigDecimal cost) {
+            this.date = date;
+            this.revenue = revenue;
+            this.cost = cost;
+        }
+
         // Getters and Setters
         public LocalDate getDate() { return date; }
         public void setDate(LocalDate date) { this.date = date; }
 
         public BigDecimal getRevenue() { return revenue; }
         public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+
+        public BigDecimal getCost() { return cost; }
+        public void setCost(BigDecimal cost) { this.cost = cost; }
     }
 
     public static class AlertDTO {
@@ -22,6 +22,21 @@ public class AppointmentResponse {
     public AppointmentResponse() {
     }
 
+    public AppointmentResponse(Long appointmentId, Long doctorEmployeeId, String doctorName, String doctorSpecialization,
+                               String patientNationalId, String patientName, LocalDate appointmentDate,
+                               LocalTime appointmentTime, AppointmentStatus status, LocalDateTime createdAt) {
+        this.appointmentId = appointmentId;
+        this.doctorEmployeeId = doctorEmployeeId;
+        this.doctorName = doctorName;
+        this.doctorSpecialization = doctorSpecialization;
+        this.patientNationalId = patientNationalId;
+        this.patientName = patientName;
+        this.appointmentDate = appointmentDate;
+        this.appointmentTime = appointmentTime;
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+
     // Getters and Setters
     public Long getAppointmentId() {
         return appointmentId;
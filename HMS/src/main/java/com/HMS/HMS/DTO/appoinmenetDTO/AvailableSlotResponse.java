@@ -0,0 +1,76 @@
+package com.HMS.HMS.DTO.appoinmenetDTO;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public class AvailableSlotResponse {
+    private Long doctorEmployeeId;
+    private String doctorName;
+    private String doctorSpecialization;
+    private LocalDate date;
+    private LocalTime startTime;
+    private LocalTime endTime;
+
+    // Constructors
+    public AvailableSlotResponse() {
+    }
+
+    public AvailableSlotResponse(Long doctorEmployeeId, String doctorName, String doctorSpecialization,
+                                 LocalDate date, LocalTime startTime, LocalTime endTime) {
+        this.doctorEmployeeId = doctorEmployeeId;
+        this.doctorName = doctorName;
+        this.doctorSpecialization = doctorSpecialization;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    // Getters and Setters
+    public Long getDoctorEmployeeId() {
+        return doctorEmployeeId;
+    }
+
+    public void setDoctorEmployeeId(Long doctorEmployeeId) {
+        this.doctorEmployeeId = doctorEmployeeId;
+    }
+
+    public String getDoctorName() {
+        return doctorName;
+    }
+
+    public void setDoctorName(String doctorName) {
+        this.doctorName = doctorName;
+    }
+
+    public String getDoctorSpecialization() {
+        return doctorSpecialization;
+    }
+
+    public void setDoctorSpecialization(String doctorSpecialization) {
+        this.doctorSpecialization = doctorSpecialization;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+}
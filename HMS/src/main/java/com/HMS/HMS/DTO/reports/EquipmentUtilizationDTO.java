@@ -13,6 +13,9 @@ public class EquipmentUtilizationDTO {
     private Long downtimeHours;
     private String status;
     private Long maintenanceCount;
+    private Double throughputPerHour;
+    private Double avgQueueDepth;
+    private Integer maxQueueDepth;
     
     // Constructor
     public EquipmentUtilizationDTO() {}
@@ -96,4 +99,28 @@ public class EquipmentUtilizationDTO {
     public void setMaintenanceCount(Long maintenanceCount) {
         this.maintenanceCount = maintenanceCount;
     }
-}
\ No newline at end of file
+    
+    public Double getThroughputPerHour() {
+        return throughputPerHour;
+    }
+    
+    public void setThroughputPerHour(Double throughputPerHour) {
+        this.throughputPerHour = throughputPerHour;
+    }
+    
+    public Double getAvgQueueDepth() {
+        return avgQueueDepth;
+    }
+    
+    public void setAvgQueueDepth(Double avgQueueDepth) {
+        this.avgQueueDepth = avgQueueDepth;
+    }
+    
+    public Integer getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+    
+    public void setMaxQueueDepth(Integer maxQueueDepth) {
+        this.maxQueueDepth = maxQueueDepth;
+    }
+}
@@ -0,0 +1,149 @@
+package com.HMS.HMS.DTO.reports;
+
+import java.time.LocalDate;
+
+/**
+ * A ward's daily census summed over a period: bed days and occupied bed days, the beds
+ * occupied when the period ends, movements, and lengths of stay in days of the period's
+ * discharges
+ */
+public class WardCensusSummaryDTO {
+    private String wardName;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private long bedDays;
+    private long occupiedBedDays;
+    private double occupancyRate;
+    private int bedsAtEnd;
+    private int occupiedBedsAtEnd;
+    private long admissions;
+    private long discharges;
+    private long transfersIn;
+    private long transfersOut;
+    private double averageLengthOfStay;
+    private double medianLengthOfStay;
+    private double p90LengthOfStay;
+
+    public WardCensusSummaryDTO() {
+    }
+
+    public String getWardName() {
+        return wardName;
+    }
+
+    public void setWardName(String wardName) {
+        this.wardName = wardName;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public long getBedDays() {
+        return bedDays;
+    }
+
+    public void setBedDays(long bedDays) {
+        this.bedDays = bedDays;
+    }
+
+    public long getOccupiedBedDays() {
+        return occupiedBedDays;
+    }
+
+    public void setOccupiedBedDays(long occupiedBedDays) {
+        this.occupiedBedDays = occupiedBedDays;
+    }
+
+    public double getOccupancyRate() {
+        return occupancyRate;
+    }
+
+    public void setOccupancyRate(double occupancyRate) {
+        this.occupancyRate = occupancyRate;
+    }
+
+    public int getBedsAtEnd() {
+        return bedsAtEnd;
+    }
+
+    public void setBedsAtEnd(int bedsAtEnd) {
+        this.bedsAtEnd = bedsAtEnd;
+    }
+
+    public int getOccupiedBedsAtEnd() {
+        return occupiedBedsAtEnd;
+    }
+
+    public void setOccupiedBedsAtEnd(int occupiedBedsAtEnd) {
+        this.occupiedBedsAtEnd = occupiedBedsAtEnd;
+    }
+
+    public long getAdmissions() {
+        return admissions;
+    }
+
+    public void setAdmissions(long admissions) {
+        this.admissions = admissions;
+    }
+
+    public long getDischarges() {
+        return discharges;
+    }
+
+    public void setDischarges(long discharges) {
+        this.discharges = discharges;
+    }
+
+    public long getTransfersIn() {
+        return transfersIn;
+    }
+
+    public void setTransfersIn(long transfersIn) {
+        this.transfersIn = transfersIn;
+    }
+
+    public long getTransfersOut() {
+        return transfersOut;
+    }
+
+    public void setTransfersOut(long transfersOut) {
+        this.transfersOut = transfersOut;
+    }
+
+    public double getAverageLengthOfStay() {
+        return averageLengthOfStay;
+    }
+
+    public void setAverageLengthOfStay(double averageLengthOfStay) {
+        this.averageLengthOfStay = averageLengthOfStay;
+    }
+
+    public double getMedianLengthOfStay() {
+        return medianLengthOfStay;
+    }
+
+    public void setMedianLengthOfStay(double medianLengthOfStay) {
+        this.medianLengthOfStay = medianLengthOfStay;
+    }
+
+    public double getP90LengthOfStay() {
+        return p90LengthOfStay;
+    }
+
+    public void setP90LengthOfStay(double p90LengthOfStay) {
+        this.p90LengthOfStay = p90LengthOfStay;
+    }
+}
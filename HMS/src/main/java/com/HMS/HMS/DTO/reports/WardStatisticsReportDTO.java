@@ -17,6 +17,9 @@ public class WardStatisticsReportDTO {
     private long currentActiveAdmissions;
     private double currentOccupancyRate;
     private double averageLengthOfStay;
+    // Days, from the lengths of stay of the year's discharges
+    private double medianLengthOfStay;
+    private double p90LengthOfStay;
     private double monthlyAverageAdmissions;
 
     // Performance Metrics
@@ -166,6 +169,12 @@ public class WardStatisticsReportDTO {
     public double getAverageLengthOfStay() { return averageLengthOfStay; }
     public void setAverageLengthOfStay(double averageLengthOfStay) { this.averageLengthOfStay = averageLengthOfStay; }
 
+    public double getMedianLengthOfStay() { return medianLengthOfStay; }
+    public void setMedianLengthOfStay(double medianLengthOfStay) { this.medianLengthOfStay = medianLengthOfStay; }
+
+    public double getP90LengthOfStay() { return p90LengthOfStay; }
+    public void setP90LengthOfStay(double p90LengthOfStay) { this.p90LengthOfStay = p90LengthOfStay; }
+
     public double getMonthlyAverageAdmissions() { return monthlyAverageAdmissions; }
     public void setMonthlyAverageAdmissions(double monthlyAverageAdmissions) { this.monthlyAverageAdmissions = monthlyAverageAdmissions; }
 
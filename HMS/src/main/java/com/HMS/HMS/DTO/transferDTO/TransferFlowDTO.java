@@ -0,0 +1,63 @@
+package com.HMS.HMS.DTO.transferDTO;
+
+/**
+ * Transfers from one ward to another over a period
+ */
+public class TransferFlowDTO {
+    private Long fromWardId;
+    private String fromWardName;
+    private Long toWardId;
+    private String toWardName;
+    private long transfers;
+
+    public TransferFlowDTO() {
+    }
+
+    public TransferFlowDTO(Long fromWardId, String fromWardName, Long toWardId, String toWardName, long transfers) {
+        this.fromWardId = fromWardId;
+        this.fromWardName = fromWardName;
+        this.toWardId = toWardId;
+        this.toWardName = toWardName;
+        this.transfers = transfers;
+    }
+
+    public Long getFromWardId() {
+        return fromWardId;
+    }
+
+    public void setFromWardId(Long fromWardId) {
+        this.fromWardId = fromWardId;
+    }
+
+    public String getFromWardName() {
+        return fromWardName;
+    }
+
+    public void setFromWardName(String fromWardName) {
+        this.fromWardName = fromWardName;
+    }
+
+    public Long getToWardId() {
+        return toWardId;
+    }
+
+    public void setToWardId(Long toWardId) {
+        this.toWardId = toWardId;
+    }
+
+    public String getToWardName() {
+        return toWardName;
+    }
+
+    public void setToWardName(String toWardName) {
+        this.toWardName = toWardName;
+    }
+
+    public long getTransfers() {
+        return transfers;
+    }
+
+    public void setTransfers(long transfers) {
+        this.transfers = transfers;
+    }
+}
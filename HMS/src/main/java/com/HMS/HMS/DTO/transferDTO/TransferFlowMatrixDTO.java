@@ -0,0 +1,58 @@
+package com.HMS.HMS.DTO.transferDTO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ward-to-ward transfer counts over a period, one entry per pair of wards with transfers,
+ * largest flows first
+ */
+public class TransferFlowMatrixDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private long totalTransfers;
+    private List<TransferFlowDTO> flows = new ArrayList<>();
+
+    public TransferFlowMatrixDTO() {
+    }
+
+    public TransferFlowMatrixDTO(LocalDate startDate, LocalDate endDate, long totalTransfers, List<TransferFlowDTO> flows) {
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.totalTransfers = totalTransfers;
+        this.flows = flows;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public long getTotalTransfers() {
+        return totalTransfers;
+    }
+
+    public void setTotalTransfers(long totalTransfers) {
+        this.totalTransfers = totalTransfers;
+    }
+
+    public List<TransferFlowDTO> getFlows() {
+        return flows;
+    }
+
+    public void setFlows(List<TransferFlowDTO> flows) {
+        this.flows = flows;
+    }
+}
@@ -0,0 +1,85 @@
+package com.HMS.HMS.DTO.transferDTO;
+
+import java.time.LocalDate;
+
+/**
+ * Transfers into and out of a ward over a period, and how long patients stayed in the
+ * ward before being transferred out
+ */
+public class WardTransferSummaryDTO {
+    private Long wardId;
+    private String wardName;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private long transfersIn;
+    private long transfersOut;
+    private double medianHoursBeforeTransfer;
+    private double p90HoursBeforeTransfer;
+
+    public WardTransferSummaryDTO() {
+    }
+
+    public Long getWardId() {
+        return wardId;
+    }
+
+    public void setWardId(Long wardId) {
+        this.wardId = wardId;
+    }
+
+    public String getWardName() {
+        return wardName;
+    }
+
+    public void setWardName(String wardName) {
+        this.wardName = wardName;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
+    public long getTransfersIn() {
+        return transfersIn;
+    }
+
+    public void setTransfersIn(long transfersIn) {
+        this.transfersIn = transfersIn;
+    }
+
+    public long getTransfersOut() {
+        return transfersOut;
+    }
+
+    public void setTransfersOut(long transfersOut) {
+        this.transfersOut = transfersOut;
+    }
+
+    public double getMedianHoursBeforeTransfer() {
+        return medianHoursBeforeTransfer;
+    }
+
+    public void setMedianHoursBeforeTransfer(double medianHoursBeforeTransfer) {
+        this.medianHoursBeforeTransfer = medianHoursBeforeTransfer;
+    }
+
+    public double getP90HoursBeforeTransfer() {
+        return p90HoursBeforeTransfer;
+    }
+
+    public void setP90HoursBeforeTransfer(double p90HoursBeforeTransfer) {
+        this.p90HoursBeforeTransfer = p90HoursBeforeTransfer;
+    }
+}
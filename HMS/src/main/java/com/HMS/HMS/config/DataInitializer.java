@@ -1,10 +1,20 @@
 package com.HMS.HMS.config;
 
 import com.HMS.HMS.model.Dialysis.DialysisMachine;
+import com.HMS.HMS.model.LabRequest.LabAnalyte;
+import com.HMS.HMS.model.LabRequest.LabAnalyteDefinition;
+import com.HMS.HMS.model.LabRequest.LabAnalyteDefinition.ValueType;
+import com.HMS.HMS.model.LabRequest.LabEquipment;
+import com.HMS.HMS.model.LabRequest.LabReferenceRange;
+import com.HMS.HMS.model.LabRequest.LabReferenceRange.Sex;
+import com.HMS.HMS.model.LabRequest.LabTestDefinition;
 import com.HMS.HMS.model.User.Role;
 import com.HMS.HMS.model.User.User;
 import com.HMS.HMS.model.ward.Ward;
 import com.HMS.HMS.repository.Dialysis.DialysisMachineRepository;
+import com.HMS.HMS.repository.LabEquipmentRepository;
+import com.HMS.HMS.repository.LabReferenceRangeRepository;
+import com.HMS.HMS.repository.LabTestDefinitionRepository;
 import com.HMS.HMS.repository.UserRepository;
 import com.HMS.HMS.repository.WardRepository;
 import org.springframework.boot.CommandLineRunner;
@@ -12,6 +22,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
 
 @Component
 public class DataInitializer implements CommandLineRunner {
@@ -21,15 +33,24 @@ public class DataInitializer implements CommandLineRunner {
     private final PasswordEncoder passwordEncoder;
     private final WardRepository wardRepo;
     private final DialysisMachineRepository dialysisMachineRepo;
+    private final LabReferenceRangeRepository referenceRangeRepo;
+    private final LabTestDefinitionRepository testDefinitionRepo;
+    private final LabEquipmentRepository labEquipmentRepo;
 
     public DataInitializer(UserRepository userRepo,
                           PasswordEncoder passwordEncoder,
                           WardRepository wardRepo,
-                          DialysisMachineRepository dialysisMachineRepo) {
+                          DialysisMachineRepository dialysisMachineRepo,
+                          LabReferenceRangeRepository referenceRangeRepo,
+                          LabTestDefinitionRepository testDefinitionRepo,
+                          LabEquipmentRepository labEquipmentRepo) {
         this.userRepo = userRepo;
         this.passwordEncoder = passwordEncoder;
         this.wardRepo = wardRepo;
         this.dialysisMachineRepo = dialysisMachineRepo;
+        this.referenceRangeRepo = referenceRangeRepo;
+        this.testDefinitionRepo = testDefinitionRepo;
+        this.labEquipmentRepo = labEquipmentRepo;
     }
 
     @Override
@@ -48,18 +69,22 @@ public class DataInitializer implements CommandLineRunner {
             Ward ward1 = new Ward();
             ward1.setWardName("Ward 1");
             ward1.setWardType("General");
+            ward1.setBedCount(20);
 
             Ward ward2 = new Ward();
             ward2.setWardName("Ward 2");
             ward2.setWardType("General");
+            ward2.setBedCount(20);
 
             Ward ward3 = new Ward();
             ward3.setWardName("Ward 3");
             ward3.setWardType("ICU");
+            ward3.setBedCount(10);
 
             Ward ward4 = new Ward();
             ward4.setWardName("Ward 4");
             ward4.setWardType("Dialysis");
+            ward4.setBedCount(8);
 
             wardRepo.save(ward1);
             wardRepo.save(ward2);
@@ -158,5 +183,72 @@ public class DataInitializer implements CommandLineRunner {
 
             System.out.println("Default dialysis machines created: DM-001 to DM-006 (6 active machines)");
         }
+
+        // Default adult/child reference ranges for the typed lab results (conventional units)
+        if (referenceRangeRepo.count() == 0) {
+            referenceRangeRepo.saveAll(List.of(
+                new LabReferenceRange(LabAnalyte.GLUCOSE, Sex.ANY, 0, 200, 70.0, 140.0, 40.0, 400.0),
+                new LabReferenceRange(LabAnalyte.WBC, Sex.ANY, 0, 200, 4.0, 11.0, 2.0, 30.0),
+                new LabReferenceRange(LabAnalyte.RBC, Sex.MALE, 18, 200, 4.5, 5.9, 2.0, null),
+                new LabReferenceRange(LabAnalyte.RBC, Sex.FEMALE, 18, 200, 4.1, 5.1, 2.0, null),
+                new LabReferenceRange(LabAnalyte.RBC, Sex.ANY, 0, 200, 3.9, 5.9, 2.0, null),
+                new LabReferenceRange(LabAnalyte.HEMOGLOBIN, Sex.MALE, 18, 200, 13.5, 17.5, 7.0, 20.0),
+                new LabReferenceRange(LabAnalyte.HEMOGLOBIN, Sex.FEMALE, 18, 200, 12.0, 15.5, 7.0, 20.0),
+                new LabReferenceRange(LabAnalyte.HEMOGLOBIN, Sex.ANY, 0, 18, 11.0, 16.0, 7.0, 20.0),
+                new LabReferenceRange(LabAnalyte.HEMOGLOBIN, Sex.ANY, 18, 200, 12.0, 17.5, 7.0, 20.0),
+                new LabReferenceRange(LabAnalyte.PLATELETS, Sex.ANY, 0, 200, 150.0, 450.0, 20.0, 1000.0),
+                new LabReferenceRange(LabAnalyte.URINE_SPECIFIC_GRAVITY, Sex.ANY, 0, 200, 1.003, 1.030, null, null),
+                new LabReferenceRange(LabAnalyte.URINE_PH, Sex.ANY, 0, 200, 4.6, 8.0, null, null),
+                new LabReferenceRange(LabAnalyte.TOTAL_CHOLESTEROL, Sex.ANY, 0, 200, null, 200.0, null, null),
+                new LabReferenceRange(LabAnalyte.HDL_CHOLESTEROL, Sex.FEMALE, 0, 200, 50.0, null, null, null),
+                new LabReferenceRange(LabAnalyte.HDL_CHOLESTEROL, Sex.ANY, 0, 200, 40.0, null, null, null),
+                new LabReferenceRange(LabAnalyte.LDL_CHOLESTEROL, Sex.ANY, 0, 200, null, 100.0, null, null),
+                new LabReferenceRange(LabAnalyte.TRIGLYCERIDES, Sex.ANY, 0, 200, null, 150.0, null, 1000.0)
+            ));
+
+            System.out.println("Default lab reference ranges created");
+        }
+
+        // Lab tests the results form submits; keys match the form fields and response fields
+        if (testDefinitionRepo.count() == 0) {
+            testDefinitionRepo.saveAll(List.of(
+                new LabTestDefinition("Blood Glucose", "Chemistry")
+                    .addAnalyte(new LabAnalyteDefinition("glucose", "glucoseLevel", ValueType.NUMBER, "mg/dL", LabAnalyte.GLUCOSE))
+                    .addAnalyte(new LabAnalyteDefinition("testType", "testType", ValueType.TEXT, null, null)),
+                new LabTestDefinition("Complete Blood Count", "Hematology")
+                    .addAnalyte(new LabAnalyteDefinition("wbc", "wbc", ValueType.NUMBER, "x10^3/uL", LabAnalyte.WBC))
+                    .addAnalyte(new LabAnalyteDefinition("rbc", "rbc", ValueType.NUMBER, "x10^6/uL", LabAnalyte.RBC))
+                    .addAnalyte(new LabAnalyteDefinition("hemoglobin", "hemoglobin", ValueType.NUMBER, "g/dL", LabAnalyte.HEMOGLOBIN))
+                    .addAnalyte(new LabAnalyteDefinition("platelets", "platelets", ValueType.INTEGER, "x10^3/uL", LabAnalyte.PLATELETS)),
+                new LabTestDefinition("Urine Analysis", "Urinalysis")
+                    .addAnalyte(new LabAnalyteDefinition("protein", "protein", ValueType.TEXT, null, null))
+                    .addAnalyte(new LabAnalyteDefinition("urineGlucose", "urineGlucose", ValueType.TEXT, null, null))
+                    .addAnalyte(new LabAnalyteDefinition("specificGravity", "specificGravity", ValueType.NUMBER, null, LabAnalyte.URINE_SPECIFIC_GRAVITY))
+                    .addAnalyte(new LabAnalyteDefinition("ph", "ph", ValueType.NUMBER, null, LabAnalyte.URINE_PH)),
+                new LabTestDefinition("Cholesterol Level", "Chemistry")
+                    .addAnalyte(new LabAnalyteDefinition("totalCholesterol", "totalCholesterol", ValueType.INTEGER, "mg/dL", LabAnalyte.TOTAL_CHOLESTEROL))
+                    .addAnalyte(new LabAnalyteDefinition("hdlCholesterol", "hdlCholesterol", ValueType.INTEGER, "mg/dL", LabAnalyte.HDL_CHOLESTEROL))
+                    .addAnalyte(new LabAnalyteDefinition("ldlCholesterol", "ldlCholesterol", ValueType.INTEGER, "mg/dL", LabAnalyte.LDL_CHOLESTEROL))
+                    .addAnalyte(new LabAnalyteDefinition("triglycerides", "triglycerides", ValueType.INTEGER, "mg/dL", LabAnalyte.TRIGLYCERIDES))
+            ));
+
+            System.out.println("Default lab test definitions created");
+        }
+
+        // Laboratory analysers with rated throughput (tests/hour) and the tests each can run
+        if (labEquipmentRepo.count() == 0) {
+            labEquipmentRepo.saveAll(List.of(
+                new LabEquipment("LAB-CHEM-01", "Chemistry Analyzer 1", "Chemistry Analyzer", "Main Lab - Bench 1",
+                        120, Set.of("Blood Glucose", "Cholesterol Level")),
+                new LabEquipment("LAB-CHEM-02", "Chemistry Analyzer 2", "Chemistry Analyzer", "Main Lab - Bench 1",
+                        80, Set.of("Blood Glucose", "Cholesterol Level")),
+                new LabEquipment("LAB-HEM-01", "Hematology Analyzer", "Hematology Analyzer", "Main Lab - Bench 2",
+                        60, Set.of("Complete Blood Count")),
+                new LabEquipment("LAB-URI-01", "Urine Analyzer", "Urinalysis Analyzer", "Main Lab - Bench 3",
+                        40, Set.of("Urine Analysis"))
+            ));
+
+            System.out.println("Default lab analysers created: LAB-CHEM-01, LAB-CHEM-02, LAB-HEM-01, LAB-URI-01");
+        }
     }
 }
@@ -37,6 +37,7 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList("http://localhost:5173", "http://localhost:5174", "http://localhost:5175", "http://localhost:3000"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS","PATCH"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setExposedHeaders(Arrays.asList("X-Total-Count", "X-Truncated"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -60,6 +61,9 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/update/**").hasRole("ADMIN")
                         .requestMatchers("/api/auth/delete/**").hasRole("ADMIN")
 
+                        // Bulk import of migrated records
+                        .requestMatchers("/api/import/**").hasRole("ADMIN")
+
                         // Ward and transfer endpoints
                         .requestMatchers("/api/transfers/**").permitAll()
                         .requestMatchers("/api/patients/**").permitAll()
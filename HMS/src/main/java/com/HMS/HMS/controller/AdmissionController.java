@@ -3,11 +3,13 @@ package com.HMS.HMS.controller;
 import com.HMS.HMS.DTO.AdmissionDTO.AdmissionRequestDTO;
 import com.HMS.HMS.DTO.AdmissionDTO.AdmissionResponseDTO;
 import com.HMS.HMS.service.AdmissionService;
+import com.HMS.HMS.util.FieldSelector;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -15,9 +17,11 @@ import java.util.Optional;
 public class AdmissionController {
 
     private final AdmissionService admissionService;
+    private final FieldSelector fieldSelector;
 
-    public AdmissionController(AdmissionService admissionService) {
+    public AdmissionController(AdmissionService admissionService, FieldSelector fieldSelector) {
         this.admissionService = admissionService;
+        this.fieldSelector = fieldSelector;
     }
 
     @PostMapping("/admit")
@@ -74,6 +78,20 @@ public class AdmissionController {
         return ResponseEntity.ok(admissions);
     }
 
+    // Keyset-paged list: pass nextCursor back as cursor for the next page; fields optionally
+    // names the properties to return, e.g. fields=admissionId,patientName,wardName,bedNumber
+    @GetMapping("/page")
+    public ResponseEntity<?> getAdmissionPage(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(fieldSelector.select(admissionService.getAdmissionPage(cursor, size), AdmissionResponseDTO.class, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/active")
     public ResponseEntity<List<AdmissionResponseDTO>> getActiveAdmissions() {
         List<AdmissionResponseDTO> activeAdmissions = admissionService.getActiveAdmissions();
@@ -96,6 +114,16 @@ public class AdmissionController {
         return ResponseEntity.ok(admissions);
     }
 
+    @GetMapping("/patient/{nationalId}/current")
+    public ResponseEntity<AdmissionResponseDTO> getCurrentAdmission(@PathVariable String nationalId) {
+        Optional<AdmissionResponseDTO> admission = admissionService.getCurrentAdmission(nationalId);
+        if (admission.isPresent()) {
+            return ResponseEntity.ok(admission.get());
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @GetMapping("/ward/{wardId}")
     public ResponseEntity<List<AdmissionResponseDTO>> getAdmissionsByWard(@PathVariable Long wardId) {
         List<AdmissionResponseDTO> admissions = admissionService.getAdmissionsByWard(wardId);
@@ -104,7 +132,18 @@ public class AdmissionController {
 
     @GetMapping("/ward/{wardId}/occupied-beds")
     public ResponseEntity<List<String>> getOccupiedBedsInWard(@PathVariable Long wardId) {
-        List<String> occupiedBeds = admissionService.getAvailableBedsInWard(wardId);
+        List<String> occupiedBeds = admissionService.getOccupiedBedsInWard(wardId);
         return ResponseEntity.ok(occupiedBeds);
     }
+
+    @GetMapping("/ward/{wardId}/available-beds")
+    public ResponseEntity<List<String>> getAvailableBedsInWard(@PathVariable Long wardId) {
+        List<String> availableBeds = admissionService.getAvailableBedsInWard(wardId);
+        return ResponseEntity.ok(availableBeds);
+    }
+
+    @GetMapping("/ward/{wardId}/occupancy")
+    public ResponseEntity<Map<String, Object>> getWardOccupancy(@PathVariable Long wardId) {
+        return ResponseEntity.ok(admissionService.getWardOccupancy(wardId));
+    }
 }
\ No newline at end of file
@@ -1,15 +1,19 @@
 package com.HMS.HMS.controller;
 
 import com.HMS.HMS.DTO.appoinmenetDTO.AppointmentResponse;
+import com.HMS.HMS.DTO.appoinmenetDTO.AvailableSlotResponse;
 import com.HMS.HMS.DTO.appoinmenetDTO.CreateAppointmentRequest;
 import com.HMS.HMS.model.Appointment.AppointmentStatus;
 import com.HMS.HMS.service.AppointmentService;
+import com.HMS.HMS.util.FieldSelector;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
 
 @RestController
@@ -18,9 +22,11 @@ import java.util.List;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final FieldSelector fieldSelector;
 
-    public AppointmentController(AppointmentService appointmentService) {
+    public AppointmentController(AppointmentService appointmentService, FieldSelector fieldSelector) {
         this.appointmentService = appointmentService;
+        this.fieldSelector = fieldSelector;
     }
 
     // Create a new appointment
@@ -41,6 +47,20 @@ public class AppointmentController {
         return new ResponseEntity<>(appointments, HttpStatus.OK);
     }
 
+    // Keyset-paged list: pass nextCursor back as cursor for the next page; fields optionally
+    // names the properties to return, e.g. fields=appointmentId,doctorName,appointmentDate,status
+    @GetMapping("/page")
+    public ResponseEntity<?> getAppointmentPage(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(fieldSelector.select(appointmentService.getAppointmentPage(cursor, size), AppointmentResponse.class, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     // Get appointment by ID
     @GetMapping("/{appointmentId}")
     public ResponseEntity<AppointmentResponse> getAppointmentById(@PathVariable Long appointmentId) {
@@ -83,6 +103,25 @@ public class AppointmentController {
         return new ResponseEntity<>(appointments, HttpStatus.OK);
     }
 
+    // Get free slots of a doctor on a specific date
+    @GetMapping("/doctor/{doctorId}/free-slots/{date}")
+    public ResponseEntity<List<LocalTime>> getDoctorFreeSlots(
+            @PathVariable Long doctorId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        List<LocalTime> slots = appointmentService.getFreeSlots(doctorId, date);
+        return new ResponseEntity<>(slots, HttpStatus.OK);
+    }
+
+    // Get the first free slots across doctors, optionally of one specialization
+    @GetMapping("/available-slots")
+    public ResponseEntity<List<AvailableSlotResponse>> getAvailableSlots(
+            @RequestParam(required = false) String specialization,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime after,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<AvailableSlotResponse> slots = appointmentService.findAvailableSlots(specialization, after, limit);
+        return new ResponseEntity<>(slots, HttpStatus.OK);
+    }
+
     // Get upcoming appointments for doctor
     @GetMapping("/doctor/{doctorId}/upcoming")
     public ResponseEntity<List<AppointmentResponse>> getUpcomingAppointmentsByDoctor(@PathVariable Long doctorId) {
@@ -0,0 +1,64 @@
+package com.HMS.HMS.controller;
+
+import com.HMS.HMS.DTO.ImportDTO.ImportReportDTO;
+import com.HMS.HMS.service.imports.BulkImportService;
+import com.HMS.HMS.service.imports.ImportEntity;
+import com.HMS.HMS.service.imports.ImportFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Bulk import of records migrated from another system. The request body is an NDJSON
+ * or CSV stream of patients, admissions, appointments or transfers; the response reports
+ * how many rows were imported and why the others were rejected.
+ */
+@RestController
+@RequestMapping("/api/import")
+@CrossOrigin(origins = "*")
+public class BulkImportController {
+
+    private final BulkImportService bulkImportService;
+
+    public BulkImportController(BulkImportService bulkImportService) {
+        this.bulkImportService = bulkImportService;
+    }
+
+    /**
+     * Import patients, admissions, appointments or transfers. The format is taken from
+     * the format parameter (ndjson or csv), or else from the content type.
+     */
+    @PostMapping("/{entity}")
+    public ResponseEntity<?> importRows(@PathVariable String entity,
+                                        @RequestParam(required = false) String format,
+                                        @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                        InputStream body) {
+        ImportEntity importEntity;
+        ImportFormat importFormat;
+        try {
+            importEntity = ImportEntity.of(entity);
+            importFormat = ImportFormat.of(format, contentType);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+        return ResponseEntity.ok(bulkImportService.importRows(importEntity, importFormat, body));
+    }
+
+    /**
+     * Progress of running imports and the outcome of recent ones
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<ImportReportDTO>> getJobs() {
+        return ResponseEntity.ok(bulkImportService.getJobs());
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ImportReportDTO> getJob(@PathVariable long jobId) {
+        return bulkImportService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -4,6 +4,7 @@ import com.HMS.HMS.DTO.Dialysis.DialysisSessionDTO;
 import com.HMS.HMS.model.Dialysis.DialysisSession;
 import com.HMS.HMS.service.Dialysis.DialysisSessionService;
 import com.HMS.HMS.service.Dialysis.DialysisSessionReportService;
+import com.HMS.HMS.util.FieldSelector;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
@@ -24,12 +25,15 @@ public class DialysisSessionController {
     
     private final DialysisSessionService sessionService;
     private final DialysisSessionReportService reportService;
+    private final FieldSelector fieldSelector;
 
     @Autowired
     public DialysisSessionController(DialysisSessionService sessionService,
-                                   DialysisSessionReportService reportService) {
+                                   DialysisSessionReportService reportService,
+                                   FieldSelector fieldSelector) {
         this.sessionService = sessionService;
         this.reportService = reportService;
+        this.fieldSelector = fieldSelector;
     }
     
     // Get all sessions
@@ -43,6 +47,20 @@ public class DialysisSessionController {
         }
     }
     
+    // Keyset-paged list: pass nextCursor back as cursor for the next page; fields optionally
+    // names the properties to return, e.g. fields=sessionId,patientName,scheduledDate,status
+    @GetMapping("/page")
+    public ResponseEntity<?> getSessionPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(fieldSelector.select(sessionService.getSessionPage(cursor, size), DialysisSessionDTO.class, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
     // Get session by ID
     @GetMapping("/{sessionId}")
     public ResponseEntity<DialysisSessionDTO> getSessionById(@PathVariable String sessionId) {
@@ -203,9 +221,7 @@ public class DialysisSessionController {
     public ResponseEntity<List<DialysisSessionDTO>> getSessionsByStatus(@PathVariable String status) {
         try {
             DialysisSession.SessionStatus sessionStatus = DialysisSession.SessionStatus.valueOf(status.toUpperCase());
-            List<DialysisSessionDTO> sessions = sessionService.getAllSessions().stream()
-                .filter(session -> session.getStatus() == sessionStatus)
-                .toList();
+            List<DialysisSessionDTO> sessions = sessionService.getSessionsByStatus(sessionStatus);
             return ResponseEntity.ok(sessions);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
@@ -230,7 +246,7 @@ public class DialysisSessionController {
     public ResponseEntity<Map<String, Object>> getSessionStatistics() {
         try {
             Map<String, Object> stats = Map.of(
-                "totalSessions", sessionService.getAllSessions().size(),
+                "totalSessions", sessionService.getSessionCount(),
                 "scheduledSessions", sessionService.getSessionCountByStatus(DialysisSession.SessionStatus.SCHEDULED),
                 "inProgressSessions", sessionService.getSessionCountByStatus(DialysisSession.SessionStatus.IN_PROGRESS),
                 "completedSessions", sessionService.getSessionCountByStatus(DialysisSession.SessionStatus.COMPLETED),
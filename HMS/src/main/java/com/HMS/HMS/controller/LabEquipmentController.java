@@ -0,0 +1,74 @@
+package com.HMS.HMS.controller;
+
+import com.HMS.HMS.DTO.reports.EquipmentUtilizationDTO;
+import com.HMS.HMS.model.LabRequest.LabEquipment;
+import com.HMS.HMS.service.LabEquipmentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/lab-equipment")
+@CrossOrigin(origins = "*")
+public class LabEquipmentController {
+    
+    @Autowired
+    private LabEquipmentService equipmentService;
+    
+    @GetMapping
+    public ResponseEntity<List<LabEquipment>> getEquipment() {
+        return ResponseEntity.ok(equipmentService.getEquipment());
+    }
+    
+    @PostMapping
+    public ResponseEntity<?> registerEquipment(@RequestBody LabEquipment equipment) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(equipmentService.register(equipment));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Take an analyser in or out of service; time outside ACTIVE counts as downtime
+     */
+    @PutMapping("/{equipmentId}/status")
+    public ResponseEntity<?> updateStatus(@PathVariable String equipmentId, @RequestParam LabEquipment.Status status) {
+        try {
+            return ResponseEntity.ok(equipmentService.updateStatus(equipmentId, status));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Tests in the last hour, utilization and queue depth per analyser, from memory
+     */
+    @GetMapping("/live")
+    public ResponseEntity<List<Map<String, Object>>> getLiveStatus() {
+        return ResponseEntity.ok(equipmentService.getLiveStatus());
+    }
+    
+    /**
+     * Utilization per analyser over a date range; defaults to the last 30 days
+     */
+    @GetMapping("/utilization")
+    public ResponseEntity<List<EquipmentUtilizationDTO>> getUtilization(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(30);
+        return ResponseEntity.ok(equipmentService.getUtilization(start, end));
+    }
+    
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reload() {
+        return ResponseEntity.ok(Map.of("success", true, "equipment", equipmentService.reload()));
+    }
+}
@@ -1,6 +1,7 @@
 package com.HMS.HMS.controller;
 
 import com.HMS.HMS.DTO.reports.LabAnnualReportDTO;
+import com.HMS.HMS.service.reports.LabReportRollupService;
 import com.HMS.HMS.service.reports.LabReportService;
 import com.HMS.HMS.service.reports.PDFReportGeneratorService;
 import org.slf4j.Logger;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
 
 /**
  * Controller for Laboratory Annual Report generation and management
@@ -31,6 +33,9 @@ public class LabReportController {
     
     @Autowired
     private PDFReportGeneratorService pdfReportGeneratorService;
+    
+    @Autowired
+    private LabReportRollupService labReportRollupService;
 
     /**
      * Generate Laboratory Annual Report for specified year
@@ -136,6 +141,30 @@ public class LabReportController {
         }
     }
 
+    /**
+     * Recompute the stored rollups behind a year's report
+     * POST /api/lab-reports/annual/{year}/rebuild
+     */
+    @PostMapping("/annual/{year}/rebuild")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('LAB_MANAGER')")
+    public ResponseEntity<Map<String, Object>> rebuildAnnualRollups(@PathVariable int year) {
+        try {
+            if (year < 2020 || year > LocalDateTime.now().getYear() + 1) {
+                logger.warn("Invalid year requested for rollup rebuild: {}", year);
+                return ResponseEntity.badRequest().build();
+            }
+            
+            int rows = labReportRollupService.rebuildYear(year).size();
+            logger.info("Rebuilt {} laboratory report rollups for year: {}", rows, year);
+            return ResponseEntity.ok(Map.of("success", true, "year", year, "rollups", rows));
+            
+        } catch (Exception e) {
+            logger.error("Error rebuilding laboratory report rollups for year {}: {}", year, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to rebuild rollups: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get available report years
      * GET /api/lab-reports/available-years
@@ -1,15 +1,22 @@
 package com.HMS.HMS.controller;
 
+import com.HMS.HMS.DTO.LabRequest.LabQueueItemDTO;
+import com.HMS.HMS.DTO.LabRequest.LabQueuePageDTO;
 import com.HMS.HMS.DTO.LabRequest.LabRequestDTO;
 import com.HMS.HMS.model.LabRequest.LabRequest;
 import com.HMS.HMS.model.LabRequest.LabRequestStatus;
 import com.HMS.HMS.service.LabRequestService;
+import com.HMS.HMS.service.LabSlaMonitorService;
+import com.HMS.HMS.util.FieldSelector;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -17,9 +24,18 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")
 public class LabRequestController {
     
+    private static final List<LabRequestStatus> ACTIVE_STATUSES =
+            List.of(LabRequestStatus.PENDING, LabRequestStatus.IN_PROGRESS);
+    
     @Autowired
     private LabRequestService labRequestService;
     
+    @Autowired
+    private LabSlaMonitorService slaMonitorService;
+    
+    @Autowired
+    private FieldSelector fieldSelector;
+    
     @PostMapping("/create")
     public ResponseEntity<?> createLabRequest(@RequestBody LabRequestDTO labRequestDTO) {
         try {
@@ -37,6 +53,20 @@ public class LabRequestController {
         return ResponseEntity.ok(requests);
     }
     
+    // Keyset-paged list: pass nextCursor back as cursor for the next page; fields optionally
+    // names the properties to return, e.g. fields=requestId,patientName,status,testNames
+    @GetMapping("/page")
+    public ResponseEntity<?> getLabRequestPage(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(fieldSelector.select(labRequestService.getLabRequestPage(cursor, size), LabQueueItemDTO.class, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+    
     @GetMapping("/pending")
     public ResponseEntity<List<LabRequest>> getPendingLabRequests() {
         List<LabRequest> requests = labRequestService.getPendingLabRequests();
@@ -102,4 +132,58 @@ public class LabRequestController {
         List<LabRequest> requests = labRequestService.getRecentLabRequests();
         return ResponseEntity.ok(requests);
     }
-}
\ No newline at end of file
+    
+    @GetMapping("/sla/dashboard")
+    public ResponseEntity<Map<String, Object>> getSlaDashboard(@RequestParam(defaultValue = "10") int oldest) {
+        return ResponseEntity.ok(slaMonitorService.getDashboard(Math.max(0, oldest)));
+    }
+    
+    @GetMapping("/sla/breaches")
+    public ResponseEntity<List<Map<String, Object>>> getSlaBreaches() {
+        return ResponseEntity.ok(slaMonitorService.getBreachedRequests());
+    }
+    
+    // Flat, keyset-paged queues for the lab and ward dashboards. Pass nextCursorDate and
+    // nextCursorId from a page back as cursorDate and cursorId to read the next one.
+    
+    @GetMapping("/queue")
+    public ResponseEntity<LabQueuePageDTO> getLabQueue(
+            @RequestParam(required = false) List<LabRequestStatus> status,
+            @RequestParam(required = false) String ward,
+            @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorDate,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "50") int size) {
+        List<LabRequestStatus> statuses = status != null && !status.isEmpty() ? status : ACTIVE_STATUSES;
+        return ResponseEntity.ok(labRequestService.getLabQueue(
+                statuses, ward, !"desc".equalsIgnoreCase(order), cursorDate, cursorId, size));
+    }
+    
+    @GetMapping("/queue/pending")
+    public ResponseEntity<LabQueuePageDTO> getPendingQueue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorDate,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(labRequestService.getLabQueue(
+                List.of(LabRequestStatus.PENDING), null, true, cursorDate, cursorId, size));
+    }
+    
+    @GetMapping("/queue/recent")
+    public ResponseEntity<LabQueuePageDTO> getRecentQueue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorDate,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(labRequestService.getLabQueue(
+                ACTIVE_STATUSES, null, false, cursorDate, cursorId, size));
+    }
+    
+    @GetMapping("/queue/ward/{wardName}")
+    public ResponseEntity<LabQueuePageDTO> getWardQueue(
+            @PathVariable String wardName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorDate,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "50") int size) {
+        return ResponseEntity.ok(labRequestService.getLabQueue(
+                ACTIVE_STATUSES, wardName, false, cursorDate, cursorId, size));
+    }
+}
@@ -0,0 +1,77 @@
+package com.HMS.HMS.controller;
+
+import com.HMS.HMS.model.LabRequest.LabAbnormalResult;
+import com.HMS.HMS.model.LabRequest.LabReferenceRange;
+import com.HMS.HMS.service.LabReferenceRangeService;
+import com.HMS.HMS.service.LabResultFlagService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/lab-flags")
+@CrossOrigin(origins = "*")
+public class LabResultFlagController {
+    
+    @Autowired
+    private LabResultFlagService labResultFlagService;
+    
+    @Autowired
+    private LabReferenceRangeService referenceRangeService;
+    
+    /**
+     * Abnormal result counts per ward and flag; defaults to the last 30 days
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<Map<String, Object>> getAbnormalSummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(30);
+        return ResponseEntity.ok(labResultFlagService.getAbnormalSummary(start, end));
+    }
+    
+    /**
+     * Recent abnormal results for a ward dashboard; defaults to the last 7 days
+     */
+    @GetMapping("/ward/{wardName}")
+    public ResponseEntity<List<LabAbnormalResult>> getWardAbnormalResults(
+            @PathVariable String wardName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "100") int limit) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(7);
+        return ResponseEntity.ok(labResultFlagService.getWardAbnormalResults(wardName, start, end, limit));
+    }
+    
+    @GetMapping("/patient/{patientNationalId}")
+    public ResponseEntity<List<LabAbnormalResult>> getPatientAbnormalResults(@PathVariable String patientNationalId) {
+        return ResponseEntity.ok(labResultFlagService.getPatientAbnormalResults(patientNationalId));
+    }
+    
+    @GetMapping("/ranges")
+    public ResponseEntity<List<LabReferenceRange>> getReferenceRanges() {
+        return ResponseEntity.ok(referenceRangeService.getRanges());
+    }
+    
+    /**
+     * Reload the reference ranges and re-flag all stored results against them
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        try {
+            referenceRangeService.reload();
+            return ResponseEntity.ok(labResultFlagService.rebuild());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to rebuild lab flags: " + e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.HMS.HMS.controller;
+
+import com.HMS.HMS.service.LabTestDefinitionRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/lab-test-definitions")
+@CrossOrigin(origins = "*")
+public class LabTestDefinitionController {
+    
+    @Autowired
+    private LabTestDefinitionRegistry definitionRegistry;
+    
+    /**
+     * Lab tests and the analytes each one reports, for building result forms
+     */
+    @GetMapping
+    public ResponseEntity<List<LabTestDefinitionRegistry.TestSpec>> getDefinitions() {
+        return ResponseEntity.ok(definitionRegistry.getTests());
+    }
+    
+    @GetMapping("/{testName}")
+    public ResponseEntity<LabTestDefinitionRegistry.TestSpec> getDefinition(@PathVariable String testName) {
+        LabTestDefinitionRegistry.TestSpec test = definitionRegistry.getTest(testName);
+        return test != null ? ResponseEntity.ok(test) : ResponseEntity.notFound().build();
+    }
+    
+    /**
+     * Re-read the definitions after tests or analytes were added
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<Map<String, Object>> reload() {
+        int tests = definitionRegistry.reload();
+        return ResponseEntity.ok(Map.of("success", true, "tests", tests));
+    }
+}
@@ -3,7 +3,11 @@ package com.HMS.HMS.controller;
 import com.HMS.HMS.DTO.CommonResponseDTO;
 import com.HMS.HMS.DTO.PatientDTO.PatientRequestDTO;
 import com.HMS.HMS.DTO.PatientDTO.PatientResponseDTO;
+import com.HMS.HMS.DTO.PatientDTO.PatientSearchResultDTO;
 import com.HMS.HMS.service.PatientService;
+import com.HMS.HMS.util.FieldSelector;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,9 +18,11 @@ import java.util.List;
 public class PatientController {
 
     private final PatientService patientService;
+    private final FieldSelector fieldSelector;
 
-    public PatientController(PatientService patientService) {
+    public PatientController(PatientService patientService, FieldSelector fieldSelector) {
         this.patientService = patientService;
+        this.fieldSelector = fieldSelector;
     }
 
     @PostMapping("/register")
@@ -39,6 +45,20 @@ public class PatientController {
         }
     }
 
+    // Keyset-paged list: pass nextCursor back as cursor for the next page; fields optionally
+    // names the properties to return, e.g. fields=nationalId,firstName,lastName
+    @GetMapping("/page")
+    public ResponseEntity<?> getPatientPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(fieldSelector.select(patientService.getPatientPage(cursor, size), PatientResponseDTO.class, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{nationalId}")
     public ResponseEntity<PatientResponseDTO> getPatientByNationalId(@PathVariable String nationalId){
         try{
@@ -59,6 +79,21 @@ public class PatientController {
         }
     }
 
+    @GetMapping("/search/index")
+    public ResponseEntity<Page<PatientSearchResultDTO>> searchPatientIndex(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size){
+        try{
+            Page<PatientSearchResultDTO> results = patientService.searchPatients(q, PageRequest.of(page, size));
+            return ResponseEntity.ok(results);
+        }catch (IllegalArgumentException e){
+            return ResponseEntity.badRequest().build();
+        }catch (Exception e){
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/search/firstname")
     public ResponseEntity<List<PatientResponseDTO>> searchPatientsByFirstName(@RequestParam String firstName){
         try{
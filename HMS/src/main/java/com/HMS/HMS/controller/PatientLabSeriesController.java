@@ -0,0 +1,56 @@
+package com.HMS.HMS.controller;
+
+import com.HMS.HMS.model.LabRequest.LabAnalyte;
+import com.HMS.HMS.service.PatientLabSeriesService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/lab-series")
+@CrossOrigin(origins = "*")
+public class PatientLabSeriesController {
+    
+    @Autowired
+    private PatientLabSeriesService labSeriesService;
+    
+    /**
+     * Analytes recorded for a patient with their latest value
+     */
+    @GetMapping("/patient/{patientNationalId}")
+    public ResponseEntity<List<Map<String, Object>>> getPatientSummary(@PathVariable String patientNationalId) {
+        return ResponseEntity.ok(labSeriesService.getPatientSummary(patientNationalId));
+    }
+    
+    /**
+     * Trend of one analyte for a patient, downsampled to at most maxPoints points
+     */
+    @GetMapping("/patient/{patientNationalId}/{analyte}")
+    public ResponseEntity<Map<String, Object>> getSeries(
+            @PathVariable String patientNationalId,
+            @PathVariable LabAnalyte analyte,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "200") int maxPoints) {
+        return ResponseEntity.ok(labSeriesService.getSeries(patientNationalId, analyte, from, to, maxPoints));
+    }
+    
+    /**
+     * Rebuild all series from the stored test results
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<Map<String, Object>> backfill() {
+        try {
+            return ResponseEntity.ok(labSeriesService.backfill());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to backfill lab series: " + e.getMessage()));
+        }
+    }
+}
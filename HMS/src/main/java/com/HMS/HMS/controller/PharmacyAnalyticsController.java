@@ -2,6 +2,7 @@ package com.HMS.HMS.controller;
 
 import com.HMS.HMS.DTO.PharmacyAnalyticsDTO.PharmacyAnalyticsDTO;
 import com.HMS.HMS.service.PharmacyAnalyticsService;
+import com.HMS.HMS.service.PharmacyService.PharmacyRevenueService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -213,6 +214,33 @@ public class PharmacyAnalyticsController {
         }
     }
 
+    /**
+     * Rebuild the precomputed dispensing rollups for a year
+     */
+    @PostMapping("/annual/rollups/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildDispenseRollups(
+            @RequestParam int year) {
+        try {
+            int rows = analyticsService.rebuildDispenseRollups(year);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "Dispensing rollups rebuilt successfully");
+            response.put("rows", rows);
+            response.put("year", year);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Failed to rebuild dispensing rollups: " + e.getMessage());
+            errorResponse.put("error", e.getClass().getSimpleName());
+            
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+
     /**
      * Get prescription analytics only
      */
@@ -292,14 +320,15 @@ public class PharmacyAnalyticsController {
      */
     @GetMapping("/revenue")
     public ResponseEntity<Map<String, Object>> getRevenueAnalytics(
-            @RequestParam(defaultValue = "7d") String period) {
+            @RequestParam(defaultValue = "7d") String period,
+            @RequestParam(defaultValue = "DAY") String granularity) {
         try {
-            PharmacyAnalyticsDTO analytics = analyticsService.getPharmacyAnalytics(period);
+            PharmacyRevenueService.Granularity bucket = PharmacyRevenueService.Granularity.valueOf(granularity.toUpperCase());
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "Revenue analytics retrieved successfully");
-            response.put("data", analytics.getRevenueAnalytics());
+            response.put("data", analyticsService.getRevenueAnalytics(period, bucket));
             
             return ResponseEntity.ok(response);
             
@@ -4,6 +4,7 @@ import com.HMS.HMS.DTO.PharmacyDTO.MedicineDispenseRequestDTO;
 import com.HMS.HMS.DTO.PharmacyDTO.MedicineDispenseResponseDTO;
 import com.HMS.HMS.model.Pharmacy.MedicineDispenseRequest;
 import com.HMS.HMS.service.PharmacyService.MedicineDispenseService;
+import com.HMS.HMS.service.PharmacyService.PharmacyWorkQueueService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -11,6 +12,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -25,6 +27,9 @@ public class PharmacyDispenseController {
     @Autowired
     private MedicineDispenseService medicineDispenseService;
 
+    @Autowired
+    private PharmacyWorkQueueService workQueueService;
+
     // Create new dispense request
     @PostMapping("/request")
     public ResponseEntity<?> createDispenseRequest(@RequestBody MedicineDispenseRequestDTO requestDTO) {
@@ -264,6 +269,80 @@ public class PharmacyDispenseController {
         }
     }
 
+    // Get the live pharmacy work queue (dispense requests and active prescriptions) in priority order
+    @GetMapping("/queue")
+    public ResponseEntity<?> getWorkQueue(
+            @RequestParam(required = false) String ward,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            PharmacyWorkQueueService.WorkType workType = type != null ?
+                PharmacyWorkQueueService.WorkType.valueOf(type) : null;
+
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", workQueueService.getQueue(ward, workType, limit),
+                "summary", workQueueService.getQueueSummary()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
+                "success", false,
+                "message", "Error retrieving work queue: " + e.getMessage()
+            ));
+        }
+    }
+
+    // Claim a work queue item for the signed-in pharmacist
+    @PostMapping("/queue/{key}/claim")
+    public ResponseEntity<?> claimWorkItem(@PathVariable String key, Authentication authentication) {
+        Optional<PharmacyWorkQueueService.WorkItem> claimed = workQueueService.claim(key, authentication.getName());
+        if (claimed.isPresent()) {
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Work item claimed",
+                "data", claimed.get()
+            ));
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+            "success", false,
+            "message", "Work item " + key + " is not open or is claimed by another pharmacist"
+        ));
+    }
+
+    // Claim the highest-priority unclaimed work queue item for the signed-in pharmacist
+    @PostMapping("/queue/claim-next")
+    public ResponseEntity<?> claimNextWorkItem(@RequestBody(required = false) Map<String, String> claimData,
+                                               Authentication authentication) {
+        String ward = claimData != null ? claimData.get("ward") : null;
+        Optional<PharmacyWorkQueueService.WorkItem> claimed = workQueueService.claimNext(authentication.getName(), ward);
+        if (claimed.isPresent()) {
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Work item claimed",
+                "data", claimed.get()
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+            "success", false,
+            "message", "No unclaimed work items"
+        ));
+    }
+
+    // Release a work queue item claimed by the signed-in pharmacist
+    @PostMapping("/queue/{key}/release")
+    public ResponseEntity<?> releaseWorkItem(@PathVariable String key, Authentication authentication) {
+        if (workQueueService.release(key, authentication.getName())) {
+            return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Work item released"
+            ));
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+            "success", false,
+            "message", "Work item " + key + " is not claimed by this pharmacist"
+        ));
+    }
+
     // Get request details by ID
     @GetMapping("/{requestId}")
     public ResponseEntity<?> getRequestDetails(@PathVariable Long requestId) {
@@ -730,6 +730,20 @@ public class PrescriptionController {
         }
     }
 
+    /**
+     * Check drug interactions across all open prescriptions of a patient
+     */
+    @GetMapping("/patient/{nationalId}/interactions")
+    public ResponseEntity<ApiResponse<List<Map<String, Object>>>> checkPatientDrugInteractions(@PathVariable String nationalId) {
+        try {
+            List<Map<String, Object>> interactions = prescriptionService.checkPatientDrugInteractions(nationalId);
+            return ResponseEntity.ok(ApiResponse.success("Drug interactions checked successfully", interactions));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Failed to check drug interactions: " + e.getMessage()));
+        }
+    }
+
     /**
      * Get prescriptions by status for pharmacy dashboard (non-paginated)
      */
@@ -1,9 +1,12 @@
 package com.HMS.HMS.controller;
 
+import com.HMS.HMS.DTO.LabRequest.TestResultBatchDTO;
 import com.HMS.HMS.DTO.LabRequest.TestResultSubmissionDTO;
 import com.HMS.HMS.DTO.LabRequest.TestResultResponseDTO;
 import com.HMS.HMS.service.TestResultService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -41,6 +44,29 @@ public class TestResultController {
         }
     }
     
+    /**
+     * Save test results for many lab requests in one call. Invalid submissions are listed
+     * under "rejected"; the call only fails outright when nothing could be saved.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> saveTestResultsBatch(@RequestBody TestResultBatchDTO batchDTO) {
+        try {
+            Map<String, Object> response = testResultService.saveTestResultsBatch(batchDTO);
+            
+            if ((Integer) response.get("totalRequests") > 0 || (Boolean) response.get("success")) {
+                return ResponseEntity.ok(response);
+            } else {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+            }
+        } catch (Exception e) {
+            Map<String, Object> errorResponse = Map.of(
+                "success", false,
+                "message", "Failed to save test results: " + e.getMessage()
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
+        }
+    }
+    
     /**
      * Get test results by patient national ID
      */
@@ -84,12 +110,50 @@ public class TestResultController {
     }
     
     /**
-     * Get ALL test results in the system
+     * Get the most recent test results in the system, up to limit (at most 5000). X-Total-Count
+     * carries the number of results in the system and X-Truncated is true when the list was
+     * cut short; page through every result with /page.
      */
     @GetMapping("/all")
-    public ResponseEntity<List<TestResultResponseDTO>> getAllTestResults() {
+    public ResponseEntity<List<TestResultResponseDTO>> getAllTestResults(
+            @RequestParam(defaultValue = "5000") int limit) {
+        try {
+            Page<TestResultResponseDTO> results = testResultService.getAllTestResults(limit);
+            return ResponseEntity.ok()
+                    .header("X-Total-Count", String.valueOf(results.getTotalElements()))
+                    .header("X-Truncated", String.valueOf(results.hasNext()))
+                    .body(results.getContent());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+    
+    /**
+     * Get one page of test results, most recent first
+     */
+    @GetMapping("/page")
+    public ResponseEntity<Page<TestResultResponseDTO>> getTestResultsPage(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        try {
+            Page<TestResultResponseDTO> results = testResultService.getTestResults(PageRequest.of(page, Math.min(size, 500)));
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
+        }
+    }
+    
+    /**
+     * Get one page of a patient's test results, most recent first
+     */
+    @GetMapping("/patient/{patientNationalId}/page")
+    public ResponseEntity<Page<TestResultResponseDTO>> getTestResultsByPatientPage(
+            @PathVariable String patientNationalId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
         try {
-            List<TestResultResponseDTO> results = testResultService.getAllTestResults();
+            Page<TestResultResponseDTO> results = testResultService.getTestResultsByPatient(
+                    patientNationalId, PageRequest.of(page, Math.min(size, 500)));
             return ResponseEntity.ok(results);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
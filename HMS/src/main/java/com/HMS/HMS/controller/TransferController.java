@@ -1,21 +1,32 @@
 package com.HMS.HMS.controller;
 
 import com.HMS.HMS.DTO.transferDTO.TransferRequestDTO;
+import com.HMS.HMS.DTO.transferDTO.TransferFlowMatrixDTO;
 import com.HMS.HMS.DTO.transferDTO.TransferResponseDTO;
+import com.HMS.HMS.DTO.transferDTO.WardTransferSummaryDTO;
+import com.HMS.HMS.service.TransferFlowService;
 import com.HMS.HMS.service.TransferService;
+import com.HMS.HMS.util.FieldSelector;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/transfers")
 public class TransferController {
     private final TransferService transferService;
+    private final TransferFlowService transferFlowService;
+    private final FieldSelector fieldSelector;
 
-    public TransferController(TransferService transferService) {
+    public TransferController(TransferService transferService, TransferFlowService transferFlowService,
+                              FieldSelector fieldSelector) {
         this.transferService = transferService;
+        this.transferFlowService = transferFlowService;
+        this.fieldSelector = fieldSelector;
     }
 
     @PostMapping("/instant")
@@ -45,9 +56,55 @@ public class TransferController {
         return ResponseEntity.ok(transfers);
     }
 
+    /**
+     * Ward-to-ward transfer counts between two dates, inclusive
+     */
+    @GetMapping("/flows")
+    public ResponseEntity<?> getFlowMatrix(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            TransferFlowMatrixDTO matrix = transferFlowService.getFlowMatrix(startDate, endDate);
+            return ResponseEntity.ok(matrix);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Transfers into and out of a ward between two dates, with the median and 90th
+     * percentile hours before transfer out
+     */
+    @GetMapping("/flows/ward/{wardId}")
+    public ResponseEntity<?> getWardTransferSummary(
+            @PathVariable Long wardId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            WardTransferSummaryDTO summary = transferFlowService.getWardSummary(wardId, startDate, endDate);
+            return ResponseEntity.ok(summary);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/all")
     public ResponseEntity<List<TransferResponseDTO>> getAllTransfers(){
         List<TransferResponseDTO> transfers = transferService.getAllTransfers();
         return ResponseEntity.ok(transfers);
     }
+
+    // Keyset-paged list: pass nextCursor back as cursor for the next page; fields optionally
+    // names the properties to return, e.g. fields=transferId,patientName,fromWardName,toWardName
+    @GetMapping("/page")
+    public ResponseEntity<?> getTransferPage(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String fields) {
+        try {
+            return ResponseEntity.ok(fieldSelector.select(transferService.getTransferPage(cursor, size), TransferResponseDTO.class, fields));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
 }
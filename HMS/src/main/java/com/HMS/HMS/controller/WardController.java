@@ -3,9 +3,7 @@ package com.HMS.HMS.controller;
 import com.HMS.HMS.DTO.WardDTO.BasicWardDTO;
 import com.HMS.HMS.service.WardService;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
@@ -23,4 +21,13 @@ public class WardController {
     public ResponseEntity<List<BasicWardDTO>> getAllWards(){
         return ResponseEntity.ok(wardService.getAllWards());
     }
+
+    @PutMapping("/{wardId}/bed-count")
+    public ResponseEntity<?> updateBedCount(@PathVariable Long wardId, @RequestParam int bedCount) {
+        try {
+            return ResponseEntity.ok(wardService.updateBedCount(wardId, bedCount));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
+    }
 }
@@ -1,13 +1,16 @@
 package com.HMS.HMS.controller.reports;
 
+import com.HMS.HMS.DTO.reports.WardCensusSummaryDTO;
 import com.HMS.HMS.DTO.reports.WardStatisticsReportDTO;
 import com.HMS.HMS.DTO.reports.HospitalWideStatisticsDTO;
 import com.HMS.HMS.service.reports.WardStatisticsService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.Year;
 import java.util.HashMap;
 import java.util.Map;
@@ -148,6 +151,25 @@ public class WardStatisticsController {
         }
     }
 
+    /**
+     * Get occupancy, movements and length of stay for a ward over a date range from the
+     * daily ward census
+     */
+    @GetMapping("/ward/{wardName}/census")
+    public ResponseEntity<?> getWardCensus(
+            @PathVariable String wardName,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            WardCensusSummaryDTO census = wardStatisticsService.getCensusSummary(wardName, startDate, endDate);
+            return ResponseEntity.ok(census);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     /**
      * Get quick stats for dashboard display
      */
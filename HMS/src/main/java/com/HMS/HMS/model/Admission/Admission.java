@@ -13,6 +13,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_admission_ward_active_bed",
+        columnNames = {"ward_id", "active_bed_number"}),
+        indexes = {
+            @Index(name = "idx_admission_patient_status", columnList = "patient_national_id, status"),
+            @Index(name = "idx_admission_ward_status", columnList = "ward_id, status")
+        })
 public class Admission {
 
     @Id
@@ -32,6 +38,11 @@ public class Admission {
     @Column(nullable = false)
     private String bedNumber;
 
+    // Copy of bedNumber while the admission is ACTIVE, null otherwise, so the unique
+    // constraint allows one active admission per bed
+    @Column(name = "active_bed_number")
+    private String activeBedNumber;
+
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime admissionDate;
@@ -51,6 +62,7 @@ public class Admission {
         this.patient = patient;
         this.ward = ward;
         this.bedNumber = bedNumber;
+        syncActiveBedNumber();
     }
 
     public Admission(Long admissionId, Patient patient, Ward ward, String bedNumber, LocalDateTime admissionDate, LocalDateTime dischargeDate, AdmissionStatus status) {
@@ -61,6 +73,7 @@ public class Admission {
         this.admissionDate = admissionDate;
         this.dischargeDate = dischargeDate;
         this.status = status;
+        syncActiveBedNumber();
     }
 
     // Getters and Setters
@@ -94,6 +107,11 @@ public class Admission {
 
     public void setBedNumber(String bedNumber) {
         this.bedNumber = bedNumber;
+        syncActiveBedNumber();
+    }
+
+    public String getActiveBedNumber() {
+        return activeBedNumber;
     }
 
     public LocalDateTime getAdmissionDate() {
@@ -118,6 +136,7 @@ public class Admission {
 
     public void setStatus(AdmissionStatus status) {
         this.status = status;
+        syncActiveBedNumber();
     }
 
     public List<Prescription> getPrescriptions() {
@@ -137,4 +156,8 @@ public class Admission {
         prescriptions.remove(prescription);
         prescription.setAdmission(null);
     }
+
+    private void syncActiveBedNumber() {
+        this.activeBedNumber = status == AdmissionStatus.ACTIVE ? bedNumber : null;
+    }
 }
\ No newline at end of file
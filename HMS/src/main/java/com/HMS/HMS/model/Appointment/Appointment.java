@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", uniqueConstraints = @UniqueConstraint(name = "uk_appointment_doctor_slot",
+        columnNames = {"doctor_employee_id", "appointment_date", "booked_slot"}))
 public class Appointment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -32,6 +33,11 @@ public class Appointment {
     @Column(nullable = false)
     private LocalTime appointmentTime;
 
+    // Start of the calendar slot the appointment holds, null once cancelled, so the
+    // unique constraint allows one live appointment per doctor slot
+    @Column(name = "booked_slot")
+    private LocalTime bookedSlot;
+
     @Enumerated(EnumType.STRING)
     private AppointmentStatus status = AppointmentStatus.SCHEDULED;
 
@@ -93,6 +99,14 @@ public class Appointment {
         this.appointmentTime = appointmentTime;
     }
 
+    public LocalTime getBookedSlot() {
+        return bookedSlot;
+    }
+
+    public void setBookedSlot(LocalTime bookedSlot) {
+        this.bookedSlot = bookedSlot;
+    }
+
     public AppointmentStatus getStatus() {
         return status;
     }
@@ -6,7 +6,9 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
-@Table(name = "dialysis_session")
+@Table(name = "dialysis_session", indexes = {
+    @Index(name = "idx_dialysis_session_date_id", columnList = "scheduled_date, session_id")
+})
 public class DialysisSession {
     
     @Id
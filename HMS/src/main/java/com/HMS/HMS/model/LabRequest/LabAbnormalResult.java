@@ -0,0 +1,101 @@
+package com.HMS.HMS.model.LabRequest;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Index entry for one analyte value that fell outside its reference range. Only
+ * non-normal values are stored, so abnormal counts by ward and day are read from
+ * this table without touching test_results or the typed result tables.
+ */
+@Entity
+@Table(name = "lab_abnormal_results",
+    uniqueConstraints = @UniqueConstraint(name = "uk_lab_abnormal_result_analyte",
+        columnNames = {"test_result_id", "analyte"}),
+    indexes = {
+        @Index(name = "idx_lab_abnormal_ward_date", columnList = "ward_name, result_date"),
+        @Index(name = "idx_lab_abnormal_date_flag", columnList = "result_date, flag"),
+        @Index(name = "idx_lab_abnormal_patient", columnList = "patient_national_id")
+    })
+public class LabAbnormalResult {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "test_result_id", nullable = false)
+    private Long testResultId;
+
+    @Column(name = "request_id")
+    private String requestId;
+
+    @Column(name = "patient_national_id", nullable = false)
+    private String patientNationalId;
+
+    @Column(name = "ward_name")
+    private String wardName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "analyte", nullable = false, length = 40)
+    private LabAnalyte analyte;
+
+    @Column(name = "value", nullable = false)
+    private Double value;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "flag", nullable = false, length = 10)
+    private LabResultFlag flag;
+
+    @Column(name = "result_date", nullable = false)
+    private LocalDate resultDate;
+
+    @Column(name = "completed_at", nullable = false)
+    private LocalDateTime completedAt;
+
+    public LabAbnormalResult() {}
+
+    public LabAbnormalResult(TestResult testResult, LabAnalyte analyte, Double value, LabResultFlag flag) {
+        this.testResultId = testResult.getId();
+        this.requestId = testResult.getRequestId();
+        this.patientNationalId = testResult.getPatientNationalId();
+        this.wardName = testResult.getWardName();
+        this.analyte = analyte;
+        this.value = value;
+        this.flag = flag;
+        this.completedAt = testResult.getCompletedAt();
+        this.resultDate = testResult.getCompletedAt().toLocalDate();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getTestResultId() { return testResultId; }
+    public void setTestResultId(Long testResultId) { this.testResultId = testResultId; }
+
+    public String getRequestId() { return requestId; }
+    public void setRequestId(String requestId) { this.requestId = requestId; }
+
+    public String getPatientNationalId() { return patientNationalId; }
+    public void setPatientNationalId(String patientNationalId) { this.patientNationalId = patientNationalId; }
+
+    public String getWardName() { return wardName; }
+    public void setWardName(String wardName) { this.wardName = wardName; }
+
+    public LabAnalyte getAnalyte() { return analyte; }
+    public void setAnalyte(LabAnalyte analyte) { this.analyte = analyte; }
+
+    public Double getValue() { return value; }
+    public void setValue(Double value) { this.value = value; }
+
+    public LabResultFlag getFlag() { return flag; }
+    public void setFlag(LabResultFlag flag) { this.flag = flag; }
+
+    public LocalDate getResultDate() { return resultDate; }
+    public void setResultDate(LocalDate resultDate) { this.resultDate = resultDate; }
+
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
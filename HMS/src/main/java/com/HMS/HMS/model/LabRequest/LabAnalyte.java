@@ -0,0 +1,41 @@
+package com.HMS.HMS.model.LabRequest;
+
+/**
+ * Numeric values reported by the typed lab results, tracked per patient over time.
+ * testName matches TestResult.testName for the test that reports the value.
+ */
+public enum LabAnalyte {
+    GLUCOSE("Blood Glucose", "Glucose", "mg/dL"),
+    WBC("Complete Blood Count", "White Blood Cells", "x10^3/uL"),
+    RBC("Complete Blood Count", "Red Blood Cells", "x10^6/uL"),
+    HEMOGLOBIN("Complete Blood Count", "Hemoglobin", "g/dL"),
+    PLATELETS("Complete Blood Count", "Platelets", "x10^3/uL"),
+    URINE_SPECIFIC_GRAVITY("Urine Analysis", "Specific Gravity", ""),
+    URINE_PH("Urine Analysis", "Urine pH", ""),
+    TOTAL_CHOLESTEROL("Cholesterol Level", "Total Cholesterol", "mg/dL"),
+    HDL_CHOLESTEROL("Cholesterol Level", "HDL Cholesterol", "mg/dL"),
+    LDL_CHOLESTEROL("Cholesterol Level", "LDL Cholesterol", "mg/dL"),
+    TRIGLYCERIDES("Cholesterol Level", "Triglycerides", "mg/dL");
+
+    private final String testName;
+    private final String displayName;
+    private final String unit;
+
+    LabAnalyte(String testName, String displayName, String unit) {
+        this.testName = testName;
+        this.displayName = displayName;
+        this.unit = unit;
+    }
+
+    public String getTestName() {
+        return testName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+}
@@ -0,0 +1,85 @@
+package com.HMS.HMS.model.LabRequest;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+/**
+ * One value reported by a lab test. inputKey is the field name in result submissions
+ * (e.g. "glucose"), resultKey the field name in result responses (e.g. "glucoseLevel").
+ * trackedAnalyte links numeric values into the patient trend series and reference
+ * range flagging; values without one are stored and returned only.
+ */
+@Entity
+@Table(name = "lab_analyte_definitions",
+    uniqueConstraints = @UniqueConstraint(name = "uk_lab_analyte_definition_key",
+        columnNames = {"test_definition_id", "input_key"}))
+public class LabAnalyteDefinition {
+
+    public enum ValueType {
+        NUMBER, INTEGER, TEXT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "test_definition_id", nullable = false)
+    @JsonIgnore
+    private LabTestDefinition testDefinition;
+
+    @Column(name = "input_key", nullable = false, length = 60)
+    private String inputKey;
+
+    @Column(name = "result_key", nullable = false, length = 60)
+    private String resultKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "value_type", nullable = false, length = 10)
+    private ValueType valueType = ValueType.NUMBER;
+
+    @Column(name = "unit", length = 20)
+    private String unit;
+
+    @Column(name = "display_order", nullable = false)
+    private Integer displayOrder = 0;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tracked_analyte", length = 40)
+    private LabAnalyte trackedAnalyte;
+
+    public LabAnalyteDefinition() {}
+
+    public LabAnalyteDefinition(String inputKey, String resultKey, ValueType valueType, String unit, LabAnalyte trackedAnalyte) {
+        this.inputKey = inputKey;
+        this.resultKey = resultKey;
+        this.valueType = valueType;
+        this.unit = unit;
+        this.trackedAnalyte = trackedAnalyte;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LabTestDefinition getTestDefinition() { return testDefinition; }
+    public void setTestDefinition(LabTestDefinition testDefinition) { this.testDefinition = testDefinition; }
+
+    public String getInputKey() { return inputKey; }
+    public void setInputKey(String inputKey) { this.inputKey = inputKey; }
+
+    public String getResultKey() { return resultKey; }
+    public void setResultKey(String resultKey) { this.resultKey = resultKey; }
+
+    public ValueType getValueType() { return valueType; }
+    public void setValueType(ValueType valueType) { this.valueType = valueType; }
+
+    public String getUnit() { return unit; }
+    public void setUnit(String unit) { this.unit = unit; }
+
+    public Integer getDisplayOrder() { return displayOrder; }
+    public void setDisplayOrder(Integer displayOrder) { this.displayOrder = displayOrder; }
+
+    public LabAnalyte getTrackedAnalyte() { return trackedAnalyte; }
+    public void setTrackedAnalyte(LabAnalyte trackedAnalyte) { this.trackedAnalyte = trackedAnalyte; }
+}
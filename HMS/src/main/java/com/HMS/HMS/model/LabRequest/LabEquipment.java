@@ -0,0 +1,94 @@
+package com.HMS.HMS.model.LabRequest;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A laboratory analyser and the tests it can run. capacityPerHour is the rated
+ * throughput used as the denominator for utilization.
+ */
+@Entity
+@Table(name = "lab_equipment",
+    uniqueConstraints = @UniqueConstraint(name = "uk_lab_equipment_code", columnNames = "equipment_id"))
+public class LabEquipment {
+
+    public enum Status {
+        ACTIVE, MAINTENANCE, OFFLINE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "equipment_id", nullable = false, length = 50)
+    private String equipmentId;
+
+    @Column(name = "equipment_name", nullable = false)
+    private String equipmentName;
+
+    @Column(name = "equipment_type", nullable = false, length = 100)
+    private String equipmentType;
+
+    @Column(name = "location")
+    private String location;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status = Status.ACTIVE;
+
+    @Column(name = "capacity_per_hour", nullable = false)
+    private Integer capacityPerHour;
+
+    @Column(name = "installed_on")
+    private LocalDate installedOn;
+
+    // TestResult.testName values this analyser can run
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "lab_equipment_tests", joinColumns = @JoinColumn(name = "lab_equipment_id"))
+    @Column(name = "test_name", nullable = false)
+    private Set<String> testNames = new LinkedHashSet<>();
+
+    public LabEquipment() {}
+
+    public LabEquipment(String equipmentId, String equipmentName, String equipmentType, String location,
+                        Integer capacityPerHour, Set<String> testNames) {
+        this.equipmentId = equipmentId;
+        this.equipmentName = equipmentName;
+        this.equipmentType = equipmentType;
+        this.location = location;
+        this.capacityPerHour = capacityPerHour;
+        this.testNames = new LinkedHashSet<>(testNames);
+        this.installedOn = LocalDate.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getEquipmentId() { return equipmentId; }
+    public void setEquipmentId(String equipmentId) { this.equipmentId = equipmentId; }
+
+    public String getEquipmentName() { return equipmentName; }
+    public void setEquipmentName(String equipmentName) { this.equipmentName = equipmentName; }
+
+    public String getEquipmentType() { return equipmentType; }
+    public void setEquipmentType(String equipmentType) { this.equipmentType = equipmentType; }
+
+    public String getLocation() { return location; }
+    public void setLocation(String location) { this.location = location; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public Integer getCapacityPerHour() { return capacityPerHour; }
+    public void setCapacityPerHour(Integer capacityPerHour) { this.capacityPerHour = capacityPerHour; }
+
+    public LocalDate getInstalledOn() { return installedOn; }
+    public void setInstalledOn(LocalDate installedOn) { this.installedOn = installedOn; }
+
+    public Set<String> getTestNames() { return testNames; }
+    public void setTestNames(Set<String> testNames) { this.testNames = testNames; }
+}
@@ -0,0 +1,99 @@
+package com.HMS.HMS.model.LabRequest;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Hourly usage of one analyser, accumulated from the in-memory counters in
+ * LabEquipmentService. Queue depth is sampled at each flush, so the average is
+ * queueDepthSum / queueSamples.
+ */
+@Entity
+@Table(name = "lab_equipment_usage",
+    uniqueConstraints = @UniqueConstraint(name = "uk_lab_equipment_usage_hour",
+        columnNames = {"equipment_id", "period_date", "period_hour"}),
+    indexes = @Index(name = "idx_lab_equipment_usage_date", columnList = "period_date"))
+public class LabEquipmentUsage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "equipment_id", nullable = false, length = 50)
+    private String equipmentId;
+
+    @Column(name = "period_date", nullable = false)
+    private LocalDate periodDate;
+
+    // 0-23
+    @Column(name = "period_hour", nullable = false)
+    private Integer periodHour;
+
+    @Column(name = "tests_processed", nullable = false)
+    private Long testsProcessed = 0L;
+
+    @Column(name = "queue_depth_sum", nullable = false)
+    private Long queueDepthSum = 0L;
+
+    @Column(name = "queue_samples", nullable = false)
+    private Long queueSamples = 0L;
+
+    @Column(name = "queue_depth_max", nullable = false)
+    private Integer queueDepthMax = 0;
+
+    // Minutes of the hour the analyser was not ACTIVE
+    @Column(name = "down_minutes", nullable = false)
+    private Long downMinutes = 0L;
+
+    @Column(name = "maintenance_events", nullable = false)
+    private Integer maintenanceEvents = 0;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public LabEquipmentUsage() {}
+
+    public LabEquipmentUsage(String equipmentId, LocalDate periodDate, Integer periodHour) {
+        this.equipmentId = equipmentId;
+        this.periodDate = periodDate;
+        this.periodHour = periodHour;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getEquipmentId() { return equipmentId; }
+    public void setEquipmentId(String equipmentId) { this.equipmentId = equipmentId; }
+
+    public LocalDate getPeriodDate() { return periodDate; }
+    public void setPeriodDate(LocalDate periodDate) { this.periodDate = periodDate; }
+
+    public Integer getPeriodHour() { return periodHour; }
+    public void setPeriodHour(Integer periodHour) { this.periodHour = periodHour; }
+
+    public Long getTestsProcessed() { return testsProcessed; }
+    public void setTestsProcessed(Long testsProcessed) { this.testsProcessed = testsProcessed; }
+
+    public Long getQueueDepthSum() { return queueDepthSum; }
+    public void setQueueDepthSum(Long queueDepthSum) { this.queueDepthSum = queueDepthSum; }
+
+    public Long getQueueSamples() { return queueSamples; }
+    public void setQueueSamples(Long queueSamples) { this.queueSamples = queueSamples; }
+
+    public Integer getQueueDepthMax() { return queueDepthMax; }
+    public void setQueueDepthMax(Integer queueDepthMax) { this.queueDepthMax = queueDepthMax; }
+
+    public Long getDownMinutes() { return downMinutes; }
+    public void setDownMinutes(Long downMinutes) { this.downMinutes = downMinutes; }
+
+    public Integer getMaintenanceEvents() { return maintenanceEvents; }
+    public void setMaintenanceEvents(Integer maintenanceEvents) { this.maintenanceEvents = maintenanceEvents; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
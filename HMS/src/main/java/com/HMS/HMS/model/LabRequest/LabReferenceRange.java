@@ -0,0 +1,91 @@
+package com.HMS.HMS.model.LabRequest;
+
+import jakarta.persistence.*;
+
+/**
+ * Reference range for one analyte, optionally limited to a sex and an age band.
+ * Values below lowValue or above highValue are flagged LOW or HIGH; values beyond
+ * the critical limits are flagged CRITICAL. Null limits are not checked.
+ */
+@Entity
+@Table(name = "lab_reference_ranges",
+    indexes = @Index(name = "idx_lab_reference_ranges_analyte", columnList = "analyte"))
+public class LabReferenceRange {
+
+    public enum Sex {
+        ANY, MALE, FEMALE
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "analyte", nullable = false, length = 40)
+    private LabAnalyte analyte;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "sex", nullable = false, length = 10)
+    private Sex sex = Sex.ANY;
+
+    // Age band in whole years, [minAgeYears, maxAgeYears)
+    @Column(name = "min_age_years", nullable = false)
+    private Integer minAgeYears = 0;
+
+    @Column(name = "max_age_years", nullable = false)
+    private Integer maxAgeYears = 200;
+
+    @Column(name = "low_value")
+    private Double lowValue;
+
+    @Column(name = "high_value")
+    private Double highValue;
+
+    @Column(name = "critical_low")
+    private Double criticalLow;
+
+    @Column(name = "critical_high")
+    private Double criticalHigh;
+
+    public LabReferenceRange() {}
+
+    public LabReferenceRange(LabAnalyte analyte, Sex sex, Integer minAgeYears, Integer maxAgeYears,
+                             Double lowValue, Double highValue, Double criticalLow, Double criticalHigh) {
+        this.analyte = analyte;
+        this.sex = sex;
+        this.minAgeYears = minAgeYears;
+        this.maxAgeYears = maxAgeYears;
+        this.lowValue = lowValue;
+        this.highValue = highValue;
+        this.criticalLow = criticalLow;
+        this.criticalHigh = criticalHigh;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LabAnalyte getAnalyte() { return analyte; }
+    public void setAnalyte(LabAnalyte analyte) { this.analyte = analyte; }
+
+    public Sex getSex() { return sex; }
+    public void setSex(Sex sex) { this.sex = sex; }
+
+    public Integer getMinAgeYears() { return minAgeYears; }
+    public void setMinAgeYears(Integer minAgeYears) { this.minAgeYears = minAgeYears; }
+
+    public Integer getMaxAgeYears() { return maxAgeYears; }
+    public void setMaxAgeYears(Integer maxAgeYears) { this.maxAgeYears = maxAgeYears; }
+
+    public Double getLowValue() { return lowValue; }
+    public void setLowValue(Double lowValue) { this.lowValue = lowValue; }
+
+    public Double getHighValue() { return highValue; }
+    public void setHighValue(Double highValue) { this.highValue = highValue; }
+
+    public Double getCriticalLow() { return criticalLow; }
+    public void setCriticalLow(Double criticalLow) { this.criticalLow = criticalLow; }
+
+    public Double getCriticalHigh() { return criticalHigh; }
+    public void setCriticalHigh(Double criticalHigh) { this.criticalHigh = criticalHigh; }
+}
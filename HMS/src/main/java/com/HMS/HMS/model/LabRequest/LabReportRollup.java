@@ -0,0 +1,150 @@
+package com.HMS.HMS.model.LabRequest;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Precomputed laboratory figures for the annual report. A year is stored as:
+ * one MONTH row per month, one YEAR row (period_month 0) for figures that can't be
+ * summed across months such as distinct patients, and one TEST_TYPE or WARD row
+ * (period_month 0) per test name or ward. Turnaround is kept as a serialized
+ * QuantileSketch so monthly rows merge into yearly percentiles.
+ */
+@Entity
+@Table(name = "lab_report_rollups",
+    uniqueConstraints = @UniqueConstraint(name = "uk_lab_rollup_period_dimension",
+        columnNames = {"period_year", "period_month", "dimension", "dimension_key"}),
+    indexes = @Index(name = "idx_lab_rollup_year", columnList = "period_year"))
+public class LabReportRollup {
+
+    public enum Dimension {
+        MONTH, YEAR, TEST_TYPE, WARD
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "period_year", nullable = false)
+    private Integer periodYear;
+
+    // 1-12 for MONTH rows, 0 for rows covering the whole year
+    @Column(name = "period_month", nullable = false)
+    private Integer periodMonth;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "dimension", nullable = false, length = 20)
+    private Dimension dimension;
+
+    // Test name or ward name; empty for MONTH and YEAR rows
+    @Column(name = "dimension_key", nullable = false, length = 150)
+    private String dimensionKey = "";
+
+    @Column(name = "category", length = 100)
+    private String category;
+
+    @Column(name = "request_count", nullable = false)
+    private Long requestCount = 0L;
+
+    @Column(name = "urgent_request_count", nullable = false)
+    private Long urgentRequestCount = 0L;
+
+    @Column(name = "completed_count", nullable = false)
+    private Long completedCount = 0L;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private Long cancelledCount = 0L;
+
+    @Column(name = "patient_count", nullable = false)
+    private Long patientCount = 0L;
+
+    @Column(name = "test_count", nullable = false)
+    private Long testCount = 0L;
+
+    @Column(name = "urgent_test_count", nullable = false)
+    private Long urgentTestCount = 0L;
+
+    @Column(name = "result_count", nullable = false)
+    private Long resultCount = 0L;
+
+    @Column(name = "repeat_count", nullable = false)
+    private Long repeatCount = 0L;
+
+    // Most common ward for TEST_TYPE rows, most common test for WARD rows
+    @Column(name = "top_item", length = 150)
+    private String topItem;
+
+    // Request-to-result minutes
+    @Lob
+    @Column(name = "turnaround_sketch")
+    private byte[] turnaroundSketch;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public LabReportRollup() {}
+
+    public LabReportRollup(Integer periodYear, Integer periodMonth, Dimension dimension, String dimensionKey) {
+        this.periodYear = periodYear;
+        this.periodMonth = periodMonth;
+        this.dimension = dimension;
+        this.dimensionKey = dimensionKey != null ? dimensionKey : "";
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Integer getPeriodYear() { return periodYear; }
+    public void setPeriodYear(Integer periodYear) { this.periodYear = periodYear; }
+
+    public Integer getPeriodMonth() { return periodMonth; }
+    public void setPeriodMonth(Integer periodMonth) { this.periodMonth = periodMonth; }
+
+    public Dimension getDimension() { return dimension; }
+    public void setDimension(Dimension dimension) { this.dimension = dimension; }
+
+    public String getDimensionKey() { return dimensionKey; }
+    public void setDimensionKey(String dimensionKey) { this.dimensionKey = dimensionKey; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public Long getRequestCount() { return requestCount; }
+    public void setRequestCount(Long requestCount) { this.requestCount = requestCount; }
+
+    public Long getUrgentRequestCount() { return urgentRequestCount; }
+    public void setUrgentRequestCount(Long urgentRequestCount) { this.urgentRequestCount = urgentRequestCount; }
+
+    public Long getCompletedCount() { return completedCount; }
+    public void setCompletedCount(Long completedCount) { this.completedCount = completedCount; }
+
+    public Long getCancelledCount() { return cancelledCount; }
+    public void setCancelledCount(Long cancelledCount) { this.cancelledCount = cancelledCount; }
+
+    public Long getPatientCount() { return patientCount; }
+    public void setPatientCount(Long patientCount) { this.patientCount = patientCount; }
+
+    public Long getTestCount() { return testCount; }
+    public void setTestCount(Long testCount) { this.testCount = testCount; }
+
+    public Long getUrgentTestCount() { return urgentTestCount; }
+    public void setUrgentTestCount(Long urgentTestCount) { this.urgentTestCount = urgentTestCount; }
+
+    public Long getResultCount() { return resultCount; }
+    public void setResultCount(Long resultCount) { this.resultCount = resultCount; }
+
+    public Long getRepeatCount() { return repeatCount; }
+    public void setRepeatCount(Long repeatCount) { this.repeatCount = repeatCount; }
+
+    public String getTopItem() { return topItem; }
+    public void setTopItem(String topItem) { this.topItem = topItem; }
+
+    public byte[] getTurnaroundSketch() { return turnaroundSketch; }
+    public void setTurnaroundSketch(byte[] turnaroundSketch) { this.turnaroundSketch = turnaroundSketch; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
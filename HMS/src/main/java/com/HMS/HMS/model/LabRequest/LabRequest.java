@@ -1,11 +1,16 @@
 package com.HMS.HMS.model.LabRequest;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "lab_requests")
+@Table(name = "lab_requests", indexes = {
+    @Index(name = "idx_lab_requests_status_date", columnList = "status, request_date, id"),
+    @Index(name = "idx_lab_requests_ward_status_date", columnList = "ward_name, status, request_date, id")
+})
 public class LabRequest {
     
     @Id
@@ -40,7 +45,9 @@ public class LabRequest {
     @Column(name = "status", nullable = false)
     private LabRequestStatus status;
     
+    // Batch-loaded so entity lists cost one tests query per 100 requests, not one per request
     @OneToMany(mappedBy = "labRequest", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     private List<LabTest> tests;
     
     @Column(name = "created_at")
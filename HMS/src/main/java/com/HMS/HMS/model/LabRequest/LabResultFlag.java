@@ -0,0 +1,11 @@
+package com.HMS.HMS.model.LabRequest;
+
+/**
+ * Outcome of checking an analyte value against its reference range
+ */
+public enum LabResultFlag {
+    LOW,
+    NORMAL,
+    HIGH,
+    CRITICAL
+}
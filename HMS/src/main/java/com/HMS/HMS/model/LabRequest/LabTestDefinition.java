@@ -0,0 +1,62 @@
+package com.HMS.HMS.model.LabRequest;
+
+import jakarta.persistence.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A lab test the results form can submit, identified by TestResult.testName, and the
+ * analytes it reports. Adding a test is a matter of inserting a definition and its
+ * analytes; the values are stored in test_result_values either way.
+ */
+@Entity
+@Table(name = "lab_test_definitions",
+    uniqueConstraints = @UniqueConstraint(name = "uk_lab_test_definition_name", columnNames = "test_name"))
+public class LabTestDefinition {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "test_name", nullable = false)
+    private String testName;
+
+    @Column(name = "category")
+    private String category;
+
+    @OneToMany(mappedBy = "testDefinition", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("displayOrder ASC")
+    private List<LabAnalyteDefinition> analytes = new ArrayList<>();
+
+    public LabTestDefinition() {}
+
+    public LabTestDefinition(String testName, String category) {
+        this.testName = testName;
+        this.category = category;
+    }
+
+    /**
+     * Append an analyte, keeping the submission order as its display order
+     */
+    public LabTestDefinition addAnalyte(LabAnalyteDefinition analyte) {
+        analyte.setTestDefinition(this);
+        analyte.setDisplayOrder(analytes.size());
+        analytes.add(analyte);
+        return this;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTestName() { return testName; }
+    public void setTestName(String testName) { this.testName = testName; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+
+    public List<LabAnalyteDefinition> getAnalytes() { return analytes; }
+    public void setAnalytes(List<LabAnalyteDefinition> analytes) { this.analytes = analytes; }
+}
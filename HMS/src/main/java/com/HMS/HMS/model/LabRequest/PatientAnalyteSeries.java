@@ -0,0 +1,91 @@
+package com.HMS.HMS.model.LabRequest;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * All values of one analyte for one patient, stored as a serialized TimeSeries so a
+ * trend over years is one row read instead of a join across test_results and the
+ * typed result tables. The latest point is also kept in plain columns so summaries
+ * don't need to decode the series.
+ */
+@Entity
+@Table(name = "patient_analyte_series",
+    uniqueConstraints = @UniqueConstraint(name = "uk_patient_analyte",
+        columnNames = {"patient_national_id", "analyte"}))
+public class PatientAnalyteSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "patient_national_id", nullable = false)
+    private String patientNationalId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "analyte", nullable = false, length = 40)
+    private LabAnalyte analyte;
+
+    @Column(name = "point_count", nullable = false)
+    private Integer pointCount = 0;
+
+    @Column(name = "first_at")
+    private LocalDateTime firstAt;
+
+    @Column(name = "last_at")
+    private LocalDateTime lastAt;
+
+    @Column(name = "last_value")
+    private Double lastValue;
+
+    // TimeSeries.toBytes: epoch seconds of completedAt and the reported value
+    @Lob
+    @Column(name = "series_data", columnDefinition = "MEDIUMBLOB")
+    private byte[] seriesData;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public PatientAnalyteSeries() {}
+
+    public PatientAnalyteSeries(String patientNationalId, LabAnalyte analyte) {
+        this.patientNationalId = patientNationalId;
+        this.analyte = analyte;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getPatientNationalId() { return patientNationalId; }
+    public void setPatientNationalId(String patientNationalId) { this.patientNationalId = patientNationalId; }
+
+    public LabAnalyte getAnalyte() { return analyte; }
+    public void setAnalyte(LabAnalyte analyte) { this.analyte = analyte; }
+
+    public Integer getPointCount() { return pointCount; }
+    public void setPointCount(Integer pointCount) { this.pointCount = pointCount; }
+
+    public LocalDateTime getFirstAt() { return firstAt; }
+    public void setFirstAt(LocalDateTime firstAt) { this.firstAt = firstAt; }
+
+    public LocalDateTime getLastAt() { return lastAt; }
+    public void setLastAt(LocalDateTime lastAt) { this.lastAt = lastAt; }
+
+    public Double getLastValue() { return lastValue; }
+    public void setLastValue(Double lastValue) { this.lastValue = lastValue; }
+
+    public byte[] getSeriesData() { return seriesData; }
+    public void setSeriesData(byte[] seriesData) { this.seriesData = seriesData; }
+
+    public Long getVersion() { return version; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
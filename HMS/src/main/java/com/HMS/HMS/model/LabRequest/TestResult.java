@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "test_results")
+@Table(name = "test_results", indexes = {
+    @Index(name = "idx_test_results_patient_completed", columnList = "patient_national_id, completed_at"),
+    @Index(name = "idx_test_results_request", columnList = "request_id"),
+    @Index(name = "idx_test_results_completed", columnList = "completed_at")
+})
 public class TestResult {
     
     @Id
@@ -35,6 +39,10 @@ public class TestResult {
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;
     
+    // LabEquipment.equipmentId of the analyser that ran the test, when known
+    @Column(name = "equipment_id", length = 50)
+    private String equipmentId;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -143,6 +151,14 @@ public class TestResult {
         this.notes = notes;
     }
     
+    public String getEquipmentId() {
+        return equipmentId;
+    }
+    
+    public void setEquipmentId(String equipmentId) {
+        this.equipmentId = equipmentId;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
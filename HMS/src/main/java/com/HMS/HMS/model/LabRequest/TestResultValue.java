@@ -0,0 +1,56 @@
+package com.HMS.HMS.model.LabRequest;
+
+import jakarta.persistence.*;
+
+/**
+ * One analyte value of a test result. Numeric values go in numeric_value; the few
+ * free-text values (urine protein, glucose test type) go in text_value. Replaces the
+ * per-test result tables, so every test's values are read with one indexed query.
+ */
+@Entity
+@Table(name = "test_result_values",
+    uniqueConstraints = @UniqueConstraint(name = "uk_test_result_value_analyte",
+        columnNames = {"test_result_id", "analyte_id"}))
+public class TestResultValue {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "test_result_id", nullable = false)
+    private Long testResultId;
+
+    @Column(name = "analyte_id", nullable = false)
+    private Long analyteId;
+
+    @Column(name = "numeric_value")
+    private Double numericValue;
+
+    @Column(name = "text_value", length = 100)
+    private String textValue;
+
+    public TestResultValue() {}
+
+    public TestResultValue(Long testResultId, Long analyteId, Double numericValue, String textValue) {
+        this.testResultId = testResultId;
+        this.analyteId = analyteId;
+        this.numericValue = numericValue;
+        this.textValue = textValue;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getTestResultId() { return testResultId; }
+    public void setTestResultId(Long testResultId) { this.testResultId = testResultId; }
+
+    public Long getAnalyteId() { return analyteId; }
+    public void setAnalyteId(Long analyteId) { this.analyteId = analyteId; }
+
+    public Double getNumericValue() { return numericValue; }
+    public void setNumericValue(Double numericValue) { this.numericValue = numericValue; }
+
+    public String getTextValue() { return textValue; }
+    public void setTextValue(String textValue) { this.textValue = textValue; }
+}
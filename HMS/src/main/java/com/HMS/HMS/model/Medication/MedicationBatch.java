@@ -0,0 +1,86 @@
+package com.HMS.HMS.model.Medication;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A received lot of a medication with its own expiry and remaining quantity.
+ * Medication.currentStock is the sum of its lots' quantities.
+ */
+@Entity
+@Table(name = "medication_batches",
+    uniqueConstraints = @UniqueConstraint(name = "uk_med_batch_lot", columnNames = {"medication_id", "batch_number"}),
+    indexes = {
+        @Index(name = "idx_med_batch_medication_expiry", columnList = "medication_id, expiry_date"),
+        @Index(name = "idx_med_batch_expiry", columnList = "expiry_date")
+    })
+public class MedicationBatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "medication_id", nullable = false)
+    @JsonIgnore
+    private Medication medication;
+
+    @Column(name = "batch_number", nullable = false, length = 100)
+    private String batchNumber;
+
+    @Column(name = "expiry_date", nullable = false)
+    private LocalDate expiryDate;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity = 0;
+
+    @Column(name = "received_quantity", nullable = false)
+    private Integer receivedQuantity = 0;
+
+    @CreationTimestamp
+    @Column(name = "received_at")
+    private LocalDateTime receivedAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public MedicationBatch() {}
+
+    public MedicationBatch(Medication medication, String batchNumber, LocalDate expiryDate) {
+        this.medication = medication;
+        this.batchNumber = batchNumber;
+        this.expiryDate = expiryDate;
+    }
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Medication getMedication() { return medication; }
+    public void setMedication(Medication medication) { this.medication = medication; }
+
+    public String getBatchNumber() { return batchNumber; }
+    public void setBatchNumber(String batchNumber) { this.batchNumber = batchNumber; }
+
+    public LocalDate getExpiryDate() { return expiryDate; }
+    public void setExpiryDate(LocalDate expiryDate) { this.expiryDate = expiryDate; }
+
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+
+    public Integer getReceivedQuantity() { return receivedQuantity; }
+    public void setReceivedQuantity(Integer receivedQuantity) { this.receivedQuantity = receivedQuantity; }
+
+    public LocalDateTime getReceivedAt() { return receivedAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    public void receive(int amount) {
+        this.quantity += amount;
+        this.receivedQuantity += amount;
+    }
+}
@@ -31,6 +31,11 @@ public class Patient {
     @Column(updatable = false)
     private LocalDateTime registrationDate;
 
+    // Id of the ACTIVE admission, kept by the admission write path so checking whether a
+    // patient is admitted doesn't load their admission history
+    @Column(name = "current_admission_id")
+    private Long currentAdmissionId;
+
     @OneToMany(mappedBy = "patient", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonManagedReference("patient-appointments") // This prevents circular reference
     private List<Appointment> appointments = new ArrayList<>();
@@ -79,8 +84,7 @@ public class Patient {
     }
 
     public boolean isCurrentlyAdmitted(){
-        return admissions.stream()
-                .anyMatch(admission -> admission.getStatus().toString().equals("ACTIVE"));
+        return currentAdmissionId != null;
     }
 
     public Admission getCurrentAdmission(){
@@ -168,6 +172,14 @@ public class Patient {
         this.registrationDate = registrationDate;
     }
 
+    public Long getCurrentAdmissionId() {
+        return currentAdmissionId;
+    }
+
+    public void setCurrentAdmissionId(Long currentAdmissionId) {
+        this.currentAdmissionId = currentAdmissionId;
+    }
+
     public List<Appointment> getAppointments(){
         return appointments;
     }
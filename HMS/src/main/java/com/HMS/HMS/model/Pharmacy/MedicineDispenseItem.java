@@ -63,6 +63,10 @@ public class MedicineDispenseItem {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // When the item was last dispensed; unlike updatedAt it stays put on later saves
+    @Column(name = "dispensed_at")
+    private LocalDateTime dispensedAt;
+
     // Enum for item status
     public enum ItemStatus {
         PENDING,
@@ -124,6 +128,9 @@ public class MedicineDispenseItem {
     public LocalDateTime getCreatedAt() { return createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
 
+    public LocalDateTime getDispensedAt() { return dispensedAt; }
+    public void setDispensedAt(LocalDateTime dispensedAt) { this.dispensedAt = dispensedAt; }
+
     // Helper methods
     public boolean isFullyDispensed() {
         return dispensedQuantity >= requestedQuantity;
@@ -0,0 +1,102 @@
+package com.HMS.HMS.model.Pharmacy;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Monthly dispensing totals per medication. One row per (year, month, medication),
+ * maintained incrementally on every dispense and rebuilt from the source tables on demand.
+ */
+@Entity
+@Table(name = "pharmacy_dispense_rollups",
+    uniqueConstraints = @UniqueConstraint(name = "uk_dispense_rollup_period_medication",
+        columnNames = {"period_year", "period_month", "medication_id"}),
+    indexes = {
+        @Index(name = "idx_dispense_rollup_period", columnList = "period_year, period_month"),
+        @Index(name = "idx_dispense_rollup_category", columnList = "period_year, category")
+    })
+public class PharmacyDispenseRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "period_year", nullable = false)
+    private Integer periodYear;
+
+    @Column(name = "period_month", nullable = false)
+    private Integer periodMonth;
+
+    @Column(name = "medication_id", nullable = false)
+    private Long medicationId;
+
+    @Column(name = "drug_name", nullable = false, length = 255)
+    private String drugName;
+
+    @Column(name = "category", length = 100)
+    private String category;
+
+    @Column(name = "quantity_dispensed", nullable = false)
+    private Long quantityDispensed = 0L;
+
+    @Column(name = "dispense_count", nullable = false)
+    private Long dispenseCount = 0L;
+
+    @Column(name = "total_value", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalValue = BigDecimal.ZERO;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public PharmacyDispenseRollup() {}
+
+    public PharmacyDispenseRollup(Integer periodYear, Integer periodMonth, Long medicationId,
+                                  String drugName, String category) {
+        this.periodYear = periodYear;
+        this.periodMonth = periodMonth;
+        this.medicationId = medicationId;
+        this.drugName = drugName;
+        this.category = category;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Integer getPeriodYear() { return periodYear; }
+    public void setPeriodYear(Integer periodYear) { this.periodYear = periodYear; }
+
+    public Integer getPeriodMonth() { return periodMonth; }
+    public void setPeriodMonth(Integer periodMonth) { this.periodMonth = periodMonth; }
+
+    public Long getMedicationId() { return medicationId; }
+    public void setMedicationId(Long medicationId) { this.medicationId = medicationId; }
+
+    public String getDrugName() { return drugName; }
+    public void setDrugName(String drugName) { this.drugName = drugName; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public Long getQuantityDispensed() { return quantityDispensed; }
+    public void setQuantityDispensed(Long quantityDispensed) { this.quantityDispensed = quantityDispensed; }
+
+    public Long getDispenseCount() { return dispenseCount; }
+    public void setDispenseCount(Long dispenseCount) { this.dispenseCount = dispenseCount; }
+
+    public BigDecimal getTotalValue() { return totalValue; }
+    public void setTotalValue(BigDecimal totalValue) { this.totalValue = totalValue; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    // Helper methods
+    public void add(long quantity, long count, BigDecimal value) {
+        this.quantityDispensed += quantity;
+        this.dispenseCount += count;
+        this.totalValue = this.totalValue.add(value != null ? value : BigDecimal.ZERO);
+    }
+}
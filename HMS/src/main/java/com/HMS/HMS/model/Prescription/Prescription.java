@@ -65,6 +65,10 @@ public class Prescription {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    // When the prescription was last completed; unlike lastModified it stays put on later saves
+    @Column(name = "dispensed_at")
+    private LocalDateTime dispensedAt;
+
     @Column(name = "ward_name", length = 100)
     private String wardName;
 
@@ -187,6 +191,14 @@ public class Prescription {
         this.createdAt = createdAt;
     }
 
+    public LocalDateTime getDispensedAt() {
+        return dispensedAt;
+    }
+
+    public void setDispensedAt(LocalDateTime dispensedAt) {
+        this.dispensedAt = dispensedAt;
+    }
+
     public String getWardName() {
         return wardName;
     }
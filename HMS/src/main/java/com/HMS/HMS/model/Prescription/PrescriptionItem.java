@@ -6,6 +6,7 @@ import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
@@ -65,6 +66,10 @@ public class PrescriptionItem {
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;
 
+    // Price charged per unit, recorded when the prescription is dispensed
+    @Column(name = "unit_price", precision = 10, scale = 2)
+    private BigDecimal unitPrice;
+
     // Default constructor
     public PrescriptionItem() {}
 
@@ -194,6 +199,14 @@ public class PrescriptionItem {
         this.notes = notes;
     }
 
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(BigDecimal unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+
     // Helper methods to get medication details
     public String getDrugName() {
         return medication != null ? medication.getDrugName() : null;
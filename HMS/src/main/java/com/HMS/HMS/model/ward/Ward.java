@@ -15,6 +15,9 @@ public class Ward {
     private String wardName;
     private String wardType;
 
+    // Number of numbered beds on the bed board; null until set from the ward type
+    private Integer bedCount;
+
     @OneToMany(mappedBy = "ward", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonManagedReference("ward-admissions")
     private List<Admission> admissions = new ArrayList<>();
@@ -79,6 +82,14 @@ public class Ward {
     }
 
 
+    public Integer getBedCount() {
+        return bedCount;
+    }
+
+    public void setBedCount(Integer bedCount) {
+        this.bedCount = bedCount;
+    }
+
     public List<Admission> getAdmissions() {
         return admissions;
     }
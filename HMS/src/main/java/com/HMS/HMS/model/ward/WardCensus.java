@@ -0,0 +1,101 @@
+package com.HMS.HMS.model.ward;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Midnight census of one ward for one day: the beds the ward had, the beds occupied when
+ * the day ended, and the admissions, discharges and transfers of the day. Lengths of stay
+ * of the day's discharges are kept as a serialized QuantileSketch of hours so days merge
+ * into percentiles for any range.
+ */
+@Entity
+@Table(name = "ward_census",
+    uniqueConstraints = @UniqueConstraint(name = "uk_ward_census_date_ward",
+        columnNames = {"census_date", "ward_id"}),
+    indexes = @Index(name = "idx_ward_census_ward_date", columnList = "ward_id, census_date"))
+public class WardCensus {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The day the midnight count closed
+    @Column(name = "census_date", nullable = false)
+    private LocalDate censusDate;
+
+    @Column(name = "ward_id", nullable = false)
+    private Long wardId;
+
+    @Column(name = "bed_count", nullable = false)
+    private Integer bedCount = 0;
+
+    @Column(name = "occupied_beds", nullable = false)
+    private Integer occupiedBeds = 0;
+
+    // Admissions other than transfers in
+    @Column(name = "admissions", nullable = false)
+    private Integer admissions = 0;
+
+    @Column(name = "discharges", nullable = false)
+    private Integer discharges = 0;
+
+    @Column(name = "transfers_in", nullable = false)
+    private Integer transfersIn = 0;
+
+    @Column(name = "transfers_out", nullable = false)
+    private Integer transfersOut = 0;
+
+    // Admission-to-discharge hours of the day's discharges
+    @Lob
+    @Column(name = "los_sketch")
+    private byte[] losSketch;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public WardCensus() {}
+
+    public WardCensus(LocalDate censusDate, Long wardId, Integer bedCount) {
+        this.censusDate = censusDate;
+        this.wardId = wardId;
+        this.bedCount = bedCount;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDate getCensusDate() { return censusDate; }
+    public void setCensusDate(LocalDate censusDate) { this.censusDate = censusDate; }
+
+    public Long getWardId() { return wardId; }
+    public void setWardId(Long wardId) { this.wardId = wardId; }
+
+    public Integer getBedCount() { return bedCount; }
+    public void setBedCount(Integer bedCount) { this.bedCount = bedCount; }
+
+    public Integer getOccupiedBeds() { return occupiedBeds; }
+    public void setOccupiedBeds(Integer occupiedBeds) { this.occupiedBeds = occupiedBeds; }
+
+    public Integer getAdmissions() { return admissions; }
+    public void setAdmissions(Integer admissions) { this.admissions = admissions; }
+
+    public Integer getDischarges() { return discharges; }
+    public void setDischarges(Integer discharges) { this.discharges = discharges; }
+
+    public Integer getTransfersIn() { return transfersIn; }
+    public void setTransfersIn(Integer transfersIn) { this.transfersIn = transfersIn; }
+
+    public Integer getTransfersOut() { return transfersOut; }
+    public void setTransfersOut(Integer transfersOut) { this.transfersOut = transfersOut; }
+
+    public byte[] getLosSketch() { return losSketch; }
+    public void setLosSketch(byte[] losSketch) { this.losSketch = losSketch; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -1,14 +1,25 @@
 package com.HMS.HMS.repository;
 
+import com.HMS.HMS.DTO.AdmissionDTO.AdmissionResponseDTO;
 import com.HMS.HMS.model.Admission.Admission;
 import com.HMS.HMS.model.Admission.AdmissionStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface AdmissionRepository extends JpaRepository<Admission,Long> {
@@ -19,6 +30,21 @@ public interface AdmissionRepository extends JpaRepository<Admission,Long> {
 
     List<Admission> findByStatus(AdmissionStatus status);
 
+    // Admission list rows with the patient and ward names joined in, newest first,
+    // keyset-paged on admissionId; the cursor is exclusive.
+    @Query("SELECT new com.HMS.HMS.DTO.AdmissionDTO.AdmissionResponseDTO(a.admissionId, p.nationalId, " +
+           "CONCAT(p.firstName, ' ', p.lastName), w.wardId, w.wardName, a.bedNumber, a.admissionDate, " +
+           "a.dischargeDate, a.status) FROM Admission a JOIN a.patient p JOIN a.ward w " +
+           "WHERE a.admissionId < :cursor ORDER BY a.admissionId DESC")
+    List<AdmissionResponseDTO> findResponsesBefore(@Param("cursor") Long cursor, Pageable pageable);
+
+    // Every admission list row in id order, oldest first, for the unpaged list
+    @Query("SELECT new com.HMS.HMS.DTO.AdmissionDTO.AdmissionResponseDTO(a.admissionId, p.nationalId, " +
+           "CONCAT(p.firstName, ' ', p.lastName), w.wardId, w.wardName, a.bedNumber, a.admissionDate, " +
+           "a.dischargeDate, a.status) FROM Admission a JOIN a.patient p JOIN a.ward w " +
+           "ORDER BY a.admissionId ASC")
+    List<AdmissionResponseDTO> findAllResponses();
+
     @Query("SELECT a FROM Admission a WHERE a.patient.nationalId = :nationalId AND a.status = :status")
     Optional<Admission> findActiveAdmissionByPatient(@Param("nationalId") String nationalId, @Param("status") AdmissionStatus status);
 
@@ -37,4 +63,55 @@ public interface AdmissionRepository extends JpaRepository<Admission,Long> {
 
     @Query("SELECT a FROM Admission a WHERE a.bedNumber = :bedNumber AND a.status = 'ACTIVE'")
     List<Admission> findActiveAdmissionsByBedNumber(@Param("bedNumber") String bedNumber);
-}
\ No newline at end of file
+
+    // Bed board queries
+    @Query("SELECT a.admissionId, a.ward.wardId, a.bedNumber, a.activeBedNumber FROM Admission a WHERE a.status = 'ACTIVE'")
+    List<Object[]> findActiveBeds();
+
+    @Modifying
+    @Query("UPDATE Admission a SET a.activeBedNumber = a.bedNumber WHERE a.admissionId IN :admissionIds")
+    int markActiveBeds(@Param("admissionIds") Collection<Long> admissionIds);
+
+    // Ward statistics queries
+    // admission date, discharge date, patient national id, date of birth, gender of the wards'
+    // admissions made in the range, streamed row by row
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a.admissionDate, a.dischargeDate, p.nationalId, p.dateOfBirth, p.gender " +
+           "FROM Admission a JOIN a.patient p " +
+           "WHERE a.ward.wardId IN :wardIds AND a.admissionDate BETWEEN :startDateTime AND :endDateTime")
+    Stream<Object[]> streamWardStatisticsRows(@Param("wardIds") Collection<Long> wardIds,
+                                              @Param("startDateTime") LocalDateTime startDateTime,
+                                              @Param("endDateTime") LocalDateTime endDateTime);
+
+    @Query("SELECT COUNT(a) FROM Admission a " +
+           "WHERE a.ward.wardId IN :wardIds AND a.admissionDate BETWEEN :startDateTime AND :endDateTime")
+    long countByWardsAndAdmissionDateBetween(@Param("wardIds") Collection<Long> wardIds,
+                                             @Param("startDateTime") LocalDateTime startDateTime,
+                                             @Param("endDateTime") LocalDateTime endDateTime);
+
+    // Census queries
+    @Query("SELECT MIN(a.admissionDate) FROM Admission a")
+    LocalDateTime findEarliestAdmissionDate();
+
+    // ward id, admission date, discharge date, status and the id of the transfer that led to
+    // the admission (null if none) of every admission in a ward at some time in the range,
+    // streamed row by row
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a.ward.wardId, a.admissionDate, a.dischargeDate, a.status, t.transferId " +
+           "FROM Admission a LEFT JOIN Transfer t ON t.newAdmission = a " +
+           "WHERE a.admissionDate < :endDateTime AND (a.dischargeDate IS NULL OR a.dischargeDate >= :startDateTime)")
+    Stream<Object[]> streamCensusRows(@Param("startDateTime") LocalDateTime startDateTime,
+                                      @Param("endDateTime") LocalDateTime endDateTime);
+
+    // Bulk import queries
+    // admission id, patient national id, ward id, admission date of the patients' admissions
+    @Query("SELECT a.admissionId, a.patient.nationalId, a.ward.wardId, a.admissionDate FROM Admission a " +
+           "WHERE a.patient.nationalId IN :nationalIds")
+    List<Object[]> findAdmissionTimesByPatientIn(@Param("nationalIds") Collection<String> nationalIds);
+}
@@ -1,20 +1,41 @@
 package com.HMS.HMS.repository;
 
+import com.HMS.HMS.DTO.appoinmenetDTO.AppointmentResponse;
 import com.HMS.HMS.model.Appointment.Appointment;
 import com.HMS.HMS.model.Appointment.AppointmentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
 
+    // Appointment list rows with the doctor and patient joined in, newest first,
+    // keyset-paged on appointmentId; the cursor is exclusive.
+    @Query("SELECT new com.HMS.HMS.DTO.appoinmenetDTO.AppointmentResponse(a.appointmentId, d.employeeId, " +
+           "d.doctorName, d.specialization, p.nationalId, CONCAT(p.firstName, ' ', p.lastName), " +
+           "a.appointmentDate, a.appointmentTime, a.status, a.createdAt) " +
+           "FROM Appointment a JOIN a.doctor d JOIN a.patient p " +
+           "WHERE a.appointmentId < :cursor ORDER BY a.appointmentId DESC")
+    List<AppointmentResponse> findResponsesBefore(@Param("cursor") Long cursor, Pageable pageable);
+
+    // Every appointment list row in id order, oldest first, for the unpaged list
+    @Query("SELECT new com.HMS.HMS.DTO.appoinmenetDTO.AppointmentResponse(a.appointmentId, d.employeeId, " +
+           "d.doctorName, d.specialization, p.nationalId, CONCAT(p.firstName, ' ', p.lastName), " +
+           "a.appointmentDate, a.appointmentTime, a.status, a.createdAt) " +
+           "FROM Appointment a JOIN a.doctor d JOIN a.patient p " +
+           "ORDER BY a.appointmentId ASC")
+    List<AppointmentResponse> findAllResponses();
+
     // Find all appointments for a specific doctor
     List<Appointment> findByDoctorEmployeeId(Long doctorId);
 
@@ -65,4 +86,26 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     List<Appointment> findUpcomingAppointmentsByPatient(@Param("patientId") String patientId,
                                                         @Param("currentDate") LocalDate currentDate,
                                                         @Param("currentTime") LocalTime currentTime);
-}
\ No newline at end of file
+
+    // Doctor calendar queries
+    // appointment id, doctor id, date, time, booked slot of appointments still holding a slot from a date on
+    @Query("SELECT a.appointmentId, a.doctor.employeeId, a.appointmentDate, a.appointmentTime, a.bookedSlot " +
+            "FROM Appointment a WHERE a.appointmentDate >= :fromDate AND a.status <> 'CANCELLED'")
+    List<Object[]> findBookedSlotsFrom(@Param("fromDate") LocalDate fromDate);
+
+    @Query("SELECT a.doctor.employeeId, a.appointmentTime FROM Appointment a " +
+            "WHERE a.appointmentDate = :date AND a.status <> 'CANCELLED'")
+    List<Object[]> findBookedTimesOn(@Param("date") LocalDate date);
+
+    @Query("SELECT a.appointmentTime FROM Appointment a WHERE a.doctor.employeeId = :doctorId " +
+            "AND a.appointmentDate = :date AND a.status <> 'CANCELLED'")
+    List<LocalTime> findBookedTimes(@Param("doctorId") Long doctorId, @Param("date") LocalDate date);
+
+    @Query("SELECT CASE WHEN COUNT(a) > 0 THEN true ELSE false END FROM Appointment a " +
+            "WHERE a.doctor.employeeId = :doctorId AND a.appointmentDate = :date AND a.bookedSlot = :slot")
+    boolean existsBookedSlot(@Param("doctorId") Long doctorId, @Param("date") LocalDate date, @Param("slot") LocalTime slot);
+
+    @Modifying
+    @Query("UPDATE Appointment a SET a.bookedSlot = :slot WHERE a.appointmentId IN :appointmentIds")
+    int markBookedSlots(@Param("appointmentIds") Collection<Long> appointmentIds, @Param("slot") LocalTime slot);
+}
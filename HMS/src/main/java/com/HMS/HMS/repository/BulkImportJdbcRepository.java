@@ -0,0 +1,149 @@
+package com.HMS.HMS.repository;
+
+import com.HMS.HMS.model.Admission.AdmissionStatus;
+import com.HMS.HMS.model.Appointment.AppointmentStatus;
+import com.HMS.HMS.model.Appointment.AppointmentType;
+import com.HMS.HMS.model.Patient.Patient;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batched JDBC inserts for the bulk patient, admission, appointment and transfer import.
+ *
+ * Like TestResultJdbcRepository, rows go through JdbcTemplate batches that the MySQL
+ * driver rewrites into multi-row INSERTs, since Hibernate can't batch IDENTITY inserts.
+ * Rows arrive validated with their foreign keys resolved; must run inside the caller's
+ * transaction.
+ */
+@Repository
+public class BulkImportJdbcRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_PATIENT =
+            "INSERT INTO patient (national_id, first_name, last_name, address, date_of_birth, contact_number, " +
+            "emergency_contact_number, gender, registration_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_ADMISSION =
+            "INSERT INTO admission (patient_national_id, ward_id, bed_number, active_bed_number, admission_date, " +
+            "discharge_date, status) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_APPOINTMENT =
+            "INSERT INTO appointments (doctor_employee_id, patient_national_id, appointment_date, appointment_time, " +
+            "booked_slot, status, appointment_type, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_TRANSFER =
+            "INSERT INTO transfer (patient_national_id, from_ward_id, to_ward_id, old_admission_id, new_admission_id, " +
+            "from_bed_number, to_bed_number, transfer_date, transfer_reason) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public BulkImportJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert patients; a missing registration date is set to now
+     */
+    public void insertPatients(List<Patient> patients) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(patients.size());
+        for (Patient patient : patients) {
+            rows.add(new Object[] {
+                patient.getNationalId(), patient.getFirstName(), patient.getLastName(), patient.getAddress(),
+                date(patient.getDateOfBirth()), patient.getContactNumber(), patient.getEmergencyContactNumber(),
+                patient.getGender(), patient.getRegistrationDate() != null ? timestamp(patient.getRegistrationDate()) : now
+            });
+        }
+        insert(INSERT_PATIENT, rows, new int[] {
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.DATE, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.TIMESTAMP
+        });
+    }
+
+    /**
+     * Insert admissions; active ones hold their bed through active_bed_number
+     */
+    public void insertAdmissions(List<AdmissionRow> admissions) {
+        List<Object[]> rows = new ArrayList<>(admissions.size());
+        for (AdmissionRow admission : admissions) {
+            rows.add(new Object[] {
+                admission.patientNationalId(), admission.wardId(), admission.bedNumber(),
+                admission.status() == AdmissionStatus.ACTIVE ? admission.bedNumber() : null,
+                timestamp(admission.admissionDate()), timestamp(admission.dischargeDate()), admission.status().name()
+            });
+        }
+        insert(INSERT_ADMISSION, rows, new int[] {
+            Types.VARCHAR, Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR
+        });
+    }
+
+    public void insertAppointments(List<AppointmentRow> appointments) {
+        List<Object[]> rows = new ArrayList<>(appointments.size());
+        for (AppointmentRow appointment : appointments) {
+            rows.add(new Object[] {
+                appointment.doctorId(), appointment.patientNationalId(), date(appointment.appointmentDate()),
+                time(appointment.appointmentTime()), time(appointment.bookedSlot()), appointment.status().name(),
+                appointment.appointmentType().name(), timestamp(appointment.createdAt())
+            });
+        }
+        insert(INSERT_APPOINTMENT, rows, new int[] {
+            Types.BIGINT, Types.VARCHAR, Types.DATE, Types.TIME, Types.TIME, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP
+        });
+    }
+
+    public void insertTransfers(List<TransferRow> transfers) {
+        List<Object[]> rows = new ArrayList<>(transfers.size());
+        for (TransferRow transfer : transfers) {
+            rows.add(new Object[] {
+                transfer.patientNationalId(), transfer.fromWardId(), transfer.toWardId(), transfer.oldAdmissionId(),
+                transfer.newAdmissionId(), transfer.fromBedNumber(), transfer.toBedNumber(),
+                timestamp(transfer.transferDate()), transfer.transferReason()
+            });
+        }
+        insert(INSERT_TRANSFER, rows, new int[] {
+            Types.VARCHAR, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.VARCHAR,
+            Types.TIMESTAMP, Types.VARCHAR
+        });
+    }
+
+    // Helper methods
+    private void insert(String sql, List<Object[]> rows, int[] types) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())), types);
+        }
+    }
+
+    private static Date date(LocalDate date) {
+        return date != null ? Date.valueOf(date) : null;
+    }
+
+    private static Time time(LocalTime time) {
+        return time != null ? Time.valueOf(time) : null;
+    }
+
+    private static Timestamp timestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+
+    public record AdmissionRow(String patientNationalId, Long wardId, String bedNumber, LocalDateTime admissionDate,
+                               LocalDateTime dischargeDate, AdmissionStatus status) {}
+
+    public record AppointmentRow(Long doctorId, String patientNationalId, LocalDate appointmentDate,
+                                 LocalTime appointmentTime, LocalTime bookedSlot, AppointmentStatus status,
+                                 AppointmentType appointmentType, LocalDateTime createdAt) {}
+
+    public record TransferRow(String patientNationalId, Long fromWardId, Long toWardId, Long oldAdmissionId,
+                              Long newAdmissionId, String fromBedNumber, String toBedNumber,
+                              LocalDateTime transferDate, String transferReason) {}
+}
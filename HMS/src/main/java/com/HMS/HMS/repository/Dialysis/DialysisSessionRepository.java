@@ -1,6 +1,7 @@
 package com.HMS.HMS.repository.Dialysis;
 
 import com.HMS.HMS.model.Dialysis.DialysisSession;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,6 +16,18 @@ public interface DialysisSessionRepository extends JpaRepository<DialysisSession
     // Find sessions by patient
     List<DialysisSession> findByPatientNationalId(String patientNationalId);
     
+    // Keyset pages on (scheduledDate, sessionId), newest first: the first page, then the
+    // pages after a cursor; the cursor is exclusive.
+    @Query("SELECT s FROM DialysisSession s ORDER BY s.scheduledDate DESC, s.sessionId DESC")
+    List<DialysisSession> findPageFirst(Pageable pageable);
+    
+    @Query("SELECT s FROM DialysisSession s WHERE s.scheduledDate < :cursorDate " +
+           "OR (s.scheduledDate = :cursorDate AND s.sessionId < :cursorId) " +
+           "ORDER BY s.scheduledDate DESC, s.sessionId DESC")
+    List<DialysisSession> findPageBefore(@Param("cursorDate") LocalDate cursorDate,
+                                         @Param("cursorId") String cursorId,
+                                         Pageable pageable);
+    
     // Find sessions by machine
     List<DialysisSession> findByMachineId(String machineId);
     
@@ -0,0 +1,42 @@
+package com.HMS.HMS.repository;
+
+import com.HMS.HMS.model.LabRequest.LabAbnormalResult;
+import com.HMS.HMS.model.LabRequest.LabResultFlag;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LabAbnormalResultRepository extends JpaRepository<LabAbnormalResult, Long> {
+
+    // ward, flag, count for results on [startDate, endDate]
+    @Query("SELECT a.wardName, a.flag, COUNT(a) FROM LabAbnormalResult a " +
+           "WHERE a.resultDate BETWEEN :startDate AND :endDate GROUP BY a.wardName, a.flag")
+    List<Object[]> countByWardAndFlag(@Param("startDate") LocalDate startDate,
+                                      @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT COUNT(a) FROM LabAbnormalResult a WHERE a.flag = :flag AND a.resultDate BETWEEN :startDate AND :endDate")
+    Long countByFlagBetween(@Param("flag") LabResultFlag flag,
+                            @Param("startDate") LocalDate startDate,
+                            @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT a FROM LabAbnormalResult a WHERE a.wardName = :wardName " +
+           "AND a.resultDate BETWEEN :startDate AND :endDate ORDER BY a.completedAt DESC")
+    List<LabAbnormalResult> findByWardBetween(@Param("wardName") String wardName,
+                                              @Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate,
+                                              Pageable pageable);
+
+    List<LabAbnormalResult> findByPatientNationalIdOrderByCompletedAtDesc(String patientNationalId);
+
+    @Modifying
+    @Query("DELETE FROM LabAbnormalResult a WHERE a.patientNationalId IN :patientNationalIds")
+    int deleteByPatientNationalIdIn(@Param("patientNationalIds") Collection<String> patientNationalIds);
+}
@@ -0,0 +1,15 @@
+package com.HMS.HMS.repository;
+
+import com.HMS.HMS.model.LabRequest.LabEquipment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LabEquipmentRepository extends JpaRepository<LabEquipment, Long> {
+
+    Optional<LabEquipment> findByEquipmentId(String equipmentId);
+
+    boolean existsByEquipmentId(String equipmentId);
+}
@@ -0,0 +1,26 @@
+package com.HMS.HMS.repository;
+
+import com.HMS.HMS.model.LabRequest.LabEquipmentUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LabEquipmentUsageRepository extends JpaRepository<LabEquipmentUsage, Long> {
+
+    Optional<LabEquipmentUsage> findByEquipmentIdAndPeriodDateAndPeriodHour(String equipmentId, LocalDate periodDate, Integer periodHour);
+
+    /**
+     * Usage per analyser over [from, to]: equipmentId, tests, queue depth sum, queue samples,
+     * max queue depth, down minutes, maintenance events, busiest hour's tests
+     */
+    @Query("SELECT u.equipmentId, SUM(u.testsProcessed), SUM(u.queueDepthSum), SUM(u.queueSamples), " +
+           "MAX(u.queueDepthMax), SUM(u.downMinutes), SUM(u.maintenanceEvents), MAX(u.testsProcessed) " +
+           "FROM LabEquipmentUsage u WHERE u.periodDate BETWEEN :from AND :to GROUP BY u.equipmentId")
+    List<Object[]> summarizeByEquipment(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
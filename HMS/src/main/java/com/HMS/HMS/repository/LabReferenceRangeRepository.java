@@ -0,0 +1,9 @@
+package com.HMS.HMS.repository;
+
+import com.HMS.HMS.model.LabRequest.LabReferenceRange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LabReferenceRangeRepository extends JpaRepository<LabReferenceRange, Long> {
+}
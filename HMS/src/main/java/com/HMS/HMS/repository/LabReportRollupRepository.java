@@ -0,0 +1,22 @@
+package com.HMS.HMS.repository;
+
+import com.HMS.HMS.model.LabRequest.LabReportRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LabReportRollupRepository extends JpaRepository<LabReportRollup, Long> {
+
+    List<LabReportRollup> findByPeriodYear(Integer periodYear);
+
+    long countByPeriodYear(Integer periodYear);
+
+    @Modifying
+    @Query("DELETE FROM LabReportRollup r WHERE r.periodYear = :year")
+    void deleteByPeriodYear(@Param("year") Integer year);
+}
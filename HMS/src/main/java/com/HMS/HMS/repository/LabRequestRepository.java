@@ -1,13 +1,17 @@
 package com.HMS.HMS.repository;
 
+import com.HMS.HMS.DTO.LabRequest.LabQueueItemDTO;
 import com.HMS.HMS.model.LabRequest.LabRequest;
 import com.HMS.HMS.model.LabRequest.LabRequestStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,4 +38,94 @@ public interface LabRequestRepository extends JpaRepository<LabRequest, Long> {
     
     @Query("SELECT COUNT(lr) FROM LabRequest lr WHERE lr.status = :status")
     Long countByStatus(@Param("status") LabRequestStatus status);
+    
+    // Lab queue projections of one status: header columns only, keyset-paged on (requestDate, id).
+    // With a single status the (status, request_date, id) and (ward_name, status, request_date, id)
+    // indexes return rows already in page order, so there is no filesort; callers merge the
+    // pages of several statuses. wardName may be null for all wards; the cursor is exclusive.
+    @Query("SELECT new com.HMS.HMS.DTO.LabRequest.LabQueueItemDTO(lr.id, lr.requestId, lr.patientNationalId, " +
+           "lr.patientName, lr.wardName, lr.bedNumber, lr.requestedBy, lr.requestDate, lr.status) " +
+           "FROM LabRequest lr WHERE lr.status = :status AND (:wardName IS NULL OR lr.wardName = :wardName) " +
+           "AND (lr.requestDate > :cursorDate OR (lr.requestDate = :cursorDate AND lr.id > :cursorId)) " +
+           "ORDER BY lr.requestDate ASC, lr.id ASC")
+    List<LabQueueItemDTO> findQueueAfter(@Param("status") LabRequestStatus status,
+                                         @Param("wardName") String wardName,
+                                         @Param("cursorDate") LocalDateTime cursorDate,
+                                         @Param("cursorId") Long cursorId,
+                                         Pageable pageable);
+    
+    @Query("SELECT new com.HMS.HMS.DTO.LabRequest.LabQueueItemDTO(lr.id, lr.requestId, lr.patientNationalId, " +
+           "lr.patientName, lr.wardName, lr.bedNumber, lr.requestedBy, lr.requestDate, lr.status) " +
+           "FROM LabRequest lr WHERE lr.status = :status AND (:wardName IS NULL OR lr.wardName = :wardName) " +
+           "AND (lr.requestDate < :cursorDate OR (lr.requestDate = :cursorDate AND lr.id < :cursorId)) " +
+           "ORDER BY lr.requestDate DESC, lr.id DESC")
+    List<LabQueueItemDTO> findQueueBefore(@Param("status") LabRequestStatus status,
+                                          @Param("wardName") String wardName,
+                                          @Param("cursorDate") LocalDateTime cursorDate,
+                                          @Param("cursorId") Long cursorId,
+                                          Pageable pageable);
+    
+    // Every lab request as a queue row, newest first, keyset-paged on id; the cursor is exclusive.
+    @Query("SELECT new com.HMS.HMS.DTO.LabRequest.LabQueueItemDTO(lr.id, lr.requestId, lr.patientNationalId, " +
+           "lr.patientName, lr.wardName, lr.bedNumber, lr.requestedBy, lr.requestDate, lr.status) " +
+           "FROM LabRequest lr WHERE lr.id < :cursorId ORDER BY lr.id DESC")
+    List<LabQueueItemDTO> findItemsBefore(@Param("cursorId") Long cursorId, Pageable pageable);
+    
+    // lab request id, test name, ordered count, urgent count
+    @Query("SELECT t.labRequest.id, t.testName, COUNT(t), SUM(CASE WHEN t.urgent = true THEN 1 ELSE 0 END) " +
+           "FROM LabTest t WHERE t.labRequest.id IN :labRequestIds " +
+           "GROUP BY t.labRequest.id, t.testName ORDER BY t.testName")
+    List<Object[]> summarizeTestsByLabRequestIdIn(@Param("labRequestIds") Collection<Long> labRequestIds);
+    
+    // Header fields only, without loading the tests collection:
+    // request id, patient national id, patient name, ward, request date, status
+    @Query("SELECT lr.requestId, lr.patientNationalId, lr.patientName, lr.wardName, lr.requestDate, lr.status " +
+           "FROM LabRequest lr WHERE lr.requestId IN :requestIds")
+    List<Object[]> findHeadersByRequestIdIn(@Param("requestIds") Collection<String> requestIds);
+    
+    @Modifying
+    @Query("UPDATE LabRequest lr SET lr.status = :status, lr.updatedAt = :updatedAt " +
+           "WHERE lr.requestId IN :requestIds AND lr.status <> :status")
+    int updateStatusByRequestIdIn(@Param("requestIds") Collection<String> requestIds,
+                                  @Param("status") LabRequestStatus status,
+                                  @Param("updatedAt") LocalDateTime updatedAt);
+    
+    // Annual report aggregates over requests made in [startDate, endDate]
+    
+    // month, ward, request count, completed count, cancelled count
+    @Query("SELECT MONTH(lr.requestDate), lr.wardName, COUNT(lr), " +
+           "SUM(CASE WHEN lr.status = :completed THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN lr.status = :cancelled THEN 1 ELSE 0 END) " +
+           "FROM LabRequest lr WHERE lr.requestDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY MONTH(lr.requestDate), lr.wardName")
+    List<Object[]> aggregateRequestsByMonthAndWard(@Param("startDate") LocalDateTime startDate,
+                                                   @Param("endDate") LocalDateTime endDate,
+                                                   @Param("completed") LabRequestStatus completed,
+                                                   @Param("cancelled") LabRequestStatus cancelled);
+    
+    // month, distinct patients
+    @Query("SELECT MONTH(lr.requestDate), COUNT(DISTINCT lr.patientNationalId) FROM LabRequest lr " +
+           "WHERE lr.requestDate BETWEEN :startDate AND :endDate GROUP BY MONTH(lr.requestDate)")
+    List<Object[]> countPatientsByMonth(@Param("startDate") LocalDateTime startDate,
+                                        @Param("endDate") LocalDateTime endDate);
+    
+    @Query("SELECT COUNT(DISTINCT lr.patientNationalId) FROM LabRequest lr " +
+           "WHERE lr.requestDate BETWEEN :startDate AND :endDate")
+    Long countDistinctPatients(@Param("startDate") LocalDateTime startDate,
+                               @Param("endDate") LocalDateTime endDate);
+    
+    // month, ward, requests with at least one urgent test
+    @Query("SELECT MONTH(lr.requestDate), lr.wardName, COUNT(DISTINCT lr.id) FROM LabRequest lr JOIN lr.tests t " +
+           "WHERE t.urgent = true AND lr.requestDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY MONTH(lr.requestDate), lr.wardName")
+    List<Object[]> countUrgentRequestsByMonthAndWard(@Param("startDate") LocalDateTime startDate,
+                                                     @Param("endDate") LocalDateTime endDate);
+    
+    // month, test name, category, ward, test count, urgent test count
+    @Query("SELECT MONTH(lr.requestDate), t.testName, t.category, lr.wardName, COUNT(t), " +
+           "SUM(CASE WHEN t.urgent = true THEN 1 ELSE 0 END) " +
+           "FROM LabTest t JOIN t.labRequest lr WHERE lr.requestDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY MONTH(lr.requestDate), t.testName, t.category, lr.wardName")
+    List<Object[]> aggregateTestsByMonthTypeAndWard(@Param("startDate") LocalDateTime startDate,
+                                                    @Param("endDate") LocalDateTime endDate);
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.HMS.HMS.repository;
+
+import com.HMS.HMS.model.LabRequest.LabTestDefinition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LabTestDefinitionRepository extends JpaRepository<LabTestDefinition, Long> {
+
+    @Query("SELECT DISTINCT d FROM LabTestDefinition d LEFT JOIN FETCH d.analytes")
+    List<LabTestDefinition> findAllWithAnalytes();
+}
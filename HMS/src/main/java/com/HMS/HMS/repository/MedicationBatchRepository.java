@@ -0,0 +1,44 @@
+package com.HMS.HMS.repository;
+
+import com.HMS.HMS.model.Medication.MedicationBatch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MedicationBatchRepository extends JpaRepository<MedicationBatch, Long> {
+
+    Optional<MedicationBatch> findByMedicationIdAndBatchNumber(Long medicationId, String batchNumber);
+
+    // Locked while receiving so concurrent deliveries of the same lot add up
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM MedicationBatch b WHERE b.medication.id = :medicationId AND b.batchNumber = :batchNumber")
+    Optional<MedicationBatch> findForUpdate(@Param("medicationId") Long medicationId,
+                                            @Param("batchNumber") String batchNumber);
+
+    // Locked while allocating so concurrent dispenses of a medication take stock one after another
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM MedicationBatch b JOIN FETCH b.medication m WHERE m.id = :medicationId AND b.quantity > 0 " +
+           "ORDER BY b.expiryDate ASC, b.id ASC")
+    List<MedicationBatch> findInStockForUpdate(@Param("medicationId") Long medicationId);
+
+    @Query("SELECT b FROM MedicationBatch b JOIN FETCH b.medication m WHERE m.id = :medicationId AND b.quantity > 0 ORDER BY b.expiryDate ASC")
+    List<MedicationBatch> findInStockByMedicationId(@Param("medicationId") Long medicationId);
+
+    boolean existsByMedicationId(Long medicationId);
+
+    // All lots with stock left, with their medication, for the in-memory FEFO index
+    @Query("SELECT b FROM MedicationBatch b JOIN FETCH b.medication m WHERE b.quantity > 0 AND m.isActive = true")
+    List<MedicationBatch> findAllInStockWithMedication();
+
+    // Active medications holding stock that predates the lot ledger
+    @Query("SELECT m.id FROM Medication m WHERE m.currentStock > 0 " +
+           "AND NOT EXISTS (SELECT b FROM MedicationBatch b WHERE b.medication = m)")
+    List<Long> findMedicationIdsWithoutBatches();
+}
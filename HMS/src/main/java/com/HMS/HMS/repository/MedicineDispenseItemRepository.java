@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -55,4 +56,40 @@ public interface MedicineDispenseItemRepository extends JpaRepository<MedicineDi
     // Find items requiring substitution
     @Query("SELECT di FROM MedicineDispenseItem di WHERE di.itemStatus = 'OUT_OF_STOCK' AND di.substitutionReason IS NULL")
     List<MedicineDispenseItem> findItemsRequiringSubstitution();
-}
\ No newline at end of file
+
+    // Dispensed quantity and value per month and medication: month, medicationId, drugName, category, quantity, lines, value.
+    // Dated like the live rollup increments; items dispensed before dispensedAt existed fall back to updatedAt.
+    @Query("SELECT MONTH(COALESCE(di.dispensedAt, di.updatedAt)), m.id, m.drugName, m.category, SUM(di.dispensedQuantity), COUNT(di), SUM(di.totalPrice) " +
+           "FROM MedicineDispenseItem di JOIN di.medication m JOIN di.dispenseRequest dr " +
+           "WHERE di.dispensedQuantity > 0 AND dr.status NOT IN ('CANCELLED') " +
+           "AND COALESCE(di.dispensedAt, di.updatedAt) BETWEEN :startDate AND :endDate " +
+           "GROUP BY MONTH(COALESCE(di.dispensedAt, di.updatedAt)), m.id, m.drugName, m.category")
+    List<Object[]> aggregateDispensedByMonthAndMedication(@Param("startDate") LocalDateTime startDate,
+                                                          @Param("endDate") LocalDateTime endDate);
+
+    // Dispensed revenue and cost per day: year, month, day, revenue, cost, requests
+    @Query("SELECT YEAR(di.updatedAt), MONTH(di.updatedAt), DAY(di.updatedAt), " +
+           "SUM(di.unitPrice * di.dispensedQuantity), SUM(m.unitCost * di.dispensedQuantity), COUNT(DISTINCT dr.id) " +
+           "FROM MedicineDispenseItem di JOIN di.medication m JOIN di.dispenseRequest dr " +
+           "WHERE di.dispensedQuantity > 0 AND dr.status NOT IN ('CANCELLED') AND di.updatedAt BETWEEN :startDate AND :endDate " +
+           "GROUP BY YEAR(di.updatedAt), MONTH(di.updatedAt), DAY(di.updatedAt)")
+    List<Object[]> aggregateRevenueByDay(@Param("startDate") LocalDateTime startDate,
+                                         @Param("endDate") LocalDateTime endDate);
+
+    // Dispensed revenue and cost per month: year, month, revenue, cost, requests
+    @Query("SELECT YEAR(di.updatedAt), MONTH(di.updatedAt), " +
+           "SUM(di.unitPrice * di.dispensedQuantity), SUM(m.unitCost * di.dispensedQuantity), COUNT(DISTINCT dr.id) " +
+           "FROM MedicineDispenseItem di JOIN di.medication m JOIN di.dispenseRequest dr " +
+           "WHERE di.dispensedQuantity > 0 AND dr.status NOT IN ('CANCELLED') AND di.updatedAt BETWEEN :startDate AND :endDate " +
+           "GROUP BY YEAR(di.updatedAt), MONTH(di.updatedAt)")
+    List<Object[]> aggregateRevenueByMonth(@Param("startDate") LocalDateTime startDate,
+                                           @Param("endDate") LocalDateTime endDate);
+
+    // Dispensed quantity, revenue and cost per medication category: category, quantity, revenue, cost
+    @Query("SELECT m.category, SUM(di.dispensedQuantity), SUM(di.unitPrice * di.dispensedQuantity), SUM(m.unitCost * di.dispensedQuantity) " +
+           "FROM MedicineDispenseItem di JOIN di.medication m JOIN di.dispenseRequest dr " +
+           "WHERE di.dispensedQuantity > 0 AND dr.status NOT IN ('CANCELLED') AND di.updatedAt BETWEEN :startDate AND :endDate " +
+           "GROUP BY m.category")
+    List<Object[]> aggregateRevenueByCategory(@Param("startDate") LocalDateTime startDate,
+                                              @Param("endDate") LocalDateTime endDate);
+}
@@ -55,6 +55,11 @@ public interface MedicineDispenseRequestRepository extends JpaRepository<Medicin
     @Query("SELECT dr FROM MedicineDispenseRequest dr WHERE dr.status IN :statuses ORDER BY dr.urgencyLevel DESC, dr.createdAt ASC")
     Page<MedicineDispenseRequest> findPendingRequests(@Param("statuses") List<MedicineDispenseRequest.DispenseStatus> statuses, Pageable pageable);
 
+    // Open requests with everything the pharmacy work queue needs, in one query
+    @Query("SELECT DISTINCT dr FROM MedicineDispenseRequest dr JOIN FETCH dr.prescription p JOIN FETCH p.patient " +
+           "LEFT JOIN FETCH dr.dispenseItems WHERE dr.status IN :statuses")
+    List<MedicineDispenseRequest> findOpenForWorkQueue(@Param("statuses") List<MedicineDispenseRequest.DispenseStatus> statuses);
+
     // Find urgent requests
     @Query("SELECT dr FROM MedicineDispenseRequest dr WHERE dr.urgencyLevel IN ('URGENT', 'EMERGENCY') AND dr.status NOT IN ('DELIVERED', 'CANCELLED') ORDER BY dr.urgencyLevel DESC, dr.createdAt ASC")
     List<MedicineDispenseRequest> findUrgentRequests();
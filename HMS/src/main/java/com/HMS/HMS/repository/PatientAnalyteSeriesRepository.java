@@ -0,0 +1,36 @@
+package com.HMS.HMS.repository;
+
+import com.HMS.HMS.model.LabRequest.LabAnalyte;
+import com.HMS.HMS.model.LabRequest.PatientAnalyteSeries;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PatientAnalyteSeriesRepository extends JpaRepository<PatientAnalyteSeries, Long> {
+
+    Optional<PatientAnalyteSeries> findByPatientNationalIdAndAnalyte(String patientNationalId, LabAnalyte analyte);
+
+    List<PatientAnalyteSeries> findByPatientNationalIdOrderByAnalyte(String patientNationalId);
+
+    // Locked for appending so concurrent result saves for a patient don't overwrite each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM PatientAnalyteSeries s WHERE s.patientNationalId IN :patientNationalIds")
+    List<PatientAnalyteSeries> findForUpdateByPatientNationalIdIn(@Param("patientNationalIds") Collection<String> patientNationalIds);
+
+    // Create an empty series unless one exists; concurrent first results for a patient wait
+    // on the unique key instead of failing on it
+    @Modifying
+    @Query(value = "INSERT INTO patient_analyte_series (patient_national_id, analyte, point_count, version) " +
+                   "VALUES (:patientNationalId, :analyte, 0, 0) ON DUPLICATE KEY UPDATE id = id",
+           nativeQuery = true)
+    void insertIfAbsent(@Param("patientNationalId") String patientNationalId, @Param("analyte") String analyte);
+}
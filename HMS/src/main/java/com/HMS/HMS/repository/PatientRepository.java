@@ -1,19 +1,38 @@
 package com.HMS.HMS.repository;
 
+import com.HMS.HMS.DTO.PatientDTO.PatientResponseDTO;
 import com.HMS.HMS.model.Patient.Patient;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient,String> {
     boolean existsByNationalId(String nationalId);
     Patient findByNationalId(String nationalId);
 
+    // Patient list rows without the lazy collections, keyset-paged on nationalId in
+    // ascending order; the cursor is exclusive.
+    @Query("SELECT new com.HMS.HMS.DTO.PatientDTO.PatientResponseDTO(p.nationalId, p.firstName, p.lastName, " +
+           "p.address, p.dateOfBirth, p.contactNumber, p.emergencyContactNumber, p.gender, p.registrationDate) " +
+           "FROM Patient p WHERE p.nationalId > :cursor ORDER BY p.nationalId ASC")
+    List<PatientResponseDTO> findResponsesAfter(@Param("cursor") String cursor, Pageable pageable);
+
     // Search by first name
     List<Patient> findByFirstNameContainingIgnoreCase(String firstName);
 
@@ -33,4 +52,39 @@ public interface PatientRepository extends JpaRepository<Patient,String> {
 
     Optional<Patient> findByContactNumber(String contactNumber);
     List<Patient> findByGender(String gender);
-}
\ No newline at end of file
+
+    // national id, date of birth, gender
+    @Query("SELECT p.nationalId, p.dateOfBirth, p.gender FROM Patient p WHERE p.nationalId IN :nationalIds")
+    List<Object[]> findDemographicsByNationalIdIn(@Param("nationalIds") Collection<String> nationalIds);
+
+    // Locked while admitting so two admissions of the same patient can't both see them as not admitted
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Patient p WHERE p.nationalId = :nationalId")
+    Optional<Patient> findForUpdate(@Param("nationalId") String nationalId);
+
+    // Recompute current_admission_id from the active admissions
+    @Modifying
+    @Query("UPDATE Patient p SET p.currentAdmissionId = " +
+            "(SELECT MAX(a.admissionId) FROM Admission a WHERE a.patient.nationalId = p.nationalId AND a.status = 'ACTIVE')")
+    int syncCurrentAdmissions();
+
+    // Same, for the given patients only
+    @Modifying
+    @Query("UPDATE Patient p SET p.currentAdmissionId = " +
+            "(SELECT MAX(a.admissionId) FROM Admission a WHERE a.patient.nationalId = p.nationalId AND a.status = 'ACTIVE') " +
+            "WHERE p.nationalId IN :nationalIds")
+    int syncCurrentAdmissions(@Param("nationalIds") Collection<String> nationalIds);
+
+    // national id, current admission id
+    @Query("SELECT p.nationalId, p.currentAdmissionId FROM Patient p WHERE p.nationalId IN :nationalIds")
+    List<Object[]> findAdmissionStateByNationalIdIn(@Param("nationalIds") Collection<String> nationalIds);
+
+    // national id, first name, last name, contact number, date of birth, gender of every
+    // patient, streamed row by row to build the search index
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.nationalId, p.firstName, p.lastName, p.contactNumber, p.dateOfBirth, p.gender FROM Patient p")
+    Stream<Object[]> streamSearchFields();
+}
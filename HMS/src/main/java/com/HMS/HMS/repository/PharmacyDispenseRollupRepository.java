@@ -0,0 +1,56 @@
+package com.HMS.HMS.repository;
+
+import com.HMS.HMS.model.Pharmacy.PharmacyDispenseRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PharmacyDispenseRollupRepository extends JpaRepository<PharmacyDispenseRollup, Long> {
+
+    Optional<PharmacyDispenseRollup> findByPeriodYearAndPeriodMonthAndMedicationId(Integer periodYear, Integer periodMonth, Long medicationId);
+
+    List<PharmacyDispenseRollup> findByPeriodYearOrderByPeriodMonthAsc(Integer periodYear);
+
+    List<PharmacyDispenseRollup> findByPeriodYearAndPeriodMonth(Integer periodYear, Integer periodMonth);
+
+    long countByPeriodYear(Integer periodYear);
+
+    // Atomic increment that creates the month's row on the first dispense; concurrent first
+    // dispenses of a medication wait on the unique key instead of failing on it. Negative
+    // deltas take back a dispense that no longer counts.
+    @Modifying
+    @Query(value = "INSERT INTO pharmacy_dispense_rollups (period_year, period_month, medication_id, drug_name, category, " +
+                   "quantity_dispensed, dispense_count, total_value, updated_at) " +
+                   "VALUES (:year, :month, :medicationId, :drugName, :category, :quantity, :count, :value, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE quantity_dispensed = quantity_dispensed + :quantity, " +
+                   "dispense_count = dispense_count + :count, total_value = total_value + :value, updated_at = NOW()",
+           nativeQuery = true)
+    void upsertIncrement(@Param("year") Integer year,
+                         @Param("month") Integer month,
+                         @Param("medicationId") Long medicationId,
+                         @Param("drugName") String drugName,
+                         @Param("category") String category,
+                         @Param("quantity") Long quantity,
+                         @Param("count") Long count,
+                         @Param("value") java.math.BigDecimal value);
+
+    @Modifying
+    @Query("DELETE FROM PharmacyDispenseRollup r WHERE r.periodYear = :year")
+    void deleteByPeriodYear(@Param("year") Integer year);
+
+    // Monthly totals: month, quantity, dispense count, value
+    @Query("SELECT r.periodMonth, SUM(r.quantityDispensed), SUM(r.dispenseCount), SUM(r.totalValue) " +
+           "FROM PharmacyDispenseRollup r WHERE r.periodYear = :year GROUP BY r.periodMonth ORDER BY r.periodMonth")
+    List<Object[]> getMonthlyTotals(@Param("year") Integer year);
+
+    // Category totals: category, quantity, value
+    @Query("SELECT r.category, SUM(r.quantityDispensed), SUM(r.totalValue) " +
+           "FROM PharmacyDispenseRollup r WHERE r.periodYear = :year GROUP BY r.category ORDER BY SUM(r.totalValue) DESC")
+    List<Object[]> getCategoryTotals(@Param("year") Integer year);
+}
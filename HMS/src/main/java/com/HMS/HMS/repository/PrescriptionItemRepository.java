@@ -125,4 +125,44 @@ public interface PrescriptionItemRepository extends JpaRepository<PrescriptionIt
                                   
     // Analytics methods
     long countByIsUrgentTrueAndCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
-}
\ No newline at end of file
+
+    // Dispensed (completed) prescription lines per month and medication: month, medicationId, drugName, category, quantity, lines, value.
+    // Lines dispensed before the price was recorded are valued at the medication's unit cost. Dated like the live
+    // rollup increments; prescriptions completed before dispensedAt existed fall back to lastModified.
+    @Query("SELECT MONTH(COALESCE(p.dispensedAt, p.lastModified)), m.id, m.drugName, m.category, SUM(pi.quantity), COUNT(pi), SUM(pi.quantity * COALESCE(pi.unitPrice, m.unitCost)) " +
+           "FROM PrescriptionItem pi JOIN pi.medication m JOIN pi.prescription p " +
+           "WHERE p.status = :status AND COALESCE(p.dispensedAt, p.lastModified) BETWEEN :startDate AND :endDate " +
+           "GROUP BY MONTH(COALESCE(p.dispensedAt, p.lastModified)), m.id, m.drugName, m.category")
+    List<Object[]> aggregateDispensedByMonthAndMedication(@Param("status") PrescriptionStatus status,
+                                                          @Param("startDate") LocalDateTime startDate,
+                                                          @Param("endDate") LocalDateTime endDate);
+
+    // Completed prescription revenue and cost per day: year, month, day, revenue, cost, prescriptions
+    @Query("SELECT YEAR(p.lastModified), MONTH(p.lastModified), DAY(p.lastModified), " +
+           "SUM(pi.quantity * COALESCE(pi.unitPrice, m.unitCost)), SUM(pi.quantity * m.unitCost), COUNT(DISTINCT p.id) " +
+           "FROM PrescriptionItem pi JOIN pi.medication m JOIN pi.prescription p " +
+           "WHERE p.status = :status AND p.lastModified BETWEEN :startDate AND :endDate " +
+           "GROUP BY YEAR(p.lastModified), MONTH(p.lastModified), DAY(p.lastModified)")
+    List<Object[]> aggregateRevenueByDay(@Param("status") PrescriptionStatus status,
+                                         @Param("startDate") LocalDateTime startDate,
+                                         @Param("endDate") LocalDateTime endDate);
+
+    // Completed prescription revenue and cost per month: year, month, revenue, cost, prescriptions
+    @Query("SELECT YEAR(p.lastModified), MONTH(p.lastModified), " +
+           "SUM(pi.quantity * COALESCE(pi.unitPrice, m.unitCost)), SUM(pi.quantity * m.unitCost), COUNT(DISTINCT p.id) " +
+           "FROM PrescriptionItem pi JOIN pi.medication m JOIN pi.prescription p " +
+           "WHERE p.status = :status AND p.lastModified BETWEEN :startDate AND :endDate " +
+           "GROUP BY YEAR(p.lastModified), MONTH(p.lastModified)")
+    List<Object[]> aggregateRevenueByMonth(@Param("status") PrescriptionStatus status,
+                                           @Param("startDate") LocalDateTime startDate,
+                                           @Param("endDate") LocalDateTime endDate);
+
+    // Completed prescription quantity, revenue and cost per medication category: category, quantity, revenue, cost
+    @Query("SELECT m.category, SUM(pi.quantity), SUM(pi.quantity * COALESCE(pi.unitPrice, m.unitCost)), SUM(pi.quantity * m.unitCost) " +
+           "FROM PrescriptionItem pi JOIN pi.medication m JOIN pi.prescription p " +
+           "WHERE p.status = :status AND p.lastModified BETWEEN :startDate AND :endDate " +
+           "GROUP BY m.category")
+    List<Object[]> aggregateRevenueByCategory(@Param("status") PrescriptionStatus status,
+                                              @Param("startDate") LocalDateTime startDate,
+                                              @Param("endDate") LocalDateTime endDate);
+}
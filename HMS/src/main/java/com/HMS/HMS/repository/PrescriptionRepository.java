@@ -2,10 +2,12 @@ package com.HMS.HMS.repository;
 
 import com.HMS.HMS.model.Prescription.Prescription;
 import com.HMS.HMS.model.Prescription.PrescriptionStatus;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -13,6 +15,10 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface PrescriptionRepository extends JpaRepository<Prescription, Long> {
@@ -124,7 +130,36 @@ public interface PrescriptionRepository extends JpaRepository<Prescription, Long
     // Find all prescriptions by created date range
     List<Prescription> findAllByCreatedAtBetween(LocalDateTime startDateTime, LocalDateTime endDateTime);
 
+    // created at, last modified, status, ward name of every prescription created in the range,
+    // streamed row by row for the dispensing report
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.createdAt, p.lastModified, p.status, p.wardName FROM Prescription p " +
+           "WHERE p.createdAt BETWEEN :startDateTime AND :endDateTime")
+    Stream<Object[]> streamDispensingRows(@Param("startDateTime") LocalDateTime startDateTime,
+                                          @Param("endDateTime") LocalDateTime endDateTime);
+
     // Find clinic prescriptions (outpatient - no admission or clinic ward)
     @Query("SELECT p FROM Prescription p WHERE p.admission IS NULL OR p.wardName LIKE '%clinic%' OR p.wardName LIKE '%outpatient%' ORDER BY p.prescribedDate DESC")
     Page<Prescription> findClinicPrescriptions(Pageable pageable);
-}
\ No newline at end of file
+
+    // Open prescriptions with patient and items, for the pharmacy work queue
+    @Query("SELECT DISTINCT p FROM Prescription p JOIN FETCH p.patient LEFT JOIN FETCH p.prescriptionItems WHERE p.status IN :statuses")
+    List<Prescription> findOpenForWorkQueue(@Param("statuses") List<PrescriptionStatus> statuses);
+
+    // Patient's prescriptions in the given statuses with items and medications, for interaction checks
+    @Query("SELECT DISTINCT p FROM Prescription p LEFT JOIN FETCH p.prescriptionItems pi LEFT JOIN FETCH pi.medication " +
+           "WHERE p.patient.nationalId = :nationalId AND p.status IN :statuses")
+    List<Prescription> findOpenByPatientWithItems(@Param("nationalId") String nationalId,
+                                                  @Param("statuses") List<PrescriptionStatus> statuses);
+
+    // Prescriptions dispensed per month, dated like the dispensing rollups: month, prescriptions
+    @Query("SELECT MONTH(COALESCE(p.dispensedAt, p.lastModified)), COUNT(p) FROM Prescription p " +
+           "WHERE p.status = :status AND COALESCE(p.dispensedAt, p.lastModified) BETWEEN :startDate AND :endDate " +
+           "GROUP BY MONTH(COALESCE(p.dispensedAt, p.lastModified))")
+    List<Object[]> countDispensedByMonth(@Param("status") PrescriptionStatus status,
+                                         @Param("startDate") LocalDateTime startDate,
+                                         @Param("endDate") LocalDateTime endDate);
+}
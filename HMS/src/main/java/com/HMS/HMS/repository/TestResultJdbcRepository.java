@@ -0,0 +1,155 @@
+package com.HMS.HMS.repository;
+
+import com.HMS.HMS.model.LabRequest.TestResult;
+import com.HMS.HMS.model.LabRequest.TestResultValue;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Batched JDBC inserts for bulk test result ingestion.
+ *
+ * Hibernate turns off insert batching for IDENTITY ids, so saving results through the
+ * JPA repositories costs one round trip per row. These inserts go through JdbcTemplate
+ * batches instead (rewritten into multi-row INSERTs by the MySQL driver), read the
+ * generated parent ids back from the batch and write them onto the entities so the
+ * value rows can reference them. Must run inside the caller's transaction.
+ */
+@Repository
+public class TestResultJdbcRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_TEST_RESULT =
+            "INSERT INTO test_results (request_id, test_name, patient_national_id, patient_name, ward_name, " +
+            "completed_by, completed_at, notes, equipment_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_RESULT_VALUE =
+            "INSERT INTO test_result_values (test_result_id, analyte_id, numeric_value, text_value) VALUES (?, ?, ?, ?)";
+
+    /**
+     * Columns of the per-test result tables used before test_result_values, keyed by
+     * test name and analyte input key
+     */
+    private static final List<LegacyColumn> LEGACY_COLUMNS = List.of(
+            new LegacyColumn("Blood Glucose", "glucose", "blood_glucose_results", "glucose_level", true),
+            new LegacyColumn("Blood Glucose", "testType", "blood_glucose_results", "test_type", false),
+            new LegacyColumn("Complete Blood Count", "wbc", "complete_blood_count_results", "wbc", true),
+            new LegacyColumn("Complete Blood Count", "rbc", "complete_blood_count_results", "rbc", true),
+            new LegacyColumn("Complete Blood Count", "hemoglobin", "complete_blood_count_results", "hemoglobin", true),
+            new LegacyColumn("Complete Blood Count", "platelets", "complete_blood_count_results", "platelets", true),
+            new LegacyColumn("Urine Analysis", "protein", "urine_analysis_results", "protein", false),
+            new LegacyColumn("Urine Analysis", "urineGlucose", "urine_analysis_results", "urine_glucose", false),
+            new LegacyColumn("Urine Analysis", "specificGravity", "urine_analysis_results", "specific_gravity", true),
+            new LegacyColumn("Urine Analysis", "ph", "urine_analysis_results", "ph", true),
+            new LegacyColumn("Cholesterol Level", "totalCholesterol", "cholesterol_level_results", "total_cholesterol", true),
+            new LegacyColumn("Cholesterol Level", "hdlCholesterol", "cholesterol_level_results", "hdl_cholesterol", true),
+            new LegacyColumn("Cholesterol Level", "ldlCholesterol", "cholesterol_level_results", "ldl_cholesterol", true),
+            new LegacyColumn("Cholesterol Level", "triglycerides", "cholesterol_level_results", "triglycerides", true)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public TestResultJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert test result rows and set each entity's generated id
+     */
+    public void insertTestResults(List<TestResult> testResults) {
+        for (int from = 0; from < testResults.size(); from += BATCH_SIZE) {
+            List<TestResult> chunk = testResults.subList(from, Math.min(from + BATCH_SIZE, testResults.size()));
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(chunk.size());
+            for (TestResult testResult : chunk) {
+                rows.add(new Object[] {
+                    testResult.getRequestId(), testResult.getTestName(), testResult.getPatientNationalId(),
+                    testResult.getPatientName(), testResult.getWardName(), testResult.getCompletedBy(),
+                    Timestamp.valueOf(testResult.getCompletedAt()), testResult.getNotes(), testResult.getEquipmentId(), now, now
+                });
+            }
+
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(INSERT_TEST_RESULT, new String[] { "id" }),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            Object[] row = rows.get(i);
+                            for (int column = 0; column < row.length; column++) {
+                                ps.setObject(column + 1, row[column]);
+                            }
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return rows.size();
+                        }
+                    },
+                    keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            if (keys.size() != chunk.size()) {
+                throw new IllegalStateException("Expected " + chunk.size() + " generated test result ids but got " + keys.size());
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                chunk.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            }
+        }
+    }
+
+    /**
+     * Insert analyte values; their test results must already have ids
+     */
+    public void insertResultValues(List<TestResultValue> values) {
+        List<Object[]> rows = new ArrayList<>(values.size());
+        for (TestResultValue value : values) {
+            rows.add(new Object[] { value.getTestResultId(), value.getAnalyteId(), value.getNumericValue(), value.getTextValue() });
+        }
+        insert(INSERT_RESULT_VALUE, rows, new int[] { Types.BIGINT, Types.BIGINT, Types.DOUBLE, Types.VARCHAR });
+    }
+
+    /**
+     * Copy the values held in the per-test result tables into test_result_values with one
+     * INSERT ... SELECT per column. analyteIds maps (test name, input key) to the analyte
+     * definition id, or null to skip the column. Returns the number of values copied.
+     */
+    public int copyLegacyResultValues(BiFunction<String, String, Long> analyteIds) {
+        int copied = 0;
+        for (LegacyColumn legacy : LEGACY_COLUMNS) {
+            Long analyteId = analyteIds.apply(legacy.testName(), legacy.inputKey());
+            if (analyteId == null) {
+                continue;
+            }
+            String valueColumn = legacy.numeric() ? "numeric_value" : "text_value";
+            copied += jdbcTemplate.update(
+                    "INSERT INTO test_result_values (test_result_id, analyte_id, " + valueColumn + ") " +
+                    "SELECT test_result_id, ?, " + legacy.column() + " FROM " + legacy.table() +
+                    " WHERE test_result_id IS NOT NULL AND " + legacy.column() + " IS NOT NULL",
+                    analyteId);
+        }
+        return copied;
+    }
+
+    // Helper methods
+    private void insert(String sql, List<Object[]> rows, int[] types) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())), types);
+        }
+    }
+
+    private record LegacyColumn(String testName, String inputKey, String table, String column, boolean numeric) {}
+}
@@ -1,13 +1,21 @@
 package com.HMS.HMS.repository;
 
 import com.HMS.HMS.model.LabRequest.TestResult;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface TestResultRepository extends JpaRepository<TestResult, Long> {
@@ -18,6 +26,8 @@ public interface TestResultRepository extends JpaRepository<TestResult, Long> {
     // Find test results by patient national ID
     List<TestResult> findByPatientNationalIdOrderByCompletedAtDesc(String patientNationalId);
     
+    Page<TestResult> findByPatientNationalId(String patientNationalId, Pageable pageable);
+    
     // Find test results by ward name
     List<TestResult> findByWardNameOrderByCompletedAtDesc(String wardName);
     
@@ -38,4 +48,26 @@ public interface TestResultRepository extends JpaRepository<TestResult, Long> {
            "ORDER BY tr.completedAt DESC")
     List<TestResult> findRecentTestResultsByPatient(@Param("patientId") String patientId,
                                                    @Param("thirtyDaysAgo") LocalDateTime thirtyDaysAgo);
-}
\ No newline at end of file
+    
+    // Results of requests made in [startDate, endDate]: request id, ward, test name, request date,
+    // completed at, streamed row by row (a fetch size of Integer.MIN_VALUE makes MySQL
+    // Connector/J stream the result set)
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT lr.requestId, lr.wardName, tr.testName, lr.requestDate, tr.completedAt " +
+           "FROM TestResult tr, LabRequest lr WHERE lr.requestId = tr.requestId " +
+           "AND lr.requestDate BETWEEN :startDate AND :endDate")
+    Stream<Object[]> streamTurnaroundRows(@Param("startDate") LocalDateTime startDate,
+                                          @Param("endDate") LocalDateTime endDate);
+    
+    // Results completed since a point in time, same columns as streamTurnaroundRows
+    @Query("SELECT lr.requestId, lr.wardName, tr.testName, lr.requestDate, tr.completedAt " +
+           "FROM TestResult tr, LabRequest lr WHERE lr.requestId = tr.requestId " +
+           "AND tr.completedAt >= :since")
+    List<Object[]> findTurnaroundRowsCompletedSince(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT DISTINCT tr.patientNationalId FROM TestResult tr ORDER BY tr.patientNationalId")
+    List<String> findDistinctPatientNationalIds();
+}
@@ -0,0 +1,24 @@
+package com.HMS.HMS.repository;
+
+import com.HMS.HMS.model.LabRequest.TestResultValue;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TestResultValueRepository extends JpaRepository<TestResultValue, Long> {
+
+    List<TestResultValue> findByTestResultIdIn(Collection<Long> testResultIds);
+
+    /**
+     * Numeric values of the given patients' results with their parent result, for rebuilding
+     * the trend series and abnormal result index. Returns [TestResult, TestResultValue].
+     */
+    @Query("SELECT tr, v FROM TestResult tr JOIN TestResultValue v ON v.testResultId = tr.id " +
+           "WHERE tr.patientNationalId IN :patientNationalIds AND v.numericValue IS NOT NULL")
+    List<Object[]> findNumericByPatientNationalIdIn(@Param("patientNationalIds") Collection<String> patientNationalIds);
+}
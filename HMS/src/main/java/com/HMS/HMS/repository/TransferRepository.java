@@ -1,13 +1,21 @@
 package com.HMS.HMS.repository;
 
+import com.HMS.HMS.DTO.transferDTO.TransferResponseDTO;
 import com.HMS.HMS.model.Transfer.Transfer;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface TransferRepository extends JpaRepository<Transfer,Long> {
@@ -22,4 +30,35 @@ public interface TransferRepository extends JpaRepository<Transfer,Long> {
     @Query("SELECT t FROM Transfer t WHERE t.patient.nationalId = :nationalId ORDER BY t.transferDate DESC")
     List<Transfer> findPatientTransferHistory(@Param("nationalId") String nationalId);
 
+    // Transfer list rows with the patient and ward names joined in, newest first,
+    // keyset-paged on transferId; the cursor is exclusive.
+    @Query("SELECT new com.HMS.HMS.DTO.transferDTO.TransferResponseDTO(t.transferDate, t.transferId, " +
+           "p.nationalId, CONCAT(p.firstName, ' ', p.lastName), fw.wardId, fw.wardName, tw.wardId, tw.wardName, " +
+           "t.fromBedNumber, t.toBedNumber, t.transferReason, t.oldAdmission.admissionId, t.newAdmission.admissionId) " +
+           "FROM Transfer t JOIN t.patient p JOIN t.fromWard fw JOIN t.toWard tw " +
+           "WHERE t.transferId < :cursor ORDER BY t.transferId DESC")
+    List<TransferResponseDTO> findResponsesBefore(@Param("cursor") Long cursor, Pageable pageable);
+
+    // Every transfer list row in id order, oldest first, for the unpaged list
+    @Query("SELECT new com.HMS.HMS.DTO.transferDTO.TransferResponseDTO(t.transferDate, t.transferId, " +
+           "p.nationalId, CONCAT(p.firstName, ' ', p.lastName), fw.wardId, fw.wardName, tw.wardId, tw.wardName, " +
+           "t.fromBedNumber, t.toBedNumber, t.transferReason, t.oldAdmission.admissionId, t.newAdmission.admissionId) " +
+           "FROM Transfer t JOIN t.patient p JOIN t.fromWard fw JOIN t.toWard tw " +
+           "ORDER BY t.transferId ASC")
+    List<TransferResponseDTO> findAllResponses();
+
+    // Transfers into or out of a ward, newest first, with what the response needs fetched
+    @Query("SELECT t FROM Transfer t JOIN FETCH t.patient JOIN FETCH t.fromWard JOIN FETCH t.toWard " +
+           "WHERE t.fromWard.wardId = :wardId OR t.toWard.wardId = :wardId ORDER BY t.transferDate DESC")
+    List<Transfer> findWardTransfers(@Param("wardId") Long wardId);
+
+    // transfer id, from ward id, to ward id, transfer date, admission date of the admission
+    // transferred from, of every transfer, streamed row by row to build the flow matrix
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t.transferId, t.fromWard.wardId, t.toWard.wardId, t.transferDate, a.admissionDate " +
+           "FROM Transfer t JOIN t.oldAdmission a")
+    Stream<Object[]> streamFlowRows();
 }
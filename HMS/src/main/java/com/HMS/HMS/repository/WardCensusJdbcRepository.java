@@ -0,0 +1,60 @@
+package com.HMS.HMS.repository;
+
+import com.HMS.HMS.model.ward.WardCensus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batched JDBC inserts of ward census rows.
+ *
+ * Like TestResultJdbcRepository, rows go through JdbcTemplate batches that the MySQL
+ * driver rewrites into multi-row INSERTs, since Hibernate can't batch IDENTITY inserts
+ * and a rebuild writes one row per ward per day. Must run inside the caller's
+ * transaction.
+ */
+@Repository
+public class WardCensusJdbcRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT_CENSUS =
+            "INSERT INTO ward_census (census_date, ward_id, bed_count, occupied_beds, admissions, discharges, " +
+            "transfers_in, transfers_out, los_sketch, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int[] CENSUS_TYPES = {
+            Types.DATE, Types.BIGINT, Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.INTEGER,
+            Types.INTEGER, Types.INTEGER, Types.VARBINARY, Types.TIMESTAMP
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WardCensusJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert census rows; returns the number of rows written
+     */
+    public int insertCensus(List<WardCensus> census) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(census.size());
+        for (WardCensus day : census) {
+            rows.add(new Object[] {
+                Date.valueOf(day.getCensusDate()), day.getWardId(), day.getBedCount(), day.getOccupiedBeds(),
+                day.getAdmissions(), day.getDischarges(), day.getTransfersIn(), day.getTransfersOut(),
+                day.getLosSketch(), now
+            });
+        }
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT_CENSUS, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())), CENSUS_TYPES);
+        }
+        return rows.size();
+    }
+}
@@ -0,0 +1,42 @@
+package com.HMS.HMS.repository;
+
+import com.HMS.HMS.model.ward.WardCensus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface WardCensusRepository extends JpaRepository<WardCensus, Long> {
+
+    @Query("SELECT MAX(c.censusDate) FROM WardCensus c")
+    LocalDate findLatestCensusDate();
+
+    List<WardCensus> findByCensusDateAndWardIdIn(LocalDate censusDate, Collection<Long> wardIds);
+
+    // Monthly sums of the wards' census: year, month, bed days, occupied bed days,
+    // admissions, discharges, transfers in, transfers out
+    @Query("SELECT YEAR(c.censusDate), MONTH(c.censusDate), SUM(c.bedCount), SUM(c.occupiedBeds), " +
+           "SUM(c.admissions), SUM(c.discharges), SUM(c.transfersIn), SUM(c.transfersOut) " +
+           "FROM WardCensus c WHERE c.wardId IN :wardIds AND c.censusDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY YEAR(c.censusDate), MONTH(c.censusDate)")
+    List<Object[]> sumByMonth(@Param("wardIds") Collection<Long> wardIds,
+                              @Param("startDate") LocalDate startDate,
+                              @Param("endDate") LocalDate endDate);
+
+    // Year, month and length of stay sketch of the wards' days with discharges
+    @Query("SELECT YEAR(c.censusDate), MONTH(c.censusDate), c.losSketch FROM WardCensus c " +
+           "WHERE c.wardId IN :wardIds AND c.censusDate BETWEEN :startDate AND :endDate AND c.discharges > 0")
+    List<Object[]> findLosSketches(@Param("wardIds") Collection<Long> wardIds,
+                                   @Param("startDate") LocalDate startDate,
+                                   @Param("endDate") LocalDate endDate);
+
+    @Modifying
+    @Query("DELETE FROM WardCensus c WHERE c.censusDate >= :startDate")
+    void deleteFrom(@Param("startDate") LocalDate startDate);
+}
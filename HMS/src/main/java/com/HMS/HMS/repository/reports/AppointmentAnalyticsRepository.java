@@ -1,13 +1,20 @@
 package com.HMS.HMS.repository.reports;
 
 import com.HMS.HMS.model.Appointment.Appointment;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface AppointmentAnalyticsRepository extends JpaRepository<Appointment, Long> {
@@ -52,4 +59,19 @@ public interface AppointmentAnalyticsRepository extends JpaRepository<Appointmen
            "ORDER BY a.appointmentDate, a.appointmentTime")
     List<Appointment> findAppointmentsByDateRange(@Param("startDate") LocalDate startDate,
                                                  @Param("endDate") LocalDate endDate);
-}
\ No newline at end of file
+
+    // date, time, status, type, doctor id of every appointment in the range, streamed row by
+    // row (a fetch size of Integer.MIN_VALUE makes MySQL Connector/J stream the result set)
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "-2147483648"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a.appointmentDate, a.appointmentTime, a.status, a.appointmentType, a.doctor.employeeId " +
+           "FROM Appointment a " +
+           "WHERE a.appointmentDate >= :startDate AND a.appointmentDate <= :endDate")
+    Stream<Object[]> streamAnalyticsRows(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    // employee id, name, specialization
+    @Query("SELECT d.employeeId, d.doctorName, d.specialization FROM Doctor d WHERE d.employeeId IN :employeeIds")
+    List<Object[]> findDoctorDetails(@Param("employeeIds") Collection<Long> employeeIds);
+}
@@ -2,6 +2,7 @@ package com.HMS.HMS.service;
 
 import com.HMS.HMS.DTO.AdmissionDTO.AdmissionRequestDTO;
 import com.HMS.HMS.DTO.AdmissionDTO.AdmissionResponseDTO;
+import com.HMS.HMS.DTO.KeysetPageDTO;
 import com.HMS.HMS.model.Admission.Admission;
 import com.HMS.HMS.model.Admission.AdmissionStatus;
 import com.HMS.HMS.model.Patient.Patient;
@@ -10,10 +11,17 @@ import com.HMS.HMS.repository.AdmissionRepository;
 import com.HMS.HMS.repository.PatientRepository;
 import com.HMS.HMS.repository.WardRepository;
 import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -21,25 +29,32 @@ import java.util.stream.Collectors;
 @Transactional
 public class AdmissionService {
 
+    private static final Logger log = LoggerFactory.getLogger(AdmissionService.class);
+
     private final AdmissionRepository admissionRepository;
     private final PatientRepository patientRepository;
     private final WardRepository wardRepository;
+    private final BedBoardService bedBoardService;
+    private final WardCensusService wardCensusService;
 
-    public AdmissionService(AdmissionRepository admissionRepository, PatientRepository patientRepository, WardRepository wardRepository) {
+    public AdmissionService(AdmissionRepository admissionRepository, PatientRepository patientRepository, WardRepository wardRepository,
+                            BedBoardService bedBoardService, WardCensusService wardCensusService) {
         this.admissionRepository = admissionRepository;
         this.patientRepository = patientRepository;
         this.wardRepository = wardRepository;
+        this.bedBoardService = bedBoardService;
+        this.wardCensusService = wardCensusService;
     }
 
     public AdmissionResponseDTO admitPatient(AdmissionRequestDTO request) {
-        // Validate patient exists
-        Optional<Patient> patientOpt = patientRepository.findById(request.getPatientNationalId());
+        // Validate patient exists, locking the row until the admission commits
+        Optional<Patient> patientOpt = patientRepository.findForUpdate(request.getPatientNationalId());
         if (patientOpt.isEmpty()) {
             throw new IllegalArgumentException("Patient with National ID " + request.getPatientNationalId() + " not found");
         }
         Patient patient = patientOpt.get();
 
-        // Check if patient is already admitted
+        // Check if patient is already admitted (current_admission_id, not the admission history)
         if (patient.isCurrentlyAdmitted()) {
             throw new IllegalArgumentException("Patient is already admitted");
         }
@@ -56,8 +71,8 @@ public class AdmissionService {
             throw new IllegalArgumentException("Bed number is required");
         }
 
-        // Check if bed is already occupied
-        if (isBedOccupied(request.getWardId(), request.getBedNumber())) {
+        // Take the bed on the bed board; of two concurrent admissions only one gets it
+        if (!bedBoardService.reserve(ward.getWardId(), request.getBedNumber())) {
             throw new IllegalArgumentException("Bed " + request.getBedNumber() + " in ward " + ward.getWardName() + " is already occupied");
         }
 
@@ -65,11 +80,12 @@ public class AdmissionService {
         Admission admission = new Admission(patient, ward, request.getBedNumber().trim());
         admission.setStatus(AdmissionStatus.ACTIVE);
 
-        Admission savedAdmission = admissionRepository.save(admission);
+        Admission savedAdmission = saveActiveAdmission(admission);
+        wardCensusService.recordAdmission(ward.getWardId(), false);
 
-        // Update relationships
-        patient.addAdmission(savedAdmission);
-        ward.addAdmission(savedAdmission);
+        // The admission already references the patient and ward; adding it to their
+        // admission lists would load every earlier admission
+        patient.setCurrentAdmissionId(savedAdmission.getAdmissionId());
 
         return convertToResponseDTO(savedAdmission);
     }
@@ -81,10 +97,15 @@ public class AdmissionService {
             throw new IllegalStateException("Patient is not currently admitted");
         }
 
+        String bedNumber = admission.getBedNumber();
         admission.setStatus(AdmissionStatus.DISCHARGED);
         admission.setDischargeDate(LocalDateTime.now());
 
         Admission savedAdmission = admissionRepository.save(admission);
+        bedBoardService.release(admission.getWard().getWardId(), bedNumber);
+        wardCensusService.recordDeparture(admission.getWard().getWardId(), AdmissionStatus.DISCHARGED,
+                admission.getAdmissionDate(), admission.getDischargeDate());
+        clearCurrentAdmission(admission);
         return convertToResponseDTO(savedAdmission);
     }
 
@@ -106,34 +127,45 @@ public class AdmissionService {
             throw new IllegalArgumentException("Bed number is required for transfer");
         }
 
-        // Check if new bed is already occupied
-        if (isBedOccupied(newWardId, newBedNumber)) {
+        // Take the new bed on the bed board
+        if (!bedBoardService.reserve(newWardId, newBedNumber)) {
             throw new IllegalArgumentException("Bed " + newBedNumber + " in ward " + newWard.getWardName() + " is already occupied");
         }
 
-        // Mark current admission as transferred
+        // Mark current admission as transferred and free its bed
+        String oldBedNumber = currentAdmission.getBedNumber();
         currentAdmission.setStatus(AdmissionStatus.TRANSFERRED);
         currentAdmission.setDischargeDate(LocalDateTime.now());
         admissionRepository.save(currentAdmission);
+        bedBoardService.release(currentAdmission.getWard().getWardId(), oldBedNumber);
+        wardCensusService.recordDeparture(currentAdmission.getWard().getWardId(), AdmissionStatus.TRANSFERRED,
+                currentAdmission.getAdmissionDate(), currentAdmission.getDischargeDate());
 
         // Create new admission in the new ward
         Admission newAdmission = new Admission(currentAdmission.getPatient(), newWard, newBedNumber.trim());
         newAdmission.setStatus(AdmissionStatus.ACTIVE);
 
-        Admission savedAdmission = admissionRepository.save(newAdmission);
-
-        // Update relationships
-        currentAdmission.getPatient().addAdmission(savedAdmission);
-        newWard.addAdmission(savedAdmission);
+        Admission savedAdmission = saveActiveAdmission(newAdmission);
+        // No transfer row links the two admissions, so the census counts this one as an admission
+        wardCensusService.recordAdmission(newWardId, false);
+        currentAdmission.getPatient().setCurrentAdmissionId(savedAdmission.getAdmissionId());
 
         return convertToResponseDTO(savedAdmission);
     }
 
     public List<AdmissionResponseDTO> getAllAdmissions() {
-        return admissionRepository.findAll()
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return admissionRepository.findAllResponses();
+    }
+
+    /**
+     * One page of admissions, newest first, from the cursor of the previous page (null
+     * for the first). One query per page whatever the table size.
+     */
+    public KeysetPageDTO<AdmissionResponseDTO> getAdmissionPage(Long cursor, int size) {
+        int pageSize = KeysetPageDTO.pageSize(size);
+        List<AdmissionResponseDTO> rows = admissionRepository.findResponsesBefore(
+                cursor != null ? cursor : Long.MAX_VALUE, PageRequest.of(0, pageSize + 1));
+        return new KeysetPageDTO<>(rows, pageSize, AdmissionResponseDTO::getAdmissionId);
     }
 
     public List<AdmissionResponseDTO> getAdmissionsByPatient(String nationalId) {
@@ -157,19 +189,61 @@ public class AdmissionService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * The patient's active admission, found through current_admission_id
+     */
+    public Optional<AdmissionResponseDTO> getCurrentAdmission(String nationalId) {
+        return patientRepository.findById(nationalId)
+                .map(Patient::getCurrentAdmissionId)
+                .flatMap(admissionRepository::findById)
+                .map(this::convertToResponseDTO);
+    }
+
+    /**
+     * Rebuild current_admission_id from the active admissions, e.g. for rows written
+     * before the column existed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void syncCurrentAdmissions() {
+        int updated = patientRepository.syncCurrentAdmissions();
+        log.info("Synced current admission for {} patients", updated);
+    }
+
     public Optional<AdmissionResponseDTO> getAdmissionById(Long admissionId) {
         return admissionRepository.findById(admissionId)
                 .map(this::convertToResponseDTO);
     }
 
     public List<String> getAvailableBedsInWard(Long wardId) {
-        // This method would need to be implemented based on your bed management logic
-        // For now, it returns occupied beds so you can determine available ones
-        return admissionRepository.findOccupiedBedsByWard(wardId);
+        return bedBoardService.getFreeBeds(wardId);
+    }
+
+    public List<String> getOccupiedBedsInWard(Long wardId) {
+        return bedBoardService.getOccupiedBeds(wardId);
+    }
+
+    public Map<String, Object> getWardOccupancy(Long wardId) {
+        return bedBoardService.getOccupancy(wardId);
     }
 
-    private boolean isBedOccupied(Long wardId, String bedNumber) {
-        return admissionRepository.existsByWardWardIdAndBedNumberAndStatus(wardId, bedNumber.trim(), AdmissionStatus.ACTIVE);
+    /**
+     * Insert an active admission. The unique (ward, active bed) constraint rejects a bed
+     * another instance of the application has already given out.
+     */
+    private Admission saveActiveAdmission(Admission admission) {
+        try {
+            return admissionRepository.save(admission);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Bed " + admission.getBedNumber() + " in ward "
+                    + admission.getWard().getWardName() + " is already occupied");
+        }
+    }
+
+    private void clearCurrentAdmission(Admission admission) {
+        Patient patient = admission.getPatient();
+        if (admission.getAdmissionId().equals(patient.getCurrentAdmissionId())) {
+            patient.setCurrentAdmissionId(null);
+        }
     }
 
     private Admission getAdmissionByIdOrThrow(Long admissionId) {
@@ -1,6 +1,8 @@
 package com.HMS.HMS.service;
 
+import com.HMS.HMS.DTO.KeysetPageDTO;
 import com.HMS.HMS.DTO.appoinmenetDTO.AppointmentResponse;
+import com.HMS.HMS.DTO.appoinmenetDTO.AvailableSlotResponse;
 import com.HMS.HMS.DTO.appoinmenetDTO.CreateAppointmentRequest;
 import com.HMS.HMS.model.Appointment.Appointment;
 import com.HMS.HMS.model.Appointment.AppointmentStatus;
@@ -9,12 +11,15 @@ import com.HMS.HMS.model.doctor.Doctor;
 import com.HMS.HMS.repository.AppointmentRepository;
 import com.HMS.HMS.repository.DoctorRepository;
 import com.HMS.HMS.repository.PatientRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,13 +28,17 @@ public class AppointmentService {
     private final AppointmentRepository appointmentRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
+    private final DoctorCalendarService doctorCalendarService;
 
-    public AppointmentService(AppointmentRepository appointmentRepository, DoctorRepository doctorRepository, PatientRepository patientRepository) {
+    public AppointmentService(AppointmentRepository appointmentRepository, DoctorRepository doctorRepository, PatientRepository patientRepository,
+                              DoctorCalendarService doctorCalendarService) {
         this.appointmentRepository = appointmentRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
+        this.doctorCalendarService = doctorCalendarService;
     }
 
+    @Transactional
     public AppointmentResponse createAppointment(CreateAppointmentRequest request){
         Doctor doctor = doctorRepository.findById(request.getDoctorEmployeeId())
                 .orElseThrow(() -> new RuntimeException("Doctor not found with ID: " + request.getDoctorEmployeeId()));
@@ -37,13 +46,10 @@ public class AppointmentService {
         Patient patient = patientRepository.findById(request.getPatientNationalId())
                 .orElseThrow(() -> new RuntimeException("Patient not found with ID: "+request.getPatientNationalId()));
 
-        Optional<Appointment> existingAppointment = appointmentRepository
-                .findByDoctorAndDateTime(request.getDoctorEmployeeId(),
-                        request.getAppointmentDate(),
-                        request.getAppointmentTime());
-
-        if (existingAppointment.isPresent() &&
-                existingAppointment.get().getStatus() != AppointmentStatus.CANCELLED){
+        // Book the slot on the doctor's calendar; of two concurrent bookings only one gets it
+        if (!doctorCalendarService.reserve(request.getDoctorEmployeeId(),
+                request.getAppointmentDate(),
+                request.getAppointmentTime())){
             throw new RuntimeException("Doctor is already booked at this time");
         }
 
@@ -54,16 +60,23 @@ public class AppointmentService {
         appointment.setAppointmentDate(request.getAppointmentDate());
         appointment.setAppointmentTime(request.getAppointmentTime());
         appointment.setStatus(AppointmentStatus.SCHEDULED);
+        appointment.setBookedSlot(DoctorCalendarService.slotStart(request.getAppointmentTime()));
 
-        appointment = appointmentRepository.save(appointment);
+        appointment = saveBooking(appointment);
 
         return mapToResponse(appointment);
     }
 
     public List<AppointmentResponse> getAllAppointments(){
-        return appointmentRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return appointmentRepository.findAllResponses();
+    }
+
+    // One page of appointments, newest first, from the cursor of the previous page (null for the first)
+    public KeysetPageDTO<AppointmentResponse> getAppointmentPage(Long cursor, int size){
+        int pageSize = KeysetPageDTO.pageSize(size);
+        List<AppointmentResponse> rows = appointmentRepository.findResponsesBefore(
+                cursor != null ? cursor : Long.MAX_VALUE, PageRequest.of(0, pageSize + 1));
+        return new KeysetPageDTO<>(rows, pageSize, AppointmentResponse::getAppointmentId);
     }
 
     // Get appointment by ID
@@ -102,12 +115,28 @@ public class AppointmentService {
     }
 
     // Update appointment status
+    @Transactional
     public AppointmentResponse updateAppointmentStatus(Long appointmentId, AppointmentStatus status) {
         Appointment appointment = appointmentRepository.findById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with ID: " + appointmentId));
 
+        boolean wasCancelled = appointment.getStatus() == AppointmentStatus.CANCELLED;
+        boolean cancelled = status == AppointmentStatus.CANCELLED;
+        if (!wasCancelled && cancelled) {
+            // Give the slot back to the calendar
+            releaseSlot(appointment);
+            appointment.setBookedSlot(null);
+        } else if (wasCancelled && !cancelled) {
+            // A cancelled appointment has to win its slot back
+            if (!doctorCalendarService.reserve(appointment.getDoctor().getEmployeeId(),
+                    appointment.getAppointmentDate(), appointment.getAppointmentTime())) {
+                throw new RuntimeException("Doctor is already booked at this time");
+            }
+            appointment.setBookedSlot(DoctorCalendarService.slotStart(appointment.getAppointmentTime()));
+        }
+
         appointment.setStatus(status);
-        appointment = appointmentRepository.save(appointment);
+        appointment = saveBooking(appointment);
 
         return mapToResponse(appointment);
     }
@@ -128,11 +157,24 @@ public class AppointmentService {
     }
 
     // Delete appointment
+    @Transactional
     public void deleteAppointment(Long appointmentId) {
-        if (!appointmentRepository.existsById(appointmentId)) {
-            throw new RuntimeException("Appointment not found with ID: " + appointmentId);
+        Appointment appointment = appointmentRepository.findById(appointmentId)
+                .orElseThrow(() -> new RuntimeException("Appointment not found with ID: " + appointmentId));
+        if (appointment.getStatus() != AppointmentStatus.CANCELLED) {
+            releaseSlot(appointment);
         }
-        appointmentRepository.deleteById(appointmentId);
+        appointmentRepository.delete(appointment);
+    }
+
+    // Free slots of one doctor on one day
+    public List<LocalTime> getFreeSlots(Long doctorId, LocalDate date) {
+        return doctorCalendarService.getFreeSlots(doctorId, date);
+    }
+
+    // First free slots across doctors of a specialization
+    public List<AvailableSlotResponse> findAvailableSlots(String specialization, LocalDateTime after, int limit) {
+        return doctorCalendarService.findFreeSlots(specialization, after, limit);
     }
 
     // Get appointments by status
@@ -169,6 +211,21 @@ public class AppointmentService {
                 .collect(Collectors.toList());
     }
 
+    private void releaseSlot(Appointment appointment) {
+        doctorCalendarService.release(appointment.getDoctor().getEmployeeId(),
+                appointment.getAppointmentDate(), appointment.getAppointmentTime());
+    }
+
+    // The unique (doctor, date, booked_slot) constraint rejects a slot booked elsewhere;
+    // flushed here so the violation surfaces inside the catch rather than at commit
+    private Appointment saveBooking(Appointment appointment) {
+        try {
+            return appointmentRepository.saveAndFlush(appointment);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Doctor is already booked at this time");
+        }
+    }
+
     private AppointmentResponse mapToResponse(Appointment appointment){
         AppointmentResponse response = new AppointmentResponse();
         response.setAppointmentId(appointment.getAppointmentId());
@@ -0,0 +1,354 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.model.ward.Ward;
+import com.HMS.HMS.repository.AdmissionRepository;
+import com.HMS.HMS.repository.WardRepository;
+import com.HMS.HMS.websocket.AdmissionNotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.HMS.HMS.util.TransactionCallbacks.afterCompletion;
+
+/**
+ * In-memory bed board with one occupancy bitmap per ward, loaded from the active
+ * admissions on startup and kept current by admissions, transfers and discharges.
+ *
+ * Beds are numbered from the ward's bed count the way the admission screen numbers them
+ * (last character of the ward name followed by a two-digit index) and bit i of a ward's
+ * bitmap is set while bed i is occupied. A bed is taken with a compare-and-set on its
+ * word, so of two concurrent admissions to the same bed only one gets it, and the bed is
+ * handed back if the admitting transaction rolls back. Free beds are counted as beds are
+ * taken and released; bed numbers outside the numbered layout are kept in a set per
+ * ward. The unique (ward_id, active_bed_number) constraint on admission backs the board
+ * in the database.
+ */
+@Service
+public class BedBoardService {
+
+    private static final Logger log = LoggerFactory.getLogger(BedBoardService.class);
+
+    private final WardRepository wardRepository;
+    private final AdmissionRepository admissionRepository;
+    private final AdmissionNotificationService notificationService;
+
+    private final Map<Long, WardBoard> boards = new ConcurrentHashMap<>();
+
+    public BedBoardService(WardRepository wardRepository,
+                           AdmissionRepository admissionRepository,
+                           AdmissionNotificationService notificationService) {
+        this.wardRepository = wardRepository;
+        this.admissionRepository = admissionRepository;
+        this.notificationService = notificationService;
+    }
+
+    /**
+     * Build the boards from the active admissions. Wards without a bed count get the
+     * default for their type, and active admissions saved before active_bed_number
+     * existed get it filled in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void load() {
+        Map<Long, WardBoard> loaded = new HashMap<>();
+        for (Ward ward : wardRepository.findAll()) {
+            if (ward.getBedCount() == null) {
+                ward.setBedCount(defaultBedCount(ward.getWardType()));
+                wardRepository.save(ward);
+            }
+            loaded.put(ward.getWardId(), new WardBoard(ward));
+        }
+
+        List<Long> unmarked = new ArrayList<>();
+        int occupied = 0;
+        for (Object[] row : admissionRepository.findActiveBeds()) {
+            Long admissionId = (Long) row[0];
+            WardBoard board = loaded.get((Long) row[1]);
+            String bedNumber = normalize((String) row[2]);
+            if (board == null || bedNumber == null) {
+                continue;
+            }
+            if (!board.take(bedNumber)) {
+                log.warn("Admission {} is active in bed {} of {} which is already taken by another active admission",
+                        admissionId, bedNumber, board.wardName);
+                continue;
+            }
+            occupied++;
+            if (row[3] == null) {
+                unmarked.add(admissionId);
+            }
+        }
+        if (!unmarked.isEmpty()) {
+            admissionRepository.markActiveBeds(unmarked);
+        }
+
+        boards.clear();
+        boards.putAll(loaded);
+        log.info("Loaded bed board for {} wards with {} occupied beds", loaded.size(), occupied);
+    }
+
+    /**
+     * Take a bed for an admission in the current transaction. Returns false if the bed is
+     * already occupied. The bed is given back if the transaction rolls back; otherwise the
+     * ward's occupancy is pushed once it commits.
+     */
+    public boolean reserve(Long wardId, String bedNumber) {
+        WardBoard board = board(wardId);
+        String bed = normalize(bedNumber);
+        if (bed == null || !board.take(bed)) {
+            return false;
+        }
+        afterCompletion(committed -> {
+            if (committed) {
+                publish(board, bed, true);
+            } else {
+                board.release(bed);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Free a bed once the discharge or transfer in the current transaction commits
+     */
+    public void release(Long wardId, String bedNumber) {
+        WardBoard board = board(wardId);
+        String bed = normalize(bedNumber);
+        if (bed == null) {
+            return;
+        }
+        afterCompletion(committed -> {
+            if (committed && board.release(bed)) {
+                publish(board, bed, false);
+            }
+        });
+    }
+
+    public boolean isOccupied(Long wardId, String bedNumber) {
+        String bed = normalize(bedNumber);
+        return bed != null && board(wardId).isTaken(bed);
+    }
+
+    public List<String> getFreeBeds(Long wardId) {
+        return board(wardId).freeBeds();
+    }
+
+    public List<String> getOccupiedBeds(Long wardId) {
+        return board(wardId).occupiedBeds();
+    }
+
+    public Map<String, Object> getOccupancy(Long wardId) {
+        return occupancy(board(wardId));
+    }
+
+    public List<Map<String, Object>> getBoard() {
+        List<Map<String, Object>> wards = new ArrayList<>();
+        for (WardBoard board : boards.values()) {
+            wards.add(occupancy(board));
+        }
+        wards.sort(Comparator.comparing(ward -> (Long) ward.get("wardId")));
+        return wards;
+    }
+
+    /**
+     * Rebuild a ward's board after its bed count changed, from its active admissions.
+     * Beds being taken by uncommitted admissions while the board is rebuilt are left to
+     * the unique bed constraint.
+     */
+    public void resize(Ward ward) {
+        boards.put(ward.getWardId(), newBoard(ward));
+    }
+
+    /**
+     * Beds per ward when none is configured, matching the admission screen
+     */
+    public static int defaultBedCount(String wardType) {
+        if (wardType == null) {
+            return 15;
+        }
+        switch (wardType.toLowerCase()) {
+            case "general":
+                return 20;
+            case "icu":
+                return 10;
+            case "dialysis":
+                return 8;
+            default:
+                return 15;
+        }
+    }
+
+    // Helper methods
+    private WardBoard board(Long wardId) {
+        WardBoard board = boards.computeIfAbsent(wardId, id -> wardRepository.findById(id)
+                .map(this::newBoard)
+                .orElse(null));
+        if (board == null) {
+            throw new IllegalArgumentException("Ward with ID " + wardId + " not found");
+        }
+        return board;
+    }
+
+    /**
+     * Board for a ward added or resized after startup, filled from its active admissions
+     */
+    private WardBoard newBoard(Ward ward) {
+        WardBoard board = new WardBoard(ward);
+        for (String bedNumber : admissionRepository.findOccupiedBedsByWard(ward.getWardId())) {
+            String bed = normalize(bedNumber);
+            if (bed != null) {
+                board.take(bed);
+            }
+        }
+        return board;
+    }
+
+    private void publish(WardBoard board, String bedNumber, boolean occupied) {
+        try {
+            Map<String, Object> update = occupancy(board);
+            update.put("bedNumber", bedNumber);
+            update.put("occupied", occupied);
+            notificationService.notifyBedOccupancy(board.wardId, update);
+        } catch (Exception e) {
+            log.warn("Failed to send bed occupancy for ward {}", board.wardId, e);
+        }
+    }
+
+    private static Map<String, Object> occupancy(WardBoard board) {
+        Map<String, Object> occupancy = new HashMap<>();
+        occupancy.put("wardId", board.wardId);
+        occupancy.put("wardName", board.wardName);
+        occupancy.put("bedCount", board.beds.length);
+        occupancy.put("occupiedBeds", board.occupiedCount());
+        occupancy.put("freeBeds", board.freeCount());
+        occupancy.put("availableBeds", board.freeBeds());
+        return occupancy;
+    }
+
+    private static String normalize(String bedNumber) {
+        if (bedNumber == null || bedNumber.isBlank()) {
+            return null;
+        }
+        return bedNumber.trim();
+    }
+
+    /**
+     * Occupancy of one ward: a bitmap over the numbered beds and a set for any other bed numbers
+     */
+    private static final class WardBoard {
+
+        private final Long wardId;
+        private final String wardName;
+        private final String[] beds;
+        private final Map<String, Integer> bedIndex;
+        private final AtomicLongArray occupied;
+        private final AtomicInteger takenCount = new AtomicInteger();
+        private final Set<String> otherBeds = ConcurrentHashMap.newKeySet();
+
+        WardBoard(Ward ward) {
+            this.wardId = ward.getWardId();
+            this.wardName = ward.getWardName();
+            int bedCount = ward.getBedCount() != null ? ward.getBedCount() : defaultBedCount(ward.getWardType());
+            String prefix = ward.getWardName() != null && !ward.getWardName().isEmpty()
+                    ? ward.getWardName().substring(ward.getWardName().length() - 1)
+                    : String.valueOf(ward.getWardId());
+            this.beds = new String[Math.max(0, bedCount)];
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < beds.length; i++) {
+                beds[i] = prefix + String.format("%02d", i + 1);
+                index.put(beds[i], i);
+            }
+            this.bedIndex = Map.copyOf(index);
+            this.occupied = new AtomicLongArray((beds.length + 63) / 64);
+        }
+
+        boolean take(String bed) {
+            Integer i = bedIndex.get(bed);
+            if (i == null) {
+                return otherBeds.add(bed);
+            }
+            int word = i >>> 6;
+            long bit = 1L << i;
+            while (true) {
+                long current = occupied.get(word);
+                if ((current & bit) != 0) {
+                    return false;
+                }
+                if (occupied.compareAndSet(word, current, current | bit)) {
+                    takenCount.incrementAndGet();
+                    return true;
+                }
+            }
+        }
+
+        boolean release(String bed) {
+            Integer i = bedIndex.get(bed);
+            if (i == null) {
+                return otherBeds.remove(bed);
+            }
+            int word = i >>> 6;
+            long bit = 1L << i;
+            while (true) {
+                long current = occupied.get(word);
+                if ((current & bit) == 0) {
+                    return false;
+                }
+                if (occupied.compareAndSet(word, current, current & ~bit)) {
+                    takenCount.decrementAndGet();
+                    return true;
+                }
+            }
+        }
+
+        boolean isTaken(String bed) {
+            Integer i = bedIndex.get(bed);
+            if (i == null) {
+                return otherBeds.contains(bed);
+            }
+            return (occupied.get(i >>> 6) & (1L << i)) != 0;
+        }
+
+        int freeCount() {
+            return beds.length - takenCount.get();
+        }
+
+        int occupiedCount() {
+            return takenCount.get() + otherBeds.size();
+        }
+
+        List<String> freeBeds() {
+            return collect(false);
+        }
+
+        List<String> occupiedBeds() {
+            List<String> taken = collect(true);
+            taken.addAll(otherBeds);
+            return taken;
+        }
+
+        private List<String> collect(boolean taken) {
+            List<String> result = new ArrayList<>();
+            for (int word = 0; word < occupied.length(); word++) {
+                long bits = taken ? occupied.get(word) : ~occupied.get(word);
+                int base = word << 6;
+                while (bits != 0) {
+                    int i = base + Long.numberOfTrailingZeros(bits);
+                    if (i >= beds.length) {
+                        break;
+                    }
+                    result.add(beds[i]);
+                    bits &= bits - 1;
+                }
+            }
+            return result;
+        }
+    }
+}
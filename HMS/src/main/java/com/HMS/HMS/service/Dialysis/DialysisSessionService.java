@@ -1,15 +1,19 @@
 package com.HMS.HMS.service.Dialysis;
 
 import com.HMS.HMS.DTO.Dialysis.DialysisSessionDTO;
+import com.HMS.HMS.DTO.KeysetPageDTO;
 import com.HMS.HMS.model.Dialysis.DialysisSession;
 import com.HMS.HMS.repository.Dialysis.DialysisSessionRepository;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -32,6 +36,44 @@ public class DialysisSessionService {
                 .collect(Collectors.toList());
     }
     
+    // One page of sessions, newest first, from the cursor of the previous page (null for the first).
+    // The cursor is the last session's "scheduledDate_sessionId".
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<DialysisSessionDTO> getSessionPage(String cursor, int size) {
+        int pageSize = KeysetPageDTO.pageSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<DialysisSession> sessions;
+        if (cursor != null) {
+            int separator = cursor.indexOf('_');
+            LocalDate cursorDate;
+            try {
+                cursorDate = LocalDate.parse(cursor.substring(0, Math.max(separator, 0)));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            sessions = sessionRepository.findPageBefore(cursorDate, cursor.substring(separator + 1), limit);
+        } else {
+            sessions = sessionRepository.findPageFirst(limit);
+        }
+        List<DialysisSessionDTO> rows = sessions.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return new KeysetPageDTO<>(rows, pageSize, session -> session.getScheduledDate() + "_" + session.getSessionId());
+    }
+    
+    // Get sessions by status
+    public List<DialysisSessionDTO> getSessionsByStatus(DialysisSession.SessionStatus status) {
+        return sessionRepository.findByStatus(status).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+    
+    // Count every session without loading them
+    @Transactional(readOnly = true)
+    public long getSessionCount() {
+        return sessionRepository.count();
+    }
+    
     // Get session by ID
     public Optional<DialysisSessionDTO> getSessionById(String sessionId) {
         return sessionRepository.findById(sessionId)
@@ -0,0 +1,383 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.DTO.appoinmenetDTO.AvailableSlotResponse;
+import com.HMS.HMS.model.doctor.Doctor;
+import com.HMS.HMS.repository.AppointmentRepository;
+import com.HMS.HMS.repository.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.HMS.HMS.util.TransactionCallbacks.afterCompletion;
+
+/**
+ * In-memory appointment calendar: one 64-bit word per doctor per day over a rolling
+ * horizon, with bit i set while the i-th slot of the clinic day is booked.
+ *
+ * A slot is booked with a compare-and-set on the doctor's day word and handed back if
+ * the booking transaction rolls back, so concurrent bookings of one slot can't both
+ * succeed. Free slot searches across all doctors of a specialization are bit scans with
+ * no database access. The appointments table stays the durable store: the calendar is
+ * rebuilt from it on startup, days that enter the horizon are read as the date rolls
+ * over, and bookings outside the horizon or the clinic day are checked against it. The
+ * unique (doctor, date, booked_slot) constraint on appointments backs the calendar.
+ */
+@Service
+public class DoctorCalendarService {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorCalendarService.class);
+
+    public static final int SLOT_MINUTES = 15;
+    public static final LocalTime DAY_START = LocalTime.of(8, 0);
+    public static final int SLOTS_PER_DAY = 40;
+    public static final int HORIZON_DAYS = 90;
+    private static final int MAX_SEARCH_RESULTS = 200;
+    private static final int MARK_BATCH_SIZE = 1000;
+
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorRepository doctorRepository;
+
+    private final Map<Long, DoctorCalendar> calendars = new ConcurrentHashMap<>();
+    private volatile Map<String, List<DoctorCalendar>> bySpecialization = Map.of();
+
+    public DoctorCalendarService(AppointmentRepository appointmentRepository, DoctorRepository doctorRepository) {
+        this.appointmentRepository = appointmentRepository;
+        this.doctorRepository = doctorRepository;
+    }
+
+    /**
+     * Rebuild every doctor's calendar from the appointments table. Upcoming appointments
+     * saved before booked_slot existed get it filled in.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuild() {
+        LocalDate today = LocalDate.now();
+        Map<Long, DoctorCalendar> loaded = new HashMap<>();
+        for (Doctor doctor : doctorRepository.findAll()) {
+            DoctorCalendar calendar = new DoctorCalendar(doctor, new ConcurrentHashMap<>());
+            for (int i = 0; i < HORIZON_DAYS; i++) {
+                calendar.days.put(today.plusDays(i).toEpochDay(), new AtomicLong());
+            }
+            loaded.put(doctor.getEmployeeId(), calendar);
+        }
+
+        // Appointments that already hold their slot claim it before ones saved without booked_slot
+        List<Object[]> rows = new ArrayList<>(appointmentRepository.findBookedSlotsFrom(today));
+        rows.sort(Comparator.comparing(row -> row[4] == null));
+
+        int booked = 0;
+        Set<String> seen = new HashSet<>();
+        Map<LocalTime, List<Long>> unmarked = new HashMap<>();
+        for (Object[] row : rows) {
+            Long appointmentId = (Long) row[0];
+            Long doctorId = (Long) row[1];
+            LocalDate date = (LocalDate) row[2];
+            LocalTime time = (LocalTime) row[3];
+            if (!seen.add(doctorId + "|" + date + "|" + slotStart(time))) {
+                log.warn("Appointment {} shares slot {} on {} with another appointment of doctor {}",
+                        appointmentId, slotStart(time), date, doctorId);
+                continue;
+            }
+            DoctorCalendar calendar = loaded.get(doctorId);
+            AtomicLong day = calendar != null ? calendar.days.get(date.toEpochDay()) : null;
+            int slot = slotOf(time);
+            if (day != null && slot >= 0) {
+                take(day, slot);
+                booked++;
+            }
+            if (row[4] == null) {
+                unmarked.computeIfAbsent(slotStart(time), s -> new ArrayList<>()).add(appointmentId);
+            }
+        }
+
+        // One update per slot start for the appointments saved without it
+        int marked = 0;
+        for (Map.Entry<LocalTime, List<Long>> entry : unmarked.entrySet()) {
+            List<Long> ids = entry.getValue();
+            for (int from = 0; from < ids.size(); from += MARK_BATCH_SIZE) {
+                marked += appointmentRepository.markBookedSlots(
+                        ids.subList(from, Math.min(from + MARK_BATCH_SIZE, ids.size())), entry.getKey());
+            }
+        }
+
+        calendars.clear();
+        calendars.putAll(loaded);
+        reindex();
+        log.info("Loaded doctor calendars for {} doctors with {} booked slots ({} appointments marked)",
+                loaded.size(), booked, marked);
+    }
+
+    /**
+     * Drop days that have passed and read the day that entered the horizon
+     */
+    @Scheduled(cron = "0 0 0 * * *")
+    @Transactional(readOnly = true)
+    public void rollHorizon() {
+        LocalDate today = LocalDate.now();
+        long firstDay = today.toEpochDay();
+        LocalDate lastDate = today.plusDays(HORIZON_DAYS - 1);
+
+        Map<Long, Long> lastDayMasks = new HashMap<>();
+        for (Object[] row : appointmentRepository.findBookedTimesOn(lastDate)) {
+            int slot = slotOf((LocalTime) row[1]);
+            if (slot >= 0) {
+                lastDayMasks.merge((Long) row[0], 1L << slot, (a, b) -> a | b);
+            }
+        }
+        for (DoctorCalendar calendar : calendars.values()) {
+            calendar.days.keySet().removeIf(epochDay -> epochDay < firstDay);
+            calendar.days.computeIfAbsent(lastDate.toEpochDay(),
+                    d -> new AtomicLong(lastDayMasks.getOrDefault(calendar.doctorId, 0L)));
+        }
+    }
+
+    /**
+     * Book the slot holding time for a doctor in the current transaction. Returns false if
+     * the slot is already booked. Inside the horizon and clinic day this is a
+     * compare-and-set on the calendar, given back if the transaction rolls back; otherwise
+     * the appointments table is checked.
+     */
+    public boolean reserve(Long doctorId, LocalDate date, LocalTime time) {
+        AtomicLong day = day(doctorId, date);
+        int slot = slotOf(time);
+        if (day == null || slot < 0) {
+            return !appointmentRepository.existsBookedSlot(doctorId, date, slotStart(time));
+        }
+        if (!take(day, slot)) {
+            return false;
+        }
+        afterCompletion(committed -> {
+            if (!committed) {
+                give(day, slot);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Free a booked slot once the cancellation in the current transaction commits
+     */
+    public void release(Long doctorId, LocalDate date, LocalTime time) {
+        AtomicLong day = day(doctorId, date);
+        int slot = slotOf(time);
+        if (day == null || slot < 0) {
+            return;
+        }
+        afterCompletion(committed -> {
+            if (committed) {
+                give(day, slot);
+            }
+        });
+    }
+
+    /**
+     * Free slot start times of one doctor on one day
+     */
+    public List<LocalTime> getFreeSlots(Long doctorId, LocalDate date) {
+        AtomicLong day = day(doctorId, date);
+        if (day == null) {
+            return List.of();
+        }
+        List<LocalTime> free = new ArrayList<>();
+        long bits = freeBits(day.get(), firstBookableSlot(date, LocalDateTime.now()));
+        while (bits != 0) {
+            free.add(slotTime(Long.numberOfTrailingZeros(bits)));
+            bits &= bits - 1;
+        }
+        return free;
+    }
+
+    /**
+     * First limit free slots after a time across every doctor of a specialization (all
+     * doctors when specialization is null), earliest first and by doctor within a slot
+     */
+    public List<AvailableSlotResponse> findFreeSlots(String specialization, LocalDateTime after, int limit) {
+        List<DoctorCalendar> doctors = specialization != null
+                ? bySpecialization.getOrDefault(specialization.trim().toLowerCase(), List.of())
+                : List.copyOf(calendars.values());
+        int size = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = after != null && after.isAfter(now) ? after : now;
+
+        List<AvailableSlotResponse> slots = new ArrayList<>(size);
+        if (doctors.isEmpty()) {
+            return slots;
+        }
+        long[] free = new long[doctors.size()];
+        LocalDate lastDate = LocalDate.now().plusDays(HORIZON_DAYS - 1);
+        for (LocalDate date = from.toLocalDate(); !date.isAfter(lastDate) && slots.size() < size; date = date.plusDays(1)) {
+            int firstSlot = firstBookableSlot(date, from);
+            long any = 0;
+            for (int i = 0; i < free.length; i++) {
+                AtomicLong day = doctors.get(i).days.get(date.toEpochDay());
+                free[i] = day != null ? freeBits(day.get(), firstSlot) : 0;
+                any |= free[i];
+            }
+            while (any != 0 && slots.size() < size) {
+                int slot = Long.numberOfTrailingZeros(any);
+                long bit = 1L << slot;
+                for (int i = 0; i < free.length && slots.size() < size; i++) {
+                    if ((free[i] & bit) != 0) {
+                        DoctorCalendar doctor = doctors.get(i);
+                        slots.add(new AvailableSlotResponse(doctor.doctorId, doctor.doctorName, doctor.specialization,
+                                date, slotTime(slot), slotTime(slot).plusMinutes(SLOT_MINUTES)));
+                    }
+                }
+                any &= ~bit;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Pick up a new or edited doctor, keeping any days already loaded
+     */
+    public void refreshDoctor(Doctor doctor) {
+        calendars.compute(doctor.getEmployeeId(), (id, existing) ->
+                new DoctorCalendar(doctor, existing != null ? existing.days : new ConcurrentHashMap<>()));
+        reindex();
+    }
+
+    public void removeDoctor(Long doctorId) {
+        calendars.remove(doctorId);
+        reindex();
+    }
+
+    /**
+     * Start of the slot holding time, or time itself outside the clinic day
+     */
+    public static LocalTime slotStart(LocalTime time) {
+        int slot = slotOf(time);
+        return slot >= 0 ? slotTime(slot) : time;
+    }
+
+    // Helper methods
+    private AtomicLong day(Long doctorId, LocalDate date) {
+        long epochDay = date.toEpochDay();
+        long firstDay = LocalDate.now().toEpochDay();
+        if (epochDay < firstDay || epochDay >= firstDay + HORIZON_DAYS) {
+            return null;
+        }
+        DoctorCalendar calendar = calendars.get(doctorId);
+        if (calendar == null) {
+            Optional<Doctor> doctor = doctorRepository.findById(doctorId);
+            if (doctor.isEmpty()) {
+                return null;
+            }
+            refreshDoctor(doctor.get());
+            calendar = calendars.get(doctorId);
+        }
+        return calendar.days.computeIfAbsent(epochDay, d -> new AtomicLong(loadDay(doctorId, date)));
+    }
+
+    private long loadDay(Long doctorId, LocalDate date) {
+        long bits = 0;
+        for (LocalTime time : appointmentRepository.findBookedTimes(doctorId, date)) {
+            int slot = slotOf(time);
+            if (slot >= 0) {
+                bits |= 1L << slot;
+            }
+        }
+        return bits;
+    }
+
+    private void reindex() {
+        Map<String, List<DoctorCalendar>> index = new HashMap<>();
+        for (DoctorCalendar calendar : calendars.values()) {
+            if (calendar.specialization != null) {
+                index.computeIfAbsent(calendar.specialization.trim().toLowerCase(), s -> new ArrayList<>()).add(calendar);
+            }
+        }
+        index.values().forEach(doctors -> doctors.sort(Comparator.comparing(calendar -> calendar.doctorId)));
+        bySpecialization = Map.copyOf(index);
+    }
+
+    private static boolean take(AtomicLong day, int slot) {
+        long bit = 1L << slot;
+        while (true) {
+            long current = day.get();
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (day.compareAndSet(current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    private static void give(AtomicLong day, int slot) {
+        long bit = 1L << slot;
+        while (true) {
+            long current = day.get();
+            if ((current & bit) == 0 || day.compareAndSet(current, current & ~bit)) {
+                return;
+            }
+        }
+    }
+
+    private static long freeBits(long booked, int firstSlot) {
+        if (firstSlot >= SLOTS_PER_DAY) {
+            return 0;
+        }
+        long daySlots = (1L << SLOTS_PER_DAY) - 1;
+        return ~booked & daySlots & (-1L << firstSlot);
+    }
+
+    /**
+     * First slot on date that starts at or after from
+     */
+    private static int firstBookableSlot(LocalDate date, LocalDateTime from) {
+        if (date.isAfter(from.toLocalDate())) {
+            return 0;
+        }
+        if (date.isBefore(from.toLocalDate())) {
+            return SLOTS_PER_DAY;
+        }
+        int minutes = from.toLocalTime().toSecondOfDay() / 60 - DAY_START.toSecondOfDay() / 60;
+        if (minutes <= 0) {
+            return 0;
+        }
+        return Math.min(SLOTS_PER_DAY, (minutes + SLOT_MINUTES - 1) / SLOT_MINUTES);
+    }
+
+    private static int slotOf(LocalTime time) {
+        int minutes = time.toSecondOfDay() / 60 - DAY_START.toSecondOfDay() / 60;
+        if (minutes < 0) {
+            return -1;
+        }
+        int slot = minutes / SLOT_MINUTES;
+        return slot < SLOTS_PER_DAY ? slot : -1;
+    }
+
+    private static LocalTime slotTime(int slot) {
+        return DAY_START.plusMinutes((long) slot * SLOT_MINUTES);
+    }
+
+    private static final class DoctorCalendar {
+
+        private final Long doctorId;
+        private final String doctorName;
+        private final String specialization;
+        // epoch day -> booked slot bits
+        private final Map<Long, AtomicLong> days;
+
+        DoctorCalendar(Doctor doctor, Map<Long, AtomicLong> days) {
+            this.doctorId = doctor.getEmployeeId();
+            this.doctorName = doctor.getDoctorName();
+            this.specialization = doctor.getSpecialization();
+            this.days = days;
+        }
+    }
+}
@@ -13,16 +13,20 @@ import java.util.Optional;
 @Service
 public class DoctorService {
     private final DoctorRepository doctorRepository;
+    private final DoctorCalendarService doctorCalendarService;
 
-    public DoctorService(DoctorRepository doctorRepository){
+    public DoctorService(DoctorRepository doctorRepository, DoctorCalendarService doctorCalendarService){
         this.doctorRepository = doctorRepository;
+        this.doctorCalendarService = doctorCalendarService;
     }
 
     public Doctor addDoctor(Doctor doctor){
         if (doctorRepository.existsById(doctor.getEmployeeId())){
             throw new DuplicateEmployeeIdException("Doctor with Employee ID "+doctor.getEmployeeId() + " already exists");
         }
-        return doctorRepository.save(doctor);
+        Doctor saved = doctorRepository.save(doctor);
+        doctorCalendarService.refreshDoctor(saved);
+        return saved;
     }
 
     public List<Doctor> getAllDoctors(){
@@ -38,7 +42,9 @@ public class DoctorService {
                 .map(doctor -> {
                     doctor.setDoctorName(doctorDetails.getDoctorName());
                     doctor.setSpecialization(doctorDetails.getSpecialization());
-                    return doctorRepository.save(doctor);
+                    Doctor saved = doctorRepository.save(doctor);
+                    doctorCalendarService.refreshDoctor(saved);
+                    return saved;
                 })
                 .orElseThrow(() -> new EntityNotFoundException("Doctor not found with ID "+employeeId));
     }
@@ -46,6 +52,7 @@ public class DoctorService {
     public boolean deleteDoctor(Long employeeId){
         if (doctorRepository.existsById(employeeId)){
             doctorRepository.deleteById(employeeId);
+            doctorCalendarService.removeDoctor(employeeId);
             return true;
         }
         return false;
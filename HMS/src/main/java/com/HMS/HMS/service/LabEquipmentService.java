@@ -0,0 +1,437 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.DTO.reports.EquipmentUtilizationDTO;
+import com.HMS.HMS.model.LabRequest.LabEquipment;
+import com.HMS.HMS.model.LabRequest.LabEquipment.Status;
+import com.HMS.HMS.model.LabRequest.LabEquipmentUsage;
+import com.HMS.HMS.model.LabRequest.TestResult;
+import com.HMS.HMS.repository.LabEquipmentRepository;
+import com.HMS.HMS.repository.LabEquipmentUsageRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.HMS.HMS.util.TransactionCallbacks.afterCommit;
+
+/**
+ * Laboratory analysers and their utilization.
+ *
+ * Each saved test result is attributed to an analyser that can run its test: the one
+ * named in the submission, otherwise the active analyser with the lowest load relative
+ * to its rated capacity. Completed tests, sampled queue depth and downtime are kept as
+ * in-memory counters per (analyser, hour) and added to lab_equipment_usage every
+ * FLUSH_INTERVAL_MS, so the annual report reads one grouped query over that table.
+ * Counters taken by a flush whose transaction fails are put back for the next one.
+ * A rolling 60-minute window per analyser backs the live throughput figures.
+ */
+@Service
+public class LabEquipmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(LabEquipmentService.class);
+
+    private static final long FLUSH_INTERVAL_MS = 60_000;
+    private static final int WINDOW_MINUTES = 60;
+
+    @Autowired
+    private LabEquipmentRepository equipmentRepository;
+
+    @Autowired
+    private LabEquipmentUsageRepository usageRepository;
+
+    @Autowired
+    private LabSlaMonitorService slaMonitorService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private volatile Map<String, Analyser> analysers = Map.of();
+    // Test name -> analysers able to run it, in registration order
+    private volatile Map<String, List<Analyser>> analysersByTest = Map.of();
+
+    // Counters not yet added to lab_equipment_usage; a flush removes the entries it writes
+    // and merges them back if its transaction fails
+    private final ConcurrentHashMap<UsageKey, Long> pendingTests = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UsageKey, Integer> pendingMaintenance = new ConcurrentHashMap<>();
+    private final Map<String, ThroughputWindow> windows = new ConcurrentHashMap<>();
+    private final Map<String, Integer> queueDepths = new ConcurrentHashMap<>();
+    private volatile long lastFlushMillis = System.currentTimeMillis();
+
+    private record Analyser(String equipmentId, String name, String type, Status status,
+                            int capacityPerHour, LocalDate installedOn, Set<String> testNames) {
+
+        static Analyser of(LabEquipment equipment) {
+            return new Analyser(equipment.getEquipmentId(), equipment.getEquipmentName(), equipment.getEquipmentType(),
+                    equipment.getStatus(), Math.max(1, equipment.getCapacityPerHour() != null ? equipment.getCapacityPerHour() : 1),
+                    equipment.getInstalledOn(), Set.copyOf(equipment.getTestNames()));
+        }
+    }
+
+    private record UsageKey(String equipmentId, LocalDate date, int hour) {
+
+        static UsageKey of(String equipmentId, LocalDateTime time) {
+            return new UsageKey(equipmentId, time.toLocalDate(), time.getHour());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    /**
+     * Re-read the analysers, e.g. after one was added or its capabilities changed
+     */
+    @Transactional(readOnly = true)
+    public int reload() {
+        Map<String, Analyser> loaded = new LinkedHashMap<>();
+        Map<String, List<Analyser>> byTest = new HashMap<>();
+        for (LabEquipment equipment : equipmentRepository.findAll()) {
+            Analyser analyser = Analyser.of(equipment);
+            loaded.put(analyser.equipmentId(), analyser);
+            for (String testName : analyser.testNames()) {
+                byTest.computeIfAbsent(testName, name -> new ArrayList<>()).add(analyser);
+            }
+        }
+        byTest.replaceAll((testName, list) -> List.copyOf(list));
+        analysers = Collections.unmodifiableMap(loaded);
+        analysersByTest = Map.copyOf(byTest);
+        log.info("Loaded {} lab analysers covering {} tests", loaded.size(), byTest.size());
+        return loaded.size();
+    }
+
+    /**
+     * Set the analyser of each result before it is saved. An equipmentId already on the
+     * result is the analyser reported by the lab and is kept when it can run the test;
+     * otherwise the least loaded active analyser is chosen. Results with no capable
+     * analyser are left unassigned.
+     */
+    public void assignEquipment(List<TestResult> testResults) {
+        Map<String, Integer> assignedNow = new HashMap<>();
+        for (TestResult testResult : testResults) {
+            Analyser analyser = testResult.getEquipmentId() != null ? analysers.get(testResult.getEquipmentId()) : null;
+            if (analyser == null || !analyser.testNames().contains(testResult.getTestName())) {
+                analyser = leastLoaded(testResult.getTestName(), assignedNow);
+            }
+            testResult.setEquipmentId(analyser != null ? analyser.equipmentId() : null);
+            if (analyser != null) {
+                assignedNow.merge(analyser.equipmentId(), 1, Integer::sum);
+            }
+        }
+    }
+
+    /**
+     * Count saved results against their analysers once the current transaction commits
+     */
+    public void recordCompleted(List<TestResult> testResults) {
+        List<TestResult> attributed = new ArrayList<>();
+        for (TestResult testResult : testResults) {
+            if (testResult.getEquipmentId() != null && testResult.getCompletedAt() != null) {
+                attributed.add(testResult);
+            }
+        }
+        if (attributed.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            long nowMinute = System.currentTimeMillis() / 60_000;
+            for (TestResult testResult : attributed) {
+                pendingTests.merge(UsageKey.of(testResult.getEquipmentId(), testResult.getCompletedAt()), 1L, Long::sum);
+                windows.computeIfAbsent(testResult.getEquipmentId(), id -> new ThroughputWindow()).add(nowMinute);
+            }
+        });
+    }
+
+    @Transactional
+    public LabEquipment register(LabEquipment equipment) {
+        if (equipment.getEquipmentId() == null || equipment.getEquipmentId().isBlank()) {
+            throw new IllegalArgumentException("Equipment id is required");
+        }
+        if (equipmentRepository.existsByEquipmentId(equipment.getEquipmentId())) {
+            throw new IllegalArgumentException("Equipment already exists: " + equipment.getEquipmentId());
+        }
+        if (equipment.getInstalledOn() == null) {
+            equipment.setInstalledOn(LocalDate.now());
+        }
+        LabEquipment saved = equipmentRepository.save(equipment);
+        afterCommit(this::reload);
+        return saved;
+    }
+
+    /**
+     * Change an analyser's status. Time spent outside ACTIVE counts as downtime from the
+     * next flush; each switch into MAINTENANCE is counted as a maintenance event.
+     */
+    @Transactional
+    public LabEquipment updateStatus(String equipmentId, Status status) {
+        LabEquipment equipment = equipmentRepository.findByEquipmentId(equipmentId)
+                .orElseThrow(() -> new IllegalArgumentException("Equipment not found: " + equipmentId));
+        if (status == Status.MAINTENANCE && equipment.getStatus() != Status.MAINTENANCE) {
+            UsageKey key = UsageKey.of(equipmentId, LocalDateTime.now());
+            afterCommit(() -> pendingMaintenance.merge(key, 1, Integer::sum));
+        }
+        equipment.setStatus(status);
+        LabEquipment saved = equipmentRepository.save(equipment);
+        afterCommit(this::reload);
+        return saved;
+    }
+
+    public List<LabEquipment> getEquipment() {
+        return equipmentRepository.findAll();
+    }
+
+    /**
+     * Sample queue depth and downtime, then add all pending counters to lab_equipment_usage
+     * in one transaction. If it fails the counters are merged back and the downtime is
+     * counted again by the next flush.
+     */
+    @Scheduled(fixedDelay = FLUSH_INTERVAL_MS)
+    public synchronized void flush() {
+        long now = System.currentTimeMillis();
+        long elapsedMinutes = Math.round((now - lastFlushMillis) / 60_000.0);
+        LocalDateTime sampledAt = LocalDateTime.now();
+
+        Map<String, Integer> depths = sampleQueueDepths();
+        queueDepths.clear();
+        queueDepths.putAll(depths);
+
+        Map<UsageKey, Long> tests = drain(pendingTests);
+        Map<UsageKey, Integer> maintenance = drain(pendingMaintenance);
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                Map<UsageKey, LabEquipmentUsage> rows = new HashMap<>();
+                for (Analyser analyser : analysers.values()) {
+                    UsageKey key = UsageKey.of(analyser.equipmentId(), sampledAt);
+                    LabEquipmentUsage row = row(rows, key);
+                    int depth = depths.getOrDefault(analyser.equipmentId(), 0);
+                    row.setQueueDepthSum(row.getQueueDepthSum() + depth);
+                    row.setQueueSamples(row.getQueueSamples() + 1);
+                    row.setQueueDepthMax(Math.max(row.getQueueDepthMax(), depth));
+                    if (analyser.status() != Status.ACTIVE) {
+                        row.setDownMinutes(Math.min(60L, row.getDownMinutes() + elapsedMinutes));
+                    }
+                }
+                tests.forEach((key, count) -> {
+                    LabEquipmentUsage row = row(rows, key);
+                    row.setTestsProcessed(row.getTestsProcessed() + count);
+                });
+                maintenance.forEach((key, events) -> {
+                    LabEquipmentUsage row = row(rows, key);
+                    row.setMaintenanceEvents(row.getMaintenanceEvents() + events);
+                });
+                usageRepository.saveAll(rows.values());
+            });
+        } catch (RuntimeException e) {
+            tests.forEach((key, count) -> pendingTests.merge(key, count, Long::sum));
+            maintenance.forEach((key, events) -> pendingMaintenance.merge(key, events, Integer::sum));
+            throw e;
+        }
+        lastFlushMillis = now;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush lab equipment usage on shutdown", e);
+        }
+    }
+
+    /**
+     * Live figures per analyser from memory: tests in the last hour, utilization against
+     * rated capacity and the latest queue depth sample
+     */
+    public List<Map<String, Object>> getLiveStatus() {
+        long nowMinute = System.currentTimeMillis() / 60_000;
+        List<Map<String, Object>> status = new ArrayList<>();
+        for (Analyser analyser : analysers.values()) {
+            ThroughputWindow window = windows.get(analyser.equipmentId());
+            long lastHour = window != null ? window.total(nowMinute) : 0;
+
+            Map<String, Object> item = new HashMap<>();
+            item.put("equipmentId", analyser.equipmentId());
+            item.put("equipmentName", analyser.name());
+            item.put("equipmentType", analyser.type());
+            item.put("status", analyser.status());
+            item.put("capacityPerHour", analyser.capacityPerHour());
+            item.put("testsLastHour", lastHour);
+            item.put("utilizationPercentage", round(lastHour * 100.0 / analyser.capacityPerHour()));
+            item.put("queueDepth", queueDepths.getOrDefault(analyser.equipmentId(), 0));
+            item.put("testNames", analyser.testNames());
+            status.add(item);
+        }
+        return status;
+    }
+
+    /**
+     * Utilization per analyser over [from, to], from the hourly usage rows. Utilization is
+     * tests processed over rated capacity for the hours the analyser was installed and up.
+     */
+    @Transactional(readOnly = true)
+    public List<EquipmentUtilizationDTO> getUtilization(LocalDate from, LocalDate to) {
+        Map<String, Object[]> usage = new HashMap<>();
+        for (Object[] row : usageRepository.summarizeByEquipment(from, to)) {
+            usage.put((String) row[0], row);
+        }
+
+        LocalDateTime periodStart = from.atStartOfDay();
+        LocalDateTime periodEnd = to.plusDays(1).atStartOfDay();
+        LocalDateTime now = LocalDateTime.now();
+        if (periodEnd.isAfter(now)) {
+            periodEnd = now;
+        }
+
+        List<EquipmentUtilizationDTO> utilization = new ArrayList<>();
+        for (Analyser analyser : analysers.values()) {
+            LocalDateTime start = periodStart;
+            if (analyser.installedOn() != null && analyser.installedOn().atStartOfDay().isAfter(start)) {
+                start = analyser.installedOn().atStartOfDay();
+            }
+            double periodHours = Math.max(0, Duration.between(start, periodEnd).toMinutes() / 60.0);
+
+            Object[] row = usage.get(analyser.equipmentId());
+            long tests = row != null ? toLong(row[1]) : 0;
+            long queueSum = row != null ? toLong(row[2]) : 0;
+            long queueSamples = row != null ? toLong(row[3]) : 0;
+            int queueMax = row != null ? (int) toLong(row[4]) : 0;
+            long downMinutes = row != null ? toLong(row[5]) : 0;
+            long maintenance = row != null ? toLong(row[6]) : 0;
+            if (periodHours == 0 && tests == 0) {
+                continue;
+            }
+
+            double downHours = Math.min(periodHours, downMinutes / 60.0);
+            double upHours = periodHours - downHours;
+
+            EquipmentUtilizationDTO dto = new EquipmentUtilizationDTO(analyser.name(), analyser.type(),
+                    upHours > 0 ? round(Math.min(100.0, tests * 100.0 / (analyser.capacityPerHour() * upHours))) : 0.0,
+                    tests);
+            dto.setEquipmentId(analyser.equipmentId());
+            dto.setUptimePercentage(periodHours > 0 ? round(upHours * 100.0 / periodHours) : 100.0);
+            dto.setDowntimeHours(Math.round(downHours));
+            dto.setStatus(analyser.status().name());
+            dto.setMaintenanceCount(maintenance);
+            dto.setThroughputPerHour(upHours > 0 ? round(tests / upHours) : 0.0);
+            dto.setAvgQueueDepth(queueSamples > 0 ? round((double) queueSum / queueSamples) : 0.0);
+            dto.setMaxQueueDepth(queueMax);
+            utilization.add(dto);
+        }
+        utilization.sort((a, b) -> Long.compare(b.getTestsProcessed(), a.getTestsProcessed()));
+        return utilization;
+    }
+
+    // Helper methods
+    private Analyser leastLoaded(String testName, Map<String, Integer> assignedNow) {
+        List<Analyser> candidates = analysersByTest.getOrDefault(testName, List.of());
+        long nowMinute = System.currentTimeMillis() / 60_000;
+        Analyser best = null;
+        double bestLoad = Double.MAX_VALUE;
+        for (Analyser candidate : candidates) {
+            if (candidate.status() != Status.ACTIVE) {
+                continue;
+            }
+            ThroughputWindow window = windows.get(candidate.equipmentId());
+            long load = (window != null ? window.total(nowMinute) : 0)
+                    + assignedNow.getOrDefault(candidate.equipmentId(), 0);
+            double relative = (double) load / candidate.capacityPerHour();
+            if (relative < bestLoad) {
+                best = candidate;
+                bestLoad = relative;
+            }
+        }
+        // Results are still attributed when every capable analyser is down
+        return best != null || candidates.isEmpty() ? best : candidates.get(0);
+    }
+
+    /**
+     * Pending tests of each test name shared across its active analysers in proportion to capacity
+     */
+    private Map<String, Integer> sampleQueueDepths() {
+        Map<String, Double> depths = new HashMap<>();
+        slaMonitorService.getPendingTestCounts().forEach((testName, pending) -> {
+            List<Analyser> active = new ArrayList<>();
+            int capacity = 0;
+            for (Analyser analyser : analysersByTest.getOrDefault(testName, List.of())) {
+                if (analyser.status() == Status.ACTIVE) {
+                    active.add(analyser);
+                    capacity += analyser.capacityPerHour();
+                }
+            }
+            for (Analyser analyser : active) {
+                depths.merge(analyser.equipmentId(), (double) pending * analyser.capacityPerHour() / capacity, Double::sum);
+            }
+        });
+        Map<String, Integer> rounded = new HashMap<>();
+        depths.forEach((equipmentId, depth) -> rounded.put(equipmentId, (int) Math.round(depth)));
+        return rounded;
+    }
+
+    /**
+     * Remove and return every entry, each one atomically so a concurrent merge is never lost
+     */
+    private static <V> Map<UsageKey, V> drain(ConcurrentHashMap<UsageKey, V> pending) {
+        Map<UsageKey, V> drained = new HashMap<>();
+        for (UsageKey key : List.copyOf(pending.keySet())) {
+            V value = pending.remove(key);
+            if (value != null) {
+                drained.put(key, value);
+            }
+        }
+        return drained;
+    }
+
+    private LabEquipmentUsage row(Map<UsageKey, LabEquipmentUsage> rows, UsageKey key) {
+        return rows.computeIfAbsent(key, k -> usageRepository
+                .findByEquipmentIdAndPeriodDateAndPeriodHour(k.equipmentId(), k.date(), k.hour())
+                .orElseGet(() -> new LabEquipmentUsage(k.equipmentId(), k.date(), k.hour())));
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10.0) / 10.0;
+    }
+
+    /**
+     * Ring of per-minute test counts covering the last WINDOW_MINUTES minutes
+     */
+    private static final class ThroughputWindow {
+        private final long[] counts = new long[WINDOW_MINUTES];
+        private final long[] slotMinutes = new long[WINDOW_MINUTES];
+
+        synchronized void add(long minute) {
+            int slot = (int) (minute % WINDOW_MINUTES);
+            if (slotMinutes[slot] != minute) {
+                slotMinutes[slot] = minute;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+        }
+
+        synchronized long total(long nowMinute) {
+            long total = 0;
+            for (int i = 0; i < WINDOW_MINUTES; i++) {
+                if (nowMinute - slotMinutes[i] < WINDOW_MINUTES) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+    }
+}
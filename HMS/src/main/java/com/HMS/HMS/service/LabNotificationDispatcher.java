@@ -0,0 +1,166 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.DTO.LabRequest.LabRequestDeltaDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.HMS.HMS.util.TransactionCallbacks.afterCommit;
+
+/**
+ * Sends lab WebSocket messages off the request thread.
+ *
+ * Messages are queued after the surrounding transaction commits and sent by a single
+ * background thread from a bounded queue; when the queue is full the message is dropped
+ * and counted rather than blocking the caller. Deltas for the per-ward topics
+ * (/topic/lab/ward/{ward}) are coalesced: everything published for a ward within
+ * FLUSH_INTERVAL_MS goes out as one message, keeping only the latest delta per request.
+ * A ward that builds up more than MAX_PENDING_PER_WARD requests in one window is sent
+ * with resync set, telling its dashboards to reload from the lab queue endpoints.
+ */
+@Service
+public class LabNotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(LabNotificationDispatcher.class);
+
+    private static final long FLUSH_INTERVAL_MS = 250;
+    private static final int MAX_PENDING_PER_WARD = 500;
+    private static final int SEND_QUEUE_CAPACITY = 1000;
+
+    public static final String WARD_TOPIC_PREFIX = "/topic/lab/ward/";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    // Ward topic key -> request id -> latest delta; guarded by pendingLock
+    private Map<String, LinkedHashMap<String, LabRequestDeltaDTO>> pending = new HashMap<>();
+    private Set<String> overflowedWards = new HashSet<>();
+    private final Object pendingLock = new Object();
+
+    private final AtomicLong droppedMessages = new AtomicLong();
+    private ThreadPoolExecutor sender;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        sender = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(SEND_QUEUE_CAPACITY), daemonThreads("lab-notify-send"),
+                (task, executor) -> {
+                    long dropped = droppedMessages.incrementAndGet();
+                    log.warn("Lab notification queue full, dropped message ({} dropped so far)", dropped);
+                });
+        flusher = Executors.newSingleThreadScheduledExecutor(daemonThreads("lab-notify-flush"));
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MS, FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        flush();
+        sender.shutdown();
+        try {
+            sender.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Send a message to a destination once the current transaction commits
+     */
+    public void send(String destination, Object payload) {
+        afterCommit(() -> sender.execute(() -> deliver(destination, payload)));
+    }
+
+    /**
+     * Queue a delta for its ward topic once the current transaction commits
+     */
+    public void publish(LabRequestDeltaDTO delta) {
+        if (delta.getRequestId() == null) {
+            return;
+        }
+        afterCommit(() -> {
+            String ward = wardTopicKey(delta.getWardName());
+            synchronized (pendingLock) {
+                LinkedHashMap<String, LabRequestDeltaDTO> wardDeltas = pending.computeIfAbsent(ward, w -> new LinkedHashMap<>());
+                LabRequestDeltaDTO previous = wardDeltas.get(delta.getRequestId());
+                if (previous == null && wardDeltas.size() >= MAX_PENDING_PER_WARD) {
+                    overflowedWards.add(ward);
+                    return;
+                }
+                // A request created in this window still reads as created to the dashboards
+                if (previous != null && previous.getEvent() == LabRequestDeltaDTO.Event.CREATED) {
+                    delta.setEvent(LabRequestDeltaDTO.Event.CREATED);
+                }
+                wardDeltas.put(delta.getRequestId(), delta);
+            }
+        });
+    }
+
+    public long getDroppedMessageCount() {
+        return droppedMessages.get();
+    }
+
+    /**
+     * Topic key for a ward name, e.g. "Ward 1" -> "ward-1"
+     */
+    public static String wardTopicKey(String wardName) {
+        String key = wardName == null ? "" : wardName.trim().toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+        return key.isEmpty() ? "unassigned" : key;
+    }
+
+    // Helper methods
+    private void flush() {
+        Map<String, LinkedHashMap<String, LabRequestDeltaDTO>> batch;
+        Set<String> overflowed;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            overflowed = overflowedWards;
+            pending = new HashMap<>();
+            overflowedWards = new HashSet<>();
+        }
+        try {
+            long now = System.currentTimeMillis();
+            for (Map.Entry<String, LinkedHashMap<String, LabRequestDeltaDTO>> ward : batch.entrySet()) {
+                Map<String, Object> message = new HashMap<>();
+                message.put("type", "LAB_REQUEST_UPDATES");
+                message.put("ward", ward.getKey());
+                message.put("updates", new ArrayList<>(ward.getValue().values()));
+                message.put("resync", overflowed.contains(ward.getKey()));
+                message.put("timestamp", now);
+                String destination = WARD_TOPIC_PREFIX + ward.getKey();
+                sender.execute(() -> deliver(destination, message));
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to flush lab ward notifications", e);
+        }
+    }
+
+    private void deliver(String destination, Object payload) {
+        try {
+            messagingTemplate.convertAndSend(destination, payload);
+        } catch (RuntimeException e) {
+            log.warn("Failed to send lab notification to {}", destination, e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.model.LabRequest.LabAnalyte;
+import com.HMS.HMS.model.LabRequest.LabReferenceRange;
+import com.HMS.HMS.model.LabRequest.LabReferenceRange.Sex;
+import com.HMS.HMS.model.LabRequest.LabResultFlag;
+import com.HMS.HMS.repository.LabReferenceRangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Evaluates analyte values against the reference ranges in lab_reference_ranges.
+ *
+ * Ranges are read once into a per-analyte array of rules held in primitive fields and
+ * ordered most specific first (sex-specific before ANY, then narrower age bands), so
+ * an evaluation is a short scan over a handful of rules with no database access. The
+ * table is re-read on startup, after the default ranges are seeded, and on reload().
+ */
+@Service
+public class LabReferenceRangeService {
+
+    private static final Logger log = LoggerFactory.getLogger(LabReferenceRangeService.class);
+
+    @Autowired
+    private LabReferenceRangeRepository referenceRangeRepository;
+
+    private volatile Map<LabAnalyte, Rule[]> rules = new EnumMap<>(LabAnalyte.class);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    /**
+     * Re-read the reference ranges, e.g. after they were edited
+     */
+    public int reload() {
+        Map<LabAnalyte, List<Rule>> byAnalyte = new EnumMap<>(LabAnalyte.class);
+        List<LabReferenceRange> ranges = referenceRangeRepository.findAll();
+        for (LabReferenceRange range : ranges) {
+            byAnalyte.computeIfAbsent(range.getAnalyte(), analyte -> new ArrayList<>()).add(Rule.of(range));
+        }
+
+        Map<LabAnalyte, Rule[]> loaded = new EnumMap<>(LabAnalyte.class);
+        byAnalyte.forEach((analyte, list) -> {
+            list.sort(Comparator.comparing((Rule rule) -> rule.sex == Sex.ANY)
+                    .thenComparingInt(rule -> rule.maxAge - rule.minAge));
+            loaded.put(analyte, list.toArray(new Rule[0]));
+        });
+        rules = loaded;
+        log.info("Loaded {} lab reference ranges for {} analytes", ranges.size(), loaded.size());
+        return ranges.size();
+    }
+
+    /**
+     * Flag for a value, or null when no range covers the analyte for this patient.
+     * ageYears and gender may be null when unknown; only ranges for any sex and a band
+     * covering all ages can match then.
+     */
+    public LabResultFlag evaluate(LabAnalyte analyte, double value, Integer ageYears, String gender) {
+        Rule[] candidates = rules.get(analyte);
+        if (candidates == null) {
+            return null;
+        }
+        Sex sex = sexOf(gender);
+        for (Rule rule : candidates) {
+            if (rule.matches(sex, ageYears)) {
+                return rule.flag(value);
+            }
+        }
+        return null;
+    }
+
+    public List<LabReferenceRange> getRanges() {
+        return referenceRangeRepository.findAll();
+    }
+
+    /**
+     * Patient.gender is free text from the registration form ("Male", "Female", "Other")
+     */
+    static Sex sexOf(String gender) {
+        if (gender == null) {
+            return Sex.ANY;
+        }
+        String normalized = gender.trim().toUpperCase(Locale.ROOT);
+        if (normalized.equals("MALE") || normalized.equals("M")) {
+            return Sex.MALE;
+        }
+        if (normalized.equals("FEMALE") || normalized.equals("F")) {
+            return Sex.FEMALE;
+        }
+        return Sex.ANY;
+    }
+
+    static final class Rule {
+        private final Sex sex;
+        private final int minAge;
+        private final int maxAge;
+        // NaN when the limit is not set
+        private final double low;
+        private final double high;
+        private final double criticalLow;
+        private final double criticalHigh;
+
+        private Rule(Sex sex, int minAge, int maxAge, double low, double high, double criticalLow, double criticalHigh) {
+            this.sex = sex;
+            this.minAge = minAge;
+            this.maxAge = maxAge;
+            this.low = low;
+            this.high = high;
+            this.criticalLow = criticalLow;
+            this.criticalHigh = criticalHigh;
+        }
+
+        static Rule of(LabReferenceRange range) {
+            return new Rule(
+                range.getSex() != null ? range.getSex() : Sex.ANY,
+                range.getMinAgeYears() != null ? range.getMinAgeYears() : 0,
+                range.getMaxAgeYears() != null ? range.getMaxAgeYears() : Integer.MAX_VALUE,
+                orNaN(range.getLowValue()),
+                orNaN(range.getHighValue()),
+                orNaN(range.getCriticalLow()),
+                orNaN(range.getCriticalHigh()));
+        }
+
+        boolean matches(Sex patientSex, Integer ageYears) {
+            if (sex != Sex.ANY && sex != patientSex) {
+                return false;
+            }
+            if (ageYears == null) {
+                return minAge == 0 && maxAge >= 200;
+            }
+            return ageYears >= minAge && ageYears < maxAge;
+        }
+
+        LabResultFlag flag(double value) {
+            // Comparisons with NaN are false, so unset limits never trigger
+            if (value < criticalLow || value > criticalHigh) {
+                return LabResultFlag.CRITICAL;
+            }
+            if (value < low) {
+                return LabResultFlag.LOW;
+            }
+            if (value > high) {
+                return LabResultFlag.HIGH;
+            }
+            return LabResultFlag.NORMAL;
+        }
+
+        private static double orNaN(Double value) {
+            return value != null ? value : Double.NaN;
+        }
+    }
+}
@@ -1,26 +1,41 @@
 package com.HMS.HMS.service;
 
+import com.HMS.HMS.DTO.KeysetPageDTO;
+import com.HMS.HMS.DTO.LabRequest.LabQueueItemDTO;
+import com.HMS.HMS.DTO.LabRequest.LabQueuePageDTO;
 import com.HMS.HMS.DTO.LabRequest.LabRequestDTO;
 import com.HMS.HMS.model.LabRequest.LabRequest;
 import com.HMS.HMS.model.LabRequest.LabRequestStatus;
 import com.HMS.HMS.model.LabRequest.LabTest;
 import com.HMS.HMS.repository.LabRequestRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class LabRequestService {
     
+    private static final int MAX_QUEUE_PAGE_SIZE = 200;
+    
+    // Cursor defaults for a first page, inside MySQL's DATETIME range
+    private static final LocalDateTime QUEUE_START = LocalDateTime.of(1000, 1, 1, 0, 0);
+    private static final LocalDateTime QUEUE_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    
     @Autowired
     private LabRequestRepository labRequestRepository;
     
     @Autowired
     private LabRequestWebSocketService webSocketService;
     
+    @Autowired
+    private LabSlaMonitorService slaMonitorService;
+    
     public LabRequest createLabRequest(LabRequestDTO labRequestDTO) {
         // Convert DTO to Entity
         LabRequest labRequest = new LabRequest();
@@ -51,6 +66,7 @@ public class LabRequestService {
         
         // Save to database
         LabRequest savedRequest = labRequestRepository.save(labRequest);
+        slaMonitorService.track(savedRequest);
         
         // Send real-time notification
         webSocketService.notifyNewLabRequest(savedRequest);
@@ -88,6 +104,7 @@ public class LabRequestService {
             LabRequest labRequest = optionalLabRequest.get();
             labRequest.setStatus(status);
             LabRequest updatedRequest = labRequestRepository.save(labRequest);
+            slaMonitorService.track(updatedRequest);
             
             // Send real-time status update notification
             webSocketService.notifyLabRequestStatusUpdate(updatedRequest);
@@ -116,4 +133,73 @@ public class LabRequestService {
         );
         return labRequestRepository.findByStatusInOrderByRequestDateDesc(activeStatuses);
     }
-}
\ No newline at end of file
+    
+    /**
+     * One page of a lab queue as flat rows. Oldest-first pages walk forward from the cursor,
+     * newest-first pages walk backward; a null cursor starts at the beginning. Costs one
+     * index seek per status, merged into the page, and one grouped query for the test names
+     * of that page, whatever the backlog size.
+     */
+    @Transactional(readOnly = true)
+    public LabQueuePageDTO getLabQueue(Collection<LabRequestStatus> statuses, String wardName, boolean oldestFirst,
+                                       LocalDateTime cursorDate, Long cursorId, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_QUEUE_PAGE_SIZE));
+        // Fetch one extra row to know whether another page follows
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        String ward = wardName != null && !wardName.isBlank() ? wardName : null;
+        
+        List<LabQueueItemDTO> items = new ArrayList<>();
+        for (LabRequestStatus status : new HashSet<>(statuses)) {
+            if (oldestFirst) {
+                items.addAll(labRequestRepository.findQueueAfter(status, ward,
+                        cursorDate != null ? cursorDate : QUEUE_START, cursorId != null ? cursorId : 0L, limit));
+            } else {
+                items.addAll(labRequestRepository.findQueueBefore(status, ward,
+                        cursorDate != null ? cursorDate : QUEUE_END, cursorId != null ? cursorId : Long.MAX_VALUE, limit));
+            }
+        }
+        Comparator<LabQueueItemDTO> order = Comparator.comparing(LabQueueItemDTO::getRequestDate)
+                .thenComparing(LabQueueItemDTO::getId);
+        items.sort(oldestFirst ? order : order.reversed());
+        
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = new ArrayList<>(items.subList(0, pageSize));
+        }
+        addTestSummaries(items);
+        return new LabQueuePageDTO(items, hasMore);
+    }
+    
+    /**
+     * One page of every lab request as flat rows, newest first, from the cursor of the
+     * previous page (null for the first). Two queries per page like the queues.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPageDTO<LabQueueItemDTO> getLabRequestPage(Long cursor, int size) {
+        int pageSize = KeysetPageDTO.pageSize(size);
+        List<LabQueueItemDTO> rows = labRequestRepository.findItemsBefore(
+                cursor != null ? cursor : Long.MAX_VALUE, PageRequest.of(0, pageSize + 1));
+        KeysetPageDTO<LabQueueItemDTO> page = new KeysetPageDTO<>(rows, pageSize, LabQueueItemDTO::getId);
+        addTestSummaries(page.getItems());
+        return page;
+    }
+    
+    // Fill in test names, count and urgency of the items from one grouped query
+    private void addTestSummaries(List<LabQueueItemDTO> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Map<Long, LabQueueItemDTO> byId = new HashMap<>();
+        for (LabQueueItemDTO item : items) {
+            byId.put(item.getId(), item);
+        }
+        for (Object[] row : labRequestRepository.summarizeTestsByLabRequestIdIn(byId.keySet())) {
+            LabQueueItemDTO item = byId.get((Long) row[0]);
+            item.getTestNames().add((String) row[1]);
+            item.setTestCount(item.getTestCount() + ((Number) row[2]).intValue());
+            if (row[3] != null && ((Number) row[3]).longValue() > 0) {
+                item.setUrgent(true);
+            }
+        }
+    }
+}
@@ -1,56 +1,80 @@
 package com.HMS.HMS.service;
 
+import com.HMS.HMS.DTO.LabRequest.LabRequestDeltaDTO;
 import com.HMS.HMS.model.LabRequest.LabRequest;
+import com.HMS.HMS.model.LabRequest.LabTest;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+/**
+ * Lab request notifications. The lab dashboard topics (/topic/lab-requests/...) still
+ * carry the full request; ward dashboards subscribe to /topic/lab/ward/{ward} and get
+ * coalesced deltas for their ward only. Everything is sent after commit through
+ * LabNotificationDispatcher, never on the calling thread.
+ */
 @Service
 public class LabRequestWebSocketService {
-    
+
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
-    
+    private LabNotificationDispatcher dispatcher;
+
     /**
-     * Notify all clients when a new lab request is created
+     * Notify the lab dashboard and the request's ward when a new lab request is created
      */
     public void notifyNewLabRequest(LabRequest labRequest) {
-        // Send to all lab dashboard clients
-        messagingTemplate.convertAndSend("/topic/lab-requests/new", labRequest);
-        
-        // Send to all ward dashboard clients
-        messagingTemplate.convertAndSend("/topic/ward-requests/created", labRequest);
-        
-        System.out.println("WebSocket: New lab request notification sent - " + labRequest.getRequestId());
+        dispatcher.send("/topic/lab-requests/new", labRequest);
+        dispatcher.publish(toDelta(LabRequestDeltaDTO.Event.CREATED, labRequest));
     }
-    
+
     /**
-     * Notify all clients when a lab request status is updated
+     * Notify the lab dashboard and the request's ward when a lab request status is updated
      */
     public void notifyLabRequestStatusUpdate(LabRequest labRequest) {
-        // Send to all lab dashboard clients
-        messagingTemplate.convertAndSend("/topic/lab-requests/status-update", labRequest);
-        
-        // Send to all ward dashboard clients  
-        messagingTemplate.convertAndSend("/topic/ward-requests/status-update", labRequest);
-        
-        System.out.println("WebSocket: Lab request status update sent - " + 
-                         labRequest.getRequestId() + " -> " + labRequest.getStatus());
+        dispatcher.send("/topic/lab-requests/status-update", labRequest);
+        dispatcher.publish(toDelta(LabRequestDeltaDTO.Event.STATUS_CHANGED, labRequest));
     }
-    
+
     /**
      * Send lab request statistics update
      */
     public void notifyLabRequestStats(Object stats) {
-        messagingTemplate.convertAndSend("/topic/lab-requests/stats", stats);
-        System.out.println("WebSocket: Lab request stats update sent");
+        dispatcher.send("/topic/lab-requests/stats", stats);
     }
-    
+
     /**
      * Send urgent lab request notification
      */
     public void notifyUrgentLabRequest(LabRequest labRequest) {
-        messagingTemplate.convertAndSend("/topic/lab-requests/urgent", labRequest);
-        System.out.println("WebSocket: Urgent lab request notification sent - " + labRequest.getRequestId());
+        dispatcher.send("/topic/lab-requests/urgent", labRequest);
+    }
+
+    /**
+     * Send one summary for a batch of saved test results instead of one message per result
+     */
+    public void notifyTestResultsBatch(Object summary) {
+        dispatcher.send("/topic/lab-requests/results-batch", summary);
+    }
+
+    /**
+     * Tell a ward that results were saved for one of its requests
+     */
+    public void notifyResultsSaved(LabRequestDeltaDTO delta) {
+        dispatcher.publish(delta);
+    }
+
+    // Helper methods
+    private static LabRequestDeltaDTO toDelta(LabRequestDeltaDTO.Event event, LabRequest labRequest) {
+        LabRequestDeltaDTO delta = new LabRequestDeltaDTO(event, labRequest.getRequestId(),
+                labRequest.getWardName(), labRequest.getPatientName(), labRequest.getStatus());
+        if (labRequest.getTests() != null) {
+            delta.setTestCount(labRequest.getTests().size());
+            for (LabTest test : labRequest.getTests()) {
+                if (Boolean.TRUE.equals(test.getUrgent())) {
+                    delta.setUrgent(true);
+                    break;
+                }
+            }
+        }
+        return delta;
     }
-}
\ No newline at end of file
+}
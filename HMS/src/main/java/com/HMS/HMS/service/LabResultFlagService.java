@@ -0,0 +1,190 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.model.LabRequest.*;
+import com.HMS.HMS.repository.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.*;
+
+/**
+ * Flags saved lab values against the reference ranges and keeps the abnormal ones in
+ * lab_abnormal_results, indexed by ward and date, so abnormal counts for dashboards and
+ * the lab quality section are grouped queries over that table alone.
+ */
+@Service
+public class LabResultFlagService {
+
+    private static final int REBUILD_PATIENT_CHUNK = 200;
+    private static final int MAX_WARD_RESULTS = 500;
+
+    @Autowired
+    private LabReferenceRangeService referenceRangeService;
+
+    @Autowired
+    private LabAbnormalResultRepository abnormalResultRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TestResultRepository testResultRepository;
+
+    @Autowired
+    private TestResultValueRepository valueRepository;
+
+    @Autowired
+    private LabTestDefinitionRegistry definitionRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Flag readings saved in the current transaction and index the abnormal ones.
+     * Returns the flags per test result id for the caller's response.
+     */
+    @Transactional
+    public Map<Long, Map<LabAnalyte, LabResultFlag>> flagResults(Collection<LabTestDefinitionRegistry.Reading> readings) {
+        Map<Long, Map<LabAnalyte, LabResultFlag>> flags = new HashMap<>();
+        List<LabAbnormalResult> abnormal = evaluate(readings, flags);
+        if (!abnormal.isEmpty()) {
+            abnormalResultRepository.saveAll(abnormal);
+        }
+        return flags;
+    }
+
+    /**
+     * Re-flag every stored result, e.g. after the reference ranges changed. Replaces the
+     * index entries of a chunk of patients per transaction, and clears the persistence
+     * context after each chunk so the loaded results don't pile up in it (with open-in-view
+     * the request's EntityManager outlives the chunk transactions).
+     */
+    public Map<String, Object> rebuild() {
+        List<String> patients = testResultRepository.findDistinctPatientNationalIds();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long abnormalCount = 0;
+        for (int from = 0; from < patients.size(); from += REBUILD_PATIENT_CHUNK) {
+            List<String> chunk = patients.subList(from, Math.min(from + REBUILD_PATIENT_CHUNK, patients.size()));
+            Integer written = transaction.execute(status -> rebuildChunk(chunk));
+            abnormalCount += written != null ? written : 0;
+        }
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("patients", patients.size());
+        summary.put("abnormalResults", abnormalCount);
+        return summary;
+    }
+
+    /**
+     * Abnormal value counts per ward and flag for results on [startDate, endDate]
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getAbnormalSummary(LocalDate startDate, LocalDate endDate) {
+        Map<String, Map<LabResultFlag, Long>> byWard = new TreeMap<>();
+        Map<LabResultFlag, Long> totals = new EnumMap<>(LabResultFlag.class);
+        for (Object[] row : abnormalResultRepository.countByWardAndFlag(startDate, endDate)) {
+            String ward = row[0] != null ? (String) row[0] : "Unassigned";
+            LabResultFlag flag = (LabResultFlag) row[1];
+            long count = ((Number) row[2]).longValue();
+            byWard.computeIfAbsent(ward, w -> new EnumMap<>(LabResultFlag.class)).merge(flag, count, Long::sum);
+            totals.merge(flag, count, Long::sum);
+        }
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("startDate", startDate);
+        summary.put("endDate", endDate);
+        summary.put("wards", byWard);
+        summary.put("totals", totals);
+        return summary;
+    }
+
+    /**
+     * Most recent abnormal values for a ward on [startDate, endDate]
+     */
+    @Transactional(readOnly = true)
+    public List<LabAbnormalResult> getWardAbnormalResults(String wardName, LocalDate startDate, LocalDate endDate, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_WARD_RESULTS));
+        return abnormalResultRepository.findByWardBetween(wardName, startDate, endDate, PageRequest.of(0, size));
+    }
+
+    @Transactional(readOnly = true)
+    public List<LabAbnormalResult> getPatientAbnormalResults(String patientNationalId) {
+        return abnormalResultRepository.findByPatientNationalIdOrderByCompletedAtDesc(patientNationalId);
+    }
+
+    @Transactional(readOnly = true)
+    public long countCritical(LocalDate startDate, LocalDate endDate) {
+        Long count = abnormalResultRepository.countByFlagBetween(LabResultFlag.CRITICAL, startDate, endDate);
+        return count != null ? count : 0L;
+    }
+
+    // Helper methods
+    private int rebuildChunk(List<String> patientIds) {
+        List<LabTestDefinitionRegistry.Reading> readings = new ArrayList<>();
+        for (Object[] row : valueRepository.findNumericByPatientNationalIdIn(patientIds)) {
+            readings.addAll(definitionRegistry.toReadings((TestResult) row[0], List.of((TestResultValue) row[1])));
+        }
+
+        List<LabAbnormalResult> abnormal = evaluate(readings, new HashMap<>());
+        abnormalResultRepository.deleteByPatientNationalIdIn(patientIds);
+        abnormalResultRepository.saveAll(abnormal);
+        entityManager.flush();
+        entityManager.clear();
+        return abnormal.size();
+    }
+
+    private List<LabAbnormalResult> evaluate(Collection<LabTestDefinitionRegistry.Reading> readings,
+                                             Map<Long, Map<LabAnalyte, LabResultFlag>> flags) {
+        Set<String> patientIds = new HashSet<>();
+        for (LabTestDefinitionRegistry.Reading reading : readings) {
+            patientIds.add(reading.testResult().getPatientNationalId());
+        }
+        if (patientIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Object[]> demographics = new HashMap<>();
+        for (Object[] row : patientRepository.findDemographicsByNationalIdIn(patientIds)) {
+            demographics.put((String) row[0], row);
+        }
+
+        List<LabAbnormalResult> abnormal = new ArrayList<>();
+        for (LabTestDefinitionRegistry.Reading reading : readings) {
+            TestResult testResult = reading.testResult();
+            if (testResult.getId() == null || testResult.getCompletedAt() == null) {
+                continue;
+            }
+            Object[] patient = demographics.get(testResult.getPatientNationalId());
+            Integer ageYears = patient != null ? ageOn((LocalDate) patient[1], testResult.getCompletedAt().toLocalDate()) : null;
+            String gender = patient != null ? (String) patient[2] : null;
+
+            LabResultFlag flag = referenceRangeService.evaluate(reading.analyte(), reading.value(), ageYears, gender);
+            if (flag == null) {
+                continue;
+            }
+            flags.computeIfAbsent(testResult.getId(), id -> new EnumMap<>(LabAnalyte.class)).put(reading.analyte(), flag);
+            if (flag != LabResultFlag.NORMAL) {
+                abnormal.add(new LabAbnormalResult(testResult, reading.analyte(), reading.value(), flag));
+            }
+        }
+        return abnormal;
+    }
+
+    private static Integer ageOn(LocalDate dateOfBirth, LocalDate date) {
+        if (dateOfBirth == null || dateOfBirth.isAfter(date)) {
+            return null;
+        }
+        return Period.between(dateOfBirth, date).getYears();
+    }
+}
@@ -0,0 +1,407 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.model.LabRequest.LabRequest;
+import com.HMS.HMS.model.LabRequest.LabRequestStatus;
+import com.HMS.HMS.model.LabRequest.LabTest;
+import com.HMS.HMS.model.LabRequest.TestResult;
+import com.HMS.HMS.repository.LabRequestRepository;
+import com.HMS.HMS.repository.TestResultRepository;
+import com.HMS.HMS.util.QuantileSketch;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.HMS.HMS.util.TransactionCallbacks.afterCommit;
+
+/**
+ * Live turnaround monitoring for the laboratory.
+ *
+ * Open requests are held in memory in two priority queues (urgent and routine) ordered
+ * by request time, so the oldest request of each class is always at the head and a
+ * breach check only looks at the heads. A request leaves the queue once every ordered
+ * test has a result or its status is completed or cancelled. Requests that pass their
+ * SLA are pushed once through LabRequestWebSocketService.notifyUrgentLabRequest.
+ *
+ * Turnaround per test type is kept as a rolling 24-hour window of hourly QuantileSketch
+ * slots fed by TestResultService.saveTestResults, so the dashboard's p50/p90/p99 figures
+ * are read from memory without touching the database.
+ */
+@Service
+public class LabSlaMonitorService {
+
+    private static final Logger log = LoggerFactory.getLogger(LabSlaMonitorService.class);
+
+    static final Duration URGENT_SLA = Duration.ofHours(1);
+    static final Duration ROUTINE_SLA = Duration.ofHours(4);
+    private static final int WINDOW_HOURS = 24;
+
+    private static final List<LabRequestStatus> OPEN_STATUSES = List.of(
+            LabRequestStatus.PENDING, LabRequestStatus.IN_PROGRESS);
+
+    @Autowired
+    private LabRequestRepository labRequestRepository;
+
+    @Autowired
+    private TestResultRepository testResultRepository;
+
+    @Autowired
+    private LabRequestWebSocketService webSocketService;
+
+    private final Map<String, OpenRequest> open = new ConcurrentHashMap<>();
+    private final PriorityQueue<OpenRequest> urgentQueue = new PriorityQueue<>(Comparator.comparing(OpenRequest::requestDate));
+    private final PriorityQueue<OpenRequest> routineQueue = new PriorityQueue<>(Comparator.comparing(OpenRequest::requestDate));
+    // Guards both queues; open is read without it
+    private final Object queueLock = new Object();
+
+    private final Map<String, TurnaroundWindow> turnaroundByTestType = new ConcurrentHashMap<>();
+    private final TurnaroundWindow overallTurnaround = new TurnaroundWindow();
+
+    @PostConstruct
+    public void load() {
+        for (LabRequest labRequest : labRequestRepository.findByStatusInOrderByRequestDateDesc(OPEN_STATUSES)) {
+            apply(labRequest);
+        }
+        for (Object[] row : testResultRepository.findTurnaroundRowsCompletedSince(LocalDateTime.now().minusHours(WINDOW_HOURS))) {
+            recordTurnaround((String) row[2], (LocalDateTime) row[3], (LocalDateTime) row[4]);
+            OpenRequest request = open.get((String) row[0]);
+            if (request != null) {
+                request.resultedTests.add((String) row[2]);
+            }
+        }
+        for (OpenRequest request : List.copyOf(open.values())) {
+            if (request.isFullyResulted()) {
+                remove(request.requestId());
+            }
+        }
+        log.info("Lab SLA monitor loaded with {} open requests", open.size());
+    }
+
+    /**
+     * Record the current state of a lab request; completed or cancelled requests stop being tracked
+     */
+    public void track(LabRequest labRequest) {
+        afterCommit(() -> apply(labRequest));
+    }
+
+    /**
+     * Record a saved test result: feeds the turnaround window for its test type and stops
+     * the clock on the request once all of its tests have results
+     */
+    public void recordResult(LabRequest labRequest, String testName, LocalDateTime completedAt) {
+        afterCommit(() -> {
+            recordTurnaround(testName, labRequest.getRequestDate(), completedAt);
+            OpenRequest request = open.get(labRequest.getRequestId());
+            if (request != null) {
+                request.resultedTests.add(testName);
+                if (request.isFullyResulted()) {
+                    remove(request.requestId());
+                }
+            }
+        });
+    }
+
+    /**
+     * Record a batch of saved test results in one pass after commit. requestDates maps each
+     * request id to its request time; requests in completedRequestIds stop being tracked.
+     */
+    public void recordResults(List<TestResult> testResults, Map<String, LocalDateTime> requestDates,
+                              Collection<String> completedRequestIds) {
+        if (testResults.isEmpty() && completedRequestIds.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            for (TestResult testResult : testResults) {
+                recordTurnaround(testResult.getTestName(), requestDates.get(testResult.getRequestId()),
+                        testResult.getCompletedAt());
+                OpenRequest request = open.get(testResult.getRequestId());
+                if (request != null) {
+                    request.resultedTests.add(testResult.getTestName());
+                    if (request.isFullyResulted()) {
+                        remove(request.requestId());
+                    }
+                }
+            }
+            for (String requestId : completedRequestIds) {
+                remove(requestId);
+            }
+        });
+    }
+
+    /**
+     * Push every open request that has passed its SLA and has not been pushed yet
+     */
+    @Scheduled(fixedDelay = 30_000)
+    public void checkBreaches() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OpenRequest> breached = new ArrayList<>();
+        synchronized (queueLock) {
+            collectBreaches(urgentQueue, now.minus(URGENT_SLA), breached);
+            collectBreaches(routineQueue, now.minus(ROUTINE_SLA), breached);
+        }
+        for (OpenRequest request : breached) {
+            webSocketService.notifyUrgentLabRequest(request.labRequest());
+        }
+        if (!breached.isEmpty()) {
+            log.warn("{} lab requests breached their turnaround SLA", breached.size());
+        }
+    }
+
+    /**
+     * Dashboard figures, all from memory: open counts, SLA breaches, the oldest open
+     * requests and rolling turnaround percentiles per test type (minutes)
+     */
+    public Map<String, Object> getDashboard(int oldestLimit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OpenRequest> snapshot = new ArrayList<>(open.values());
+        snapshot.sort(Comparator.comparing(OpenRequest::requestDate));
+
+        int pending = 0;
+        int inProgress = 0;
+        int urgent = 0;
+        int breached = 0;
+        for (OpenRequest request : snapshot) {
+            if (request.status() == LabRequestStatus.IN_PROGRESS) {
+                inProgress++;
+            } else {
+                pending++;
+            }
+            if (request.urgent()) {
+                urgent++;
+            }
+            if (request.isBreached(now)) {
+                breached++;
+            }
+        }
+
+        List<Map<String, Object>> oldest = new ArrayList<>();
+        for (OpenRequest request : snapshot.subList(0, Math.min(oldestLimit, snapshot.size()))) {
+            oldest.add(request.toMap(now));
+        }
+
+        Map<String, Object> turnaround = new TreeMap<>();
+        turnaroundByTestType.forEach((testName, window) -> turnaround.put(testName, percentiles(window.snapshot())));
+
+        Map<String, Object> dashboard = new HashMap<>();
+        dashboard.put("openRequests", snapshot.size());
+        dashboard.put("pending", pending);
+        dashboard.put("inProgress", inProgress);
+        dashboard.put("urgent", urgent);
+        dashboard.put("breached", breached);
+        dashboard.put("urgentSlaMinutes", URGENT_SLA.toMinutes());
+        dashboard.put("routineSlaMinutes", ROUTINE_SLA.toMinutes());
+        dashboard.put("oldest", oldest);
+        dashboard.put("turnaroundByTestType", turnaround);
+        dashboard.put("turnaround", percentiles(overallTurnaround.snapshot()));
+        dashboard.put("windowHours", WINDOW_HOURS);
+        return dashboard;
+    }
+
+    /**
+     * Open requests past their SLA, oldest first
+     */
+    public List<Map<String, Object>> getBreachedRequests() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OpenRequest> breached = new ArrayList<>();
+        for (OpenRequest request : open.values()) {
+            if (request.isBreached(now)) {
+                breached.add(request);
+            }
+        }
+        breached.sort(Comparator.comparing(OpenRequest::requestDate));
+
+        List<Map<String, Object>> result = new ArrayList<>(breached.size());
+        for (OpenRequest request : breached) {
+            result.add(request.toMap(now));
+        }
+        return result;
+    }
+
+    /**
+     * Ordered tests still waiting for a result on open requests, by test name
+     */
+    public Map<String, Integer> getPendingTestCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (OpenRequest request : open.values()) {
+            for (String testName : request.orderedTests) {
+                if (!request.resultedTests.contains(testName)) {
+                    counts.merge(testName, 1, Integer::sum);
+                }
+            }
+        }
+        return counts;
+    }
+
+    // Helper methods
+    private void apply(LabRequest labRequest) {
+        if (labRequest.getRequestId() == null || labRequest.getRequestDate() == null) {
+            return;
+        }
+        if (!OPEN_STATUSES.contains(labRequest.getStatus())) {
+            remove(labRequest.getRequestId());
+            return;
+        }
+
+        OpenRequest previous = open.get(labRequest.getRequestId());
+        OpenRequest current = new OpenRequest(labRequest, isUrgent(labRequest), testNames(labRequest),
+                previous != null ? previous.resultedTests : ConcurrentHashMap.newKeySet());
+        synchronized (queueLock) {
+            if (previous != null) {
+                queueFor(previous).remove(previous);
+                current.notified = previous.notified;
+            }
+            open.put(current.requestId(), current);
+            if (!current.notified) {
+                queueFor(current).add(current);
+            }
+        }
+    }
+
+    private void remove(String requestId) {
+        synchronized (queueLock) {
+            OpenRequest previous = open.remove(requestId);
+            if (previous != null) {
+                queueFor(previous).remove(previous);
+            }
+        }
+    }
+
+    private void collectBreaches(PriorityQueue<OpenRequest> queue, LocalDateTime cutoff, List<OpenRequest> breached) {
+        while (!queue.isEmpty() && queue.peek().requestDate().isBefore(cutoff)) {
+            OpenRequest request = queue.poll();
+            request.notified = true;
+            breached.add(request);
+        }
+    }
+
+    private PriorityQueue<OpenRequest> queueFor(OpenRequest request) {
+        return request.urgent() ? urgentQueue : routineQueue;
+    }
+
+    private void recordTurnaround(String testName, LocalDateTime requestDate, LocalDateTime completedAt) {
+        if (testName == null || requestDate == null || completedAt == null) {
+            return;
+        }
+        double minutes = Math.max(0, Duration.between(requestDate, completedAt).getSeconds() / 60.0);
+        long hour = completedAt.atZone(ZoneId.systemDefault()).toEpochSecond() / 3600;
+        turnaroundByTestType.computeIfAbsent(testName, name -> new TurnaroundWindow()).add(hour, minutes);
+        overallTurnaround.add(hour, minutes);
+    }
+
+    private static Map<String, Object> percentiles(QuantileSketch sketch) {
+        Map<String, Object> figures = new HashMap<>();
+        figures.put("count", sketch.getCount());
+        figures.put("mean", Math.round(sketch.getMean()));
+        figures.put("p50", Math.round(sketch.quantile(0.5)));
+        figures.put("p90", Math.round(sketch.quantile(0.9)));
+        figures.put("p99", Math.round(sketch.quantile(0.99)));
+        return figures;
+    }
+
+    private static boolean isUrgent(LabRequest labRequest) {
+        if (labRequest.getTests() == null) {
+            return false;
+        }
+        for (LabTest test : labRequest.getTests()) {
+            if (Boolean.TRUE.equals(test.getUrgent())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> testNames(LabRequest labRequest) {
+        Set<String> names = new HashSet<>();
+        if (labRequest.getTests() != null) {
+            for (LabTest test : labRequest.getTests()) {
+                names.add(test.getTestName());
+            }
+        }
+        return names;
+    }
+
+    private static final class OpenRequest {
+        private final LabRequest labRequest;
+        private final boolean urgent;
+        private final Set<String> orderedTests;
+        private final Set<String> resultedTests;
+        // Set once the request has been pushed as breached; guarded by queueLock
+        private boolean notified;
+
+        OpenRequest(LabRequest labRequest, boolean urgent, Set<String> orderedTests, Set<String> resultedTests) {
+            this.labRequest = labRequest;
+            this.urgent = urgent;
+            this.orderedTests = orderedTests;
+            this.resultedTests = resultedTests;
+        }
+
+        LabRequest labRequest() { return labRequest; }
+        String requestId() { return labRequest.getRequestId(); }
+        LocalDateTime requestDate() { return labRequest.getRequestDate(); }
+        LabRequestStatus status() { return labRequest.getStatus(); }
+        boolean urgent() { return urgent; }
+
+        boolean isFullyResulted() {
+            return !orderedTests.isEmpty() && resultedTests.containsAll(orderedTests);
+        }
+
+        boolean isBreached(LocalDateTime now) {
+            return requestDate().isBefore(now.minus(urgent ? URGENT_SLA : ROUTINE_SLA));
+        }
+
+        Map<String, Object> toMap(LocalDateTime now) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("requestId", requestId());
+            map.put("patientName", labRequest.getPatientName());
+            map.put("wardName", labRequest.getWardName());
+            map.put("status", status());
+            map.put("urgent", urgent);
+            map.put("requestDate", requestDate());
+            map.put("ageMinutes", Duration.between(requestDate(), now).toMinutes());
+            map.put("breached", isBreached(now));
+            map.put("testsOrdered", orderedTests.size());
+            map.put("testsResulted", resultedTests.size());
+            return map;
+        }
+    }
+
+    /**
+     * Ring of hourly sketches covering the last WINDOW_HOURS hours
+     */
+    private static final class TurnaroundWindow {
+        private final QuantileSketch[] slots = new QuantileSketch[WINDOW_HOURS];
+        private final long[] slotHours = new long[WINDOW_HOURS];
+
+        synchronized void add(long hour, double minutes) {
+            int index = (int) Math.floorMod(hour, (long) WINDOW_HOURS);
+            if (slots[index] == null || slotHours[index] != hour) {
+                if (slots[index] != null && slotHours[index] > hour) {
+                    // Older than the hour already held in this slot, so outside the window
+                    return;
+                }
+                slots[index] = new QuantileSketch();
+                slotHours[index] = hour;
+            }
+            slots[index].add(minutes);
+        }
+
+        synchronized QuantileSketch snapshot() {
+            long currentHour = System.currentTimeMillis() / 3_600_000L;
+            QuantileSketch merged = new QuantileSketch();
+            for (int i = 0; i < WINDOW_HOURS; i++) {
+                if (slots[i] != null && slotHours[i] > currentHour - WINDOW_HOURS) {
+                    merged.merge(slots[i]);
+                }
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.model.LabRequest.LabAnalyte;
+import com.HMS.HMS.model.LabRequest.LabAnalyteDefinition;
+import com.HMS.HMS.model.LabRequest.LabAnalyteDefinition.ValueType;
+import com.HMS.HMS.model.LabRequest.LabTestDefinition;
+import com.HMS.HMS.model.LabRequest.TestResult;
+import com.HMS.HMS.model.LabRequest.TestResultValue;
+import com.HMS.HMS.repository.LabTestDefinitionRepository;
+import com.HMS.HMS.repository.TestResultJdbcRepository;
+import com.HMS.HMS.repository.TestResultValueRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+/**
+ * Cached lab test definitions, used to turn result submissions into test_result_values
+ * rows and those rows back into the result maps the frontend reads.
+ *
+ * Definitions are read once into immutable specs keyed by test name and by analyte id,
+ * so converting a result is a pair of map lookups with no database access. The cache
+ * is filled on startup, before the trend series and flag index are backfilled, and
+ * re-read on reload() after definitions are edited.
+ */
+@Service
+public class LabTestDefinitionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(LabTestDefinitionRegistry.class);
+
+    @Autowired
+    private LabTestDefinitionRepository definitionRepository;
+
+    @Autowired
+    private TestResultValueRepository valueRepository;
+
+    @Autowired
+    private TestResultJdbcRepository testResultJdbcRepository;
+
+    private volatile Definitions definitions;
+
+    public record AnalyteSpec(Long id, String testName, String inputKey, String resultKey,
+                              ValueType valueType, String unit, LabAnalyte trackedAnalyte) {}
+
+    public record TestSpec(Long id, String testName, String category, List<AnalyteSpec> analytes) {}
+
+    /**
+     * A numeric value of a tracked analyte, with the result it belongs to
+     */
+    public record Reading(TestResult testResult, LabAnalyte analyte, double value) {}
+
+    private record Definitions(Map<String, TestSpec> byTestName, Map<Long, AnalyteSpec> byAnalyteId) {}
+
+    /**
+     * Load the definitions and, on the first start after the per-test result tables were
+     * retired, copy their values into test_result_values
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void load() {
+        reload();
+        if (valueRepository.count() == 0) {
+            int copied = testResultJdbcRepository.copyLegacyResultValues(this::analyteId);
+            if (copied > 0) {
+                log.info("Copied {} values from the per-test result tables into test_result_values", copied);
+            }
+        }
+    }
+
+    /**
+     * Re-read the definitions, e.g. after a test was added
+     */
+    @Transactional(readOnly = true)
+    public int reload() {
+        Map<String, TestSpec> byTestName = new HashMap<>();
+        Map<Long, AnalyteSpec> byAnalyteId = new HashMap<>();
+        for (LabTestDefinition definition : definitionRepository.findAllWithAnalytes()) {
+            List<AnalyteSpec> analytes = new ArrayList<>();
+            for (LabAnalyteDefinition analyte : definition.getAnalytes()) {
+                AnalyteSpec spec = new AnalyteSpec(analyte.getId(), definition.getTestName(), analyte.getInputKey(),
+                        analyte.getResultKey(), analyte.getValueType(), analyte.getUnit(), analyte.getTrackedAnalyte());
+                analytes.add(spec);
+                byAnalyteId.put(spec.id(), spec);
+            }
+            byTestName.put(definition.getTestName(),
+                    new TestSpec(definition.getId(), definition.getTestName(), definition.getCategory(), List.copyOf(analytes)));
+        }
+        definitions = new Definitions(Map.copyOf(byTestName), Map.copyOf(byAnalyteId));
+        log.info("Loaded {} lab test definitions with {} analytes", byTestName.size(), byAnalyteId.size());
+        return byTestName.size();
+    }
+
+    public List<TestSpec> getTests() {
+        List<TestSpec> tests = new ArrayList<>(definitions().byTestName().values());
+        tests.sort(Comparator.comparing(TestSpec::testName));
+        return tests;
+    }
+
+    /**
+     * Definition for a test name, or null for tests stored without values
+     */
+    public TestSpec getTest(String testName) {
+        return testName != null ? definitions().byTestName().get(testName) : null;
+    }
+
+    /**
+     * Value rows for a submitted result, keyed by the definition's input keys. The test
+     * result must already have its id. Missing or unparseable values are left out.
+     */
+    public List<TestResultValue> toValues(TestResult testResult, Map<String, Object> submitted) {
+        TestSpec test = getTest(testResult.getTestName());
+        if (test == null || submitted == null) {
+            return List.of();
+        }
+        List<TestResultValue> values = new ArrayList<>(test.analytes().size());
+        for (AnalyteSpec analyte : test.analytes()) {
+            Object raw = submitted.get(analyte.inputKey());
+            if (raw == null) {
+                continue;
+            }
+            if (analyte.valueType() == ValueType.TEXT) {
+                values.add(new TestResultValue(testResult.getId(), analyte.id(), null, raw.toString()));
+                continue;
+            }
+            Double number = toNumber(raw, analyte.valueType());
+            if (number != null) {
+                values.add(new TestResultValue(testResult.getId(), analyte.id(), number, null));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Result map for one test result keyed by result key. Every analyte of the test is
+     * present, null when no value was stored; INTEGER values are returned as integers.
+     */
+    public Map<String, Object> toResultMap(String testName, Collection<TestResultValue> values) {
+        Map<String, Object> result = new HashMap<>();
+        TestSpec test = getTest(testName);
+        if (test != null) {
+            for (AnalyteSpec analyte : test.analytes()) {
+                result.put(analyte.resultKey(), null);
+            }
+        }
+        Map<Long, AnalyteSpec> byAnalyteId = definitions().byAnalyteId();
+        for (TestResultValue value : values) {
+            AnalyteSpec analyte = byAnalyteId.get(value.getAnalyteId());
+            if (analyte != null) {
+                result.put(analyte.resultKey(), displayValue(analyte, value));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Numeric values of tracked analytes, for the trend series and reference range flags
+     */
+    public List<Reading> toReadings(TestResult testResult, Collection<TestResultValue> values) {
+        Map<Long, AnalyteSpec> byAnalyteId = definitions().byAnalyteId();
+        List<Reading> readings = new ArrayList<>();
+        for (TestResultValue value : values) {
+            AnalyteSpec analyte = byAnalyteId.get(value.getAnalyteId());
+            if (analyte != null && analyte.trackedAnalyte() != null && value.getNumericValue() != null) {
+                readings.add(new Reading(testResult, analyte.trackedAnalyte(), value.getNumericValue()));
+            }
+        }
+        return readings;
+    }
+
+    // Helper methods
+    private Definitions definitions() {
+        Definitions current = definitions;
+        if (current == null) {
+            reload();
+            current = definitions;
+        }
+        return current;
+    }
+
+    private Long analyteId(String testName, String inputKey) {
+        TestSpec test = getTest(testName);
+        if (test == null) {
+            return null;
+        }
+        for (AnalyteSpec analyte : test.analytes()) {
+            if (analyte.inputKey().equals(inputKey)) {
+                return analyte.id();
+            }
+        }
+        return null;
+    }
+
+    private static Object displayValue(AnalyteSpec analyte, TestResultValue value) {
+        if (analyte.valueType() == ValueType.TEXT) {
+            return value.getTextValue();
+        }
+        Double number = value.getNumericValue();
+        if (number == null) {
+            return null;
+        }
+        return analyte.valueType() == ValueType.INTEGER ? (Object) number.intValue() : number;
+    }
+
+    private static Double toNumber(Object raw, ValueType valueType) {
+        try {
+            if (raw instanceof Number number) {
+                return valueType == ValueType.INTEGER ? (double) number.intValue() : number.doubleValue();
+            }
+            if (raw instanceof String text && !text.isBlank()) {
+                return valueType == ValueType.INTEGER ? (double) Integer.parseInt(text.trim()) : Double.parseDouble(text.trim());
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return null;
+    }
+}
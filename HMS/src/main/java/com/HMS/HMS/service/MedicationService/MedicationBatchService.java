@@ -0,0 +1,296 @@
+package com.HMS.HMS.service.MedicationService;
+
+import com.HMS.HMS.Exception_Handler.DomainValidationException;
+import com.HMS.HMS.model.Medication.Medication;
+import com.HMS.HMS.model.Medication.MedicationBatch;
+import com.HMS.HMS.repository.MedicationBatchRepository;
+import com.HMS.HMS.repository.MedicationRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static com.HMS.HMS.util.TransactionCallbacks.afterCommit;
+
+/**
+ * Lot (batch) sub-ledger for medication stock.
+ *
+ * Every medication has many lots, each with its own expiry and quantity. Receiving and
+ * allocation lock the medication's lot rows and work on them, earliest expiry first, so
+ * concurrent dispenses of one medication take stock one after another. Lots with stock are
+ * mirrored in memory, a per-medication queue and one sorted index over all lots for the
+ * expiry queries, and the mirror only takes a change once the transaction that made it
+ * commits.
+ */
+@Service
+@Transactional
+public class MedicationBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(MedicationBatchService.class);
+
+    private static final Comparator<Lot> FEFO = Comparator
+            .comparing((Lot lot) -> lot.expiryDate)
+            .thenComparingLong(lot -> lot.lotId);
+
+    private final MedicationBatchRepository batchRepository;
+    private final MedicationRepository medicationRepository;
+
+    // medicationId -> lots with stock, earliest expiry at the head
+    private final Map<Long, PriorityQueue<Lot>> queues = new ConcurrentHashMap<>();
+    // all lots with stock, sorted by expiry
+    private final ConcurrentSkipListSet<Lot> expiryIndex = new ConcurrentSkipListSet<>(FEFO);
+
+    public MedicationBatchService(MedicationBatchRepository batchRepository,
+                                  MedicationRepository medicationRepository) {
+        this.batchRepository = batchRepository;
+        this.medicationRepository = medicationRepository;
+    }
+
+    @PostConstruct
+    public void loadLots() {
+        // Stock recorded before the lot ledger existed becomes one lot per medication
+        List<Long> legacyIds = batchRepository.findMedicationIdsWithoutBatches();
+        for (Medication medication : medicationRepository.findAllById(legacyIds)) {
+            MedicationBatch batch = new MedicationBatch(medication, medication.getBatchNumber(), medication.getExpiryDate());
+            batch.receive(medication.getCurrentStock());
+            batchRepository.save(batch);
+        }
+
+        for (MedicationBatch batch : batchRepository.findAllInStockWithMedication()) {
+            index(toLot(batch));
+        }
+        log.info("Loaded {} medication lots for {} medications ({} backfilled from legacy stock)",
+                expiryIndex.size(), queues.size(), legacyIds.size());
+    }
+
+    /**
+     * Add received stock to a lot of the medication, creating the lot if it is new.
+     * Increments Medication.currentStock and keeps Medication.expiryDate at the earliest lot expiry.
+     */
+    public MedicationBatch receiveStock(Medication medication, String batchNumber, int quantity, LocalDate expiryDate) {
+        if (quantity <= 0) {
+            throw new DomainValidationException("Received quantity must be positive");
+        }
+
+        MedicationBatch batch = batchRepository.findForUpdate(medication.getId(), batchNumber)
+                .orElseGet(() -> {
+                    if (expiryDate == null) {
+                        throw new DomainValidationException("Expiry date is required for new batch " + batchNumber);
+                    }
+                    return new MedicationBatch(medication, batchNumber, expiryDate);
+                });
+        batch.receive(quantity);
+        batch = batchRepository.save(batch);
+
+        medication.setCurrentStock(medication.getCurrentStock() + quantity);
+        refreshEarliestExpiry(medication, batchRepository.findInStockByMedicationId(medication.getId()));
+
+        Lot received = toLot(batch);
+        afterCommit(() -> adjust(received, quantity));
+        return batch;
+    }
+
+    /**
+     * Take quantity from the medication's unexpired lots, earliest expiry first.
+     * Decrements Medication.currentStock and returns the per-lot breakdown.
+     */
+    public List<BatchAllocation> allocate(Medication medication, int quantity) {
+        if (quantity <= 0) {
+            return List.of();
+        }
+
+        List<MedicationBatch> batches = new ArrayList<>(batchRepository.findInStockForUpdate(medication.getId()));
+        if (batches.isEmpty()) {
+            legacyLot(medication).ifPresent(batches::add);
+        }
+
+        // Expired lots are never dispensed
+        LocalDate today = LocalDate.now();
+        List<MedicationBatch> unexpired = batches.stream()
+                .filter(batch -> !batch.getExpiryDate().isBefore(today))
+                .toList();
+        int available = unexpired.stream().mapToInt(MedicationBatch::getQuantity).sum();
+        if (available < quantity) {
+            throw new IllegalStateException("Insufficient unexpired stock for medication: " + medication.getDrugName()
+                    + ". Available: " + available + ", Required: " + quantity);
+        }
+
+        List<BatchAllocation> allocations = new ArrayList<>();
+        List<Lot> taken = new ArrayList<>();
+        int remaining = quantity;
+        for (MedicationBatch batch : unexpired) {
+            if (remaining == 0) {
+                break;
+            }
+            int take = Math.min(batch.getQuantity(), remaining);
+            batch.setQuantity(batch.getQuantity() - take);
+            remaining -= take;
+            allocations.add(new BatchAllocation(batch.getId(), batch.getBatchNumber(), batch.getExpiryDate(), take));
+            taken.add(toLot(batch));
+        }
+
+        medication.setCurrentStock(medication.getCurrentStock() - quantity);
+        refreshEarliestExpiry(medication, batches);
+
+        afterCommit(() -> {
+            for (int i = 0; i < taken.size(); i++) {
+                adjust(taken.get(i), -allocations.get(i).quantity());
+            }
+        });
+        return allocations;
+    }
+
+    /**
+     * Lots with stock expiring in [from, to], earliest first
+     */
+    @Transactional(readOnly = true)
+    public List<ExpiringLot> getLotsExpiringBetween(LocalDate from, LocalDate to) {
+        List<ExpiringLot> result = new ArrayList<>();
+        for (Lot lot : expiryIndex.subSet(Lot.bound(from, Long.MIN_VALUE), true, Lot.bound(to, Long.MAX_VALUE), true)) {
+            if (lot.quantity > 0) {
+                result.add(new ExpiringLot(lot.medicationId, lot.drugName, lot.batchNumber, lot.expiryDate, lot.quantity));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lots with stock whose expiry is before the given date
+     */
+    @Transactional(readOnly = true)
+    public List<ExpiringLot> getLotsExpiringBefore(LocalDate date) {
+        List<ExpiringLot> result = new ArrayList<>();
+        for (Lot lot : expiryIndex.headSet(Lot.bound(date, Long.MIN_VALUE))) {
+            if (lot.quantity > 0) {
+                result.add(new ExpiringLot(lot.medicationId, lot.drugName, lot.batchNumber, lot.expiryDate, lot.quantity));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lots of one medication with stock, in allocation order
+     */
+    @Transactional(readOnly = true)
+    public List<ExpiringLot> getLotsForMedication(Long medicationId) {
+        PriorityQueue<Lot> queue = queues.get(medicationId);
+        if (queue == null) {
+            return List.of();
+        }
+        List<Lot> lots;
+        synchronized (queue) {
+            lots = new ArrayList<>(queue);
+        }
+        lots.sort(FEFO);
+        List<ExpiringLot> result = new ArrayList<>();
+        for (Lot lot : lots) {
+            result.add(new ExpiringLot(lot.medicationId, lot.drugName, lot.batchNumber, lot.expiryDate, lot.quantity));
+        }
+        return result;
+    }
+
+    // Helper methods
+    private PriorityQueue<Lot> queueFor(Long medicationId) {
+        return queues.computeIfAbsent(medicationId, id -> new PriorityQueue<>(FEFO));
+    }
+
+    private void index(Lot lot) {
+        PriorityQueue<Lot> queue = queueFor(lot.medicationId);
+        synchronized (queue) {
+            queue.add(lot);
+        }
+        expiryIndex.add(lot);
+    }
+
+    private Lot findLot(PriorityQueue<Lot> queue, Long lotId) {
+        for (Lot lot : queue) {
+            if (lot.lotId == lotId) {
+                return lot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Apply a committed change of delta to a lot in memory; committed is the lot as the
+     * transaction left it, indexed when memory does not hold the lot yet
+     */
+    private void adjust(Lot committed, int delta) {
+        PriorityQueue<Lot> queue = queueFor(committed.medicationId);
+        synchronized (queue) {
+            Lot lot = findLot(queue, committed.lotId);
+            if (lot == null) {
+                if (committed.quantity > 0) {
+                    queue.add(committed);
+                    expiryIndex.add(committed);
+                }
+                return;
+            }
+            lot.quantity += delta;
+            if (lot.quantity <= 0) {
+                queue.remove(lot);
+                expiryIndex.remove(lot);
+            }
+        }
+    }
+
+    private void refreshEarliestExpiry(Medication medication, List<MedicationBatch> batches) {
+        LocalDate today = LocalDate.now();
+        batches.stream()
+                .filter(batch -> batch.getQuantity() > 0 && !batch.getExpiryDate().isBefore(today))
+                .map(MedicationBatch::getExpiryDate)
+                .min(Comparator.naturalOrder())
+                .ifPresent(medication::setExpiryDate);
+    }
+
+    /**
+     * The single lot standing in for stock recorded before the lot ledger existed, created
+     * when the medication has stock but no lots
+     */
+    private Optional<MedicationBatch> legacyLot(Medication medication) {
+        if (medication.getCurrentStock() <= 0 || batchRepository.existsByMedicationId(medication.getId())) {
+            return Optional.empty();
+        }
+        MedicationBatch batch = new MedicationBatch(medication, medication.getBatchNumber(), medication.getExpiryDate());
+        batch.receive(medication.getCurrentStock());
+        return Optional.of(batchRepository.save(batch));
+    }
+
+    private Lot toLot(MedicationBatch batch) {
+        Medication medication = batch.getMedication();
+        return new Lot(batch.getId(), medication.getId(), medication.getDrugName(),
+                batch.getBatchNumber(), batch.getExpiryDate(), batch.getQuantity());
+    }
+
+    private static final class Lot {
+        final long lotId;
+        final long medicationId;
+        final String drugName;
+        final String batchNumber;
+        final LocalDate expiryDate;
+        volatile int quantity;
+
+        Lot(long lotId, long medicationId, String drugName, String batchNumber, LocalDate expiryDate, int quantity) {
+            this.lotId = lotId;
+            this.medicationId = medicationId;
+            this.drugName = drugName;
+            this.batchNumber = batchNumber;
+            this.expiryDate = expiryDate;
+            this.quantity = quantity;
+        }
+
+        static Lot bound(LocalDate expiryDate, long lotId) {
+            return new Lot(lotId, 0L, null, null, expiryDate, 0);
+        }
+    }
+
+    public record BatchAllocation(Long batchId, String batchNumber, LocalDate expiryDate, int quantity) {}
+
+    public record ExpiringLot(Long medicationId, String drugName, String batchNumber, LocalDate expiryDate, int quantity) {}
+}
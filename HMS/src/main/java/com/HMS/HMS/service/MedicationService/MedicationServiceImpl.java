@@ -14,6 +14,7 @@ import com.HMS.HMS.Exception_Handler.DomainValidationException;
 import com.HMS.HMS.Exception_Handler.DuplicateBatchNumberException;
 import com.HMS.HMS.model.Medication.Medication;
 import com.HMS.HMS.repository.MedicationRepository;
+import com.HMS.HMS.service.PharmacyService.DrugInteractionService;
 import com.HMS.HMS.util.Sanitizer;
 import com.HMS.HMS.websocket.InventoryNotificationService;
 import org.springframework.data.domain.Page;
@@ -36,10 +37,15 @@ public class MedicationServiceImpl implements MedicationService{
     private static final Logger log = LoggerFactory.getLogger(MedicationServiceImpl.class);
     private final MedicationRepository repository;
     private final InventoryNotificationService notificationService;
+    private final MedicationBatchService batchService;
+    private final DrugInteractionService drugInteractionService;
 
-    public MedicationServiceImpl(MedicationRepository repository, InventoryNotificationService notificationService) {
+    public MedicationServiceImpl(MedicationRepository repository, InventoryNotificationService notificationService,
+                                 MedicationBatchService batchService, DrugInteractionService drugInteractionService) {
         this.repository = repository;
         this.notificationService = notificationService;
+        this.batchService = batchService;
+        this.drugInteractionService = drugInteractionService;
     }
 
     @Override
@@ -63,8 +69,8 @@ public class MedicationServiceImpl implements MedicationService{
         m.setDosageForm(Sanitizer.clean(request.getDosageForm()));
         m.setManufacturer(Sanitizer.clean(request.getManufacturer()));
         m.setBatchNumber(Sanitizer.clean(request.getBatchNumber()));
-        // Current stock can be 0 for medications added without initial inventory
-        m.setCurrentStock(request.getCurrentStock() != null ? request.getCurrentStock() : 0);
+        // Initial inventory is booked as the first lot below
+        m.setCurrentStock(0);
         m.setMinimumStock(request.getMinimumStock());
         m.setMaximumStock(request.getMaximumStock());
         m.setUnitCost(request.getUnitCost());
@@ -72,6 +78,11 @@ public class MedicationServiceImpl implements MedicationService{
         m.setIsActive(Boolean.TRUE);
 
         Medication saved = repository.save(m);
+
+        // Current stock can be 0 for medications added without initial inventory
+        if (request.getCurrentStock() != null && request.getCurrentStock() > 0) {
+            batchService.receiveStock(saved, saved.getBatchNumber(), request.getCurrentStock(), saved.getExpiryDate());
+        }
         
         // Send WebSocket notification for new medication
         notificationService.notifyMedicationAdded(saved);
@@ -231,6 +242,13 @@ public class MedicationServiceImpl implements MedicationService{
             
             Medication medication = medicationOpt.get();
             
+            if (request.getExpiryDate() != null && !request.getExpiryDate().isAfter(LocalDate.now())) {
+                throw new DomainValidationException("Expiry date must be in the future");
+            }
+            
+            // Stock without a batch number goes into the medication's current batch
+            String lotBatchNumber = medication.getBatchNumber();
+            
             // Validate batch number if provided
             if (request.getBatchNumber() != null && !request.getBatchNumber().trim().isEmpty()) {
                 String batchNumber = request.getBatchNumber().trim();
@@ -250,6 +268,7 @@ public class MedicationServiceImpl implements MedicationService{
                 
                 // Update batch number if provided
                 medication.setBatchNumber(Sanitizer.clean(batchNumber));
+                lotBatchNumber = medication.getBatchNumber();
             }
             
             // Add the new stock quantity to current stock (instead of replacing)
@@ -264,10 +283,16 @@ public class MedicationServiceImpl implements MedicationService{
                 );
             }
             
-            medication.setCurrentStock(newTotalStock);
+            // Book the stock into its lot; a new lot keeps its own expiry instead of overwriting the medication's
+            if (request.getNewStock() > 0) {
+                LocalDate lotExpiry = request.getExpiryDate() != null ? request.getExpiryDate() : medication.getExpiryDate();
+                batchService.receiveStock(medication, lotBatchNumber, request.getNewStock(), lotExpiry);
+            }
             
             // Save the updated medication (updatedAt will be set automatically by @UpdateTimestamp)
             Medication savedMedication = repository.save(medication);
+            // Re-resolve the medication's drug id on its next interaction check
+            drugInteractionService.forget(savedMedication.getId());
             
             // Send WebSocket notification for real-time updates
             notificationService.notifyStockUpdated(savedMedication, currentStock, newTotalStock);
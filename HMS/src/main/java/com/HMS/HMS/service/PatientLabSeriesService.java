@@ -0,0 +1,265 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.model.LabRequest.*;
+import com.HMS.HMS.repository.*;
+import com.HMS.HMS.util.TimeSeries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Per-patient analyte time series for trend charts.
+ *
+ * Every value of a tracked analyte is also appended to one patient_analyte_series row
+ * per (patient, analyte), so a multi-year glucose or hemoglobin trend is a single row
+ * read followed by an in-memory range slice and downsample. TestResultService records
+ * values as results are saved; the table is backfilled from test_result_values on
+ * startup when empty, or on demand. Both lock the patients' rows while they rewrite
+ * them, so a backfill and live result saves never overwrite each other.
+ */
+@Service
+public class PatientLabSeriesService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientLabSeriesService.class);
+
+    private static final int BACKFILL_PATIENT_CHUNK = 200;
+    private static final int MAX_POINTS_LIMIT = 2000;
+
+    @Autowired
+    private PatientAnalyteSeriesRepository seriesRepository;
+
+    @Autowired
+    private TestResultRepository testResultRepository;
+
+    @Autowired
+    private TestResultValueRepository valueRepository;
+
+    @Autowired
+    private LabTestDefinitionRegistry definitionRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Append readings saved in the current transaction. Rows for the affected patients
+     * are locked while they are rewritten.
+     */
+    @Transactional
+    public void recordResults(Collection<LabTestDefinitionRegistry.Reading> readings) {
+        Map<String, Map<LabAnalyte, TimeSeries>> points = collectPoints(readings);
+        if (!points.isEmpty()) {
+            write(points, false);
+        }
+    }
+
+    /**
+     * Fill an empty series table from test_result_values once the application is up
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (seriesRepository.count() == 0) {
+                Map<String, Object> summary = backfill();
+                log.info("Backfilled patient lab series: {}", summary);
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill patient lab series", e);
+        }
+    }
+
+    /**
+     * Rebuild every series from test_result_values, a chunk of patients at a time so
+     * memory stays bounded. Each chunk locks its patients' rows and reads their values
+     * in its own transaction, so results saved meanwhile are either read or appended
+     * once the chunk commits.
+     */
+    public Map<String, Object> backfill() {
+        seriesRepository.deleteAllInBatch();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<String> patients = testResultRepository.findDistinctPatientNationalIds();
+        long seriesCount = 0;
+        long pointCount = 0;
+        for (int from = 0; from < patients.size(); from += BACKFILL_PATIENT_CHUNK) {
+            List<String> chunk = patients.subList(from, Math.min(from + BACKFILL_PATIENT_CHUNK, patients.size()));
+
+            long[] written = transaction.execute(status -> {
+                seriesRepository.findForUpdateByPatientNationalIdIn(chunk);
+                List<LabTestDefinitionRegistry.Reading> readings = new ArrayList<>();
+                for (Object[] row : valueRepository.findNumericByPatientNationalIdIn(chunk)) {
+                    readings.addAll(definitionRegistry.toReadings((TestResult) row[0], List.of((TestResultValue) row[1])));
+                }
+                Map<String, Map<LabAnalyte, TimeSeries>> points = collectPoints(readings);
+                if (points.isEmpty()) {
+                    return new long[]{0, 0};
+                }
+                write(points, true);
+                return new long[]{
+                        points.values().stream().mapToLong(Map::size).sum(),
+                        points.values().stream().flatMap(byAnalyte -> byAnalyte.values().stream()).mapToLong(TimeSeries::size).sum()};
+            });
+            seriesCount += written[0];
+            pointCount += written[1];
+        }
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("patients", patients.size());
+        summary.put("series", seriesCount);
+        summary.put("points", pointCount);
+        return summary;
+    }
+
+    /**
+     * Latest value and point count of every analyte recorded for a patient, without decoding any series
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getPatientSummary(String patientNationalId) {
+        List<Map<String, Object>> summary = new ArrayList<>();
+        for (PatientAnalyteSeries row : seriesRepository.findByPatientNationalIdOrderByAnalyte(patientNationalId)) {
+            Map<String, Object> item = describe(row.getAnalyte());
+            item.put("pointCount", row.getPointCount());
+            item.put("firstAt", row.getFirstAt());
+            item.put("lastAt", row.getLastAt());
+            item.put("lastValue", row.getLastValue());
+            summary.add(item);
+        }
+        return summary;
+    }
+
+    /**
+     * Values of one analyte between from and to (either may be null for an open end).
+     * Returns raw points when they fit in maxPoints, otherwise that many time buckets
+     * with mean, min, max and last value.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSeries(String patientNationalId, LabAnalyte analyte,
+                                         LocalDateTime from, LocalDateTime to, int maxPoints) {
+        TimeSeries series = seriesRepository.findByPatientNationalIdAndAnalyte(patientNationalId, analyte)
+                .map(row -> TimeSeries.fromBytes(row.getSeriesData()))
+                .orElseGet(TimeSeries::new)
+                .range(from != null ? toEpochSecond(from) : Long.MIN_VALUE,
+                       to != null ? toEpochSecond(to) : Long.MAX_VALUE);
+
+        int limit = Math.max(1, Math.min(maxPoints, MAX_POINTS_LIMIT));
+        List<Map<String, Object>> points = new ArrayList<>();
+        for (TimeSeries.Bucket bucket : series.downsample(limit)) {
+            Map<String, Object> point = new HashMap<>();
+            point.put("time", toLocalDateTime(bucket.start()));
+            point.put("value", bucket.mean());
+            if (bucket.count() > 1) {
+                point.put("endTime", toLocalDateTime(bucket.end()));
+                point.put("count", bucket.count());
+                point.put("min", bucket.min());
+                point.put("max", bucket.max());
+                point.put("last", bucket.last());
+            }
+            points.add(point);
+        }
+
+        Map<String, Object> response = describe(analyte);
+        response.put("patientNationalId", patientNationalId);
+        response.put("totalPoints", series.size());
+        response.put("downsampled", series.size() > limit);
+        response.put("points", points);
+        return response;
+    }
+
+    // Helper methods
+    private static Map<String, Map<LabAnalyte, TimeSeries>> collectPoints(Collection<LabTestDefinitionRegistry.Reading> readings) {
+        Map<String, Map<LabAnalyte, TimeSeries>> points = new HashMap<>();
+        for (LabTestDefinitionRegistry.Reading reading : readings) {
+            TestResult testResult = reading.testResult();
+            if (testResult.getPatientNationalId() == null || testResult.getCompletedAt() == null) {
+                continue;
+            }
+            points.computeIfAbsent(testResult.getPatientNationalId(), id -> new EnumMap<>(LabAnalyte.class))
+                    .computeIfAbsent(reading.analyte(), a -> new TimeSeries())
+                    .add(toEpochSecond(testResult.getCompletedAt()), reading.value());
+        }
+        return points;
+    }
+
+    /**
+     * Add the points to the patients' series rows, or replace the rows' points with them,
+     * holding the rows' locks. Missing rows are created first so the locks cover them too.
+     */
+    private void write(Map<String, Map<LabAnalyte, TimeSeries>> points, boolean replace) {
+        Map<String, PatientAnalyteSeries> existing = lockRows(points.keySet());
+        List<String[]> missing = new ArrayList<>();
+        points.forEach((patientNationalId, byAnalyte) -> byAnalyte.keySet().forEach(analyte -> {
+            if (!existing.containsKey(key(patientNationalId, analyte))) {
+                missing.add(new String[]{patientNationalId, analyte.name()});
+            }
+        }));
+        if (!missing.isEmpty()) {
+            // In key order so two transactions creating rows can't deadlock
+            missing.sort(Comparator.comparing((String[] k) -> k[0]).thenComparing(k -> k[1]));
+            for (String[] k : missing) {
+                seriesRepository.insertIfAbsent(k[0], k[1]);
+            }
+            existing.putAll(lockRows(points.keySet()));
+        }
+
+        List<PatientAnalyteSeries> changed = new ArrayList<>();
+        points.forEach((patientNationalId, byAnalyte) -> byAnalyte.forEach((analyte, added) -> {
+            PatientAnalyteSeries row = existing.get(key(patientNationalId, analyte));
+            TimeSeries series = replace ? new TimeSeries(added.size()) : TimeSeries.fromBytes(row.getSeriesData());
+            for (int i = 0; i < added.size(); i++) {
+                series.add(added.timeAt(i), added.valueAt(i));
+            }
+            write(row, series);
+            changed.add(row);
+        }));
+        seriesRepository.saveAll(changed);
+    }
+
+    private Map<String, PatientAnalyteSeries> lockRows(Collection<String> patientNationalIds) {
+        Map<String, PatientAnalyteSeries> rows = new HashMap<>();
+        for (PatientAnalyteSeries series : seriesRepository.findForUpdateByPatientNationalIdIn(patientNationalIds)) {
+            rows.put(key(series.getPatientNationalId(), series.getAnalyte()), series);
+        }
+        return rows;
+    }
+
+    private static void write(PatientAnalyteSeries row, TimeSeries series) {
+        row.setSeriesData(series.toBytes());
+        row.setPointCount(series.size());
+        if (!series.isEmpty()) {
+            row.setFirstAt(toLocalDateTime(series.timeAt(0)));
+            row.setLastAt(toLocalDateTime(series.timeAt(series.size() - 1)));
+            row.setLastValue(series.valueAt(series.size() - 1));
+        }
+    }
+
+    private static Map<String, Object> describe(LabAnalyte analyte) {
+        Map<String, Object> item = new HashMap<>();
+        item.put("analyte", analyte);
+        item.put("displayName", analyte.getDisplayName());
+        item.put("testName", analyte.getTestName());
+        item.put("unit", analyte.getUnit());
+        return item;
+    }
+
+    private static String key(String patientNationalId, LabAnalyte analyte) {
+        return patientNationalId + "|" + analyte;
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+    }
+}
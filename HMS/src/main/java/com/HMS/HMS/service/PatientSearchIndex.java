@@ -0,0 +1,578 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.DTO.PatientDTO.PatientSearchResultDTO;
+import com.HMS.HMS.model.Patient.Patient;
+import com.HMS.HMS.repository.PatientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.HMS.HMS.util.TransactionCallbacks.afterCommit;
+
+/**
+ * In-memory patient search over names, national ID and contact number, loaded on
+ * startup and kept current by PatientService writes and bulk imports.
+ *
+ * Every patient gets a document number in the order they were indexed. Names
+ * ("first last", lower case) are indexed by trigram and by the first one and two
+ * characters of each word, each posting list holding document numbers in ascending
+ * order; national IDs and contact numbers go in sorted maps for prefix lookups by queries
+ * with a digit and four or more letters and digits. A query token of three or more characters is looked up by
+ * intersecting the postings of its trigrams and matches anywhere in the name, a shorter
+ * one matches only the start of a name word ("pe" finds Perera, "er" finds nothing: a
+ * two-letter substring would hit most of the index), and every candidate is checked against its name
+ * before it is scored. Results are ranked by how well they match (exact ID, then
+ * contact number, then whole words and word prefixes), earlier registrations first on
+ * ties, and only the requested page is kept while scoring.
+ *
+ * Removed and updated patients leave their old document behind as a tombstone; the
+ * index is rebuilt from the live documents once tombstones make up a quarter of it.
+ */
+@Service
+public class PatientSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchIndex.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int COMPACT_MIN_REMOVED = 1024;
+    // national ID and contact number prefixes shorter than this match too many patients to rank
+    private static final int MIN_NUMBER_PREFIX = 4;
+    // name candidates left after intersecting postings that are checked by substring instead
+    private static final int VERIFY_DIRECTLY = 64;
+
+    private static final int SCORE_EXACT_ID = 1000;
+    private static final int SCORE_ID_PREFIX = 500;
+    private static final int SCORE_EXACT_CONTACT = 400;
+    private static final int SCORE_CONTACT_PREFIX = 200;
+    private static final int SCORE_EXACT_NAME = 100;
+    private static final int SCORE_NAME_PREFIX = 50;
+    private static final int SCORE_WORD = 30;
+    private static final int SCORE_WORD_PREFIX = 20;
+    private static final int SCORE_SUBSTRING = 10;
+
+    // best score first, earlier registrations first among equal scores
+    private static final Comparator<Hit> RANKING =
+            Comparator.comparingInt(Hit::score).reversed().thenComparingInt(Hit::doc);
+
+    private final PatientRepository patientRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // guarded by lock
+    private IndexState index = new IndexState();
+
+    public PatientSearchIndex(PatientRepository patientRepository) {
+        this.patientRepository = patientRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        IndexState loaded = new IndexState();
+        try (Stream<Object[]> rows = patientRepository.streamSearchFields()) {
+            rows.forEach(row -> loaded.add(new Document(
+                    (String) row[0], (String) row[1], (String) row[2],
+                    (String) row[3], (LocalDate) row[4], (String) row[5])));
+        }
+
+        lock.writeLock().lock();
+        try {
+            index = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded patient search index with {} patients", loaded.live());
+    }
+
+    /**
+     * Add or replace a patient once the current transaction commits
+     */
+    public void index(Patient patient) {
+        indexAll(List.of(patient));
+    }
+
+    /**
+     * Add or replace a batch of patients under one write lock once the current
+     * transaction commits
+     */
+    public void indexAll(Collection<Patient> patients) {
+        List<Document> documents = new ArrayList<>(patients.size());
+        for (Patient patient : patients) {
+            documents.add(new Document(patient.getNationalId(), patient.getFirstName(), patient.getLastName(),
+                    patient.getContactNumber(), patient.getDateOfBirth(), patient.getGender()));
+        }
+        afterCommit(() -> write(index -> {
+            for (Document document : documents) {
+                index.remove(document.nationalId);
+                index.add(document);
+            }
+        }));
+    }
+
+    /**
+     * Drop a patient once the current transaction commits
+     */
+    public void remove(String nationalId) {
+        afterCommit(() -> write(index -> index.remove(nationalId)));
+    }
+
+    /**
+     * Patients whose national ID or contact number starts with the query, or whose
+     * "first last" name contains every word of it, best matches first. Query words of one
+     * or two characters only match the start of a name word.
+     */
+    public Page<PatientSearchResultDTO> search(String query, Pageable pageable) {
+        String normalized = normalize(query);
+        int size = Math.min(pageable.getPageSize(), MAX_PAGE_SIZE);
+        long offset = (long) pageable.getPageNumber() * size;
+        Pageable page = PageRequest.of(pageable.getPageNumber(), size);
+        if (normalized.isEmpty() || offset > Integer.MAX_VALUE - size) {
+            return new PageImpl<>(List.of(), page, 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            IndexState current = index;
+            // min-heap holding the best offset + size hits seen so far
+            PriorityQueue<Hit> best = new PriorityQueue<>(RANKING.reversed());
+            int keep = (int) offset + size;
+            long total = 0;
+            String[] tokens = normalized.split(" ");
+            String number = numberKey(normalized);
+            IntList candidates = current.candidates(tokens, number);
+            for (int i = 0; i < candidates.size; i++) {
+                Hit hit = current.score(candidates.values[i], normalized, tokens, number);
+                if (hit == null) {
+                    continue;
+                }
+                total++;
+                if (best.size() < keep) {
+                    best.add(hit);
+                } else if (RANKING.compare(hit, best.peek()) < 0) {
+                    best.poll();
+                    best.add(hit);
+                }
+            }
+
+            List<Hit> ranked = new ArrayList<>(best);
+            ranked.sort(RANKING);
+            List<PatientSearchResultDTO> content = new ArrayList<>(size);
+            for (int i = (int) offset; i < ranked.size(); i++) {
+                content.add(current.result(ranked.get(i)));
+            }
+            return new PageImpl<>(content, page, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * National IDs of every match, best first
+     */
+    public List<String> searchNationalIds(String query) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            IndexState current = index;
+            List<Hit> hits = new ArrayList<>();
+            String[] tokens = normalized.split(" ");
+            String number = numberKey(normalized);
+            IntList candidates = current.candidates(tokens, number);
+            for (int i = 0; i < candidates.size; i++) {
+                Hit hit = current.score(candidates.values[i], normalized, tokens, number);
+                if (hit != null) {
+                    hits.add(hit);
+                }
+            }
+            hits.sort(RANKING);
+            List<String> nationalIds = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                nationalIds.add(current.documents.get(hit.doc()).nationalId);
+            }
+            return nationalIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.live();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Helper methods
+    private void write(Consumer<IndexState> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(index);
+            if (index.removed > COMPACT_MIN_REMOVED && index.removed > index.documents.size() / 4) {
+                index = index.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * National IDs and contact numbers are compared on their letters and digits only, so
+     * "077-123 4567" and "0771234567" are the same number
+     */
+    static String compact(String number) {
+        return number == null ? "" : number.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+    }
+
+    /**
+     * The query as a national ID or contact number prefix: its letters and digits if it
+     * has a digit and at least MIN_NUMBER_PREFIX of them, otherwise empty
+     */
+    static String numberKey(String query) {
+        String number = compact(query);
+        return number.length() >= MIN_NUMBER_PREFIX && number.chars().anyMatch(Character::isDigit) ? number : "";
+    }
+
+    private static String fullName(String firstName, String lastName) {
+        return normalize((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : ""));
+    }
+
+    private static long trigram(String text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+
+    private record Hit(int doc, int score) {}
+
+    /**
+     * The searchable fields of one patient
+     */
+    private static final class Document {
+
+        private final String nationalId;
+        private final String firstName;
+        private final String lastName;
+        private final String contactNumber;
+        private final LocalDate dateOfBirth;
+        private final String gender;
+        private final String idKey;
+        private final String name;
+        private final String contactKey;
+
+        Document(String nationalId, String firstName, String lastName, String contactNumber,
+                 LocalDate dateOfBirth, String gender) {
+            this.nationalId = nationalId;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.contactNumber = contactNumber;
+            this.dateOfBirth = dateOfBirth;
+            this.gender = gender;
+            this.idKey = compact(nationalId);
+            this.name = fullName(firstName, lastName);
+            this.contactKey = compact(contactNumber);
+        }
+    }
+
+    /**
+     * Documents with their name postings and ID and contact prefix maps
+     */
+    private static final class IndexState {
+
+        // document number -> document, null once removed
+        private final List<Document> documents = new ArrayList<>();
+        private final Map<String, Integer> byNationalId = new HashMap<>();
+        private final Map<Long, IntList> trigrams = new HashMap<>();
+        private final Map<String, IntList> wordPrefixes = new HashMap<>();
+        private final NavigableMap<String, Integer> idPrefixes = new TreeMap<>();
+        private final NavigableMap<String, IntList> contactPrefixes = new TreeMap<>();
+        private int removed;
+
+        int live() {
+            return documents.size() - removed;
+        }
+
+        void add(Document document) {
+            if (document.nationalId == null || byNationalId.containsKey(document.nationalId)) {
+                return;
+            }
+            int doc = documents.size();
+            documents.add(document);
+            byNationalId.put(document.nationalId, doc);
+            idPrefixes.put(document.idKey, doc);
+            if (!document.contactKey.isEmpty()) {
+                contactPrefixes.computeIfAbsent(document.contactKey, key -> new IntList()).addDocument(doc);
+            }
+
+            String name = document.name;
+            for (int i = 0; i + 3 <= name.length(); i++) {
+                trigrams.computeIfAbsent(trigram(name, i), key -> new IntList()).addDocument(doc);
+            }
+            for (String word : name.split(" ")) {
+                if (word.isEmpty()) {
+                    continue;
+                }
+                wordPrefixes.computeIfAbsent(word.substring(0, 1), key -> new IntList()).addDocument(doc);
+                if (word.length() > 1) {
+                    wordPrefixes.computeIfAbsent(word.substring(0, 2), key -> new IntList()).addDocument(doc);
+                }
+            }
+        }
+
+        void remove(String nationalId) {
+            Integer doc = byNationalId.remove(nationalId);
+            if (doc == null) {
+                return;
+            }
+            Document document = documents.set(doc, null);
+            idPrefixes.remove(document.idKey, doc);
+            removed++;
+        }
+
+        /**
+         * A fresh index over the live documents
+         */
+        IndexState compact() {
+            IndexState compacted = new IndexState();
+            for (Document document : documents) {
+                if (document != null) {
+                    compacted.add(document);
+                }
+            }
+            return compacted;
+        }
+
+        /**
+         * Document numbers that may match, in ascending order; every candidate still has
+         * to pass score(). number is the query's numberKey, empty if it isn't one.
+         */
+        IntList candidates(String[] tokens, String number) {
+            IntList names = names(tokens);
+
+            if (number.isEmpty()) {
+                return names;
+            }
+            IntList others = new IntList();
+            for (int doc : idPrefixes.subMap(number, true, number + Character.MAX_VALUE, false).values()) {
+                others.add(doc);
+            }
+            for (IntList docs : contactPrefixes.subMap(number, true, number + Character.MAX_VALUE, false).values()) {
+                for (int i = 0; i < docs.size; i++) {
+                    others.add(docs.values[i]);
+                }
+            }
+            return others.size == 0 ? names : names.union(others.sorted());
+        }
+
+        PatientSearchResultDTO result(Hit hit) {
+            Document document = documents.get(hit.doc());
+            return new PatientSearchResultDTO(document.nationalId, document.firstName, document.lastName,
+                    document.contactNumber, document.dateOfBirth, document.gender, hit.score());
+        }
+
+        /**
+         * Scored hit for a candidate, or null if it doesn't match after all
+         */
+        Hit score(int doc, String query, String[] tokens, String number) {
+            Document document = documents.get(doc);
+            if (document == null) {
+                return null;
+            }
+
+            int score = 0;
+            if (!number.isEmpty()) {
+                if (document.idKey.equals(number)) {
+                    score += SCORE_EXACT_ID;
+                } else if (document.idKey.startsWith(number)) {
+                    score += SCORE_ID_PREFIX;
+                }
+                if (document.contactKey.equals(number)) {
+                    score += SCORE_EXACT_CONTACT;
+                } else if (document.contactKey.startsWith(number)) {
+                    score += SCORE_CONTACT_PREFIX;
+                }
+            }
+
+            int nameScore = nameScore(document.name, query, tokens);
+            if (nameScore < 0 && score == 0) {
+                return null;
+            }
+            score += Math.max(nameScore, 0);
+            return new Hit(doc, score);
+        }
+
+        /**
+         * Score of a name containing every word of the query, -1 if it doesn't
+         */
+        private static int nameScore(String name, String query, String[] tokens) {
+            int score = 0;
+            for (String token : tokens) {
+                int best = -1;
+                for (int i = name.indexOf(token); i >= 0; i = name.indexOf(token, i + 1)) {
+                    boolean wordStart = i == 0 || name.charAt(i - 1) == ' ';
+                    int end = i + token.length();
+                    boolean wordEnd = end == name.length() || name.charAt(end) == ' ';
+                    best = Math.max(best, wordStart ? (wordEnd ? SCORE_WORD : SCORE_WORD_PREFIX) : SCORE_SUBSTRING);
+                    if (best == SCORE_WORD) {
+                        break;
+                    }
+                }
+                if (best < 0) {
+                    return -1;
+                }
+                score += best;
+            }
+            if (name.equals(query)) {
+                score += SCORE_EXACT_NAME;
+            } else if (name.startsWith(query)) {
+                score += SCORE_NAME_PREFIX;
+            }
+            return score;
+        }
+
+        /**
+         * Documents whose name may contain every token. The postings of all tokens (trigrams
+         * for tokens of three or more characters, word prefixes for shorter ones) are
+         * intersected smallest first, stopping once few enough candidates are left to check
+         * against their names directly.
+         */
+        private IntList names(String[] tokens) {
+            List<IntList> lists = new ArrayList<>();
+            for (String token : tokens) {
+                if (token.length() < 3) {
+                    lists.add(wordPrefixes.get(token));
+                } else {
+                    for (int i = 0; i + 3 <= token.length(); i++) {
+                        lists.add(trigrams.get(trigram(token, i)));
+                    }
+                }
+            }
+            if (lists.contains(null)) {
+                return new IntList();
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            IntList result = lists.get(0);
+            for (int i = 1; i < lists.size() && result.size > VERIFY_DIRECTLY; i++) {
+                result = result.intersect(lists.get(i));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Growable array of document numbers
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        /**
+         * Add a document number to a posting list. Documents are added in increasing order,
+         * so a name repeating a trigram or a word initial only needs the last value checked.
+         */
+        void addDocument(int doc) {
+            if (size == 0 || values[size - 1] != doc) {
+                add(doc);
+            }
+        }
+
+        /**
+         * Values present in both lists: a merge of the two when they are of similar
+         * length, otherwise a binary search in the longer one for each value of the shorter
+         */
+        IntList intersect(IntList other) {
+            IntList shorter = size <= other.size ? this : other;
+            IntList longer = shorter == this ? other : this;
+            IntList result = new IntList();
+            if (longer.size / 16 < shorter.size) {
+                int i = 0;
+                int j = 0;
+                while (i < shorter.size && j < longer.size) {
+                    int a = shorter.values[i];
+                    int b = longer.values[j];
+                    if (a == b) {
+                        result.add(a);
+                        i++;
+                        j++;
+                    } else if (a < b) {
+                        i++;
+                    } else {
+                        j++;
+                    }
+                }
+                return result;
+            }
+            int from = 0;
+            for (int i = 0; i < shorter.size && from < longer.size; i++) {
+                int found = Arrays.binarySearch(longer.values, from, longer.size, shorter.values[i]);
+                if (found >= 0) {
+                    result.add(shorter.values[i]);
+                    from = found + 1;
+                } else {
+                    from = -found - 1;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * The same values in ascending order
+         */
+        IntList sorted() {
+            Arrays.sort(values, 0, size);
+            return this;
+        }
+
+        /**
+         * Values present in either list, in ascending order and without repeats
+         */
+        IntList union(IntList other) {
+            IntList result = new IntList();
+            int i = 0;
+            int j = 0;
+            while (i < size || j < other.size) {
+                int next;
+                if (j == other.size || (i < size && values[i] <= other.values[j])) {
+                    next = values[i++];
+                } else {
+                    next = other.values[j++];
+                }
+                if (result.size == 0 || result.values[result.size - 1] != next) {
+                    result.add(next);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -1,21 +1,31 @@
 package com.HMS.HMS.service;
 
+import com.HMS.HMS.DTO.KeysetPageDTO;
 import com.HMS.HMS.DTO.PatientDTO.PatientRequestDTO;
 import com.HMS.HMS.DTO.PatientDTO.PatientResponseDTO;
+import com.HMS.HMS.DTO.PatientDTO.PatientSearchResultDTO;
 import com.HMS.HMS.model.Patient.Patient;
 import com.HMS.HMS.repository.PatientRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 public class PatientService {
 
     private final PatientRepository patientRepository;
+    private final PatientSearchIndex patientSearchIndex;
 
-    public PatientService(PatientRepository patientRepository) {
+    public PatientService(PatientRepository patientRepository, PatientSearchIndex patientSearchIndex) {
         this.patientRepository = patientRepository;
+        this.patientSearchIndex = patientSearchIndex;
     }
 
     public void addPatient(PatientRequestDTO dto){
@@ -35,13 +45,22 @@ public class PatientService {
         patient.setGender(dto.getGender());
 
         patientRepository.save(patient);
+        patientSearchIndex.index(patient);
     }
 
     public List<PatientResponseDTO> getAllPatients(){
-        List<Patient> patients = patientRepository.findAll();
-        return patients.stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return patientRepository.findResponsesAfter("", Pageable.unpaged());
+    }
+
+    /**
+     * One page of patients in national id order, from the cursor of the previous page
+     * (null for the first)
+     */
+    public KeysetPageDTO<PatientResponseDTO> getPatientPage(String cursor, int size){
+        int pageSize = KeysetPageDTO.pageSize(size);
+        List<PatientResponseDTO> rows = patientRepository.findResponsesAfter(
+                cursor != null ? cursor : "", PageRequest.of(0, pageSize + 1));
+        return new KeysetPageDTO<>(rows, pageSize, PatientResponseDTO::getNationalId);
     }
 
     public PatientResponseDTO getPatientByNationalId(String nationalId){
@@ -53,9 +72,23 @@ public class PatientService {
         }
     }
 
+    /**
+     * Ranked page of lightweight results from the patient search index
+     */
+    public Page<PatientSearchResultDTO> searchPatients(String query, Pageable pageable){
+        return patientSearchIndex.search(query, pageable);
+    }
+
     public List<PatientResponseDTO> searchPatientsByName(String name){
-        List<Patient> patients = patientRepository.findByFullNameContainingIgnoreCase(name);
-        return patients.stream()
+        // Matches come from the search index in rank order; only those patients are loaded
+        List<String> nationalIds = patientSearchIndex.searchNationalIds(name);
+        Map<String, Patient> patients = new HashMap<>();
+        for (Patient patient : patientRepository.findAllById(nationalIds)) {
+            patients.put(patient.getNationalId(), patient);
+        }
+        return nationalIds.stream()
+                .map(patients::get)
+                .filter(Objects::nonNull)
                 .map(this::convertToResponseDTO)
                 .collect(Collectors.toList());
     }
@@ -98,6 +131,10 @@ public class PatientService {
         existingPatient.setGender(dto.getGender());
 
         patientRepository.save(existingPatient);
+        if (!nationalId.equals(existingPatient.getNationalId())) {
+            patientSearchIndex.remove(nationalId);
+        }
+        patientSearchIndex.index(existingPatient);
     }
 
     public void deletePatient(String nationalId){
@@ -106,6 +143,7 @@ public class PatientService {
             throw new RuntimeException("Patient not found with National ID: " + nationalId);
         }
         patientRepository.delete(patient);
+        patientSearchIndex.remove(nationalId);
     }
 
     private PatientResponseDTO convertToResponseDTO(Patient patient){
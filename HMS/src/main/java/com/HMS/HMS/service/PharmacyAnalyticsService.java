@@ -6,6 +6,11 @@ import com.HMS.HMS.model.Prescription.PrescriptionStatus;
 import com.HMS.HMS.repository.MedicationRepository;
 import com.HMS.HMS.repository.PrescriptionRepository;
 import com.HMS.HMS.repository.PrescriptionItemRepository;
+import com.HMS.HMS.service.MedicationService.MedicationBatchService;
+import com.HMS.HMS.service.PharmacyService.PharmacyDispenseRollupService;
+import com.HMS.HMS.service.PharmacyService.PharmacyRevenueService;
+import com.HMS.HMS.service.PharmacyService.PharmacyRevenueService.Granularity;
+import com.HMS.HMS.service.PharmacyService.PharmacyRevenueService.RevenueBucket;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,14 +29,23 @@ public class PharmacyAnalyticsService {
     private final PrescriptionRepository prescriptionRepository;
     private final PrescriptionItemRepository prescriptionItemRepository;
     private final MedicationRepository medicationRepository;
+    private final PharmacyDispenseRollupService dispenseRollupService;
+    private final MedicationBatchService batchService;
+    private final PharmacyRevenueService revenueService;
 
     @Autowired
     public PharmacyAnalyticsService(PrescriptionRepository prescriptionRepository,
                                   PrescriptionItemRepository prescriptionItemRepository,
-                                  MedicationRepository medicationRepository) {
+                                  MedicationRepository medicationRepository,
+                                  PharmacyDispenseRollupService dispenseRollupService,
+                                  MedicationBatchService batchService,
+                                  PharmacyRevenueService revenueService) {
         this.prescriptionRepository = prescriptionRepository;
         this.prescriptionItemRepository = prescriptionItemRepository;
         this.medicationRepository = medicationRepository;
+        this.dispenseRollupService = dispenseRollupService;
+        this.batchService = batchService;
+        this.revenueService = revenueService;
     }
 
     /**
@@ -127,7 +141,7 @@ public class PharmacyAnalyticsService {
         stockStatusDistribution.put("EXPIRING_SOON", expiringCount);
         analytics.setStockStatusDistribution(stockStatusDistribution);
 
-        // Get top dispensed medications (mock data for now)
+        // Get top dispensed medications for the current year from the dispensing rollups
         List<TopMedicationDTO> topMedications = getTopDispensedMedications();
         analytics.setTopDispensedMedications(topMedications);
 
@@ -162,30 +176,45 @@ public class PharmacyAnalyticsService {
         return metrics;
     }
 
+    /**
+     * Get revenue analytics for a period with history at the given granularity
+     */
+    public RevenueAnalyticsDTO getRevenueAnalytics(String period, Granularity granularity) {
+        LocalDate endDate = LocalDate.now();
+        return getRevenueAnalytics(calculateStartDate(period, endDate), endDate, granularity);
+    }
+
     /**
      * Get revenue analytics
      */
     private RevenueAnalyticsDTO getRevenueAnalytics(LocalDate startDate, LocalDate endDate) {
+        return getRevenueAnalytics(startDate, endDate, Granularity.DAY);
+    }
+
+    private RevenueAnalyticsDTO getRevenueAnalytics(LocalDate startDate, LocalDate endDate, Granularity granularity) {
         RevenueAnalyticsDTO analytics = new RevenueAnalyticsDTO();
+        LocalDate today = LocalDate.now();
 
-        // Calculate revenue based on completed prescriptions and medication costs
-        BigDecimal totalRevenue = calculateRevenueForPeriod(startDate, endDate);
-        BigDecimal monthlyRevenue = calculateRevenueForPeriod(LocalDate.now().withDayOfMonth(1), LocalDate.now());
-        BigDecimal dailyRevenue = calculateRevenueForPeriod(LocalDate.now(), LocalDate.now());
+        // Revenue and cost from dispensed line items
+        RevenueBucket total = revenueService.getTotal(startDate, endDate);
+        RevenueBucket month = revenueService.getRevenue(today, today, Granularity.MONTH).get(0);
+        RevenueBucket day = revenueService.getRevenue(today, today, Granularity.DAY).get(0);
 
-        analytics.setTotalRevenue(totalRevenue);
-        analytics.setMonthlyRevenue(monthlyRevenue);
-        analytics.setDailyRevenue(dailyRevenue);
+        analytics.setTotalRevenue(total.revenue());
+        analytics.setMonthlyRevenue(month.revenue());
+        analytics.setDailyRevenue(day.revenue());
+        analytics.setTotalCost(total.cost());
+        analytics.setGrossMargin(total.margin());
 
-        // Generate revenue history data
-        List<RevenueDataPointDTO> revenueHistory = generateRevenueHistory(startDate, endDate);
+        List<RevenueDataPointDTO> revenueHistory = revenueService.getRevenue(startDate, endDate, granularity)
+            .stream()
+            .map(bucket -> new RevenueDataPointDTO(bucket.periodStart(), bucket.revenue(), bucket.cost()))
+            .collect(Collectors.toList());
         analytics.setRevenueHistory(revenueHistory);
 
-        // Calculate average transaction value
-        Long totalTransactions = prescriptionRepository.countByStatusAndPrescribedDateBetween(
-            PrescriptionStatus.COMPLETED, startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
-        BigDecimal avgTransactionValue = totalTransactions > 0 ? 
-            totalRevenue.divide(BigDecimal.valueOf(totalTransactions), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+        // Average value per dispense request or completed prescription
+        BigDecimal avgTransactionValue = total.transactions() > 0 ?
+            total.revenue().divide(BigDecimal.valueOf(total.transactions()), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
         analytics.setAverageTransactionValue(avgTransactionValue);
 
         return analytics;
@@ -288,50 +317,33 @@ public class PharmacyAnalyticsService {
     }
 
     private List<TopMedicationDTO> getTopDispensedMedications() {
-        // Mock data - can be enhanced with actual dispensing tracking
-        return Arrays.asList(
-            new TopMedicationDTO("Paracetamol", 245L, new BigDecimal("1225.50")),
-            new TopMedicationDTO("Amoxicillin", 189L, new BigDecimal("2835.75")),
-            new TopMedicationDTO("Ibuprofen", 167L, new BigDecimal("1003.50")),
-            new TopMedicationDTO("Metformin", 143L, new BigDecimal("2145.25")),
-            new TopMedicationDTO("Aspirin", 128L, new BigDecimal("640.00"))
-        );
+        int year = LocalDate.now().getYear();
+        dispenseRollupService.ensureYear(year);
+        return dispenseRollupService.getTopMedications(year, null, 5)
+            .stream()
+            .map(medication -> new TopMedicationDTO(
+                (String) medication.get("medicationName"),
+                (Long) medication.get("quantity"),
+                (BigDecimal) medication.get("totalValue")
+            ))
+            .collect(Collectors.toList());
     }
 
     private List<ExpiringMedicationDTO> getExpiringMedications(int days) {
+        // Lot level, so a medication with one short-dated batch is reported for that batch only
         LocalDate cutoffDate = LocalDate.now().plusDays(days);
-        return medicationRepository.findByExpiryDateBeforeAndIsActiveTrue(cutoffDate)
+        return batchService.getLotsExpiringBefore(cutoffDate)
             .stream()
-            .map(medication -> new ExpiringMedicationDTO(
-                medication.getDrugName(),
-                medication.getBatchNumber(),
-                medication.getExpiryDate(),
-                medication.getCurrentStock(),
-                ChronoUnit.DAYS.between(LocalDate.now(), medication.getExpiryDate())
+            .map(lot -> new ExpiringMedicationDTO(
+                lot.drugName(),
+                lot.batchNumber(),
+                lot.expiryDate(),
+                lot.quantity(),
+                ChronoUnit.DAYS.between(LocalDate.now(), lot.expiryDate())
             ))
             .collect(Collectors.toList());
     }
 
-    private BigDecimal calculateRevenueForPeriod(LocalDate startDate, LocalDate endDate) {
-        // Mock calculation - can be enhanced with actual revenue tracking
-        Long completedPrescriptions = prescriptionRepository.countByStatusAndPrescribedDateBetween(
-            PrescriptionStatus.COMPLETED, startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
-        return BigDecimal.valueOf(completedPrescriptions * 25.50); // Average revenue per prescription
-    }
-
-    private List<RevenueDataPointDTO> generateRevenueHistory(LocalDate startDate, LocalDate endDate) {
-        List<RevenueDataPointDTO> history = new ArrayList<>();
-        
-        LocalDate currentDate = startDate;
-        while (!currentDate.isAfter(endDate)) {
-            BigDecimal dailyRevenue = calculateRevenueForPeriod(currentDate, currentDate);
-            history.add(new RevenueDataPointDTO(currentDate, dailyRevenue));
-            currentDate = currentDate.plusDays(1);
-        }
-        
-        return history;
-    }
-
     /**
      * Get annual prescription statistics for pharmacy report
      */
@@ -409,6 +421,9 @@ public class PharmacyAnalyticsService {
         
         String[] fullMonths = {"January", "February", "March", "April", "May", "June",
                               "July", "August", "September", "October", "November", "December"};
+
+        dispenseRollupService.ensureYear(year);
+        List<Map<String, Object>> dispensedTotals = dispenseRollupService.getMonthlyTotals(year);
         
         for (int month = 1; month <= 12; month++) {
             LocalDate startDate = LocalDate.of(year, month, 1);
@@ -419,18 +434,16 @@ public class PharmacyAnalyticsService {
             
             Long dispensedPrescriptions = prescriptionRepository.countByStatusAndPrescribedDateBetween(
                 PrescriptionStatus.COMPLETED, startDate.atStartOfDay(), endDate.atTime(23, 59, 59));
-            
-            // If no real data exists, generate some sample data for demonstration
-            if (totalPrescriptions == 0) {
-                totalPrescriptions = (long)(Math.random() * 500 + 200); // 200-700 prescriptions
-                dispensedPrescriptions = (long)(totalPrescriptions * (0.85 + Math.random() * 0.1)); // 85-95% completion
-            }
+
+            Map<String, Object> dispensed = dispensedTotals.get(month - 1);
             
             Map<String, Object> monthData = new HashMap<>();
             monthData.put("month", shortMonths[month - 1]);
             monthData.put("monthName", fullMonths[month - 1]); // Add full month name for frontend
             monthData.put("totalPrescriptions", totalPrescriptions);
             monthData.put("dispensedPrescriptions", dispensedPrescriptions);
+            monthData.put("quantityDispensed", dispensed.get("quantity"));
+            monthData.put("dispensedValue", dispensed.get("totalValue"));
             
             monthlyData.add(monthData);
         }
@@ -439,39 +452,33 @@ public class PharmacyAnalyticsService {
     }
 
     /**
-     * Get top medications by dispensing volume
+     * Get top medications by dispensing volume from the dispensing rollups
      */
     public List<Map<String, Object>> getTopMedications(int year, int limit) {
-        // This would be implemented with actual database queries
-        // For now, returning mock data structure
+        dispenseRollupService.ensureYear(year);
         List<Map<String, Object>> topMedications = new ArrayList<>();
-        
-        String[] medications = {
-            "Metformin", "Lisinopril", "Simvastatin", "Omeprazole", "Amlodipine",
-            "Metoprolol", "Hydrochlorothiazide", "Atorvastatin", "Losartan", "Levothyroxine",
-            "Gabapentin", "Furosemide", "Sertraline", "Aspirin", "Pantoprazole",
-            "Tramadol", "Warfarin", "Insulin", "Prednisone", "Albuterol"
-        };
-        
-        String[] categories = {
-            "Diabetes", "Cardiovascular", "Cardiovascular", "Gastrointestinal", "Cardiovascular",
-            "Cardiovascular", "Cardiovascular", "Cardiovascular", "Cardiovascular", "Endocrine",
-            "Neurological", "Cardiovascular", "Psychiatric", "Cardiovascular", "Gastrointestinal",
-            "Pain Management", "Anticoagulant", "Diabetes", "Anti-inflammatory", "Respiratory"
-        };
-        
-        for (int i = 0; i < Math.min(limit, medications.length); i++) {
+
+        for (Map<String, Object> rollup : dispenseRollupService.getTopMedications(year, null, limit)) {
             Map<String, Object> medication = new HashMap<>();
-            medication.put("drugName", medications[i]);
-            medication.put("category", categories[i]);
-            medication.put("timesDispensed", 1500 - (i * 50)); // Mock data
-            medication.put("cost", 15000 - (i * 500)); // Mock cost data
+            medication.put("drugName", rollup.get("medicationName"));
+            medication.put("category", rollup.get("category"));
+            medication.put("timesDispensed", rollup.get("timesDispensed"));
+            medication.put("quantityDispensed", rollup.get("quantity"));
+            medication.put("cost", rollup.get("totalValue"));
             topMedications.add(medication);
         }
         
         return topMedications;
     }
 
+    /**
+     * Recompute the dispensing rollups for a year from the source tables
+     */
+    @Transactional
+    public int rebuildDispenseRollups(int year) {
+        return dispenseRollupService.rebuildYear(year);
+    }
+
     /**
      * Get ward utilization data
      */
@@ -497,30 +504,37 @@ public class PharmacyAnalyticsService {
     }
 
     /**
-     * Get cost analysis by therapeutic category
+     * Get cost analysis by therapeutic category from dispensed line items
      */
     public Map<String, Object> getCostAnalysis(int year) {
+        List<PharmacyRevenueService.CategoryRevenue> categoryTotals = revenueService.getCategoryTotals(year);
+
+        BigDecimal totalCost = categoryTotals.stream()
+            .map(PharmacyRevenueService.CategoryRevenue::cost)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalRevenue = categoryTotals.stream()
+            .map(PharmacyRevenueService.CategoryRevenue::revenue)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+
         List<Map<String, Object>> categoryBreakdown = new ArrayList<>();
-        
-        String[] categories = {
-            "Cardiovascular", "Diabetes", "Pain Management", "Antibiotics", "Respiratory", "Neurological"
-        };
-        
-        double[] percentages = {32.1, 20.3, 15.7, 12.4, 10.8, 8.7};
-        int[] costs = {85420, 53990, 41760, 32980, 28710, 23140};
-        
-        for (int i = 0; i < categories.length; i++) {
+        for (PharmacyRevenueService.CategoryRevenue totals : categoryTotals) {
             Map<String, Object> category = new HashMap<>();
-            category.put("category", categories[i]);
-            category.put("cost", costs[i]);
-            category.put("percentage", percentages[i]);
+            category.put("category", totals.category());
+            category.put("cost", totals.cost());
+            category.put("revenue", totals.revenue());
+            category.put("quantity", totals.quantity());
+            category.put("percentage", totalCost.signum() > 0
+                ? totals.cost().multiply(BigDecimal.valueOf(100)).divide(totalCost, 1, RoundingMode.HALF_UP).doubleValue()
+                : 0.0);
             categoryBreakdown.add(category);
         }
-        
+
         Map<String, Object> analysis = new HashMap<>();
         analysis.put("categoryBreakdown", categoryBreakdown);
-        analysis.put("totalCost", 266000);
-        
+        analysis.put("totalCost", totalCost);
+        analysis.put("totalRevenue", totalRevenue);
+        analysis.put("grossMargin", totalRevenue.subtract(totalCost));
+
         return analysis;
     }
 }
\ No newline at end of file
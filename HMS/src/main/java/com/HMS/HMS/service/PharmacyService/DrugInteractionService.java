@@ -0,0 +1,252 @@
+package com.HMS.HMS.service.PharmacyService;
+
+import com.HMS.HMS.model.Medication.Medication;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Drug-drug interaction checks against the bundled drug-interactions.txt dataset.
+ *
+ * At startup every generic name gets a dense integer id, synonyms are mapped onto those
+ * ids, and interacting pairs are set in an n x n bit matrix. A medication is resolved to
+ * its drug id once and cached by medication id, so checking a list of medications is a
+ * pairwise bit lookup over ints; interaction details are only fetched for pairs that hit.
+ */
+@Service
+public class DrugInteractionService {
+
+    private static final Logger log = LoggerFactory.getLogger(DrugInteractionService.class);
+
+    private static final String DATASET = "drug-interactions.txt";
+    private static final int UNKNOWN = -1;
+
+    // normalized generic name or synonym -> drug id
+    private final Map<String, Integer> drugIds = new HashMap<>();
+    private final List<String> genericNames = new ArrayList<>();
+    // words in the longest generic name
+    private int maxGenericWords;
+    // medication id -> drug id (UNKNOWN when the medication is not in the dataset)
+    private final Map<Long, Integer> medicationDrugIds = new ConcurrentHashMap<>();
+
+    private long[] matrix = new long[0];
+    private int words;
+    private final Map<Long, Interaction> interactions = new HashMap<>();
+
+    @PostConstruct
+    public void loadDataset() {
+        List<String[]> synonymRows = new ArrayList<>();
+        List<String[]> interactionRows = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(DATASET).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\|", -1);
+                if ("SYN".equals(fields[0]) && fields.length == 3) {
+                    synonymRows.add(fields);
+                } else if ("DDI".equals(fields[0]) && fields.length == 6) {
+                    interactionRows.add(fields);
+                } else {
+                    log.warn("Skipping malformed drug interaction line: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load drug interaction dataset " + DATASET, e);
+        }
+
+        // Intern generic names first so synonyms and pairs resolve against them
+        for (String[] row : synonymRows) {
+            internGeneric(row[1]);
+        }
+        for (String[] row : interactionRows) {
+            internGeneric(row[1]);
+            internGeneric(row[2]);
+        }
+        for (String[] row : synonymRows) {
+            int id = drugIds.get(normalize(row[1]));
+            for (String synonym : row[2].split(",")) {
+                String key = normalize(synonym);
+                if (!key.isEmpty()) {
+                    drugIds.putIfAbsent(key, id);
+                }
+            }
+        }
+
+        int drugCount = genericNames.size();
+        words = (drugCount + 63) >>> 6;
+        matrix = new long[drugCount * words];
+        for (String[] row : interactionRows) {
+            int first = drugIds.get(normalize(row[1]));
+            int second = drugIds.get(normalize(row[2]));
+            if (first == second) {
+                continue;
+            }
+            matrix[first * words + (second >>> 6)] |= 1L << second;
+            matrix[second * words + (first >>> 6)] |= 1L << first;
+            interactions.put(pairKey(first, second),
+                    new Interaction(row[3].trim().toUpperCase(), row[4].trim(), row[5].trim()));
+        }
+
+        log.info("Loaded {} drug interactions over {} drugs ({} names and synonyms)",
+                interactions.size(), drugCount, drugIds.size());
+    }
+
+    /**
+     * Interactions between every pair of the given medications. Each result holds the
+     * positions of the two medications in the input list.
+     */
+    public List<InteractionHit> check(List<Medication> medications) {
+        int[] ids = new int[medications.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = resolve(medications.get(i));
+        }
+        return check(ids);
+    }
+
+    /**
+     * Pairwise check over already resolved drug ids; UNKNOWN ids are skipped
+     */
+    public List<InteractionHit> check(int[] ids) {
+        List<InteractionHit> hits = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            int first = ids[i];
+            if (first == UNKNOWN) {
+                continue;
+            }
+            int row = first * words;
+            for (int j = i + 1; j < ids.length; j++) {
+                int second = ids[j];
+                if (second != UNKNOWN && second != first
+                        && (matrix[row + (second >>> 6)] & (1L << second)) != 0) {
+                    hits.add(new InteractionHit(i, j, interactions.get(pairKey(first, second))));
+                }
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Drug id for a medication, matching its generic name, then its drug name, against the
+     * dataset's names and synonyms, then a whole generic name among the words of either.
+     * Cached per medication id.
+     */
+    public int resolve(Medication medication) {
+        if (medication == null) {
+            return UNKNOWN;
+        }
+        if (medication.getId() == null) {
+            return lookup(medication);
+        }
+        return medicationDrugIds.computeIfAbsent(medication.getId(), id -> lookup(medication));
+    }
+
+    /**
+     * Drop the cached drug id of a medication so its next check resolves its current names
+     */
+    public void forget(Long medicationId) {
+        if (medicationId != null) {
+            medicationDrugIds.remove(medicationId);
+        }
+    }
+
+    public boolean isKnown(Medication medication) {
+        return resolve(medication) != UNKNOWN;
+    }
+
+    public String getGenericName(int drugId) {
+        return drugId >= 0 && drugId < genericNames.size() ? genericNames.get(drugId) : null;
+    }
+
+    // Helper methods
+    private int lookup(Medication medication) {
+        for (String name : new String[] { medication.getGenericName(), medication.getDrugName() }) {
+            String key = normalize(name);
+            if (key.isEmpty()) {
+                continue;
+            }
+            Integer id = drugIds.get(key);
+            if (id != null) {
+                return id;
+            }
+        }
+        // Fall back to a generic name inside the name, e.g. "Warfarin 5mg" or "Aspirin EC". Only
+        // whole generic names count, longest first: a synonym or one word of a longer name
+        // ("potassium" in "Potassium citrate") would report interactions for another drug.
+        for (String name : new String[] { medication.getGenericName(), medication.getDrugName() }) {
+            int id = findGenericName(normalize(name));
+            if (id != UNKNOWN) {
+                return id;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private int findGenericName(String name) {
+        if (name.isEmpty()) {
+            return UNKNOWN;
+        }
+        String[] words = name.split(" ");
+        for (int length = Math.min(words.length, maxGenericWords); length > 0; length--) {
+            for (int start = 0; start + length <= words.length; start++) {
+                String key = String.join(" ", Arrays.asList(words).subList(start, start + length));
+                Integer id = drugIds.get(key);
+                if (id != null && genericNames.get(id).equals(key)) {
+                    return id;
+                }
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private void internGeneric(String name) {
+        String key = normalize(name);
+        if (!drugIds.containsKey(key)) {
+            drugIds.put(key, genericNames.size());
+            genericNames.add(key);
+            maxGenericWords = Math.max(maxGenericWords, key.split(" ").length);
+        }
+    }
+
+    private static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (space && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                space = false;
+            } else {
+                space = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static long pairKey(int first, int second) {
+        return first < second ? ((long) first << 32) | second : ((long) second << 32) | first;
+    }
+
+    public record Interaction(String severity, String description, String recommendation) {}
+
+    public record InteractionHit(int firstIndex, int secondIndex, Interaction interaction) {}
+}
@@ -10,9 +10,12 @@ import com.HMS.HMS.repository.MedicationRepository;
 import com.HMS.HMS.repository.MedicineDispenseItemRepository;
 import com.HMS.HMS.repository.MedicineDispenseRequestRepository;
 import com.HMS.HMS.repository.PrescriptionRepository;
+import com.HMS.HMS.service.MedicationService.MedicationBatchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,7 +23,10 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -28,6 +34,9 @@ import java.util.stream.Collectors;
 @Transactional
 public class MedicineDispenseService {
 
+    // Pending requests in the work queue's order (urgency, then age); any other sort goes to the database
+    private static final Sort QUEUE_ORDER = Sort.by(Sort.Order.desc("urgencyLevel"));
+
     @Autowired
     private MedicineDispenseRequestRepository dispenseRequestRepository;
 
@@ -40,6 +49,18 @@ public class MedicineDispenseService {
     @Autowired
     private MedicationRepository medicationRepository;
 
+    @Autowired
+    private PharmacyDispenseRollupService dispenseRollupService;
+
+    @Autowired
+    private MedicationBatchService batchService;
+
+    @Autowired
+    private PharmacyWorkQueueService workQueueService;
+
+    @Autowired
+    private PharmacyRevenueService revenueService;
+
     // Create new dispense request
     public MedicineDispenseResponseDTO createDispenseRequest(MedicineDispenseRequestDTO requestDTO) {
         // Validate prescription exists
@@ -91,6 +112,7 @@ public class MedicineDispenseService {
 
         // Save the complete request with items
         dispenseRequest = dispenseRequestRepository.save(dispenseRequest);
+        workQueueService.track(dispenseRequest);
 
         return convertToResponseDTO(dispenseRequest, totalCost);
     }
@@ -123,8 +145,28 @@ public class MedicineDispenseService {
                 MedicineDispenseRequest.DispenseStatus.PREPARED
         );
 
-        return dispenseRequestRepository.findPendingRequests(pendingStatuses, pageable)
-                .map(request -> convertToResponseDTO(request, calculateTotalCost(request)));
+        if (pageable.getSort().isSorted() && !pageable.getSort().equals(QUEUE_ORDER)) {
+            return dispenseRequestRepository.findPendingRequests(pendingStatuses, pageable)
+                    .map(request -> convertToResponseDTO(request, calculateTotalCost(request)));
+        }
+
+        // Page through the in-memory queue and load only the requests on this page
+        List<Long> pendingIds = workQueueService
+                .getQueue(null, PharmacyWorkQueueService.WorkType.DISPENSE_REQUEST, Integer.MAX_VALUE).stream()
+                .filter(item -> pendingStatuses.contains(MedicineDispenseRequest.DispenseStatus.valueOf(item.status())))
+                .map(PharmacyWorkQueueService.WorkItem::id)
+                .collect(Collectors.toList());
+        int from = (int) Math.min(pageable.getOffset(), pendingIds.size());
+        List<Long> pageIds = pendingIds.subList(from, Math.min(from + pageable.getPageSize(), pendingIds.size()));
+
+        Map<Long, MedicineDispenseRequest> requests = dispenseRequestRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(MedicineDispenseRequest::getId, request -> request));
+        List<MedicineDispenseResponseDTO> content = pageIds.stream()
+                .map(requests::get)
+                .filter(Objects::nonNull)
+                .map(request -> convertToResponseDTO(request, calculateTotalCost(request)))
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, pendingIds.size());
     }
 
     // Get urgent requests
@@ -140,6 +182,15 @@ public class MedicineDispenseService {
         MedicineDispenseRequest request = dispenseRequestRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Dispense request not found with ID: " + requestId));
 
+        boolean wasCancelled = request.getStatus() == MedicineDispenseRequest.DispenseStatus.CANCELLED;
+        boolean cancelled = newStatus == MedicineDispenseRequest.DispenseStatus.CANCELLED;
+        if (cancelled) {
+            revenueService.invalidateFrom(earliestDispensed(request));
+        }
+        if (cancelled != wasCancelled) {
+            // A cancelled request's dispensed items leave the rollups, a reinstated one's come back
+            recordDispensedItems(request, !cancelled);
+        }
         request.setStatus(newStatus);
         request.setProcessedBy(processedBy);
         if (pharmacyNotes != null) {
@@ -167,6 +218,7 @@ public class MedicineDispenseService {
         }
 
         request = dispenseRequestRepository.save(request);
+        workQueueService.track(request);
         return convertToResponseDTO(request, calculateTotalCost(request));
     }
 
@@ -187,18 +239,27 @@ public class MedicineDispenseService {
                 throw new RuntimeException("Cannot dispense more than remaining quantity for item: " + itemId);
             }
 
-            // Update medication stock
+            // Update medication stock, taking from the earliest-expiring lots first
             Medication medication = item.getMedication();
             if (medication.getCurrentStock() < quantity) {
                 throw new RuntimeException("Insufficient stock for medication: " + medication.getDrugName());
             }
 
-            medication.setCurrentStock(medication.getCurrentStock() - quantity);
+            List<MedicationBatchService.BatchAllocation> allocations = batchService.allocate(medication, quantity);
             medicationRepository.save(medication);
 
-            // Update dispense item
+            // Update dispense item; its earlier dispensed quantity moves from its last day to today,
+            // in the revenue cache and in the rollups, which date the whole item by dispensedAt
+            if (item.getDispensedQuantity() != null && item.getDispensedQuantity() > 0) {
+                revenueService.invalidateFrom(item.getUpdatedAt());
+                recordDispensedItem(item, false);
+            }
             item.dispense(quantity);
+            item.setDispensedAt(LocalDateTime.now());
+            item.setPharmacyNotes(appendBatchNote(item.getPharmacyNotes(), allocations));
             dispenseItemRepository.save(item);
+
+            recordDispensedItem(item, true);
         }
 
         // Update request status if all items are dispensed
@@ -214,6 +275,7 @@ public class MedicineDispenseService {
         request.setProcessedBy(processedBy);
         request.setProcessedAt(LocalDateTime.now());
         request = dispenseRequestRepository.save(request);
+        workQueueService.track(request);
 
         return convertToResponseDTO(request, calculateTotalCost(request));
     }
@@ -227,13 +289,55 @@ public class MedicineDispenseService {
             throw new RuntimeException("Request cannot be cancelled in current status: " + request.getStatus());
         }
 
+        recordDispensedItems(request, false);
         request.setStatus(MedicineDispenseRequest.DispenseStatus.CANCELLED);
         request.setPharmacyNotes(request.getPharmacyNotes() + "\nCancellation reason: " + reason);
 
         request = dispenseRequestRepository.save(request);
+        workQueueService.track(request);
+        // Items dispensed on earlier days no longer count as revenue
+        revenueService.invalidateFrom(earliestDispensed(request));
         return convertToResponseDTO(request, calculateTotalCost(request));
     }
 
+    private void recordDispensedItems(MedicineDispenseRequest request, boolean add) {
+        for (MedicineDispenseItem item : request.getDispenseItems()) {
+            recordDispensedItem(item, add);
+        }
+    }
+
+    /**
+     * Add an item's whole dispensed quantity to the rollups, or take it back, in the month
+     * of its dispensedAt (updatedAt for items dispensed before dispensedAt was kept), the
+     * same month the rollup rebuild puts it in
+     */
+    private void recordDispensedItem(MedicineDispenseItem item, boolean add) {
+        if (item.getDispensedQuantity() == null || item.getDispensedQuantity() <= 0) {
+            return;
+        }
+        LocalDateTime dispensedAt = item.getDispensedAt() != null ? item.getDispensedAt() : item.getUpdatedAt();
+        if (dispensedAt == null) {
+            return;
+        }
+        dispenseRollupService.ensureYear(dispensedAt.getYear());
+        if (add) {
+            dispenseRollupService.recordDispense(item.getMedication(), item.getDispensedQuantity(),
+                    item.getTotalPrice(), dispensedAt);
+        } else {
+            dispenseRollupService.reverseDispense(item.getMedication(), item.getDispensedQuantity(),
+                    item.getTotalPrice(), dispensedAt);
+        }
+    }
+
+    private static LocalDateTime earliestDispensed(MedicineDispenseRequest request) {
+        return request.getDispenseItems().stream()
+                .filter(item -> item.getDispensedQuantity() != null && item.getDispensedQuantity() > 0)
+                .map(MedicineDispenseItem::getUpdatedAt)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+    }
+
     // Get requests by status
     public Page<MedicineDispenseResponseDTO> getRequestsByStatus(MedicineDispenseRequest.DispenseStatus status, Pageable pageable) {
         return dispenseRequestRepository.findByStatus(status, pageable)
@@ -258,6 +362,14 @@ public class MedicineDispenseService {
         return "DR" + timestamp;
     }
 
+    private String appendBatchNote(String existingNotes, List<MedicationBatchService.BatchAllocation> allocations) {
+        String batchNote = "Batches: " + allocations.stream()
+                .map(allocation -> allocation.batchNumber() + " x" + allocation.quantity())
+                .collect(Collectors.joining(", "));
+        String notes = existingNotes == null || existingNotes.isEmpty() ? batchNote : existingNotes + "\n" + batchNote;
+        return notes.length() > 500 ? notes.substring(notes.length() - 500) : notes;
+    }
+
     private BigDecimal calculateTotalCost(MedicineDispenseRequest request) {
         return request.getDispenseItems().stream()
                 .map(MedicineDispenseItem::getTotalPrice)
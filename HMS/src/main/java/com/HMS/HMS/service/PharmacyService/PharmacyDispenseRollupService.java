@@ -0,0 +1,232 @@
+package com.HMS.HMS.service.PharmacyService;
+
+import com.HMS.HMS.model.Medication.Medication;
+import com.HMS.HMS.model.Pharmacy.PharmacyDispenseRollup;
+import com.HMS.HMS.model.Prescription.PrescriptionStatus;
+import com.HMS.HMS.repository.MedicineDispenseItemRepository;
+import com.HMS.HMS.repository.PharmacyDispenseRollupRepository;
+import com.HMS.HMS.repository.PrescriptionItemRepository;
+import com.HMS.HMS.repository.PrescriptionRepository;
+import com.HMS.HMS.util.TopK;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains the monthly per-medication dispensing rollups that back the pharmacy
+ * annual report and the /api/pharmacy/analytics/annual endpoints.
+ *
+ * Rows are incremented as medications are dispensed (ward dispense requests and
+ * completed prescriptions) and decremented when a dispense stops counting (a cancelled
+ * request, a prescription moved out of COMPLETED). Both are dated by the source row's
+ * dispensedAt, the same timestamp a rebuild groups by, so live rows and rebuilt rows agree.
+ * A year with no rollups yet is rebuilt from the source tables with one grouped query
+ * per source; callers invoke ensureYear before reading or recording so the backfill
+ * runs once per year.
+ */
+@Service
+@Transactional
+public class PharmacyDispenseRollupService {
+
+    private final PharmacyDispenseRollupRepository rollupRepository;
+    private final MedicineDispenseItemRepository dispenseItemRepository;
+    private final PrescriptionItemRepository prescriptionItemRepository;
+    private final PrescriptionRepository prescriptionRepository;
+
+    // Years whose rollups are known to exist, so ensureYear skips the count query
+    private final Set<Integer> builtYears = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public PharmacyDispenseRollupService(PharmacyDispenseRollupRepository rollupRepository,
+                                         MedicineDispenseItemRepository dispenseItemRepository,
+                                         PrescriptionItemRepository prescriptionItemRepository,
+                                         PrescriptionRepository prescriptionRepository) {
+        this.rollupRepository = rollupRepository;
+        this.dispenseItemRepository = dispenseItemRepository;
+        this.prescriptionItemRepository = prescriptionItemRepository;
+        this.prescriptionRepository = prescriptionRepository;
+    }
+
+    /**
+     * Record a dispensed line against the rollup row of the month it was dispensed in.
+     * Call ensureYear for that year first so the increment lands on a backfilled year.
+     */
+    public void recordDispense(Medication medication, int quantity, BigDecimal value, LocalDateTime dispensedAt) {
+        increment(medication, quantity, 1, value, dispensedAt);
+    }
+
+    /**
+     * Take back a line recorded by recordDispense with the same quantity, value and dispensedAt.
+     * Call ensureYear for that year first, as for recordDispense.
+     */
+    public void reverseDispense(Medication medication, int quantity, BigDecimal value, LocalDateTime dispensedAt) {
+        increment(medication, -quantity, -1, value != null ? value.negate() : null, dispensedAt);
+    }
+
+    /**
+     * Recompute all rollups for a year from medicine_dispense_items and completed prescriptions
+     */
+    public int rebuildYear(int year) {
+        LocalDateTime start = LocalDate.of(year, 1, 1).atStartOfDay();
+        LocalDateTime end = LocalDate.of(year, 12, 31).atTime(23, 59, 59);
+
+        Map<String, PharmacyDispenseRollup> rollups = new HashMap<>();
+        mergeAggregates(rollups, year, dispenseItemRepository.aggregateDispensedByMonthAndMedication(start, end));
+        mergeAggregates(rollups, year, prescriptionItemRepository.aggregateDispensedByMonthAndMedication(
+                PrescriptionStatus.COMPLETED, start, end));
+
+        rollupRepository.deleteByPeriodYear(year);
+        rollupRepository.flush();
+        rollupRepository.saveAll(rollups.values());
+        builtYears.add(year);
+        return rollups.size();
+    }
+
+    /**
+     * Build the year's rollups from source data if none have been stored yet.
+     * Runs in its own transaction so it works from read-only callers and never
+     * sees a caller's uncommitted dispense, which is recorded separately.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void ensureYear(int year) {
+        if (builtYears.contains(year)) {
+            return;
+        }
+        if (rollupRepository.countByPeriodYear(year) == 0) {
+            rebuildYear(year);
+        } else {
+            builtYears.add(year);
+        }
+    }
+
+    /**
+     * Number of prescriptions dispensed in each month of a year, indexed by month (1-12)
+     */
+    @Transactional(readOnly = true)
+    public long[] getMonthlyPrescriptionCounts(int year) {
+        long[] counts = new long[13];
+        for (Object[] row : prescriptionRepository.countDispensedByMonth(PrescriptionStatus.COMPLETED,
+                LocalDate.of(year, 1, 1).atStartOfDay(), LocalDate.of(year, 12, 31).atTime(23, 59, 59))) {
+            counts[((Number) row[0]).intValue()] = ((Number) row[1]).longValue();
+        }
+        return counts;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean hasDataForYear(int year) {
+        return rollupRepository.countByPeriodYear(year) > 0;
+    }
+
+    /**
+     * Top medications by dispensed quantity for a year, or for one month when month is given
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getTopMedications(int year, Integer month, int limit) {
+        List<PharmacyDispenseRollup> rows = month != null
+                ? rollupRepository.findByPeriodYearAndPeriodMonth(year, month)
+                : rollupRepository.findByPeriodYearOrderByPeriodMonthAsc(year);
+
+        // Collapse months into one total per medication before selecting
+        Map<Long, PharmacyDispenseRollup> perMedication = new LinkedHashMap<>();
+        for (PharmacyDispenseRollup row : rows) {
+            perMedication.computeIfAbsent(row.getMedicationId(), id -> new PharmacyDispenseRollup(
+                    year, month, id, row.getDrugName(), row.getCategory()))
+                .add(row.getQuantityDispensed(), row.getDispenseCount(), row.getTotalValue());
+        }
+
+        TopK<PharmacyDispenseRollup> topK = new TopK<>(Math.max(1, limit));
+        for (PharmacyDispenseRollup total : perMedication.values()) {
+            topK.offer(total, total.getQuantityDispensed());
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (TopK.Entry<PharmacyDispenseRollup> entry : topK.toSortedList()) {
+            PharmacyDispenseRollup total = entry.item();
+            Map<String, Object> medication = new HashMap<>();
+            medication.put("medicationId", total.getMedicationId());
+            medication.put("medicationName", total.getDrugName());
+            medication.put("category", total.getCategory());
+            medication.put("quantity", total.getQuantityDispensed());
+            medication.put("timesDispensed", total.getDispenseCount());
+            medication.put("totalValue", total.getTotalValue());
+            medication.put("averagePrice", total.getQuantityDispensed() > 0
+                    ? total.getTotalValue().divide(BigDecimal.valueOf(total.getQuantityDispensed()), 2, java.math.RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO);
+            result.add(medication);
+        }
+        return result;
+    }
+
+    /**
+     * Twelve monthly rows of dispensed quantity, dispense count and value for a year
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getMonthlyTotals(int year) {
+        Map<Integer, Object[]> byMonth = new HashMap<>();
+        for (Object[] row : rollupRepository.getMonthlyTotals(year)) {
+            byMonth.put(((Number) row[0]).intValue(), row);
+        }
+
+        List<Map<String, Object>> monthly = new ArrayList<>();
+        for (int month = 1; month <= 12; month++) {
+            Object[] row = byMonth.get(month);
+            Map<String, Object> monthData = new HashMap<>();
+            monthData.put("month", Month.of(month).name());
+            monthData.put("monthNumber", month);
+            monthData.put("quantity", row != null ? ((Number) row[1]).longValue() : 0L);
+            monthData.put("dispenseCount", row != null ? ((Number) row[2]).longValue() : 0L);
+            monthData.put("totalValue", row != null && row[3] != null ? (BigDecimal) row[3] : BigDecimal.ZERO);
+            monthly.add(monthData);
+        }
+        return monthly;
+    }
+
+    /**
+     * Dispensed quantity and value per medication category for a year, highest value first
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getCategoryTotals(int year) {
+        List<Map<String, Object>> categories = new ArrayList<>();
+        for (Object[] row : rollupRepository.getCategoryTotals(year)) {
+            Map<String, Object> category = new HashMap<>();
+            category.put("category", row[0] != null ? row[0] : "Uncategorized");
+            category.put("quantity", ((Number) row[1]).longValue());
+            category.put("totalValue", row[2] != null ? (BigDecimal) row[2] : BigDecimal.ZERO);
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    // Helper methods
+    private void increment(Medication medication, int quantity, int count, BigDecimal value, LocalDateTime dispensedAt) {
+        if (medication == null || medication.getId() == null || quantity == 0 || dispensedAt == null) {
+            return;
+        }
+        rollupRepository.upsertIncrement(dispensedAt.getYear(), dispensedAt.getMonthValue(), medication.getId(),
+                medication.getDrugName(), medication.getCategory(), (long) quantity, (long) count,
+                value != null ? value : BigDecimal.ZERO);
+    }
+
+    private void mergeAggregates(Map<String, PharmacyDispenseRollup> rollups, int year, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            int month = ((Number) row[0]).intValue();
+            Long medicationId = ((Number) row[1]).longValue();
+            String key = month + ":" + medicationId;
+
+            PharmacyDispenseRollup rollup = rollups.computeIfAbsent(key, k -> new PharmacyDispenseRollup(
+                    year, month, medicationId, (String) row[2], (String) row[3]));
+            long quantity = row[4] != null ? ((Number) row[4]).longValue() : 0L;
+            long count = row[5] != null ? ((Number) row[5]).longValue() : 0L;
+            BigDecimal value = row[6] != null ? new BigDecimal(row[6].toString()) : BigDecimal.ZERO;
+            rollup.add(quantity, count, value);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.HMS.HMS.service.PharmacyService;
+
+import com.HMS.HMS.model.Prescription.PrescriptionStatus;
+import com.HMS.HMS.repository.MedicineDispenseItemRepository;
+import com.HMS.HMS.repository.PrescriptionItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.HMS.HMS.util.TransactionCallbacks.afterCommit;
+
+/**
+ * Pharmacy revenue and cost from dispensed line items.
+ *
+ * Revenue is what was billed: ward dispense items and completed prescription items at
+ * the unit price recorded when they were dispensed (the medication's unit cost for
+ * prescription items dispensed before prices were recorded). Cost is the dispensed
+ * quantity at the medication's current unit cost. Each source is summed with one grouped
+ * query per request (by day, or by month for monthly buckets); weekly buckets are folded
+ * from days.
+ *
+ * Buckets that ended before today are cached. Items are dated by their last write, so a
+ * write to a dispensed item or completed prescription from an earlier day, or a
+ * cancellation, reports the earliest day it alters through invalidateFrom, and the cached
+ * buckets from that day on are dropped once the write commits.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PharmacyRevenueService {
+
+    public enum Granularity {
+        DAY, WEEK, MONTH
+    }
+
+    private final MedicineDispenseItemRepository dispenseItemRepository;
+    private final PrescriptionItemRepository prescriptionItemRepository;
+
+    // "<granularity>:<period start>" -> bucket, for periods that ended before today
+    private final Map<String, RevenueBucket> closedBuckets = new ConcurrentHashMap<>();
+    // year -> category totals, for years before the current one
+    private final Map<Integer, List<CategoryRevenue>> closedYearCategories = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a query that raced one doesn't cache what it read
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public PharmacyRevenueService(MedicineDispenseItemRepository dispenseItemRepository,
+                                  PrescriptionItemRepository prescriptionItemRepository) {
+        this.dispenseItemRepository = dispenseItemRepository;
+        this.prescriptionItemRepository = prescriptionItemRepository;
+    }
+
+    /**
+     * Revenue buckets covering [from, to]. Buckets are whole periods, so the first and last
+     * week or month may extend past the range; use DAY for exact range totals.
+     */
+    public List<RevenueBucket> getRevenue(LocalDate from, LocalDate to, Granularity granularity) {
+        List<LocalDate> starts = new ArrayList<>();
+        for (LocalDate start = periodStart(from, granularity); !start.isAfter(to); start = nextPeriod(start, granularity)) {
+            starts.add(start);
+        }
+
+        // Closed periods come from the cache; query once from the first period that isn't cached
+        int firstMissing = 0;
+        while (firstMissing < starts.size() && closedBuckets.containsKey(cacheKey(granularity, starts.get(firstMissing)))) {
+            firstMissing++;
+        }
+
+        List<RevenueBucket> buckets = new ArrayList<>(starts.size());
+        for (int i = 0; i < firstMissing; i++) {
+            buckets.add(closedBuckets.get(cacheKey(granularity, starts.get(i))));
+        }
+        if (firstMissing == starts.size()) {
+            return buckets;
+        }
+
+        LocalDate queryFrom = starts.get(firstMissing);
+        LocalDate queryTo = periodEnd(starts.get(starts.size() - 1), granularity);
+        long generation = invalidations.get();
+        Map<LocalDate, Sums> sums = aggregate(queryFrom, queryTo, granularity);
+        boolean cacheable = invalidations.get() == generation;
+
+        LocalDate today = LocalDate.now();
+        for (int i = firstMissing; i < starts.size(); i++) {
+            LocalDate start = starts.get(i);
+            LocalDate end = periodEnd(start, granularity);
+            Sums bucketSums = sums.getOrDefault(start, new Sums());
+            RevenueBucket bucket = new RevenueBucket(start, end, bucketSums.revenue, bucketSums.cost, bucketSums.transactions);
+            if (cacheable && end.isBefore(today)) {
+                closedBuckets.put(cacheKey(granularity, start), bucket);
+            }
+            buckets.add(bucket);
+        }
+        return buckets;
+    }
+
+    /**
+     * Totals over [from, to] from daily buckets
+     */
+    public RevenueBucket getTotal(LocalDate from, LocalDate to) {
+        Sums total = new Sums();
+        for (RevenueBucket bucket : getRevenue(from, to, Granularity.DAY)) {
+            total.add(bucket.revenue(), bucket.cost(), bucket.transactions());
+        }
+        return new RevenueBucket(from, to, total.revenue, total.cost, total.transactions);
+    }
+
+    /**
+     * Dispensed quantity, revenue and cost per medication category for a year, highest cost first
+     */
+    public List<CategoryRevenue> getCategoryTotals(int year) {
+        List<CategoryRevenue> cached = closedYearCategories.get(year);
+        if (cached != null) {
+            return cached;
+        }
+
+        LocalDateTime start = LocalDate.of(year, 1, 1).atStartOfDay();
+        LocalDateTime end = LocalDate.of(year, 12, 31).atTime(23, 59, 59);
+
+        long generation = invalidations.get();
+        Map<String, CategoryRevenue> byCategory = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>(dispenseItemRepository.aggregateRevenueByCategory(start, end));
+        rows.addAll(prescriptionItemRepository.aggregateRevenueByCategory(PrescriptionStatus.COMPLETED, start, end));
+        for (Object[] row : rows) {
+            String category = row[0] != null ? (String) row[0] : "Uncategorized";
+            CategoryRevenue addition = new CategoryRevenue(category, toLong(row[1]), toBigDecimal(row[2]), toBigDecimal(row[3]));
+            byCategory.merge(category, addition, CategoryRevenue::plus);
+        }
+
+        List<CategoryRevenue> totals = new ArrayList<>(byCategory.values());
+        totals.sort(Comparator.comparing(CategoryRevenue::cost).reversed());
+        totals = List.copyOf(totals);
+        if (year < LocalDate.now().getYear() && invalidations.get() == generation) {
+            closedYearCategories.put(year, totals);
+        }
+        return totals;
+    }
+
+    /**
+     * Drop the cached closed periods that end on or after changedAt's day once the current
+     * transaction commits. Null, or a time today, leaves the cache as it is.
+     */
+    public void invalidateFrom(LocalDateTime changedAt) {
+        if (changedAt == null || !changedAt.toLocalDate().isBefore(LocalDate.now())) {
+            return;
+        }
+        LocalDate day = changedAt.toLocalDate();
+        afterCommit(() -> {
+            invalidations.incrementAndGet();
+            closedBuckets.values().removeIf(bucket -> !bucket.periodEnd().isBefore(day));
+            closedYearCategories.keySet().removeIf(year -> year >= day.getYear());
+        });
+    }
+
+    // Helper methods
+    private Map<LocalDate, Sums> aggregate(LocalDate from, LocalDate to, Granularity granularity) {
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.atTime(23, 59, 59);
+        Map<LocalDate, Sums> sums = new HashMap<>();
+
+        if (granularity == Granularity.MONTH) {
+            List<Object[]> rows = new ArrayList<>(dispenseItemRepository.aggregateRevenueByMonth(start, end));
+            rows.addAll(prescriptionItemRepository.aggregateRevenueByMonth(PrescriptionStatus.COMPLETED, start, end));
+            for (Object[] row : rows) {
+                LocalDate month = LocalDate.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue(), 1);
+                sums.computeIfAbsent(month, key -> new Sums())
+                        .add(toBigDecimal(row[2]), toBigDecimal(row[3]), toLong(row[4]));
+            }
+            return sums;
+        }
+
+        List<Object[]> rows = new ArrayList<>(dispenseItemRepository.aggregateRevenueByDay(start, end));
+        rows.addAll(prescriptionItemRepository.aggregateRevenueByDay(PrescriptionStatus.COMPLETED, start, end));
+        for (Object[] row : rows) {
+            LocalDate day = LocalDate.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue(), ((Number) row[2]).intValue());
+            sums.computeIfAbsent(periodStart(day, granularity), key -> new Sums())
+                    .add(toBigDecimal(row[3]), toBigDecimal(row[4]), toLong(row[5]));
+        }
+        return sums;
+    }
+
+    private static LocalDate periodStart(LocalDate date, Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> date;
+            case WEEK -> date.with(DayOfWeek.MONDAY);
+            case MONTH -> date.withDayOfMonth(1);
+        };
+    }
+
+    private static LocalDate nextPeriod(LocalDate start, Granularity granularity) {
+        return switch (granularity) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+        };
+    }
+
+    private static LocalDate periodEnd(LocalDate start, Granularity granularity) {
+        return nextPeriod(start, granularity).minusDays(1);
+    }
+
+    private static String cacheKey(Granularity granularity, LocalDate start) {
+        return granularity + ":" + start;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private static final class Sums {
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal cost = BigDecimal.ZERO;
+        long transactions;
+
+        void add(BigDecimal revenue, BigDecimal cost, long transactions) {
+            this.revenue = this.revenue.add(revenue);
+            this.cost = this.cost.add(cost);
+            this.transactions += transactions;
+        }
+    }
+
+    public record RevenueBucket(LocalDate periodStart, LocalDate periodEnd, BigDecimal revenue,
+                                BigDecimal cost, long transactions) {
+
+        public BigDecimal margin() {
+            return revenue.subtract(cost);
+        }
+    }
+
+    public record CategoryRevenue(String category, long quantity, BigDecimal revenue, BigDecimal cost) {
+
+        CategoryRevenue plus(CategoryRevenue other) {
+            return new CategoryRevenue(category, quantity + other.quantity,
+                    revenue.add(other.revenue), cost.add(other.cost));
+        }
+    }
+}
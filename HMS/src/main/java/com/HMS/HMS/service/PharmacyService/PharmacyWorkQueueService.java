@@ -0,0 +1,308 @@
+package com.HMS.HMS.service.PharmacyService;
+
+import com.HMS.HMS.model.Pharmacy.MedicineDispenseItem;
+import com.HMS.HMS.model.Pharmacy.MedicineDispenseRequest;
+import com.HMS.HMS.model.Pharmacy.MedicineDispenseRequest.DispenseStatus;
+import com.HMS.HMS.model.Pharmacy.MedicineDispenseRequest.UrgencyLevel;
+import com.HMS.HMS.model.Prescription.Prescription;
+import com.HMS.HMS.model.Prescription.PrescriptionStatus;
+import com.HMS.HMS.repository.MedicineDispenseRequestRepository;
+import com.HMS.HMS.repository.PrescriptionRepository;
+import com.HMS.HMS.websocket.PharmacyQueueNotificationService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.HMS.HMS.util.TransactionCallbacks.afterCommit;
+
+/**
+ * In-memory work queue of open ward dispense requests and active prescriptions.
+ *
+ * Items are ordered by urgency (highest first), then age (oldest first), then ward, and
+ * are kept current by MedicineDispenseService and PrescriptionService calling track(...)
+ * on every state change. Changes are applied after the transaction commits and pushed
+ * to /topic/pharmacy/queue so dispensing stations don't have to poll.
+ *
+ * Claims are held in memory only: a pharmacist claims an item with a compare-and-set,
+ * so two stations can never both take the same item. Claims survive state changes of
+ * the item and are dropped when it leaves the queue or the application restarts.
+ */
+@Service
+public class PharmacyWorkQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(PharmacyWorkQueueService.class);
+
+    private static final List<DispenseStatus> OPEN_DISPENSE_STATUSES = List.of(
+            DispenseStatus.PENDING, DispenseStatus.PROCESSING,
+            DispenseStatus.PREPARED, DispenseStatus.PARTIALLY_DISPENSED);
+
+    private static final List<PrescriptionStatus> OPEN_PRESCRIPTION_STATUSES = List.of(
+            PrescriptionStatus.PENDING, PrescriptionStatus.ACTIVE,
+            PrescriptionStatus.IN_PROGRESS, PrescriptionStatus.READY);
+
+    private static final Comparator<Slot> PRIORITY = Comparator
+            .comparing((Slot slot) -> slot.item.urgencyLevel(), Comparator.reverseOrder())
+            .thenComparing(slot -> slot.item.createdAt(), Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(slot -> slot.item.ward(), Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(slot -> slot.item.key());
+
+    private final MedicineDispenseRequestRepository dispenseRequestRepository;
+    private final PrescriptionRepository prescriptionRepository;
+    private final PharmacyQueueNotificationService queueNotificationService;
+
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Slot> ordered = new ConcurrentSkipListSet<>(PRIORITY);
+    // Serializes structural changes only; reads and claims never take it
+    private final Object writeLock = new Object();
+
+    public PharmacyWorkQueueService(MedicineDispenseRequestRepository dispenseRequestRepository,
+                                    PrescriptionRepository prescriptionRepository,
+                                    PharmacyQueueNotificationService queueNotificationService) {
+        this.dispenseRequestRepository = dispenseRequestRepository;
+        this.prescriptionRepository = prescriptionRepository;
+        this.queueNotificationService = queueNotificationService;
+    }
+
+    @PostConstruct
+    public void loadQueue() {
+        for (MedicineDispenseRequest request : dispenseRequestRepository.findOpenForWorkQueue(OPEN_DISPENSE_STATUSES)) {
+            apply(keyFor(request), toWorkItem(request), false);
+        }
+        for (Prescription prescription : prescriptionRepository.findOpenForWorkQueue(OPEN_PRESCRIPTION_STATUSES)) {
+            apply(keyFor(prescription), toWorkItem(prescription), false);
+        }
+        log.info("Pharmacy work queue loaded with {} open items", ordered.size());
+    }
+
+    /**
+     * Record the current state of a dispense request; closed requests leave the queue.
+     * Must be called after the request is saved so its id is set.
+     */
+    public void track(MedicineDispenseRequest request) {
+        WorkItem item = OPEN_DISPENSE_STATUSES.contains(request.getStatus()) ? toWorkItem(request) : null;
+        applyAfterCommit(keyFor(request), item);
+    }
+
+    /**
+     * Record the current state of a prescription; completed or discontinued ones leave the queue
+     */
+    public void track(Prescription prescription) {
+        WorkItem item = OPEN_PRESCRIPTION_STATUSES.contains(prescription.getStatus()) ? toWorkItem(prescription) : null;
+        applyAfterCommit(keyFor(prescription), item);
+    }
+
+    public void untrackPrescription(Long prescriptionId) {
+        applyAfterCommit("RX-" + prescriptionId, null);
+    }
+
+    /**
+     * Open items in priority order, optionally for one ward and/or type
+     */
+    public List<WorkItem> getQueue(String ward, WorkType type, int limit) {
+        List<WorkItem> result = new ArrayList<>();
+        for (Slot slot : ordered) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (matches(slot, ward, type)) {
+                result.add(slot.view());
+            }
+        }
+        return result;
+    }
+
+    public Optional<WorkItem> getItem(String key) {
+        Slot slot = slots.get(key);
+        return slot != null ? Optional.of(slot.view()) : Optional.empty();
+    }
+
+    /**
+     * Claim one item for a pharmacist, identified by the authenticated user's name. Returns
+     * the claimed item, or empty when it is not in the queue or another pharmacist holds it.
+     */
+    public Optional<WorkItem> claim(String key, String pharmacist) {
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            return Optional.empty();
+        }
+        String holder = slot.claimedBy.get();
+        if (pharmacist.equals(holder)) {
+            return Optional.of(slot.view());
+        }
+        if (holder != null || !slot.claimedBy.compareAndSet(null, pharmacist)) {
+            return Optional.empty();
+        }
+        queueNotificationService.notifyItemUpserted(slot.view());
+        return Optional.of(slot.view());
+    }
+
+    /**
+     * Claim the highest-priority unclaimed item, optionally limited to one ward
+     */
+    public Optional<WorkItem> claimNext(String pharmacist, String ward) {
+        for (Slot slot : ordered) {
+            if (slot.claimedBy.get() == null && matches(slot, ward, null)
+                    && slot.claimedBy.compareAndSet(null, pharmacist)) {
+                queueNotificationService.notifyItemUpserted(slot.view());
+                return Optional.of(slot.view());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Release a claim held by the pharmacist so the item is available again
+     */
+    public boolean release(String key, String pharmacist) {
+        Slot slot = slots.get(key);
+        if (slot == null || pharmacist == null || !slot.claimedBy.compareAndSet(pharmacist, null)) {
+            return false;
+        }
+        queueNotificationService.notifyItemUpserted(slot.view());
+        return true;
+    }
+
+    public Map<String, Object> getQueueSummary() {
+        Map<UrgencyLevel, Integer> byUrgency = new EnumMap<>(UrgencyLevel.class);
+        Map<String, Integer> byWard = new TreeMap<>();
+        int claimed = 0;
+        for (Slot slot : ordered) {
+            byUrgency.merge(slot.item.urgencyLevel(), 1, Integer::sum);
+            byWard.merge(slot.item.ward() != null ? slot.item.ward() : "Unassigned", 1, Integer::sum);
+            if (slot.claimedBy.get() != null) {
+                claimed++;
+            }
+        }
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("total", ordered.size());
+        summary.put("claimed", claimed);
+        summary.put("byUrgency", byUrgency);
+        summary.put("byWard", byWard);
+        return summary;
+    }
+
+    // Helper methods
+    private void applyAfterCommit(String key, WorkItem item) {
+        afterCommit(() -> apply(key, item, true));
+    }
+
+    private void apply(String key, WorkItem item, boolean notify) {
+        Slot current;
+        synchronized (writeLock) {
+            Slot previous = slots.get(key);
+            if (previous != null) {
+                ordered.remove(previous);
+            }
+            if (item == null) {
+                slots.remove(key);
+                current = null;
+            } else {
+                // Share the claim with the previous version so a concurrent claim is never lost
+                current = new Slot(item, previous != null ? previous.claimedBy : new AtomicReference<>());
+                slots.put(key, current);
+                ordered.add(current);
+            }
+            if (previous == null && current == null) {
+                return;
+            }
+        }
+
+        if (!notify) {
+            return;
+        }
+        if (current != null) {
+            queueNotificationService.notifyItemUpserted(current.view());
+        } else {
+            queueNotificationService.notifyItemRemoved(key);
+        }
+    }
+
+    private boolean matches(Slot slot, String ward, WorkType type) {
+        return (ward == null || ward.equalsIgnoreCase(slot.item.ward()))
+                && (type == null || type == slot.item.type());
+    }
+
+    private static String keyFor(MedicineDispenseRequest request) {
+        return "DR-" + request.getId();
+    }
+
+    private static String keyFor(Prescription prescription) {
+        return "RX-" + prescription.getId();
+    }
+
+    private WorkItem toWorkItem(MedicineDispenseRequest request) {
+        BigDecimal totalCost = request.getDispenseItems().stream()
+                .map(MedicineDispenseItem::getTotalPrice)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new WorkItem(
+                keyFor(request),
+                WorkType.DISPENSE_REQUEST,
+                request.getId(),
+                request.getRequestId(),
+                patientName(request.getPrescription()),
+                request.getWardLocation(),
+                request.getUrgencyLevel(),
+                request.getStatus().name(),
+                request.getCreatedAt() != null ? request.getCreatedAt() : LocalDateTime.now(),
+                request.getDispenseItems().size(),
+                totalCost,
+                null);
+    }
+
+    private WorkItem toWorkItem(Prescription prescription) {
+        return new WorkItem(
+                keyFor(prescription),
+                WorkType.PRESCRIPTION,
+                prescription.getId(),
+                prescription.getPrescriptionId(),
+                patientName(prescription),
+                prescription.getWardName(),
+                prescription.hasUrgentMedications() ? UrgencyLevel.URGENT : UrgencyLevel.NORMAL,
+                prescription.getStatus().name(),
+                prescription.getPrescribedDate(),
+                prescription.getTotalMedications() != null ? prescription.getTotalMedications() : 0,
+                null,
+                null);
+    }
+
+    private static String patientName(Prescription prescription) {
+        return prescription.getPatient().getFirstName() + " " + prescription.getPatient().getLastName();
+    }
+
+    private static final class Slot {
+        final WorkItem item;
+        final AtomicReference<String> claimedBy;
+
+        Slot(WorkItem item, AtomicReference<String> claimedBy) {
+            this.item = item;
+            this.claimedBy = claimedBy;
+        }
+
+        WorkItem view() {
+            return item.withClaimedBy(claimedBy.get());
+        }
+    }
+
+    public enum WorkType {
+        DISPENSE_REQUEST, PRESCRIPTION
+    }
+
+    public record WorkItem(String key, WorkType type, Long id, String reference, String patientName,
+                           String ward, UrgencyLevel urgencyLevel, String status, LocalDateTime createdAt,
+                           int itemCount, BigDecimal totalCost, String claimedBy) {
+
+        WorkItem withClaimedBy(String pharmacist) {
+            return new WorkItem(key, type, id, reference, patientName, ward, urgencyLevel, status,
+                    createdAt, itemCount, totalCost, pharmacist);
+        }
+    }
+}
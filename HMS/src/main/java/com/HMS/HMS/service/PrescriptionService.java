@@ -16,6 +16,11 @@ import com.HMS.HMS.repository.MedicationRepository;
 import com.HMS.HMS.repository.PatientRepository;
 import com.HMS.HMS.repository.PrescriptionRepository;
 import com.HMS.HMS.repository.PrescriptionItemRepository;
+import com.HMS.HMS.service.MedicationService.MedicationBatchService;
+import com.HMS.HMS.service.PharmacyService.DrugInteractionService;
+import com.HMS.HMS.service.PharmacyService.PharmacyDispenseRollupService;
+import com.HMS.HMS.service.PharmacyService.PharmacyRevenueService;
+import com.HMS.HMS.service.PharmacyService.PharmacyWorkQueueService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -51,6 +56,11 @@ public class PrescriptionService {
     private final AdmissionRepository admissionRepository;
     private final MedicationRepository medicationRepository;
     private final com.HMS.HMS.websocket.PrescriptionNotificationService notificationService;
+    private final PharmacyDispenseRollupService dispenseRollupService;
+    private final MedicationBatchService batchService;
+    private final PharmacyWorkQueueService workQueueService;
+    private final DrugInteractionService drugInteractionService;
+    private final PharmacyRevenueService revenueService;
 
     @Autowired
     public PrescriptionService(PrescriptionRepository prescriptionRepository,
@@ -58,13 +68,23 @@ public class PrescriptionService {
                              PatientRepository patientRepository,
                              AdmissionRepository admissionRepository,
                              MedicationRepository medicationRepository,
-                             com.HMS.HMS.websocket.PrescriptionNotificationService notificationService) {
+                             com.HMS.HMS.websocket.PrescriptionNotificationService notificationService,
+                             PharmacyDispenseRollupService dispenseRollupService,
+                             MedicationBatchService batchService,
+                             PharmacyWorkQueueService workQueueService,
+                             DrugInteractionService drugInteractionService,
+                             PharmacyRevenueService revenueService) {
         this.prescriptionRepository = prescriptionRepository;
         this.prescriptionItemRepository = prescriptionItemRepository;
         this.patientRepository = patientRepository;
         this.admissionRepository = admissionRepository;
         this.medicationRepository = medicationRepository;
         this.notificationService = notificationService;
+        this.dispenseRollupService = dispenseRollupService;
+        this.batchService = batchService;
+        this.workQueueService = workQueueService;
+        this.drugInteractionService = drugInteractionService;
+        this.revenueService = revenueService;
     }
 
     /**
@@ -125,7 +145,7 @@ public class PrescriptionService {
             prescription.setTotalMedications(requestDTO.getPrescriptionItems().size());
 
             // Save prescription container first
-            Prescription savedPrescription = prescriptionRepository.save(prescription);
+            Prescription savedPrescription = save(prescription);
 
             // Create and save prescription items with medication relationships
             for (PrescriptionItemDTO itemDTO : requestDTO.getPrescriptionItems()) {
@@ -148,6 +168,7 @@ public class PrescriptionService {
                 prescriptionItemRepository.save(item);
                 savedPrescription.addPrescriptionItem(item);
             }
+            workQueueService.track(savedPrescription);
 
             // Convert to DTO for response
             PrescriptionResponseDTO responseDTO = convertToResponseDTO(savedPrescription);
@@ -320,7 +341,8 @@ public class PrescriptionService {
             prescription.setPrescriptionNotes(updateDTO.getPrescriptionNotes());
         }
 
-        Prescription updatedPrescription = prescriptionRepository.save(prescription);
+        Prescription updatedPrescription = save(prescription);
+        workQueueService.track(updatedPrescription);
         return convertToResponseDTO(updatedPrescription);
     }
 
@@ -351,7 +373,8 @@ public class PrescriptionService {
 
         prescriptionItemRepository.save(item);
         prescription.addPrescriptionItem(item);
-        prescriptionRepository.save(prescription);
+        save(prescription);
+        workQueueService.track(prescription);
 
         return convertToResponseDTO(prescription);
     }
@@ -372,20 +395,31 @@ public class PrescriptionService {
 
         prescription.removePrescriptionItem(item);
         prescriptionItemRepository.delete(item);
-        prescriptionRepository.save(prescription);
+        save(prescription);
+        workQueueService.track(prescription);
 
         return convertToResponseDTO(prescription);
     }
 
     /**
-     * Update prescription status
+     * Update prescription status. Moving into or out of COMPLETED adds the items to or takes
+     * them back from the dispensing rollups.
      */
     public PrescriptionResponseDTO updatePrescriptionStatus(Long id, PrescriptionStatus status) {
         Prescription prescription = prescriptionRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Prescription not found with ID: " + id));
 
+        boolean wasCompleted = prescription.getStatus() == PrescriptionStatus.COMPLETED;
+        boolean completed = status == PrescriptionStatus.COMPLETED;
+        if (wasCompleted && !completed) {
+            reverseDispensedItems(prescription);
+        }
         prescription.setStatus(status);
-        Prescription updatedPrescription = prescriptionRepository.save(prescription);
+        if (completed && !wasCompleted) {
+            recordDispensedItems(prescription);
+        }
+        Prescription updatedPrescription = save(prescription);
+        workQueueService.track(updatedPrescription);
         return convertToResponseDTO(updatedPrescription);
     }
 
@@ -411,17 +445,19 @@ public class PrescriptionService {
                 .orElseThrow(() -> new IllegalArgumentException("Prescription not found with ID: " + id));
 
         prescription.setStatus(PrescriptionStatus.DISCONTINUED);
-        prescriptionRepository.save(prescription);
+        save(prescription);
+        workQueueService.track(prescription);
     }
 
     /**
      * Hard delete prescription (permanent deletion)
      */
     public void hardDeletePrescription(Long id) {
-        if (!prescriptionRepository.existsById(id)) {
-            throw new IllegalArgumentException("Prescription not found with ID: " + id);
-        }
-        prescriptionRepository.deleteById(id);
+        Prescription prescription = prescriptionRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Prescription not found with ID: " + id));
+        revenueService.invalidateFrom(prescription.getLastModified());
+        prescriptionRepository.delete(prescription);
+        workQueueService.untrackPrescription(id);
     }
 
     /**
@@ -617,6 +653,7 @@ public class PrescriptionService {
         // Update prescription status to completed (dispensed)
         prescription.setStatus(PrescriptionStatus.COMPLETED);
         prescription.setLastModified(LocalDateTime.now());
+        recordDispensedItems(prescription);
 
         // Save pharmacist information if provided (can be enhanced later)
         if (dispensingData != null) {
@@ -624,7 +661,8 @@ public class PrescriptionService {
             // Can be stored in prescription notes or separate tracking entity
         }
 
-        prescription = prescriptionRepository.save(prescription);
+        prescription = save(prescription);
+        workQueueService.track(prescription);
         PrescriptionResponseDTO responseDTO = convertToResponseDTO(prescription);
 
         // Send WebSocket notification to Ward Management
@@ -658,32 +696,7 @@ public class PrescriptionService {
         Prescription prescription = prescriptionRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Prescription not found with id: " + id));
 
-        List<Map<String, Object>> interactions = new java.util.ArrayList<>();
-        
-        // Simple interaction checking logic (can be enhanced)
-        List<PrescriptionItem> items = prescription.getPrescriptionItems();
-        for (int i = 0; i < items.size(); i++) {
-            for (int j = i + 1; j < items.size(); j++) {
-                PrescriptionItem item1 = items.get(i);
-                PrescriptionItem item2 = items.get(j);
-                
-                // Example interaction check (replace with actual drug interaction database)
-                String drug1 = item1.getDrugName().toLowerCase();
-                String drug2 = item2.getDrugName().toLowerCase();
-                
-                if ((drug1.contains("warfarin") && drug2.contains("aspirin")) ||
-                    (drug1.contains("aspirin") && drug2.contains("warfarin"))) {
-                    
-                    Map<String, Object> interaction = new java.util.HashMap<>();
-                    interaction.put("severity", "high");
-                    interaction.put("drugs", List.of(item1.getDrugName(), item2.getDrugName()));
-                    interaction.put("description", "Increased risk of bleeding when warfarin and aspirin are taken together");
-                    interactions.add(interaction);
-                }
-            }
-        }
-        
-        return interactions;
+        return checkDrugInteractionsInternal(prescription);
     }
 
     /**
@@ -776,6 +789,35 @@ public class PrescriptionService {
         return checkDrugInteractionsInternal(prescription);
     }
 
+    /**
+     * Check drug interactions across all open prescriptions of a patient, including
+     * pairs that come from different prescriptions
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> checkPatientDrugInteractions(String patientNationalId) {
+        List<Prescription> prescriptions = prescriptionRepository.findOpenByPatientWithItems(patientNationalId,
+                List.of(PrescriptionStatus.PENDING, PrescriptionStatus.ACTIVE, PrescriptionStatus.IN_PROGRESS, PrescriptionStatus.READY));
+
+        List<PrescriptionItem> items = new java.util.ArrayList<>();
+        for (Prescription prescription : prescriptions) {
+            items.addAll(prescription.getPrescriptionItems());
+        }
+        List<Medication> medications = items.stream()
+                .map(PrescriptionItem::getMedication)
+                .collect(Collectors.toList());
+
+        List<Map<String, Object>> interactions = new java.util.ArrayList<>();
+        for (DrugInteractionService.InteractionHit hit : drugInteractionService.check(medications)) {
+            PrescriptionItem item1 = items.get(hit.firstIndex());
+            PrescriptionItem item2 = items.get(hit.secondIndex());
+            Map<String, Object> interaction = toInteractionMap(item1, item2, hit.interaction());
+            interaction.put("prescription1", item1.getPrescription().getPrescriptionId());
+            interaction.put("prescription2", item2.getPrescription().getPrescriptionId());
+            interactions.add(interaction);
+        }
+        return interactions;
+    }
+
     // ==================== INTERNAL HELPER METHODS ====================
 
     /**
@@ -799,7 +841,8 @@ public class PrescriptionService {
             prescription.setPrescriptionNotes(existingNotes.isEmpty() ? newNotes : existingNotes + "\\n" + newNotes);
         }
 
-        Prescription savedPrescription = prescriptionRepository.save(prescription);
+        Prescription savedPrescription = save(prescription);
+        workQueueService.track(savedPrescription);
         return convertToResponseDTO(savedPrescription);
     }
 
@@ -822,7 +865,8 @@ public class PrescriptionService {
             prescription.setPrescriptionNotes(existingNotes.isEmpty() ? newNotes : existingNotes + "\\n" + newNotes);
         }
 
-        Prescription savedPrescription = prescriptionRepository.save(prescription);
+        Prescription savedPrescription = save(prescription);
+        workQueueService.track(savedPrescription);
         return convertToResponseDTO(savedPrescription);
     }
 
@@ -852,9 +896,9 @@ public class PrescriptionService {
                     );
                 }
 
-                // Decrease the stock
-                int newStock = medication.getCurrentStock() - quantityToDispense;
-                medication.setCurrentStock(newStock);
+                // Decrease the stock, taking from the earliest-expiring lots first
+                batchService.allocate(medication, quantityToDispense);
+                int newStock = medication.getCurrentStock();
                 medicationRepository.save(medication);
 
                 System.out.println("Inventory updated: " + medication.getDrugName() +
@@ -877,6 +921,7 @@ public class PrescriptionService {
         // Mark prescription as dispensed
         prescription.setStatus(PrescriptionStatus.COMPLETED);
         prescription.setLastModified(LocalDateTime.now());
+        recordDispensedItems(prescription);
         // Note: dispensedDate and dispensedBy fields don't exist in the model, storing in notes instead
 
         // Add dispensing information
@@ -894,7 +939,8 @@ public class PrescriptionService {
             prescription.setPrescriptionNotes(existingNotes.isEmpty() ? dispensingNote : existingNotes + "\\n" + dispensingNote);
         }
 
-        Prescription savedPrescription = prescriptionRepository.save(prescription);
+        Prescription savedPrescription = save(prescription);
+        workQueueService.track(savedPrescription);
         PrescriptionResponseDTO responseDTO = convertToResponseDTO(savedPrescription);
 
         // Send WebSocket notification to Ward Management
@@ -907,6 +953,59 @@ public class PrescriptionService {
         return responseDTO;
     }
 
+    /**
+     * Date the prescription as dispensed now and add its items to the monthly dispensing rollups
+     */
+    private void recordDispensedItems(Prescription prescription) {
+        LocalDateTime dispensedAt = LocalDateTime.now();
+        prescription.setDispensedAt(dispensedAt);
+        dispenseRollupService.ensureYear(dispensedAt.getYear());
+        for (PrescriptionItem item : prescription.getPrescriptionItems()) {
+            Medication medication = item.getMedication();
+            if (medication != null && item.getQuantity() != null) {
+                item.setUnitPrice(medication.getUnitCost());
+                dispenseRollupService.recordDispense(medication, item.getQuantity(),
+                        itemValue(item), dispensedAt);
+            }
+        }
+    }
+
+    /**
+     * Take a completed prescription's items back out of the rollups, from the month they were
+     * counted in (lastModified for prescriptions completed before dispensedAt was kept)
+     */
+    private void reverseDispensedItems(Prescription prescription) {
+        LocalDateTime dispensedAt = prescription.getDispensedAt() != null
+                ? prescription.getDispensedAt() : prescription.getLastModified();
+        if (dispensedAt == null) {
+            return;
+        }
+        dispenseRollupService.ensureYear(dispensedAt.getYear());
+        for (PrescriptionItem item : prescription.getPrescriptionItems()) {
+            Medication medication = item.getMedication();
+            if (medication != null && item.getQuantity() != null) {
+                dispenseRollupService.reverseDispense(medication, item.getQuantity(),
+                        itemValue(item), dispensedAt);
+            }
+        }
+        prescription.setDispensedAt(null);
+    }
+
+    // Valued like the rollup rebuild: the recorded price, else the medication's unit cost
+    private static java.math.BigDecimal itemValue(PrescriptionItem item) {
+        java.math.BigDecimal unitPrice = item.getUnitPrice() != null ? item.getUnitPrice() : item.getMedication().getUnitCost();
+        return unitPrice != null ? unitPrice.multiply(java.math.BigDecimal.valueOf(item.getQuantity())) : null;
+    }
+
+    /**
+     * Completed prescriptions count as revenue on their last-modified day and every save
+     * moves that day to today, so cached revenue from the previous day on is dropped
+     */
+    private Prescription save(Prescription prescription) {
+        revenueService.invalidateFrom(prescription.getLastModified());
+        return prescriptionRepository.save(prescription);
+    }
+
     /**
      * Internal method to handle prescription cancellation
      */
@@ -934,7 +1033,8 @@ public class PrescriptionService {
             prescription.setPrescriptionNotes(existingNotes + "\\n" + cancelledByNote);
         }
 
-        Prescription savedPrescription = prescriptionRepository.save(prescription);
+        Prescription savedPrescription = save(prescription);
+        workQueueService.track(savedPrescription);
         return convertToResponseDTO(savedPrescription);
     }
 
@@ -942,70 +1042,28 @@ public class PrescriptionService {
      * Internal method to check drug interactions
      */
     private List<Map<String, Object>> checkDrugInteractionsInternal(Prescription prescription) {
-        List<Map<String, Object>> interactions = new java.util.ArrayList<>();
-
-        // Get all medications in this prescription
         List<PrescriptionItem> items = prescription.getPrescriptionItems();
+        List<Medication> medications = items.stream()
+                .map(PrescriptionItem::getMedication)
+                .collect(Collectors.toList());
 
-        // Simple interaction checking (this would be enhanced with a real drug interaction database)
-        for (int i = 0; i < items.size(); i++) {
-            for (int j = i + 1; j < items.size(); j++) {
-                PrescriptionItem item1 = items.get(i);
-                PrescriptionItem item2 = items.get(j);
-
-                // Simulate drug interaction checking
-                Map<String, Object> interaction = checkDrugPairInteraction(
-                    item1.getMedication(), item2.getMedication());
-                
-                if (interaction != null) {
-                    interactions.add(interaction);
-                }
-            }
+        List<Map<String, Object>> interactions = new java.util.ArrayList<>();
+        for (DrugInteractionService.InteractionHit hit : drugInteractionService.check(medications)) {
+            interactions.add(toInteractionMap(items.get(hit.firstIndex()), items.get(hit.secondIndex()), hit.interaction()));
         }
-
         return interactions;
     }
 
-    /**
-     * Check interaction between two medications (simplified implementation)
-     */
-    private Map<String, Object> checkDrugPairInteraction(Medication med1, Medication med2) {
-        // This is a simplified example. In a real system, you would:
-        // 1. Query a drug interaction database
-        // 2. Check contraindications
-        // 3. Consider dosages and patient conditions
-        
-        // Example interactions (simplified)
-        String med1Name = med1.getDrugName().toLowerCase();
-        String med2Name = med2.getDrugName().toLowerCase();
-
-        // Some basic interaction checks
-        if ((med1Name.contains("warfarin") && med2Name.contains("aspirin")) ||
-            (med1Name.contains("aspirin") && med2Name.contains("warfarin"))) {
-            
-            Map<String, Object> interaction = new java.util.HashMap<>();
-            interaction.put("medication1", med1.getDrugName());
-            interaction.put("medication2", med2.getDrugName());
-            interaction.put("severity", "HIGH");
-            interaction.put("description", "Increased risk of bleeding when warfarin and aspirin are used together");
-            interaction.put("recommendation", "Monitor bleeding parameters closely. Consider alternative therapy.");
-            return interaction;
-        }
-
-        if ((med1Name.contains("lisinopril") && med2Name.contains("potassium")) ||
-            (med1Name.contains("potassium") && med2Name.contains("lisinopril"))) {
-            
-            Map<String, Object> interaction = new java.util.HashMap<>();
-            interaction.put("medication1", med1.getDrugName());
-            interaction.put("medication2", med2.getDrugName());
-            interaction.put("severity", "MODERATE");
-            interaction.put("description", "ACE inhibitors can increase potassium levels");
-            interaction.put("recommendation", "Monitor serum potassium levels regularly");
-            return interaction;
-        }
-
-        // No interaction found
-        return null;
+    private Map<String, Object> toInteractionMap(PrescriptionItem item1, PrescriptionItem item2,
+                                                 DrugInteractionService.Interaction interaction) {
+        Map<String, Object> result = new java.util.HashMap<>();
+        result.put("medication1", item1.getDrugName());
+        result.put("medication2", item2.getDrugName());
+        result.put("drugs", List.of(item1.getDrugName(), item2.getDrugName()));
+        result.put("severity", interaction.severity());
+        result.put("description", interaction.description());
+        result.put("recommendation", interaction.recommendation());
+        return result;
     }
 
     /**
@@ -1160,7 +1218,7 @@ public class PrescriptionService {
             }
 
             // Save prescription container first
-            Prescription savedPrescription = prescriptionRepository.save(prescription);
+            Prescription savedPrescription = save(prescription);
 
             // Create and save prescription items with medication relationships
             for (PrescriptionItemDTO itemDTO : requestDTO.getPrescriptionItems()) {
@@ -1199,6 +1257,7 @@ public class PrescriptionService {
 
                 prescriptionItemRepository.save(item);
             }
+            workQueueService.track(savedPrescription);
 
             // Convert to response DTO
             PrescriptionResponseDTO responseDTO = convertToResponseDTO(savedPrescription);
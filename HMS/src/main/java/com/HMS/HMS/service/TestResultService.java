@@ -1,10 +1,19 @@
 package com.HMS.HMS.service;
 
+import com.HMS.HMS.DTO.LabRequest.LabRequestDeltaDTO;
+import com.HMS.HMS.DTO.LabRequest.TestResultBatchDTO;
 import com.HMS.HMS.DTO.LabRequest.TestResultSubmissionDTO;
 import com.HMS.HMS.DTO.LabRequest.TestResultResponseDTO;
 import com.HMS.HMS.model.LabRequest.*;
 import com.HMS.HMS.repository.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,66 +24,73 @@ import java.util.*;
 @Service
 public class TestResultService {
     
+    private static final Logger log = LoggerFactory.getLogger(TestResultService.class);
+    
+    private static final int ALL_RESULTS_PAGE_SIZE = 500;
+    private static final int MAX_ALL_RESULTS = 5000;
+    
+    // Most recent first; id breaks ties between results completed at the same time so
+    // offset pages neither repeat nor skip rows
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "completedAt", "id");
+    
     @Autowired
     private TestResultRepository testResultRepository;
     
     @Autowired
-    private BloodGlucoseResultRepository bloodGlucoseResultRepository;
+    private TestResultValueRepository testResultValueRepository;
+    
+    @Autowired
+    private LabTestDefinitionRegistry definitionRegistry;
     
     @Autowired
-    private CompleteBloodCountResultRepository cbcResultRepository;
+    private LabRequestRepository labRequestRepository;
     
     @Autowired
-    private UrineAnalysisResultRepository urineAnalysisResultRepository;
+    private LabSlaMonitorService slaMonitorService;
     
     @Autowired
-    private CholesterolLevelResultRepository cholesterolResultRepository;
+    private TestResultJdbcRepository testResultJdbcRepository;
     
     @Autowired
-    private LabRequestRepository labRequestRepository;
+    private LabRequestWebSocketService webSocketService;
+    
+    @Autowired
+    private PatientLabSeriesService labSeriesService;
+    
+    @Autowired
+    private LabResultFlagService labResultFlagService;
+    
+    @Autowired
+    private LabEquipmentService equipmentService;
     
     @Transactional
     public Map<String, Object> saveTestResults(TestResultSubmissionDTO submissionDTO) {
         try {
-            System.out.println("=== Starting test result save process ===");
-            System.out.println("Request ID: " + submissionDTO.getRequestId());
-            System.out.println("Results: " + submissionDTO.getResults());
+            log.debug("Saving test results for lab request {}", submissionDTO.getRequestId());
             
             // Get the lab request to extract patient and ward information
             Optional<LabRequest> labRequestOpt = labRequestRepository.findByRequestId(submissionDTO.getRequestId());
             if (!labRequestOpt.isPresent()) {
-                System.err.println("Lab request not found for ID: " + submissionDTO.getRequestId());
                 throw new RuntimeException("Lab request not found for ID: " + submissionDTO.getRequestId());
             }
             
             LabRequest labRequest = labRequestOpt.get();
-            System.out.println("Found lab request: " + labRequest.getPatientName());
             
             Map<String, Object> response = new HashMap<>();
             List<TestResultResponseDTO> savedResults = new ArrayList<>();
+            List<TestResult> savedTestResults = new ArrayList<>();
+            List<TestResultValue> savedValues = new ArrayList<>();
+            List<LabTestDefinitionRegistry.Reading> readings = new ArrayList<>();
             
-            // Parse completion date
-            LocalDateTime completedAt;
-            try {
-                completedAt = LocalDateTime.parse(submissionDTO.getCompletedAt(), 
-                                                              DateTimeFormatter.ISO_DATE_TIME);
-                System.out.println("Parsed completion date: " + completedAt);
-            } catch (Exception e) {
-                System.err.println("Error parsing date: " + submissionDTO.getCompletedAt());
-                throw new RuntimeException("Invalid completion date format: " + submissionDTO.getCompletedAt());
-            }
+            LocalDateTime completedAt = parseCompletedAt(submissionDTO.getCompletedAt());
             
             // Process each test result
             for (Map.Entry<String, Map<String, Object>> entry : submissionDTO.getResults().entrySet()) {
                 String testName = entry.getKey();
                 Map<String, Object> testResults = entry.getValue();
                 
-                System.out.println("Processing test: " + testName);
-                System.out.println("Test results: " + testResults);
-                
                 // Skip if no results for this test
                 if (testResults == null || testResults.isEmpty()) {
-                    System.out.println("Skipping empty test results for: " + testName);
                     continue;
                 }
                 
@@ -91,13 +107,16 @@ public class TestResultService {
                         submissionDTO.getNotes()
                     );
                     
-                    System.out.println("Saving test result to database...");
+                    testResult.setEquipmentId(requestedEquipment(submissionDTO, testName));
+                    equipmentService.assignEquipment(List.of(testResult));
                     testResult = testResultRepository.save(testResult);
-                    System.out.println("Test result saved with ID: " + testResult.getId());
+                    savedTestResults.add(testResult);
+                    slaMonitorService.recordResult(labRequest, testName, completedAt);
                     
-                    // Save specific test results based on test type
-                    Map<String, Object> specificResults = saveSpecificTestResult(testResult, testName, testResults);
-                    System.out.println("Specific results saved: " + specificResults);
+                    // Values are written in one batch once every result has its id
+                    List<TestResultValue> values = definitionRegistry.toValues(testResult, testResults);
+                    savedValues.addAll(values);
+                    readings.addAll(definitionRegistry.toReadings(testResult, values));
                     
                     // Create response DTO
                     TestResultResponseDTO responseDTO = new TestResultResponseDTO(
@@ -110,31 +129,43 @@ public class TestResultService {
                         testResult.getCompletedBy(),
                         testResult.getCompletedAt(),
                         testResult.getNotes(),
-                        specificResults
+                        definitionRegistry.toResultMap(testName, values)
                     );
                     
                     savedResults.add(responseDTO);
-                    System.out.println("Successfully processed test: " + testName);
                     
                 } catch (Exception e) {
-                    System.err.println("Error processing test " + testName + ": " + e.getMessage());
-                    e.printStackTrace();
-                    throw new RuntimeException("Failed to save test result for " + testName + ": " + e.getMessage());
+                    throw new RuntimeException("Failed to save test result for " + testName + ": " + e.getMessage(), e);
                 }
             }
             
+            testResultJdbcRepository.insertResultValues(savedValues);
+            equipmentService.recordCompleted(savedTestResults);
+            labSeriesService.recordResults(readings);
+            Map<Long, Map<LabAnalyte, LabResultFlag>> flags = labResultFlagService.flagResults(readings);
+            for (TestResultResponseDTO savedResult : savedResults) {
+                if (flags.containsKey(savedResult.getId())) {
+                    savedResult.getResults().put("flags", flags.get(savedResult.getId()));
+                }
+            }
+            
+            if (!savedResults.isEmpty()) {
+                LabRequestDeltaDTO delta = new LabRequestDeltaDTO(LabRequestDeltaDTO.Event.RESULTS_SAVED,
+                        labRequest.getRequestId(), labRequest.getWardName(), labRequest.getPatientName(),
+                        labRequest.getStatus());
+                delta.setResultCount(savedResults.size());
+                webSocketService.notifyResultsSaved(delta);
+            }
+            
             response.put("success", true);
             response.put("message", "Test results saved successfully");
             response.put("results", savedResults);
             response.put("totalResults", savedResults.size());
             
-            System.out.println("=== Test result save process completed successfully ===");
             return response;
             
         } catch (Exception e) {
-            System.err.println("=== Error in test result save process ===");
-            System.err.println("Error message: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Failed to save test results for lab request {}", submissionDTO.getRequestId(), e);
             
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("success", false);
@@ -144,77 +175,153 @@ public class TestResultService {
         }
     }
     
-    private Map<String, Object> saveSpecificTestResult(TestResult testResult, String testName, 
-                                                      Map<String, Object> testResults) {
-        Map<String, Object> specificResults = new HashMap<>();
+    /**
+     * Save results for many lab requests at once, e.g. a finished analyser run.
+     *
+     * Submissions are validated and turned into result entities first; invalid ones are
+     * reported back and skipped. The valid rows are then written with batched JDBC inserts
+     * (one batch of results, one batch of their values), the submitted requests are marked
+     * completed with a single UPDATE, and one summary is pushed over WebSocket after commit.
+     */
+    @Transactional
+    public Map<String, Object> saveTestResultsBatch(TestResultBatchDTO batchDTO) {
+        List<TestResultSubmissionDTO> submissions = batchDTO.getSubmissions() != null
+                ? batchDTO.getSubmissions() : List.of();
         
-        try {
-            System.out.println("Saving specific test result for: " + testName);
+        Set<String> requestIds = new HashSet<>();
+        for (TestResultSubmissionDTO submission : submissions) {
+            if (submission.getRequestId() != null) {
+                requestIds.add(submission.getRequestId());
+            }
+        }
+        Map<String, Object[]> headers = new HashMap<>();
+        if (!requestIds.isEmpty()) {
+            for (Object[] header : labRequestRepository.findHeadersByRequestIdIn(requestIds)) {
+                headers.put((String) header[0], header);
+            }
+        }
+        
+        // Validate into result entities, keeping each result's submitted values alongside
+        List<TestResult> testResults = new ArrayList<>();
+        List<Map<String, Object>> submittedValues = new ArrayList<>();
+        List<Map<String, Object>> rejected = new ArrayList<>();
+        Map<String, LocalDateTime> acceptedRequests = new LinkedHashMap<>();
+        
+        for (TestResultSubmissionDTO submission : submissions) {
+            Object[] header = headers.get(submission.getRequestId());
+            String error = null;
+            LocalDateTime completedAt = null;
+            if (header == null) {
+                error = "Lab request not found";
+            } else if (header[5] == LabRequestStatus.CANCELLED) {
+                error = "Lab request is cancelled";
+            } else if (submission.getResults() == null || submission.getResults().isEmpty()) {
+                error = "No results submitted";
+            } else if (acceptedRequests.containsKey(submission.getRequestId())) {
+                error = "Duplicate submission for lab request in this batch";
+            } else {
+                try {
+                    completedAt = parseCompletedAt(submission.getCompletedAt());
+                } catch (RuntimeException e) {
+                    error = e.getMessage();
+                }
+            }
+            if (error != null) {
+                Map<String, Object> rejection = new HashMap<>();
+                rejection.put("requestId", submission.getRequestId());
+                rejection.put("message", error);
+                rejected.add(rejection);
+                continue;
+            }
             
-            switch (testName) {
-                case "Blood Glucose":
-                    BloodGlucoseResult glucoseResult = new BloodGlucoseResult(
-                        testResult,
-                        getDoubleValue(testResults, "glucose"),
-                        (String) testResults.get("testType")
-                    );
-                    glucoseResult = bloodGlucoseResultRepository.save(glucoseResult);
-                    specificResults.put("glucoseLevel", glucoseResult.getGlucoseLevel());
-                    specificResults.put("testType", glucoseResult.getTestType());
-                    break;
-                
-            case "Complete Blood Count":
-                CompleteBloodCountResult cbcResult = new CompleteBloodCountResult(
-                    testResult,
-                    getDoubleValue(testResults, "wbc"),
-                    getDoubleValue(testResults, "rbc"),
-                    getDoubleValue(testResults, "hemoglobin"),
-                    getIntegerValue(testResults, "platelets")
-                );
-                cbcResult = cbcResultRepository.save(cbcResult);
-                specificResults.put("wbc", cbcResult.getWbc());
-                specificResults.put("rbc", cbcResult.getRbc());
-                specificResults.put("hemoglobin", cbcResult.getHemoglobin());
-                specificResults.put("platelets", cbcResult.getPlatelets());
-                break;
-                
-            case "Urine Analysis":
-                UrineAnalysisResult urineResult = new UrineAnalysisResult(
-                    testResult,
-                    (String) testResults.get("protein"),
-                    (String) testResults.get("urineGlucose"),
-                    getDoubleValue(testResults, "specificGravity"),
-                    getDoubleValue(testResults, "ph")
-                );
-                urineResult = urineAnalysisResultRepository.save(urineResult);
-                specificResults.put("protein", urineResult.getProtein());
-                specificResults.put("urineGlucose", urineResult.getUrineGlucose());
-                specificResults.put("specificGravity", urineResult.getSpecificGravity());
-                specificResults.put("ph", urineResult.getPh());
-                break;
-                
-            case "Cholesterol Level":
-                CholesterolLevelResult cholesterolResult = new CholesterolLevelResult(
-                    testResult,
-                    getIntegerValue(testResults, "totalCholesterol"),
-                    getIntegerValue(testResults, "hdlCholesterol"),
-                    getIntegerValue(testResults, "ldlCholesterol"),
-                    getIntegerValue(testResults, "triglycerides")
+            acceptedRequests.put(submission.getRequestId(), (LocalDateTime) header[4]);
+            for (Map.Entry<String, Map<String, Object>> entry : submission.getResults().entrySet()) {
+                if (entry.getValue() == null || entry.getValue().isEmpty()) {
+                    continue;
+                }
+                TestResult testResult = new TestResult(
+                    submission.getRequestId(),
+                    entry.getKey(),
+                    (String) header[1],
+                    (String) header[2],
+                    (String) header[3],
+                    submission.getCompletedBy(),
+                    completedAt,
+                    submission.getNotes()
                 );
-                cholesterolResult = cholesterolResultRepository.save(cholesterolResult);
-                specificResults.put("totalCholesterol", cholesterolResult.getTotalCholesterol());
-                specificResults.put("hdlCholesterol", cholesterolResult.getHdlCholesterol());
-                specificResults.put("ldlCholesterol", cholesterolResult.getLdlCholesterol());
-                specificResults.put("triglycerides", cholesterolResult.getTriglycerides());
-                break;
+                testResult.setEquipmentId(requestedEquipment(submission, entry.getKey()));
+                testResults.add(testResult);
+                submittedValues.add(entry.getValue());
             }
-            
-            return specificResults;
-            
+        }
+        
+        // Results first so the values can reference the generated ids
+        equipmentService.assignEquipment(testResults);
+        testResultJdbcRepository.insertTestResults(testResults);
+        List<TestResultValue> values = new ArrayList<>();
+        List<LabTestDefinitionRegistry.Reading> readings = new ArrayList<>();
+        for (int i = 0; i < testResults.size(); i++) {
+            List<TestResultValue> resultValues = definitionRegistry.toValues(testResults.get(i), submittedValues.get(i));
+            values.addAll(resultValues);
+            readings.addAll(definitionRegistry.toReadings(testResults.get(i), resultValues));
+        }
+        testResultJdbcRepository.insertResultValues(values);
+        equipmentService.recordCompleted(testResults);
+        labSeriesService.recordResults(readings);
+        labResultFlagService.flagResults(readings);
+        
+        int completedRequests = 0;
+        if (batchDTO.isMarkCompleted() && !acceptedRequests.isEmpty()) {
+            completedRequests = labRequestRepository.updateStatusByRequestIdIn(
+                    acceptedRequests.keySet(), LabRequestStatus.COMPLETED, LocalDateTime.now());
+        }
+        
+        Map<String, Integer> resultsByWard = new TreeMap<>();
+        Map<String, Integer> resultsByRequest = new HashMap<>();
+        for (TestResult testResult : testResults) {
+            resultsByWard.merge(testResult.getWardName(), 1, Integer::sum);
+            resultsByRequest.merge(testResult.getRequestId(), 1, Integer::sum);
+        }
+        
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("requestIds", new ArrayList<>(acceptedRequests.keySet()));
+        summary.put("totalRequests", acceptedRequests.size());
+        summary.put("totalResults", testResults.size());
+        summary.put("completedRequests", completedRequests);
+        summary.put("resultsByWard", resultsByWard);
+        
+        slaMonitorService.recordResults(testResults, acceptedRequests,
+                batchDTO.isMarkCompleted() ? acceptedRequests.keySet() : Set.of());
+        if (!testResults.isEmpty()) {
+            webSocketService.notifyTestResultsBatch(summary);
+        }
+        for (Map.Entry<String, Integer> requestResults : resultsByRequest.entrySet()) {
+            Object[] header = headers.get(requestResults.getKey());
+            LabRequestDeltaDTO delta = new LabRequestDeltaDTO(LabRequestDeltaDTO.Event.RESULTS_SAVED,
+                    requestResults.getKey(), (String) header[3], (String) header[2],
+                    batchDTO.isMarkCompleted() ? LabRequestStatus.COMPLETED : (LabRequestStatus) header[5]);
+            delta.setResultCount(requestResults.getValue());
+            webSocketService.notifyResultsSaved(delta);
+        }
+        
+        Map<String, Object> response = new HashMap<>(summary);
+        response.put("success", rejected.isEmpty());
+        response.put("message", rejected.isEmpty()
+                ? "Test results saved successfully"
+                : rejected.size() + " of " + submissions.size() + " submissions were rejected");
+        response.put("rejected", rejected);
+        return response;
+    }
+    
+    private static String requestedEquipment(TestResultSubmissionDTO submission, String testName) {
+        return submission.getEquipment() != null ? submission.getEquipment().get(testName) : null;
+    }
+    
+    private static LocalDateTime parseCompletedAt(String completedAt) {
+        try {
+            return LocalDateTime.parse(completedAt, DateTimeFormatter.ISO_DATE_TIME);
         } catch (Exception e) {
-            System.err.println("Error saving specific test result for " + testName + ": " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to save specific test result for " + testName + ": " + e.getMessage());
+            throw new RuntimeException("Invalid completion date format: " + completedAt);
         }
     }
     
@@ -223,6 +330,15 @@ public class TestResultService {
         return convertToResponseDTOs(testResults);
     }
     
+    /**
+     * One page of a patient's test results, most recent first
+     */
+    @Transactional(readOnly = true)
+    public Page<TestResultResponseDTO> getTestResultsByPatient(String patientNationalId, Pageable pageable) {
+        Page<TestResult> page = testResultRepository.findByPatientNationalId(patientNationalId, byCompletedAtDesc(pageable));
+        return new PageImpl<>(convertToResponseDTOs(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+    
     public List<TestResultResponseDTO> getTestResultsByRequestId(String requestId) {
         List<TestResult> testResults = testResultRepository.findByRequestId(requestId);
         return convertToResponseDTOs(testResults);
@@ -234,12 +350,24 @@ public class TestResultService {
         return convertToResponseDTOs(testResults);
     }
     
+    /**
+     * One page of all test results, most recent first
+     */
+    @Transactional(readOnly = true)
+    public Page<TestResultResponseDTO> getTestResults(Pageable pageable) {
+        Page<TestResult> page = testResultRepository.findAll(byCompletedAtDesc(pageable));
+        return new PageImpl<>(convertToResponseDTOs(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+    
+    /**
+     * Converts a batch of test results, loading the values of every result with one
+     * query instead of one query per result.
+     */
     private List<TestResultResponseDTO> convertToResponseDTOs(List<TestResult> testResults) {
-        List<TestResultResponseDTO> responseDTOs = new ArrayList<>();
+        Map<Long, Map<String, Object>> specificResults = loadSpecificTestResults(testResults);
+        List<TestResultResponseDTO> responseDTOs = new ArrayList<>(testResults.size());
         
         for (TestResult testResult : testResults) {
-            Map<String, Object> specificResults = getSpecificTestResults(testResult);
-            
             TestResultResponseDTO dto = new TestResultResponseDTO(
                 testResult.getId(),
                 testResult.getRequestId(),
@@ -250,7 +378,7 @@ public class TestResultService {
                 testResult.getCompletedBy(),
                 testResult.getCompletedAt(),
                 testResult.getNotes(),
-                specificResults
+                specificResults.getOrDefault(testResult.getId(), new HashMap<>())
             );
             
             responseDTOs.add(dto);
@@ -259,123 +387,70 @@ public class TestResultService {
         return responseDTOs;
     }
     
-    private Map<String, Object> getSpecificTestResults(TestResult testResult) {
-        Map<String, Object> specificResults = new HashMap<>();
+    private Map<Long, Map<String, Object>> loadSpecificTestResults(List<TestResult> testResults) {
+        if (testResults.isEmpty()) {
+            return new HashMap<>();
+        }
+        List<Long> ids = new ArrayList<>(testResults.size());
+        for (TestResult testResult : testResults) {
+            ids.add(testResult.getId());
+        }
         
-        switch (testResult.getTestName()) {
-            case "Blood Glucose":
-                BloodGlucoseResult glucoseResult = bloodGlucoseResultRepository.findByTestResultId(testResult.getId());
-                if (glucoseResult != null) {
-                    specificResults.put("glucoseLevel", glucoseResult.getGlucoseLevel());
-                    specificResults.put("testType", glucoseResult.getTestType());
-                }
-                break;
-                
-            case "Complete Blood Count":
-                CompleteBloodCountResult cbcResult = cbcResultRepository.findByTestResultId(testResult.getId());
-                if (cbcResult != null) {
-                    specificResults.put("wbc", cbcResult.getWbc());
-                    specificResults.put("rbc", cbcResult.getRbc());
-                    specificResults.put("hemoglobin", cbcResult.getHemoglobin());
-                    specificResults.put("platelets", cbcResult.getPlatelets());
-                }
-                break;
-                
-            case "Urine Analysis":
-                UrineAnalysisResult urineResult = urineAnalysisResultRepository.findByTestResultId(testResult.getId());
-                if (urineResult != null) {
-                    specificResults.put("protein", urineResult.getProtein());
-                    specificResults.put("urineGlucose", urineResult.getUrineGlucose());
-                    specificResults.put("specificGravity", urineResult.getSpecificGravity());
-                    specificResults.put("ph", urineResult.getPh());
-                }
-                break;
-                
-            case "Cholesterol Level":
-                CholesterolLevelResult cholesterolResult = cholesterolResultRepository.findByTestResultId(testResult.getId());
-                if (cholesterolResult != null) {
-                    specificResults.put("totalCholesterol", cholesterolResult.getTotalCholesterol());
-                    specificResults.put("hdlCholesterol", cholesterolResult.getHdlCholesterol());
-                    specificResults.put("ldlCholesterol", cholesterolResult.getLdlCholesterol());
-                    specificResults.put("triglycerides", cholesterolResult.getTriglycerides());
-                }
-                break;
+        Map<Long, List<TestResultValue>> valuesByResult = new HashMap<>();
+        for (TestResultValue value : testResultValueRepository.findByTestResultIdIn(ids)) {
+            valuesByResult.computeIfAbsent(value.getTestResultId(), id -> new ArrayList<>()).add(value);
         }
         
+        Map<Long, Map<String, Object>> specificResults = new HashMap<>();
+        for (TestResult testResult : testResults) {
+            List<TestResultValue> values = valuesByResult.getOrDefault(testResult.getId(), List.of());
+            if (!values.isEmpty() || definitionRegistry.getTest(testResult.getTestName()) != null) {
+                specificResults.put(testResult.getId(), definitionRegistry.toResultMap(testResult.getTestName(), values));
+            }
+        }
         return specificResults;
     }
     
+    private static Pageable byCompletedAtDesc(Pageable pageable) {
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : NEWEST_FIRST;
+        if (sort.getOrderFor("id") == null) {
+            sort = sort.and(Sort.by(Sort.Direction.DESC, "id"));
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort);
+    }
+    
     /**
-     * Get all test results in the system
+     * Get the most recent test results in the system, at most limit of them and never more
+     * than MAX_ALL_RESULTS, as one page whose total is every result in the system; when it
+     * has a next page the list was cut short and getTestResults pages through the rest.
+     * Read page by page so each page costs one query for the results plus one for their values.
      */
-    public List<TestResultResponseDTO> getAllTestResults() {
+    @Transactional(readOnly = true)
+    public Page<TestResultResponseDTO> getAllTestResults(int limit) {
         try {
-            List<TestResult> testResults = testResultRepository.findAll();
-            List<TestResultResponseDTO> responseList = new ArrayList<>();
-            
-            for (TestResult testResult : testResults) {
-                Map<String, Object> specificResults = getSpecificTestResults(testResult);
-                
-                TestResultResponseDTO responseDTO = new TestResultResponseDTO(
-                    testResult.getId(),
-                    testResult.getRequestId(),
-                    testResult.getTestName(),
-                    testResult.getPatientNationalId(),
-                    testResult.getPatientName(),
-                    testResult.getWardName(),
-                    testResult.getCompletedBy(),
-                    testResult.getCompletedAt(),
-                    testResult.getNotes(),
-                    specificResults
-                );
-                
-                responseList.add(responseDTO);
-            }
-            
-            // Sort by completion date (most recent first)
-            responseList.sort((a, b) -> b.getCompletedAt().compareTo(a.getCompletedAt()));
+            int cap = Math.max(1, Math.min(limit, MAX_ALL_RESULTS));
+            int remaining = cap;
+            List<TestResultResponseDTO> responseList = new ArrayList<>(Math.min(remaining, ALL_RESULTS_PAGE_SIZE));
+            Pageable pageable = PageRequest.of(0, ALL_RESULTS_PAGE_SIZE, NEWEST_FIRST);
+            Page<TestResult> page;
+            do {
+                page = testResultRepository.findAll(pageable);
+                List<TestResult> content = page.getContent();
+                if (content.size() > remaining) {
+                    content = content.subList(0, remaining);
+                }
+                responseList.addAll(convertToResponseDTOs(content));
+                remaining -= content.size();
+                pageable = page.nextPageable();
+            } while (page.hasNext() && remaining > 0);
             
-            return responseList;
+            return new PageImpl<>(responseList, PageRequest.of(0, cap, NEWEST_FIRST), page.getTotalElements());
         } catch (Exception e) {
-            System.err.println("Error fetching all test results: " + e.getMessage());
-            e.printStackTrace();
-            return new ArrayList<>();
+            log.error("Error fetching all test results", e);
+            return Page.empty();
         }
     }
 
-    // Helper methods for type conversion
-    private Double getDoubleValue(Map<String, Object> map, String key) {
-        Object value = map.get(key);
-        if (value == null) return null;
-        if (value instanceof String) {
-            try {
-                return Double.parseDouble((String) value);
-            } catch (NumberFormatException e) {
-                return null;
-            }
-        }
-        if (value instanceof Number) {
-            return ((Number) value).doubleValue();
-        }
-        return null;
-    }
-    
-    private Integer getIntegerValue(Map<String, Object> map, String key) {
-        Object value = map.get(key);
-        if (value == null) return null;
-        if (value instanceof String) {
-            try {
-                return Integer.parseInt((String) value);
-            } catch (NumberFormatException e) {
-                return null;
-            }
-        }
-        if (value instanceof Number) {
-            return ((Number) value).intValue();
-        }
-        return null;
-    }
-
     /**
      * Create sample test data for demonstration
      */
@@ -395,14 +470,7 @@ public class TestResultService {
                 now.minusHours(2),
                 "Fasting glucose test - normal results"
             );
-            glucoseTest = testResultRepository.save(glucoseTest);
-            
-            BloodGlucoseResult glucoseResult = new BloodGlucoseResult(
-                glucoseTest,
-                95.0,
-                "fasting"
-            );
-            bloodGlucoseResultRepository.save(glucoseResult);
+            saveSampleResult(glucoseTest, Map.of("glucose", 95.0, "testType", "fasting"));
             sampleResults.add("Blood Glucose test for John Doe");
 
             // Sample Complete Blood Count
@@ -416,16 +484,7 @@ public class TestResultService {
                 now.minusHours(1),
                 "Routine CBC - all parameters normal"
             );
-            cbcTest = testResultRepository.save(cbcTest);
-            
-            CompleteBloodCountResult cbcResult = new CompleteBloodCountResult(
-                cbcTest,
-                7.5,
-                4.8,
-                14.2,
-                350000
-            );
-            cbcResultRepository.save(cbcResult);
+            saveSampleResult(cbcTest, Map.of("wbc", 7.5, "rbc", 4.8, "hemoglobin", 14.2, "platelets", 350000));
             sampleResults.add("Complete Blood Count for Jane Smith");
 
             // Sample Urine Analysis
@@ -439,16 +498,8 @@ public class TestResultService {
                 now.minusMinutes(30),
                 "Routine urine analysis - no abnormalities detected"
             );
-            urineTest = testResultRepository.save(urineTest);
-            
-            UrineAnalysisResult urineResult = new UrineAnalysisResult(
-                urineTest,
-                "negative",
-                "negative",
-                1.020,
-                6.5
-            );
-            urineAnalysisResultRepository.save(urineResult);
+            saveSampleResult(urineTest, Map.of("protein", "negative", "urineGlucose", "negative",
+                    "specificGravity", 1.020, "ph", 6.5));
             sampleResults.add("Urine Analysis for Bob Wilson");
 
             // Sample Cholesterol Test
@@ -462,16 +513,8 @@ public class TestResultService {
                 now.minusMinutes(15),
                 "Lipid profile - slightly elevated LDL, recommend dietary changes"
             );
-            cholesterolTest = testResultRepository.save(cholesterolTest);
-            
-            CholesterolLevelResult cholesterolResult = new CholesterolLevelResult(
-                cholesterolTest,
-                220,
-                45,
-                150,
-                125
-            );
-            cholesterolResultRepository.save(cholesterolResult);
+            saveSampleResult(cholesterolTest, Map.of("totalCholesterol", 220, "hdlCholesterol", 45,
+                    "ldlCholesterol", 150, "triglycerides", 125));
             sampleResults.add("Cholesterol Level for Alice Johnson");
 
             return Map.of(
@@ -482,12 +525,16 @@ public class TestResultService {
             );
             
         } catch (Exception e) {
-            System.err.println("Error creating sample test data: " + e.getMessage());
-            e.printStackTrace();
+            log.error("Error creating sample test data", e);
             return Map.of(
                 "success", false,
                 "message", "Failed to create sample data: " + e.getMessage()
             );
         }
     }
-}
\ No newline at end of file
+    
+    private void saveSampleResult(TestResult testResult, Map<String, Object> values) {
+        TestResult saved = testResultRepository.save(testResult);
+        testResultValueRepository.saveAll(definitionRegistry.toValues(saved, values));
+    }
+}
@@ -0,0 +1,299 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.DTO.transferDTO.TransferFlowDTO;
+import com.HMS.HMS.DTO.transferDTO.TransferFlowMatrixDTO;
+import com.HMS.HMS.DTO.transferDTO.WardTransferSummaryDTO;
+import com.HMS.HMS.model.ward.Ward;
+import com.HMS.HMS.repository.TransferRepository;
+import com.HMS.HMS.repository.WardRepository;
+import com.HMS.HMS.util.QuantileSketch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import static com.HMS.HMS.util.TransactionCallbacks.afterCommit;
+
+/**
+ * In-memory ward-to-ward transfer counts, loaded from the transfers table on startup and
+ * kept current by instant transfers and bulk imports as they commit.
+ *
+ * Every transfer is counted in a cell for its day and a cell for its month. A cell holds
+ * the transfer count per (from ward, to ward) pair and a QuantileSketch per from ward of
+ * the hours the patient spent in that admission before the transfer. A date range is
+ * answered from the month cells it covers whole and the day cells of the months it
+ * covers in part, so a year's figures for a ward report merge twelve cells and need no
+ * query.
+ *
+ * Transfers that commit while a load streams the table are buffered and replayed onto the
+ * loaded counts before they replace the live ones; a replayed transfer whose id the stream
+ * already returned is skipped so it is counted once.
+ */
+@Service
+public class TransferFlowService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferFlowService.class);
+
+    private final TransferRepository transferRepository;
+    private final WardRepository wardRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Flows flows = new Flows();
+    // Transfers committed while a load is running, or null when none is
+    private List<Flow> pending;
+
+    public TransferFlowService(TransferRepository transferRepository, WardRepository wardRepository) {
+        this.transferRepository = transferRepository;
+        this.wardRepository = wardRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Flows loaded = new Flows();
+        BitSet streamed = new BitSet();
+        try {
+            try (Stream<Object[]> rows = transferRepository.streamFlowRows()) {
+                rows.forEach(row -> {
+                    Flow flow = new Flow((Long) row[0], (Long) row[1], (Long) row[2],
+                            (LocalDateTime) row[3], (LocalDateTime) row[4]);
+                    loaded.add(flow);
+                    streamed.set(Math.toIntExact(flow.transferId()));
+                });
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (Flow flow : pending) {
+                    if (flow.transferId() == null || !streamed.get(Math.toIntExact(flow.transferId()))) {
+                        loaded.add(flow);
+                    }
+                }
+                flows = loaded;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Loaded transfer flows for {} transfers", loaded.transfers);
+    }
+
+    /**
+     * Count a transfer once the current transaction commits
+     */
+    public void record(Flow flow) {
+        recordAll(List.of(flow));
+    }
+
+    public void recordAll(Collection<Flow> transfers) {
+        List<Flow> recorded = List.copyOf(transfers);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                recorded.forEach(flows::add);
+                if (pending != null) {
+                    pending.addAll(recorded);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Transfers between every pair of wards from startDate to endDate inclusive
+     */
+    public TransferFlowMatrixDTO getFlowMatrix(LocalDate startDate, LocalDate endDate) {
+        FlowCell cell = between(startDate, endDate);
+        Map<Long, String> wardNames = wardNames();
+
+        List<TransferFlowDTO> matrix = new ArrayList<>();
+        cell.counts.forEach((fromWardId, row) -> row.forEach((toWardId, count) -> matrix.add(new TransferFlowDTO(
+                fromWardId, wardNames.get(fromWardId), toWardId, wardNames.get(toWardId), count))));
+        matrix.sort(Comparator.comparingLong(TransferFlowDTO::getTransfers).reversed()
+                .thenComparing(TransferFlowDTO::getFromWardId)
+                .thenComparing(TransferFlowDTO::getToWardId));
+        return new TransferFlowMatrixDTO(startDate, endDate, cell.total, matrix);
+    }
+
+    /**
+     * Transfers into and out of a ward from startDate to endDate inclusive, and the median
+     * and 90th percentile hours before its patients were transferred out
+     */
+    public WardTransferSummaryDTO getWardSummary(Long wardId, LocalDate startDate, LocalDate endDate) {
+        Ward ward = wardRepository.findById(wardId)
+                .orElseThrow(() -> new IllegalArgumentException("Ward with ID " + wardId + " not found"));
+        FlowCell cell = between(startDate, endDate);
+        TransferCounts counts = cell.inOut(Set.of(wardId));
+        QuantileSketch hours = cell.hoursBeforeTransfer.getOrDefault(wardId, new QuantileSketch());
+
+        WardTransferSummaryDTO summary = new WardTransferSummaryDTO();
+        summary.setWardId(wardId);
+        summary.setWardName(ward.getWardName());
+        summary.setStartDate(startDate);
+        summary.setEndDate(endDate);
+        summary.setTransfersIn(counts.in());
+        summary.setTransfersOut(counts.out());
+        summary.setMedianHoursBeforeTransfer(Math.round(hours.quantile(0.5) * 10.0) / 10.0);
+        summary.setP90HoursBeforeTransfer(Math.round(hours.quantile(0.9) * 10.0) / 10.0);
+        return summary;
+    }
+
+    /**
+     * Transfers into the wards from other wards, and out of them to other wards, from
+     * startDate to endDate inclusive
+     */
+    public TransferCounts countTransfers(Collection<Long> wardIds, LocalDate startDate, LocalDate endDate) {
+        if (wardIds.isEmpty()) {
+            return new TransferCounts(0, 0);
+        }
+        return between(startDate, endDate).inOut(new HashSet<>(wardIds));
+    }
+
+    // Helper methods
+    private FlowCell between(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        lock.readLock().lock();
+        try {
+            return flows.between(startDate, endDate);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, String> wardNames() {
+        Map<Long, String> names = new HashMap<>();
+        for (Ward ward : wardRepository.findAll()) {
+            names.put(ward.getWardId(), ward.getWardName());
+        }
+        return names;
+    }
+
+    /**
+     * One transfer: its id when known, the wards, when it happened and when the patient was
+     * admitted to the ward they left
+     */
+    public record Flow(Long transferId, Long fromWardId, Long toWardId, LocalDateTime transferDate,
+                       LocalDateTime admittedAt) {}
+
+    public record TransferCounts(long in, long out) {}
+
+    /**
+     * Day and month cells of every transfer
+     */
+    private static final class Flows {
+
+        private final Map<Long, FlowCell> days = new HashMap<>();
+        private final Map<Long, FlowCell> months = new HashMap<>();
+        private long transfers;
+
+        void add(Flow flow) {
+            if (flow.fromWardId() == null || flow.toWardId() == null || flow.transferDate() == null) {
+                return;
+            }
+            LocalDate date = flow.transferDate().toLocalDate();
+            days.computeIfAbsent(date.toEpochDay(), day -> new FlowCell()).add(flow);
+            months.computeIfAbsent(monthKey(YearMonth.from(date)), month -> new FlowCell()).add(flow);
+            transfers++;
+        }
+
+        FlowCell between(LocalDate startDate, LocalDate endDate) {
+            FlowCell total = new FlowCell();
+            for (YearMonth month = YearMonth.from(startDate); !month.isAfter(YearMonth.from(endDate)); month = month.plusMonths(1)) {
+                LocalDate first = month.atDay(1);
+                LocalDate last = month.atEndOfMonth();
+                if (!first.isBefore(startDate) && !last.isAfter(endDate)) {
+                    total.merge(months.get(monthKey(month)));
+                    continue;
+                }
+                long lastDay = (last.isAfter(endDate) ? endDate : last).toEpochDay();
+                for (long day = (first.isBefore(startDate) ? startDate : first).toEpochDay(); day <= lastDay; day++) {
+                    total.merge(days.get(day));
+                }
+            }
+            return total;
+        }
+
+        private static long monthKey(YearMonth month) {
+            return month.getYear() * 12L + month.getMonthValue() - 1;
+        }
+    }
+
+    /**
+     * Transfer counts per (from ward, to ward) and hours before transfer per from ward
+     */
+    private static final class FlowCell {
+
+        private final Map<Long, Map<Long, Long>> counts = new HashMap<>();
+        private final Map<Long, QuantileSketch> hoursBeforeTransfer = new HashMap<>();
+        private long total;
+
+        void add(Flow flow) {
+            counts.computeIfAbsent(flow.fromWardId(), from -> new HashMap<>()).merge(flow.toWardId(), 1L, Long::sum);
+            total++;
+            if (flow.admittedAt() != null && !flow.admittedAt().isAfter(flow.transferDate())) {
+                double hours = Duration.between(flow.admittedAt(), flow.transferDate()).toMinutes() / 60.0;
+                hoursBeforeTransfer.computeIfAbsent(flow.fromWardId(), from -> new QuantileSketch()).add(hours);
+            }
+        }
+
+        void merge(FlowCell other) {
+            if (other == null) {
+                return;
+            }
+            other.counts.forEach((from, row) -> {
+                Map<Long, Long> target = counts.computeIfAbsent(from, f -> new HashMap<>());
+                row.forEach((to, count) -> target.merge(to, count, Long::sum));
+            });
+            other.hoursBeforeTransfer.forEach((from, sketch) ->
+                    hoursBeforeTransfer.computeIfAbsent(from, f -> new QuantileSketch()).merge(sketch));
+            total += other.total;
+        }
+
+        /**
+         * Transfers into the wards from outside them and out of them to outside them
+         */
+        TransferCounts inOut(Set<Long> wardIds) {
+            long in = 0;
+            long out = 0;
+            for (Map.Entry<Long, Map<Long, Long>> row : counts.entrySet()) {
+                boolean fromInside = wardIds.contains(row.getKey());
+                for (Map.Entry<Long, Long> cell : row.getValue().entrySet()) {
+                    boolean toInside = wardIds.contains(cell.getKey());
+                    if (fromInside && !toInside) {
+                        out += cell.getValue();
+                    } else if (!fromInside && toInside) {
+                        in += cell.getValue();
+                    }
+                }
+            }
+            return new TransferCounts(in, out);
+        }
+    }
+}
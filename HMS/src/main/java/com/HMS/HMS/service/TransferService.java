@@ -1,6 +1,7 @@
 package com.HMS.HMS.service;
 
 import com.HMS.HMS.DTO.AdmissionDTO.AdmissionResponseDTO;
+import com.HMS.HMS.DTO.KeysetPageDTO;
 import com.HMS.HMS.DTO.transferDTO.TransferRequestDTO;
 import com.HMS.HMS.DTO.transferDTO.TransferResponseDTO;
 import com.HMS.HMS.model.Admission.Admission;
@@ -12,6 +13,8 @@ import com.HMS.HMS.repository.TransferRepository;
 import com.HMS.HMS.repository.WardRepository;
 import com.HMS.HMS.websocket.AdmissionNotificationService;
 import jakarta.transaction.Transactional;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -26,16 +29,24 @@ public class TransferService {
     private final AdmissionRepository admissionRepository;
     private final WardRepository wardRepository;
     private final AdmissionNotificationService notificationService;
-
+    private final BedBoardService bedBoardService;
+    private final TransferFlowService transferFlowService;
+    private final WardCensusService wardCensusService;
 
     public TransferService(TransferRepository transferRepository, 
                           AdmissionRepository admissionRepository, 
                           WardRepository wardRepository,
-                          AdmissionNotificationService notificationService) {
+                          AdmissionNotificationService notificationService,
+                          BedBoardService bedBoardService,
+                          TransferFlowService transferFlowService,
+                          WardCensusService wardCensusService) {
         this.transferRepository = transferRepository;
         this.admissionRepository = admissionRepository;
         this.wardRepository = wardRepository;
         this.notificationService = notificationService;
+        this.bedBoardService = bedBoardService;
+        this.transferFlowService = transferFlowService;
+        this.wardCensusService = wardCensusService;
     }
 
     public TransferResponseDTO transferPatientInstantly(TransferRequestDTO request){
@@ -52,7 +63,8 @@ public class TransferService {
             throw new IllegalArgumentException("Bed number is required for transfer");
         }
 
-        if (isBedOccupied(request.getNewWardId(),request.getNewBedNumber())){
+        // Take the new bed on the bed board; it is given back if the transfer rolls back
+        if (!bedBoardService.reserve(newWard.getWardId(), request.getNewBedNumber())){
             throw new IllegalArgumentException("Bed " + request.getNewBedNumber() +
                     " in ward " + newWard.getWardName() + " is already occupied");
         }
@@ -66,6 +78,7 @@ public class TransferService {
         currentAdmission.setStatus(AdmissionStatus.TRANSFERRED);
         currentAdmission.setDischargeDate(LocalDateTime.now());
         admissionRepository.save(currentAdmission);
+        bedBoardService.release(oldWard.getWardId(), oldBedNumber);
 
         Admission newAdmission = new Admission(
                 currentAdmission.getPatient(),
@@ -73,7 +86,13 @@ public class TransferService {
                 request.getNewBedNumber().trim()
         );
         newAdmission.setStatus(AdmissionStatus.ACTIVE);
-        Admission savedNewAdmission = admissionRepository.save(newAdmission);
+        Admission savedNewAdmission;
+        try {
+            savedNewAdmission = admissionRepository.save(newAdmission);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Bed " + request.getNewBedNumber() +
+                    " in ward " + newWard.getWardName() + " is already occupied");
+        }
 
         Transfer transfer = new Transfer(
                 currentAdmission.getPatient(),
@@ -87,9 +106,15 @@ public class TransferService {
         );
 
         Transfer savedTransfer = transferRepository.save(transfer);
+        transferFlowService.record(new TransferFlowService.Flow(savedTransfer.getTransferId(),
+                oldWard.getWardId(), newWard.getWardId(),
+                savedTransfer.getTransferDate() != null ? savedTransfer.getTransferDate() : LocalDateTime.now(),
+                currentAdmission.getAdmissionDate()));
+        wardCensusService.recordDeparture(oldWard.getWardId(), AdmissionStatus.TRANSFERRED,
+                currentAdmission.getAdmissionDate(), currentAdmission.getDischargeDate());
+        wardCensusService.recordAdmission(newWard.getWardId(), true);
 
-        currentAdmission.getPatient().addAdmission(savedNewAdmission);
-        newWard.addAdmission(savedNewAdmission);
+        currentAdmission.getPatient().setCurrentAdmissionId(savedNewAdmission.getAdmissionId());
 
         TransferResponseDTO transferResponse = convertToResponseDTO(savedTransfer);
         
@@ -117,28 +142,25 @@ public class TransferService {
     }
 
     public List<TransferResponseDTO> getWardTransfers(Long wardId){
-        List<Transfer> fromTransfers = transferRepository.findByFromWardWardId(wardId);
-        List<Transfer> toTransfers = transferRepository.findByToWardWardId(wardId);
-
-        fromTransfers.addAll(toTransfers);
-        return fromTransfers.stream()
-                .distinct()
+        return transferRepository.findWardTransfers(wardId)
+                .stream()
                 .map(this::convertToResponseDTO)
-                .sorted((t1,t2) -> t2.getTransferDate().compareTo(t1.getTransferDate()))
                 .collect(Collectors.toList());
     }
 
     public List<TransferResponseDTO> getAllTransfers(){
-        return transferRepository.findAll()
-                .stream()
-                .map(this::convertToResponseDTO)
-                .collect(Collectors.toList());
+        return transferRepository.findAllResponses();
     }
 
-    private boolean isBedOccupied(Long wardId, String bedNumber){
-        return admissionRepository.existsByWardWardIdAndBedNumberAndStatus(
-                wardId,bedNumber.trim(),AdmissionStatus.ACTIVE
-        );
+    /**
+     * One page of transfers, newest first, from the cursor of the previous page (null for
+     * the first). One query per page whatever the table size.
+     */
+    public KeysetPageDTO<TransferResponseDTO> getTransferPage(Long cursor, int size) {
+        int pageSize = KeysetPageDTO.pageSize(size);
+        List<TransferResponseDTO> rows = transferRepository.findResponsesBefore(
+                cursor != null ? cursor : Long.MAX_VALUE, PageRequest.of(0, pageSize + 1));
+        return new KeysetPageDTO<>(rows, pageSize, TransferResponseDTO::getTransferId);
     }
 
     private Admission getAdmissionByIdOrThrow(Long admissionId) {
@@ -0,0 +1,593 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.model.Admission.AdmissionStatus;
+import com.HMS.HMS.model.ward.Ward;
+import com.HMS.HMS.model.ward.WardCensus;
+import com.HMS.HMS.repository.AdmissionRepository;
+import com.HMS.HMS.repository.WardCensusJdbcRepository;
+import com.HMS.HMS.repository.WardCensusRepository;
+import com.HMS.HMS.repository.WardRepository;
+import com.HMS.HMS.util.QuantileSketch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static com.HMS.HMS.util.TransactionCallbacks.afterCommit;
+
+/**
+ * Daily ward census: per ward and day the beds, the beds occupied at midnight and the
+ * admissions, discharges and transfers of the day, stored in ward_census so occupancy,
+ * bed utilization and length of stay over any range are sums over its rows.
+ *
+ * The current day is kept in memory and counted as admissions, transfers and discharges
+ * commit, each discharge adding its length of stay to the ward's sketch for the day. At
+ * midnight the day is written as one row per ward, with the ward's bed count at that
+ * time as its capacity, and the next day starts from its occupied beds. Days missing on
+ * startup, and days a bulk import of older admissions marked stale, are rebuilt from the
+ * admissions in one streamed pass that counts arrivals and departures per ward and day
+ * and runs the occupied beds forward, then written in JDBC batches. A rebuild keeps the
+ * movements the current day has counted and only moves its occupied beds to start from
+ * the rebuilt previous day; the current day is taken from the admissions only on
+ * startup, before it is counted live. A day whose write fails is marked stale and
+ * written by the next rebuild.
+ */
+@Service
+public class WardCensusService {
+
+    private static final Logger log = LoggerFactory.getLogger(WardCensusService.class);
+
+    private final WardCensusRepository censusRepository;
+    private final WardCensusJdbcRepository censusJdbcRepository;
+    private final AdmissionRepository admissionRepository;
+    private final WardRepository wardRepository;
+    private final TransactionTemplate transaction;
+
+    private final Object lock = new Object();
+    private Day today = new Day(LocalDate.now());
+    // Whether today has been counted since it began, by closeDay or a rebuild, rather than since startup
+    private boolean todayCounted;
+    private LocalDate staleFrom;
+
+    public WardCensusService(WardCensusRepository censusRepository, WardCensusJdbcRepository censusJdbcRepository,
+                             AdmissionRepository admissionRepository, WardRepository wardRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.censusRepository = censusRepository;
+        this.censusJdbcRepository = censusJdbcRepository;
+        this.admissionRepository = admissionRepository;
+        this.wardRepository = wardRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Write the days since the last stored census, or since the first admission when
+     * there is none, and start the current day
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        LocalDate latest = censusRepository.findLatestCensusDate();
+        if (latest != null) {
+            rebuildFrom(latest.plusDays(1));
+            return;
+        }
+        LocalDateTime earliest = admissionRepository.findEarliestAdmissionDate();
+        rebuildFrom(earliest != null ? earliest.toLocalDate() : LocalDate.now());
+    }
+
+    /**
+     * Write the day that just ended and start the next one from its occupied beds
+     */
+    @Scheduled(cron = "0 0 0 * * *")
+    public void closeDay() {
+        LocalDate date = LocalDate.now();
+        Day closed;
+        synchronized (lock) {
+            if (!today.date.isBefore(date)) {
+                return;
+            }
+            closed = today;
+            today = closed.next(date);
+            todayCounted = true;
+        }
+
+        try {
+            if (closed.date.plusDays(1).isBefore(date)) {
+                // A midnight went by without a census; count the days from the admissions
+                rebuildFrom(closed.date);
+                return;
+            }
+            List<WardCensus> rows = closed.toRows(bedCounts());
+            transaction.executeWithoutResult(status -> censusJdbcRepository.insertCensus(rows));
+            log.info("Wrote census of {} for {} wards", closed.date, rows.size());
+        } catch (RuntimeException e) {
+            // The closed day is no longer in memory; have the next rebuild count it
+            log.error("Failed to write census of {}; marked stale for the next rebuild", closed.date, e);
+            markStale(closed.date);
+            return;
+        }
+        refreshStale();
+    }
+
+    /**
+     * Count an admission to a ward once the current transaction commits; transferredIn
+     * when a transfer from another ward led to it
+     */
+    public void recordAdmission(Long wardId, boolean transferredIn) {
+        afterCommit(() -> {
+            synchronized (lock) {
+                today.ward(wardId).arrive(transferredIn);
+            }
+        });
+    }
+
+    /**
+     * Count a discharge or transfer out of a ward once the current transaction commits.
+     * A discharge adds the hours from admittedAt to leftAt to the ward's length of stay.
+     */
+    public void recordDeparture(Long wardId, AdmissionStatus status, LocalDateTime admittedAt, LocalDateTime leftAt) {
+        afterCommit(() -> {
+            synchronized (lock) {
+                today.ward(wardId).leave(status, hoursBetween(admittedAt, leftAt));
+            }
+        });
+    }
+
+    /**
+     * Mark the census from a date on as out of date once the current transaction commits,
+     * for admissions written without going through recordAdmission and recordDeparture.
+     * The days are rebuilt by refreshStale or at the next midnight.
+     */
+    public void markStale(LocalDate from) {
+        if (from == null) {
+            return;
+        }
+        afterCommit(() -> {
+            synchronized (lock) {
+                if (staleFrom == null || from.isBefore(staleFrom)) {
+                    staleFrom = from;
+                }
+            }
+        });
+    }
+
+    public void refreshStale() {
+        LocalDate from;
+        synchronized (lock) {
+            from = staleFrom;
+            staleFrom = null;
+        }
+        if (from == null) {
+            return;
+        }
+        try {
+            rebuildFrom(from);
+        } catch (RuntimeException e) {
+            markStale(from);
+            throw e;
+        }
+    }
+
+    /**
+     * Recount the days from a date through yesterday from the admissions, replacing their
+     * stored census, and start the current day from the recounted occupied beds. Movements
+     * already counted today are kept; on startup today is counted from the admissions.
+     */
+    public void rebuildFrom(LocalDate from) {
+        LocalDate date = LocalDate.now();
+        LocalDate start = from.isAfter(date) ? date : from;
+        Map<Long, Integer> beds = bedCounts();
+
+        Sweep sweep = new Sweep(start, date);
+        List<WardCensus> rows = transaction.execute(status -> {
+            try (Stream<Object[]> admissions = admissionRepository.streamCensusRows(
+                    start.atStartOfDay(), date.plusDays(1).atStartOfDay())) {
+                admissions.forEach(row -> sweep.add((Long) row[0], (LocalDateTime) row[1], (LocalDateTime) row[2],
+                        (AdmissionStatus) row[3], row[4] != null));
+            }
+            List<WardCensus> written = sweep.rows(beds);
+            censusRepository.deleteFrom(start);
+            censusRepository.flush();
+            censusJdbcRepository.insertCensus(written);
+            return written;
+        });
+
+        Day rebuilt = sweep.day(date, beds.keySet());
+        synchronized (lock) {
+            if (!todayCounted || today.date.isBefore(date)) {
+                today = rebuilt;
+                todayCounted = true;
+            } else if (today.date.equals(date)) {
+                today.reopen(rebuilt);
+            }
+        }
+        log.info("Rebuilt census from {} with {} ward days", start, rows != null ? rows.size() : 0);
+    }
+
+    /**
+     * Census of the wards from startDate to endDate inclusive: stored days plus the
+     * current day so far, by month and in total, and the occupancy when the range ends
+     */
+    public CensusRange getCensus(Collection<Long> wardIds, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        Map<YearMonth, CensusTotals> months = new TreeMap<>();
+        if (wardIds.isEmpty()) {
+            return new CensusRange(new CensusTotals(), months, 0, 0);
+        }
+
+        Map<Long, Integer> beds = bedCounts();
+        Day current;
+        CensusTotals currentTotals = new CensusTotals();
+        int currentBeds = 0;
+        int currentOccupied = 0;
+        synchronized (lock) {
+            current = today;
+            for (Long wardId : wardIds) {
+                WardDay ward = current.wards.get(wardId);
+                int bedCount = beds.getOrDefault(wardId, 0);
+                currentBeds += bedCount;
+                if (ward != null) {
+                    currentOccupied += ward.occupied;
+                    currentTotals.add(bedCount, ward);
+                } else {
+                    currentTotals.bedDays += bedCount;
+                }
+            }
+        }
+
+        // Stored days up to yesterday
+        LocalDate lastStored = endDate.isBefore(current.date) ? endDate : current.date.minusDays(1);
+        if (!startDate.isAfter(lastStored)) {
+            for (Object[] row : censusRepository.sumByMonth(wardIds, startDate, lastStored)) {
+                CensusTotals month = month(months, row);
+                month.bedDays += toLong(row[2]);
+                month.occupiedBedDays += toLong(row[3]);
+                month.admissions += toLong(row[4]);
+                month.discharges += toLong(row[5]);
+                month.transfersIn += toLong(row[6]);
+                month.transfersOut += toLong(row[7]);
+            }
+            for (Object[] row : censusRepository.findLosSketches(wardIds, startDate, lastStored)) {
+                month(months, row).lengthOfStayHours.merge(QuantileSketch.fromBytes((byte[]) row[2]));
+            }
+        }
+
+        // The current day so far
+        boolean includesToday = !current.date.isBefore(startDate) && !current.date.isAfter(endDate);
+        if (includesToday) {
+            months.computeIfAbsent(YearMonth.from(current.date), m -> new CensusTotals()).merge(currentTotals);
+        }
+
+        CensusTotals total = new CensusTotals();
+        months.values().forEach(total::merge);
+
+        if (includesToday) {
+            return new CensusRange(total, months, currentBeds, currentOccupied);
+        }
+        int bedsAtEnd = 0;
+        int occupiedAtEnd = 0;
+        if (endDate.isBefore(current.date)) {
+            for (WardCensus day : censusRepository.findByCensusDateAndWardIdIn(endDate, wardIds)) {
+                bedsAtEnd += day.getBedCount();
+                occupiedAtEnd += day.getOccupiedBeds();
+            }
+        }
+        return new CensusRange(total, months, bedsAtEnd, occupiedAtEnd);
+    }
+
+    // Helper methods
+    private Map<Long, Integer> bedCounts() {
+        Map<Long, Integer> beds = new HashMap<>();
+        for (Ward ward : wardRepository.findAll()) {
+            beds.put(ward.getWardId(), ward.getBedCount() != null
+                    ? ward.getBedCount()
+                    : BedBoardService.defaultBedCount(ward.getWardType()));
+        }
+        return beds;
+    }
+
+    private static CensusTotals month(Map<YearMonth, CensusTotals> months, Object[] row) {
+        return months.computeIfAbsent(YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()),
+                m -> new CensusTotals());
+    }
+
+    private static double hoursBetween(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null) {
+            return -1;
+        }
+        return Math.max(0, Duration.between(from, to).toMinutes() / 60.0);
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    /**
+     * Summed census of a range: bed days, occupied bed days, movements and the lengths
+     * of stay of its discharges
+     */
+    public static final class CensusTotals {
+
+        private long bedDays;
+        private long occupiedBedDays;
+        private long admissions;
+        private long discharges;
+        private long transfersIn;
+        private long transfersOut;
+        private final QuantileSketch lengthOfStayHours = new QuantileSketch();
+
+        public long getBedDays() { return bedDays; }
+        public long getOccupiedBedDays() { return occupiedBedDays; }
+        public long getAdmissions() { return admissions; }
+        public long getDischarges() { return discharges; }
+        public long getTransfersIn() { return transfersIn; }
+        public long getTransfersOut() { return transfersOut; }
+
+        /**
+         * Occupied bed days as a percentage of bed days
+         */
+        public double occupancyRate() {
+            return bedDays > 0 ? occupiedBedDays * 100.0 / bedDays : 0.0;
+        }
+
+        public double averageLengthOfStayDays() {
+            return lengthOfStayHours.isEmpty() ? 0.0 : lengthOfStayHours.getMean() / 24.0;
+        }
+
+        /**
+         * Length of stay in days at quantile q of the discharges
+         */
+        public double lengthOfStayDays(double q) {
+            return lengthOfStayHours.isEmpty() ? 0.0 : lengthOfStayHours.quantile(q) / 24.0;
+        }
+
+        void add(int bedCount, WardDay ward) {
+            bedDays += bedCount;
+            occupiedBedDays += ward.occupied;
+            admissions += ward.admissions;
+            discharges += ward.discharges;
+            transfersIn += ward.transfersIn;
+            transfersOut += ward.transfersOut;
+            if (ward.lengthOfStayHours != null) {
+                lengthOfStayHours.merge(ward.lengthOfStayHours);
+            }
+        }
+
+        void merge(CensusTotals other) {
+            bedDays += other.bedDays;
+            occupiedBedDays += other.occupiedBedDays;
+            admissions += other.admissions;
+            discharges += other.discharges;
+            transfersIn += other.transfersIn;
+            transfersOut += other.transfersOut;
+            lengthOfStayHours.merge(other.lengthOfStayHours);
+        }
+    }
+
+    /**
+     * Census totals of a range and of each month in it, and the wards' beds and occupied
+     * beds at the end of the range (now, when the range includes today)
+     */
+    public record CensusRange(CensusTotals total, Map<YearMonth, CensusTotals> months,
+                              int bedsAtEnd, int occupiedAtEnd) {
+
+        public double occupancyAtEnd() {
+            return bedsAtEnd > 0 ? occupiedAtEnd * 100.0 / bedsAtEnd : 0.0;
+        }
+    }
+
+    /**
+     * One day's counts per ward
+     */
+    private static final class Day {
+
+        private final LocalDate date;
+        private final Map<Long, WardDay> wards = new HashMap<>();
+
+        Day(LocalDate date) {
+            this.date = date;
+        }
+
+        WardDay ward(Long wardId) {
+            return wards.computeIfAbsent(wardId, id -> new WardDay());
+        }
+
+        /**
+         * The following day, starting from this day's occupied beds
+         */
+        Day next(LocalDate nextDate) {
+            Day next = new Day(nextDate);
+            wards.forEach((wardId, ward) -> next.ward(wardId).occupied = ward.occupied);
+            return next;
+        }
+
+        /**
+         * Keep this day's movements but start its occupied beds from where the other
+         * count of the same day started
+         */
+        void reopen(Day other) {
+            other.wards.forEach((wardId, ward) -> ward(wardId));
+            wards.forEach((wardId, ward) -> {
+                WardDay counted = other.wards.get(wardId);
+                ward.occupied = (counted != null ? counted.opening() : 0) + ward.net();
+            });
+        }
+
+        List<WardCensus> toRows(Map<Long, Integer> beds) {
+            List<WardCensus> rows = new ArrayList<>(beds.size());
+            beds.forEach((wardId, bedCount) -> {
+                WardCensus row = new WardCensus(date, wardId, bedCount);
+                WardDay ward = wards.get(wardId);
+                if (ward != null) {
+                    row.setOccupiedBeds(Math.max(0, ward.occupied));
+                    row.setAdmissions(ward.admissions);
+                    row.setDischarges(ward.discharges);
+                    row.setTransfersIn(ward.transfersIn);
+                    row.setTransfersOut(ward.transfersOut);
+                    if (ward.lengthOfStayHours != null) {
+                        row.setLosSketch(ward.lengthOfStayHours.toBytes());
+                    }
+                }
+                rows.add(row);
+            });
+            return rows;
+        }
+    }
+
+    /**
+     * One ward's counts for a day. While a day is open occupied is the beds taken now;
+     * in a sweep it is first the change over the day and then the running total.
+     */
+    private static final class WardDay {
+
+        private int occupied;
+        private int admissions;
+        private int discharges;
+        private int transfersIn;
+        private int transfersOut;
+        // Created on the first discharge
+        private QuantileSketch lengthOfStayHours;
+
+        /**
+         * Arrivals less departures over the day
+         */
+        int net() {
+            return admissions + transfersIn - discharges - transfersOut;
+        }
+
+        /**
+         * Beds occupied when the day began, once occupied is the running total
+         */
+        int opening() {
+            return occupied - net();
+        }
+
+        void arrive(boolean transferredIn) {
+            occupied++;
+            if (transferredIn) {
+                transfersIn++;
+            } else {
+                admissions++;
+            }
+        }
+
+        /**
+         * A transfer out, or a discharge with its length of stay in hours (negative if unknown)
+         */
+        void leave(AdmissionStatus status, double hours) {
+            occupied--;
+            if (status == AdmissionStatus.TRANSFERRED) {
+                transfersOut++;
+                return;
+            }
+            discharges++;
+            if (hours >= 0) {
+                if (lengthOfStayHours == null) {
+                    lengthOfStayHours = new QuantileSketch();
+                }
+                lengthOfStayHours.add(hours);
+            }
+        }
+    }
+
+    /**
+     * Counts of every day from a start date through today, built from the admissions that
+     * overlap them. An admission arrives on its admission day, or is already in the ward
+     * on the first day, and leaves on its discharge day; occupied beds at the end of each
+     * day are the running sum of arrivals less departures.
+     */
+    static final class Sweep {
+
+        private final LocalDate start;
+        private final Day[] days;
+        private final Set<Long> wardIds = new HashSet<>();
+        private boolean counted;
+
+        Sweep(LocalDate start, LocalDate end) {
+            this.start = start;
+            this.days = new Day[(int) ChronoUnit.DAYS.between(start, end) + 1];
+            for (int i = 0; i < days.length; i++) {
+                days[i] = new Day(start.plusDays(i));
+            }
+        }
+
+        void add(Long wardId, LocalDateTime admittedAt, LocalDateTime leftAt, AdmissionStatus status, boolean transferredIn) {
+            if (wardId == null || admittedAt == null) {
+                return;
+            }
+            int arrival = index(admittedAt.toLocalDate());
+            if (arrival >= days.length) {
+                return;
+            }
+            wardIds.add(wardId);
+            if (arrival >= 0) {
+                days[arrival].ward(wardId).arrive(transferredIn);
+            } else {
+                days[0].ward(wardId).occupied++;
+            }
+            if (leftAt != null && status != AdmissionStatus.ACTIVE) {
+                int departure = index(leftAt.toLocalDate());
+                if (departure >= 0 && departure < days.length) {
+                    days[departure].ward(wardId).leave(status, hoursBetween(admittedAt, leftAt));
+                }
+            }
+        }
+
+        /**
+         * Rows for every day but the last, one per ward in beds
+         */
+        List<WardCensus> rows(Map<Long, Integer> beds) {
+            runOccupancy();
+            List<WardCensus> rows = new ArrayList<>();
+            for (int i = 0; i < days.length - 1; i++) {
+                rows.addAll(days[i].toRows(beds));
+            }
+            return rows;
+        }
+
+        /**
+         * The last day, open for the day's admissions and discharges from here on
+         */
+        Day day(LocalDate date, Set<Long> wards) {
+            Day last = days[days.length - 1];
+            if (!last.date.equals(date)) {
+                throw new IllegalArgumentException("Sweep ends on " + last.date + ", not " + date);
+            }
+            runOccupancy();
+            wards.forEach(last::ward);
+            return last;
+        }
+
+        private void runOccupancy() {
+            if (counted) {
+                return;
+            }
+            counted = true;
+            for (Long wardId : wardIds) {
+                int occupied = 0;
+                for (Day day : days) {
+                    WardDay ward = day.ward(wardId);
+                    occupied += ward.occupied;
+                    ward.occupied = occupied;
+                }
+            }
+        }
+
+        private int index(LocalDate date) {
+            return (int) ChronoUnit.DAYS.between(start, date);
+        }
+    }
+}
@@ -1,19 +1,23 @@
 package com.HMS.HMS.service;
 
 import com.HMS.HMS.DTO.WardDTO.BasicWardDTO;
+import com.HMS.HMS.model.ward.Ward;
 import com.HMS.HMS.repository.WardRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class WardService {
 
     private final WardRepository wardRepository;
+    private final BedBoardService bedBoardService;
 
-    public WardService(WardRepository wardRepository) {
+    public WardService(WardRepository wardRepository, BedBoardService bedBoardService) {
         this.wardRepository = wardRepository;
+        this.bedBoardService = bedBoardService;
     }
 
     public List<BasicWardDTO> getAllWards(){
@@ -26,4 +30,25 @@ public class WardService {
                 ))
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Set the number of beds of a ward, used by the bed board and as the ward's capacity
+     * in the census from the next midnight on. Returns the ward's occupancy.
+     */
+    public Map<String, Object> updateBedCount(Long wardId, int bedCount) {
+        Ward ward = wardRepository.findById(wardId)
+                .orElseThrow(() -> new IllegalArgumentException("Ward with ID " + wardId + " not found"));
+        if (bedCount < 1) {
+            throw new IllegalArgumentException("Bed count must be at least 1");
+        }
+        int occupied = (int) bedBoardService.getOccupancy(wardId).get("occupiedBeds");
+        if (bedCount < occupied) {
+            throw new IllegalArgumentException("Ward " + ward.getWardName() + " has " + occupied + " occupied beds");
+        }
+
+        ward.setBedCount(bedCount);
+        wardRepository.save(ward);
+        bedBoardService.resize(ward);
+        return bedBoardService.getOccupancy(wardId);
+    }
 }
@@ -0,0 +1,556 @@
+package com.HMS.HMS.service.imports;
+
+import com.HMS.HMS.DTO.ImportDTO.ImportErrorDTO;
+import com.HMS.HMS.DTO.ImportDTO.ImportReportDTO;
+import com.HMS.HMS.model.Admission.AdmissionStatus;
+import com.HMS.HMS.model.Appointment.AppointmentStatus;
+import com.HMS.HMS.model.Appointment.AppointmentType;
+import com.HMS.HMS.model.Patient.Patient;
+import com.HMS.HMS.model.doctor.Doctor;
+import com.HMS.HMS.model.ward.Ward;
+import com.HMS.HMS.repository.AdmissionRepository;
+import com.HMS.HMS.repository.BulkImportJdbcRepository;
+import com.HMS.HMS.repository.BulkImportJdbcRepository.AdmissionRow;
+import com.HMS.HMS.repository.BulkImportJdbcRepository.AppointmentRow;
+import com.HMS.HMS.repository.BulkImportJdbcRepository.TransferRow;
+import com.HMS.HMS.repository.DoctorRepository;
+import com.HMS.HMS.repository.PatientRepository;
+import com.HMS.HMS.repository.WardRepository;
+import com.HMS.HMS.service.BedBoardService;
+import com.HMS.HMS.service.DoctorCalendarService;
+import com.HMS.HMS.service.PatientSearchIndex;
+import com.HMS.HMS.service.TransferFlowService;
+import com.HMS.HMS.service.WardCensusService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bulk import of patients, admissions, appointments and transfers migrated from another
+ * system, streamed from NDJSON or CSV.
+ *
+ * Rows are read and written CHUNK_SIZE at a time, each chunk in its own transaction.
+ * Wards and doctors are read once per import into maps; the patients and admissions a
+ * chunk refers to are read with one query per chunk. Rows that fail validation are
+ * rejected with their row number and the rest of the chunk is written with batched JDBC
+ * inserts; a chunk the database rejects is rolled back as a whole and reported once.
+ * Chunks already written stay written if a later one fails or the upload breaks off.
+ *
+ * Imported rows go through the same in-memory structures as single writes: patients into
+ * the search index, active admissions onto the bed board and current_admission_id, and
+ * upcoming appointments onto their doctor's calendar. The ward census days imported
+ * admissions and transfers fall on are recounted when the import ends. Progress of
+ * running imports can be read from getJobs while they run.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    static final int CHUNK_SIZE = 5000;
+    private static final int MAX_FINISHED_JOBS = 20;
+
+    private final PatientRepository patientRepository;
+    private final AdmissionRepository admissionRepository;
+    private final WardRepository wardRepository;
+    private final DoctorRepository doctorRepository;
+    private final BulkImportJdbcRepository bulkImportJdbcRepository;
+    private final PatientSearchIndex patientSearchIndex;
+    private final BedBoardService bedBoardService;
+    private final DoctorCalendarService doctorCalendarService;
+    private final TransferFlowService transferFlowService;
+    private final WardCensusService wardCensusService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transaction;
+
+    private final AtomicLong jobIds = new AtomicLong();
+    private final Map<Long, ImportJob> jobs = new ConcurrentHashMap<>();
+
+    public BulkImportService(PatientRepository patientRepository, AdmissionRepository admissionRepository,
+                             WardRepository wardRepository, DoctorRepository doctorRepository,
+                             BulkImportJdbcRepository bulkImportJdbcRepository, PatientSearchIndex patientSearchIndex,
+                             BedBoardService bedBoardService, DoctorCalendarService doctorCalendarService,
+                             TransferFlowService transferFlowService, WardCensusService wardCensusService,
+                             ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.patientRepository = patientRepository;
+        this.admissionRepository = admissionRepository;
+        this.wardRepository = wardRepository;
+        this.doctorRepository = doctorRepository;
+        this.bulkImportJdbcRepository = bulkImportJdbcRepository;
+        this.patientSearchIndex = patientSearchIndex;
+        this.bedBoardService = bedBoardService;
+        this.doctorCalendarService = doctorCalendarService;
+        this.transferFlowService = transferFlowService;
+        this.wardCensusService = wardCensusService;
+        this.objectMapper = objectMapper;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Import every row of the input and report the outcome
+     */
+    public ImportReportDTO importRows(ImportEntity entity, ImportFormat format, InputStream in) {
+        ImportJob job = startJob(entity, format);
+        try (ImportRowReader reader = new ImportRowReader(in, format, objectMapper)) {
+            References references = loadReferences(entity);
+            List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (ImportRow row = reader.next(); row != null; row = reader.next()) {
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(entity, chunk, references, job);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(entity, chunk, references, job);
+            }
+            job.complete();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Import {} of {} stopped", job.getId(), entity, e);
+            job.fail(e.getMessage());
+        }
+        // Recount the census days the imported admissions and transfers fall on
+        wardCensusService.refreshStale();
+
+        ImportReportDTO report = job.toReport();
+        log.info("Import {} of {} {}: {} rows read, {} imported, {} rejected ({} rows/s)", report.getJobId(), entity,
+                report.getStatus(), report.getRowsRead(), report.getRowsImported(), report.getRowsRejected(),
+                report.getRowsPerSecond());
+        return report;
+    }
+
+    /**
+     * Running imports and the most recent finished ones, newest first
+     */
+    public List<ImportReportDTO> getJobs() {
+        List<ImportReportDTO> reports = new ArrayList<>();
+        for (ImportJob job : jobs.values()) {
+            reports.add(job.toReport());
+        }
+        reports.sort(Comparator.comparingLong(ImportReportDTO::getJobId).reversed());
+        return reports;
+    }
+
+    public Optional<ImportReportDTO> getJob(long jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(ImportJob::toReport);
+    }
+
+    // Helper methods
+    private ImportJob startJob(ImportEntity entity, ImportFormat format) {
+        ImportJob job = new ImportJob(jobIds.incrementAndGet(), entity, format);
+        jobs.put(job.getId(), job);
+        // Keep the running imports and the last MAX_FINISHED_JOBS finished ones
+        jobs.values().stream()
+                .filter(finished -> !finished.isRunning())
+                .sorted(Comparator.comparingLong(ImportJob::getId).reversed())
+                .skip(MAX_FINISHED_JOBS)
+                .forEach(finished -> jobs.remove(finished.getId()));
+        return job;
+    }
+
+    private References loadReferences(ImportEntity entity) {
+        Map<Long, String> wardNames = new HashMap<>();
+        Map<String, Long> wardIds = new HashMap<>();
+        Set<Long> doctorIds = new HashSet<>();
+        if (entity == ImportEntity.ADMISSIONS || entity == ImportEntity.TRANSFERS) {
+            for (Ward ward : wardRepository.findAll()) {
+                wardNames.put(ward.getWardId(), ward.getWardName());
+                if (ward.getWardName() != null) {
+                    wardIds.put(ward.getWardName().trim().toLowerCase(Locale.ROOT), ward.getWardId());
+                }
+            }
+        }
+        if (entity == ImportEntity.APPOINTMENTS) {
+            for (Doctor doctor : doctorRepository.findAll()) {
+                doctorIds.add(doctor.getEmployeeId());
+            }
+        }
+        return new References(wardNames, wardIds, doctorIds);
+    }
+
+    private void writeChunk(ImportEntity entity, List<ImportRow> chunk, References references, ImportJob job) {
+        List<ImportErrorDTO> rejected = new ArrayList<>();
+        try {
+            Integer imported = transaction.execute(status -> switch (entity) {
+                case PATIENTS -> writePatients(chunk, rejected);
+                case ADMISSIONS -> writeAdmissions(chunk, references, rejected);
+                case APPOINTMENTS -> writeAppointments(chunk, references, rejected);
+                case TRANSFERS -> writeTransfers(chunk, references, rejected);
+            });
+            job.chunkWritten(chunk.size(), imported != null ? imported : 0, rejected);
+        } catch (DataAccessException e) {
+            long firstRow = chunk.get(0).getNumber();
+            long lastRow = chunk.get(chunk.size() - 1).getNumber();
+            log.warn("Import {} rolled back rows {}-{}", job.getId(), firstRow, lastRow, e);
+            job.chunkFailed(firstRow, lastRow, chunk.size(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    private int writePatients(List<ImportRow> chunk, List<ImportErrorDTO> rejected) {
+        Map<String, ImportRow> rowsById = new HashMap<>();
+        List<Patient> patients = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (readable(row, rejected)) {
+                try {
+                    Patient patient = new Patient(row.required("nationalId"), row.required("firstName"),
+                            row.required("lastName"), row.text("address"), row.date("dateOfBirth"),
+                            row.text("contactNumber"), row.text("emergencyContactNumber"), row.text("gender"));
+                    patient.setRegistrationDate(row.dateTime("registrationDate"));
+                    if (rowsById.putIfAbsent(patient.getNationalId(), row) != null) {
+                        throw new IllegalArgumentException("National ID " + patient.getNationalId() + " appears more than once");
+                    }
+                    patients.add(patient);
+                } catch (IllegalArgumentException e) {
+                    reject(row, e.getMessage(), rejected);
+                }
+            }
+        }
+
+        Set<String> existing = admissionState(rowsById.keySet()).keySet();
+        List<Patient> added = new ArrayList<>(patients.size());
+        for (Patient patient : patients) {
+            if (existing.contains(patient.getNationalId())) {
+                reject(rowsById.get(patient.getNationalId()),
+                        "Patient with National ID " + patient.getNationalId() + " already exists", rejected);
+            } else {
+                added.add(patient);
+            }
+        }
+
+        bulkImportJdbcRepository.insertPatients(added);
+        patientSearchIndex.indexAll(added);
+        return added.size();
+    }
+
+    private int writeAdmissions(List<ImportRow> chunk, References references, List<ImportErrorDTO> rejected) {
+        List<ImportRow> rows = new ArrayList<>(chunk.size());
+        List<AdmissionRow> admissions = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (readable(row, rejected)) {
+                try {
+                    LocalDateTime admissionDate = row.dateTime("admissionDate");
+                    LocalDateTime dischargeDate = row.dateTime("dischargeDate");
+                    AdmissionStatus status = row.enumValue("status", AdmissionStatus.class,
+                            dischargeDate == null ? AdmissionStatus.ACTIVE : AdmissionStatus.DISCHARGED);
+                    if (admissionDate == null) {
+                        throw new IllegalArgumentException("admissionDate is required");
+                    }
+                    if ((status == AdmissionStatus.ACTIVE) != (dischargeDate == null)) {
+                        throw new IllegalArgumentException(status == AdmissionStatus.ACTIVE
+                                ? "An ACTIVE admission can't have a dischargeDate"
+                                : "A " + status + " admission needs a dischargeDate");
+                    }
+                    if (dischargeDate != null && dischargeDate.isBefore(admissionDate)) {
+                        throw new IllegalArgumentException("dischargeDate is before admissionDate");
+                    }
+                    admissions.add(new AdmissionRow(row.required("patientNationalId"),
+                            references.ward(row, "wardId", "wardName"), row.required("bedNumber"),
+                            admissionDate, dischargeDate, status));
+                    rows.add(row);
+                } catch (IllegalArgumentException e) {
+                    reject(row, e.getMessage(), rejected);
+                }
+            }
+        }
+
+        Map<String, Long> patients = admissionState(patientIds(admissions, AdmissionRow::patientNationalId));
+        Set<String> admitted = new HashSet<>();
+        List<AdmissionRow> added = new ArrayList<>(admissions.size());
+        for (int i = 0; i < admissions.size(); i++) {
+            AdmissionRow admission = admissions.get(i);
+            String patientId = admission.patientNationalId();
+            if (!patients.containsKey(patientId)) {
+                reject(rows.get(i), "Patient with National ID " + patientId + " not found", rejected);
+                continue;
+            }
+            if (admission.status() == AdmissionStatus.ACTIVE) {
+                if (patients.get(patientId) != null || !admitted.add(patientId)) {
+                    reject(rows.get(i), "Patient " + patientId + " is already admitted", rejected);
+                    continue;
+                }
+                // Take the bed on the bed board; it is given back if the chunk rolls back
+                if (!bedBoardService.reserve(admission.wardId(), admission.bedNumber())) {
+                    admitted.remove(patientId);
+                    reject(rows.get(i), "Bed " + admission.bedNumber() + " in ward " +
+                            references.wardNames().get(admission.wardId()) + " is already occupied", rejected);
+                    continue;
+                }
+            }
+            added.add(admission);
+        }
+
+        bulkImportJdbcRepository.insertAdmissions(added);
+        added.stream().map(AdmissionRow::admissionDate).min(Comparator.naturalOrder())
+                .ifPresent(first -> wardCensusService.markStale(first.toLocalDate()));
+        if (!admitted.isEmpty()) {
+            patientRepository.syncCurrentAdmissions(admitted);
+        }
+        return added.size();
+    }
+
+    private int writeAppointments(List<ImportRow> chunk, References references, List<ImportErrorDTO> rejected) {
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        List<ImportRow> rows = new ArrayList<>(chunk.size());
+        List<AppointmentRow> appointments = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (readable(row, rejected)) {
+                try {
+                    Long doctorId = row.longValue("doctorEmployeeId");
+                    if (doctorId == null) {
+                        throw new IllegalArgumentException("doctorEmployeeId is required");
+                    }
+                    if (!references.doctorIds().contains(doctorId)) {
+                        throw new IllegalArgumentException("Doctor with ID " + doctorId + " not found");
+                    }
+                    LocalDate date = row.date("appointmentDate");
+                    LocalTime time = row.time("appointmentTime");
+                    if (date == null || time == null) {
+                        throw new IllegalArgumentException("appointmentDate and appointmentTime are required");
+                    }
+                    AppointmentStatus status = row.enumValue("status", AppointmentStatus.class, AppointmentStatus.SCHEDULED);
+                    AppointmentType type = row.enumValue("appointmentType", AppointmentType.class, AppointmentType.CONSULTATION);
+                    LocalDateTime createdAt = row.dateTime("createdAt");
+                    // Only upcoming, uncancelled appointments hold a calendar slot
+                    LocalTime bookedSlot = status != AppointmentStatus.CANCELLED && !date.isBefore(today)
+                            ? DoctorCalendarService.slotStart(time) : null;
+                    appointments.add(new AppointmentRow(doctorId, row.required("patientNationalId"), date, time,
+                            bookedSlot, status, type, createdAt != null ? createdAt : now));
+                    rows.add(row);
+                } catch (IllegalArgumentException e) {
+                    reject(row, e.getMessage(), rejected);
+                }
+            }
+        }
+
+        Set<String> patients = admissionState(patientIds(appointments, AppointmentRow::patientNationalId)).keySet();
+        Set<String> slots = new HashSet<>();
+        List<AppointmentRow> added = new ArrayList<>(appointments.size());
+        for (int i = 0; i < appointments.size(); i++) {
+            AppointmentRow appointment = appointments.get(i);
+            if (!patients.contains(appointment.patientNationalId())) {
+                reject(rows.get(i), "Patient with National ID " + appointment.patientNationalId() + " not found", rejected);
+                continue;
+            }
+            if (appointment.bookedSlot() != null
+                    && (!slots.add(appointment.doctorId() + "|" + appointment.appointmentDate() + "|" + appointment.bookedSlot())
+                        || !doctorCalendarService.reserve(appointment.doctorId(), appointment.appointmentDate(),
+                                                          appointment.appointmentTime()))) {
+                reject(rows.get(i), "Doctor " + appointment.doctorId() + " already has an appointment at " +
+                        appointment.bookedSlot() + " on " + appointment.appointmentDate(), rejected);
+                continue;
+            }
+            added.add(appointment);
+        }
+
+        bulkImportJdbcRepository.insertAppointments(added);
+        return added.size();
+    }
+
+    private int writeTransfers(List<ImportRow> chunk, References references, List<ImportErrorDTO> rejected) {
+        List<ImportRow> rows = new ArrayList<>(chunk.size());
+        List<TransferRow> transfers = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            if (readable(row, rejected)) {
+                try {
+                    LocalDateTime transferDate = row.dateTime("transferDate");
+                    if (transferDate == null) {
+                        throw new IllegalArgumentException("transferDate is required");
+                    }
+                    Long fromWardId = references.ward(row, "fromWardId", "fromWardName");
+                    Long toWardId = references.ward(row, "toWardId", "toWardName");
+                    transfers.add(new TransferRow(row.required("patientNationalId"), fromWardId, toWardId,
+                            row.longValue("oldAdmissionId"), row.longValue("newAdmissionId"),
+                            row.required("fromBedNumber"), row.required("toBedNumber"), transferDate,
+                            row.required("transferReason")));
+                    rows.add(row);
+                } catch (IllegalArgumentException e) {
+                    reject(row, e.getMessage(), rejected);
+                }
+            }
+        }
+
+        // admission id, ward id, admission date of every admission of the chunk's patients
+        Map<String, List<Object[]>> admissions = new HashMap<>();
+        Set<String> patientIds = patientIds(transfers, TransferRow::patientNationalId);
+        if (!patientIds.isEmpty()) {
+            for (Object[] admission : admissionRepository.findAdmissionTimesByPatientIn(patientIds)) {
+                admissions.computeIfAbsent((String) admission[1], id -> new ArrayList<>())
+                        .add(new Object[]{admission[0], admission[2], admission[3]});
+            }
+        }
+
+        List<TransferRow> added = new ArrayList<>(transfers.size());
+        List<TransferFlowService.Flow> flows = new ArrayList<>(transfers.size());
+        // Earliest day the census counts one of the transfers on
+        LocalDateTime firstDay = null;
+        for (int i = 0; i < transfers.size(); i++) {
+            TransferRow transfer = transfers.get(i);
+            List<Object[]> patientAdmissions = admissions.getOrDefault(transfer.patientNationalId(), List.of());
+            Long oldAdmissionId = transfer.oldAdmissionId() != null
+                    ? checkAdmission(patientAdmissions, transfer.oldAdmissionId(), transfer.fromWardId())
+                    : admissionBefore(patientAdmissions, transfer.fromWardId(), transfer.transferDate());
+            Long newAdmissionId = transfer.newAdmissionId() != null
+                    ? checkAdmission(patientAdmissions, transfer.newAdmissionId(), transfer.toWardId())
+                    : admissionNearest(patientAdmissions, transfer.toWardId(), transfer.transferDate(), oldAdmissionId);
+            if (oldAdmissionId == null || newAdmissionId == null) {
+                Long wardId = oldAdmissionId == null ? transfer.fromWardId() : transfer.toWardId();
+                reject(rows.get(i), "No admission of patient " + transfer.patientNationalId() + " in ward " +
+                        references.wardNames().get(wardId) + " matches the transfer", rejected);
+                continue;
+            }
+            added.add(new TransferRow(transfer.patientNationalId(), transfer.fromWardId(), transfer.toWardId(),
+                    oldAdmissionId, newAdmissionId, transfer.fromBedNumber(), transfer.toBedNumber(),
+                    transfer.transferDate(), transfer.transferReason()));
+            flows.add(new TransferFlowService.Flow(null, transfer.fromWardId(), transfer.toWardId(),
+                    transfer.transferDate(), admissionDate(patientAdmissions, oldAdmissionId)));
+            firstDay = earliest(firstDay, transfer.transferDate());
+            firstDay = earliest(firstDay, admissionDate(patientAdmissions, newAdmissionId));
+        }
+
+        bulkImportJdbcRepository.insertTransfers(added);
+        transferFlowService.recordAll(flows);
+        if (firstDay != null) {
+            wardCensusService.markStale(firstDay.toLocalDate());
+        }
+        return added.size();
+    }
+
+    /**
+     * Patient national id -> current admission id (null if not admitted) of the given
+     * patients that exist
+     */
+    private Map<String, Long> admissionState(Collection<String> nationalIds) {
+        Map<String, Long> state = new HashMap<>();
+        if (!nationalIds.isEmpty()) {
+            for (Object[] row : patientRepository.findAdmissionStateByNationalIdIn(nationalIds)) {
+                state.put((String) row[0], (Long) row[1]);
+            }
+        }
+        return state;
+    }
+
+    private static <T> Set<String> patientIds(List<T> rows, Function<T, String> patientId) {
+        Set<String> ids = new HashSet<>();
+        for (T row : rows) {
+            ids.add(patientId.apply(row));
+        }
+        return ids;
+    }
+
+    /**
+     * The given admission id if it is one of the patient's admissions in the ward
+     */
+    private static Long checkAdmission(List<Object[]> admissions, Long admissionId, Long wardId) {
+        for (Object[] admission : admissions) {
+            if (admissionId.equals(admission[0]) && wardId.equals(admission[1])) {
+                return admissionId;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDateTime earliest(LocalDateTime current, LocalDateTime candidate) {
+        return current == null || (candidate != null && candidate.isBefore(current)) ? candidate : current;
+    }
+
+    private static LocalDateTime admissionDate(List<Object[]> admissions, Long admissionId) {
+        for (Object[] admission : admissions) {
+            if (admissionId.equals(admission[0])) {
+                return (LocalDateTime) admission[2];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The patient's latest admission to the ward made at or before the transfer
+     */
+    private static Long admissionBefore(List<Object[]> admissions, Long wardId, LocalDateTime transferDate) {
+        Long match = null;
+        LocalDateTime matchDate = null;
+        for (Object[] admission : admissions) {
+            LocalDateTime admissionDate = (LocalDateTime) admission[2];
+            if (wardId.equals(admission[1]) && admissionDate != null && !admissionDate.isAfter(transferDate)
+                    && (matchDate == null || admissionDate.isAfter(matchDate))) {
+                match = (Long) admission[0];
+                matchDate = admissionDate;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * The patient's admission to the ward made closest to the transfer, other than the one
+     * transferred from
+     */
+    private static Long admissionNearest(List<Object[]> admissions, Long wardId, LocalDateTime transferDate, Long excluded) {
+        Long match = null;
+        Duration matchGap = null;
+        for (Object[] admission : admissions) {
+            LocalDateTime admissionDate = (LocalDateTime) admission[2];
+            if (!wardId.equals(admission[1]) || admissionDate == null || admission[0].equals(excluded)) {
+                continue;
+            }
+            Duration gap = Duration.between(admissionDate, transferDate).abs();
+            if (matchGap == null || gap.compareTo(matchGap) < 0) {
+                match = (Long) admission[0];
+                matchGap = gap;
+            }
+        }
+        return match;
+    }
+
+    private static boolean readable(ImportRow row, List<ImportErrorDTO> rejected) {
+        if (row.getError() != null) {
+            reject(row, row.getError(), rejected);
+            return false;
+        }
+        return true;
+    }
+
+    private static void reject(ImportRow row, String message, List<ImportErrorDTO> rejected) {
+        rejected.add(new ImportErrorDTO(row.getNumber(), message));
+    }
+
+    /**
+     * Wards by id and lower-case name, and doctor ids, read once per import
+     */
+    private record References(Map<Long, String> wardNames, Map<String, Long> wardIds, Set<Long> doctorIds) {
+
+        Long ward(ImportRow row, String idField, String nameField) {
+            Long wardId = row.longValue(idField);
+            if (wardId != null) {
+                if (!wardNames.containsKey(wardId)) {
+                    throw new IllegalArgumentException("Ward with ID " + wardId + " not found");
+                }
+                return wardId;
+            }
+            String wardName = row.text(nameField);
+            if (wardName == null) {
+                throw new IllegalArgumentException(idField + " or " + nameField + " is required");
+            }
+            wardId = wardIds.get(wardName.toLowerCase(Locale.ROOT));
+            if (wardId == null) {
+                throw new IllegalArgumentException("Ward " + wardName + " not found");
+            }
+            return wardId;
+        }
+    }
+}
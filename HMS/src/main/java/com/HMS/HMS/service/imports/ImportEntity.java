@@ -0,0 +1,18 @@
+package com.HMS.HMS.service.imports;
+
+import java.util.Locale;
+
+public enum ImportEntity {
+    PATIENTS,
+    ADMISSIONS,
+    APPOINTMENTS,
+    TRANSFERS;
+
+    public static ImportEntity of(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown import type: " + name);
+        }
+    }
+}
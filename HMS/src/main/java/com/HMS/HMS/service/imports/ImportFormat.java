@@ -0,0 +1,30 @@
+package com.HMS.HMS.service.imports;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    NDJSON,
+    CSV;
+
+    /**
+     * The format named by the format parameter, or else the one the content type implies,
+     * NDJSON by default
+     */
+    public static ImportFormat of(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            switch (format.trim().toLowerCase(Locale.ROOT)) {
+                case "csv":
+                    return CSV;
+                case "ndjson":
+                case "jsonl":
+                    return NDJSON;
+                default:
+                    throw new IllegalArgumentException("Unknown import format: " + format);
+            }
+        }
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).contains("csv")) {
+            return CSV;
+        }
+        return NDJSON;
+    }
+}
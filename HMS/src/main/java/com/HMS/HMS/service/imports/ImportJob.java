@@ -0,0 +1,111 @@
+package com.HMS.HMS.service.imports;
+
+import com.HMS.HMS.DTO.ImportDTO.ImportErrorDTO;
+import com.HMS.HMS.DTO.ImportDTO.ImportReportDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counters and errors of one import, updated by the importing thread after every chunk
+ * and read by progress requests. Only the first MAX_ERRORS errors are kept; a chunk
+ * rolled back as a whole is one error.
+ */
+final class ImportJob {
+
+    private static final int MAX_ERRORS = 1000;
+
+    private final long id;
+    private final ImportEntity entity;
+    private final ImportFormat format;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long startedNanos = System.nanoTime();
+
+    private String status = "RUNNING";
+    private String message;
+    private long rowsRead;
+    private long rowsImported;
+    private long rowsRejected;
+    private long errorsOmitted;
+    private long finishedNanos;
+    private LocalDateTime finishedAt;
+    private final List<ImportErrorDTO> errors = new ArrayList<>();
+
+    ImportJob(long id, ImportEntity entity, ImportFormat format) {
+        this.id = id;
+        this.entity = entity;
+        this.format = format;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    synchronized boolean isRunning() {
+        return finishedAt == null;
+    }
+
+    /**
+     * Count a written chunk with the rows rejected from it
+     */
+    synchronized void chunkWritten(int rows, int imported, List<ImportErrorDTO> rejected) {
+        rowsRead += rows;
+        rowsImported += imported;
+        rowsRejected += rejected.size();
+        for (ImportErrorDTO error : rejected) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(error);
+            } else {
+                errorsOmitted++;
+            }
+        }
+    }
+
+    /**
+     * Count a chunk that was rolled back as a whole, reported once against its first row
+     */
+    synchronized void chunkFailed(long firstRow, long lastRow, int rows, String reason) {
+        rowsRead += rows;
+        rowsRejected += rows;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new ImportErrorDTO(firstRow, "Rows " + firstRow + "-" + lastRow + " were not imported: " + reason));
+        } else {
+            errorsOmitted += rows;
+        }
+    }
+
+    synchronized void complete() {
+        finish("COMPLETED", null);
+    }
+
+    synchronized void fail(String reason) {
+        finish("FAILED", reason);
+    }
+
+    synchronized ImportReportDTO toReport() {
+        ImportReportDTO report = new ImportReportDTO();
+        report.setJobId(id);
+        report.setEntity(entity.name());
+        report.setFormat(format.name());
+        report.setStatus(status);
+        report.setMessage(message);
+        report.setRowsRead(rowsRead);
+        report.setRowsImported(rowsImported);
+        report.setRowsRejected(rowsRejected);
+        long elapsedNanos = (finishedAt != null ? finishedNanos : System.nanoTime()) - startedNanos;
+        report.setRowsPerSecond(elapsedNanos > 0 ? Math.round(rowsRead * 1e9 / elapsedNanos) : 0);
+        report.setStartedAt(startedAt);
+        report.setFinishedAt(finishedAt);
+        report.setErrors(new ArrayList<>(errors));
+        report.setErrorsOmitted(errorsOmitted);
+        return report;
+    }
+
+    private void finish(String status, String message) {
+        this.status = status;
+        this.message = message;
+        this.finishedNanos = System.nanoTime();
+        this.finishedAt = LocalDateTime.now();
+    }
+}
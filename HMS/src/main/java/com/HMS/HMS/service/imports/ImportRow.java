@@ -0,0 +1,119 @@
+package com.HMS.HMS.service.imports;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One row of an import: its number in the file and its fields by name, or the reason it
+ * couldn't be read. The typed getters throw IllegalArgumentException naming the field,
+ * which the import reports against the row.
+ */
+public class ImportRow {
+
+    private final long number;
+    private final Map<String, String> fields;
+    private final String error;
+
+    private ImportRow(long number, Map<String, String> fields, String error) {
+        this.number = number;
+        this.fields = fields;
+        this.error = error;
+    }
+
+    public static ImportRow of(long number, Map<String, String> fields) {
+        return new ImportRow(number, fields, null);
+    }
+
+    public static ImportRow unreadable(long number, String error) {
+        return new ImportRow(number, Map.of(), error);
+    }
+
+    public long getNumber() {
+        return number;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * The trimmed field, or null if it is missing or blank
+     */
+    public String text(String field) {
+        String value = fields.get(field);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    public String required(String field) {
+        String value = text(field);
+        if (value == null) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        return value;
+    }
+
+    public Long longValue(String field) {
+        String value = text(field);
+        try {
+            return value != null ? Long.valueOf(value) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+    }
+
+    public LocalDate date(String field) {
+        String value = text(field);
+        try {
+            return value != null ? LocalDate.parse(value) : null;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(field + " is not a date (yyyy-MM-dd): " + value);
+        }
+    }
+
+    public LocalTime time(String field) {
+        String value = text(field);
+        try {
+            return value != null ? LocalTime.parse(value) : null;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(field + " is not a time (HH:mm): " + value);
+        }
+    }
+
+    /**
+     * A date and time as yyyy-MM-ddTHH:mm[:ss] or yyyy-MM-dd HH:mm[:ss]; a date alone is
+     * the start of that day
+     */
+    public LocalDateTime dateTime(String field) {
+        String value = text(field);
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (value.length() == 10) {
+                return LocalDate.parse(value).atStartOfDay();
+            }
+            return LocalDateTime.parse(value.replace(' ', 'T'));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(field + " is not a date and time (yyyy-MM-ddTHH:mm:ss): " + value);
+        }
+    }
+
+    public <E extends Enum<E>> E enumValue(String field, Class<E> type, E defaultValue) {
+        String value = text(field);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(field + " is not a valid " + type.getSimpleName() + ": " + value);
+        }
+    }
+}
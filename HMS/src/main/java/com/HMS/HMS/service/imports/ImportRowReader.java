@@ -0,0 +1,166 @@
+package com.HMS.HMS.service.imports;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads import rows one at a time, so an import holds one chunk of rows in memory
+ * however large the upload is.
+ *
+ * NDJSON has one JSON object per line. CSV starts with a header line naming the fields,
+ * then one row per line; a field may be quoted with double quotes, a doubled quote inside
+ * quotes is a quote, and a quoted field may span lines. Blank lines are skipped. A row
+ * that can't be parsed is returned with its error rather than ending the import.
+ */
+public class ImportRowReader implements Closeable {
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final BufferedReader reader;
+    private final ImportFormat format;
+    private final ObjectMapper objectMapper;
+
+    private String[] header;
+    private long rowNumber;
+    private boolean firstLine = true;
+
+    public ImportRowReader(InputStream in, ImportFormat format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * The next row, or null at the end of the input
+     */
+    public ImportRow next() throws IOException {
+        String line = nextLine();
+        if (line == null) {
+            return null;
+        }
+        if (format == ImportFormat.NDJSON) {
+            return jsonRow(++rowNumber, line);
+        }
+
+        if (header == null) {
+            List<String> names = new ArrayList<>();
+            if (scanCsv(line, names, new StringBuilder(), false) != null) {
+                throw new IllegalArgumentException("CSV header has an unterminated quoted field");
+            }
+            header = names.stream().map(String::trim).toArray(String[]::new);
+            line = nextLine();
+            if (line == null) {
+                return null;
+            }
+        }
+        return csvRow(++rowNumber, line);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Helper methods
+    private String nextLine() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line != null && firstLine) {
+                firstLine = false;
+                if (!line.isEmpty() && line.charAt(0) == BYTE_ORDER_MARK) {
+                    line = line.substring(1);
+                }
+            }
+        } while (line != null && line.isBlank());
+        return line;
+    }
+
+    private ImportRow jsonRow(long number, String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            return ImportRow.unreadable(number, "Invalid JSON: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            return ImportRow.unreadable(number, "Expected a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (Map.Entry<String, JsonNode> field : node.properties()) {
+            JsonNode value = field.getValue();
+            if (!value.isNull()) {
+                fields.put(field.getKey(), value.isValueNode() ? value.asText() : value.toString());
+            }
+        }
+        return ImportRow.of(number, fields);
+    }
+
+    private ImportRow csvRow(long number, String line) throws IOException {
+        List<String> values = new ArrayList<>(header.length);
+        StringBuilder quoted = scanCsv(line, values, new StringBuilder(), false);
+        // A quoted field runs on over the following lines until its closing quote
+        while (quoted != null) {
+            String next = reader.readLine();
+            if (next == null) {
+                return ImportRow.unreadable(number, "Unterminated quoted field");
+            }
+            quoted.append('\n');
+            quoted = scanCsv(next, values, quoted, true);
+        }
+        if (values.size() != header.length) {
+            return ImportRow.unreadable(number, "Expected " + header.length + " fields but found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            fields.put(header[i], values.get(i));
+        }
+        return ImportRow.of(number, fields);
+    }
+
+    /**
+     * Split a CSV line into values, carrying on from field if the previous line ended
+     * inside quotes. Returns the field read so far if this line ends inside quotes too,
+     * otherwise null.
+     */
+    private static StringBuilder scanCsv(String line, List<String> values, StringBuilder field, boolean inQuotes) {
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i++);
+            if (inQuotes) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    inQuotes = false;
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                values.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (inQuotes) {
+            return field;
+        }
+        values.add(field.toString());
+        return null;
+    }
+}
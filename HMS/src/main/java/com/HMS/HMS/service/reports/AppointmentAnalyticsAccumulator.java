@@ -0,0 +1,283 @@
+package com.HMS.HMS.service.reports;
+
+import com.HMS.HMS.DTO.reports.*;
+import com.HMS.HMS.model.Appointment.AppointmentStatus;
+import com.HMS.HMS.model.Appointment.AppointmentType;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.TextStyle;
+import java.util.*;
+
+/**
+ * Counters for every section of the appointment analytics report, filled from one pass
+ * over a year's appointments.
+ *
+ * Each row is a flat (date, time, status, type, doctor id) tuple folded into primitive
+ * arrays indexed by month, weekday, hour, status and type, plus one small counter array
+ * per doctor, so memory depends on the number of doctors and not on the number of
+ * appointments. The report lists are built from the counters once the pass is done.
+ * Accumulators filled from different date ranges of the same year merge by adding
+ * their counters.
+ */
+public class AppointmentAnalyticsAccumulator {
+
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+    private static final AppointmentType[] TYPES = AppointmentType.values();
+    private static final String[] TYPE_COLORS = {"#2196F3", "#4CAF50", "#FF9800", "#9C27B0", "#F44336", "#00BCD4"};
+    private static final String[] DAY_NAMES = {"Sunday", "Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday"};
+
+    private static final int DOCTOR_TOTAL = 0;
+    private static final int DOCTOR_COMPLETED = 1;
+    private static final int DOCTOR_CANCELLED = 2;
+
+    private final int year;
+
+    private long total;
+    private final long[] byStatus = new long[STATUSES.length];
+    private final long[] byType = new long[TYPES.length];
+    // [month 0-11][status ordinal]
+    private final long[][] byMonthAndStatus = new long[12][STATUSES.length];
+    private final long[] byMonth = new long[12];
+    // 0 = Sunday ... 6 = Saturday
+    private final long[] byDayOfWeek = new long[7];
+    private final long[] byHour = new long[24];
+    private final Map<Long, long[]> byDoctor = new HashMap<>();
+
+    public AppointmentAnalyticsAccumulator(int year) {
+        this.year = year;
+    }
+
+    public void add(LocalDate date, LocalTime time, AppointmentStatus status, AppointmentType type, Long doctorId) {
+        total++;
+        if (status != null) {
+            byStatus[status.ordinal()]++;
+        }
+        if (type != null) {
+            byType[type.ordinal()]++;
+        }
+        if (date != null) {
+            int month = date.getMonthValue() - 1;
+            byMonth[month]++;
+            if (status != null) {
+                byMonthAndStatus[month][status.ordinal()]++;
+            }
+            byDayOfWeek[date.getDayOfWeek().getValue() % 7]++;
+        }
+        if (time != null) {
+            byHour[time.getHour()]++;
+        }
+        if (doctorId != null) {
+            long[] counts = byDoctor.computeIfAbsent(doctorId, id -> new long[3]);
+            counts[DOCTOR_TOTAL]++;
+            if (status == AppointmentStatus.COMPLETED) {
+                counts[DOCTOR_COMPLETED]++;
+            } else if (status == AppointmentStatus.CANCELLED) {
+                counts[DOCTOR_CANCELLED]++;
+            }
+        }
+    }
+
+    /**
+     * Add the counters of another accumulator for the same year into this one
+     */
+    public AppointmentAnalyticsAccumulator merge(AppointmentAnalyticsAccumulator other) {
+        if (other.year != year) {
+            throw new IllegalArgumentException("Cannot merge analytics for " + other.year + " into " + year);
+        }
+        total += other.total;
+        addInto(byStatus, other.byStatus);
+        addInto(byType, other.byType);
+        for (int month = 0; month < 12; month++) {
+            addInto(byMonthAndStatus[month], other.byMonthAndStatus[month]);
+        }
+        addInto(byMonth, other.byMonth);
+        addInto(byDayOfWeek, other.byDayOfWeek);
+        addInto(byHour, other.byHour);
+        for (Map.Entry<Long, long[]> entry : other.byDoctor.entrySet()) {
+            addInto(byDoctor.computeIfAbsent(entry.getKey(), id -> new long[3]), entry.getValue());
+        }
+        return this;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Set<Long> getDoctorIds() {
+        return byDoctor.keySet();
+    }
+
+    /**
+     * Fill the report sections. Doctor details are rows of (employee id, name,
+     * specialization) keyed by employee id.
+     */
+    public void fill(AppointmentAnalyticsReportDTO report, Map<Long, Object[]> doctors) {
+        fillSummary(report);
+        report.setAppointmentTypeDistribution(typeDistribution());
+        report.setAppointmentStatusDistribution(statusDistribution());
+        report.setMonthlyTrends(monthlyTrends());
+        report.setDailyPatterns(dailyPatterns());
+        report.setDoctorPerformance(doctorPerformance(doctors));
+        report.setTimeSlotAnalysis(timeSlotAnalysis());
+        report.setWeeklyPatterns(weeklyPatterns());
+    }
+
+    // Helper methods
+    private void fillSummary(AppointmentAnalyticsReportDTO report) {
+        long completed = byStatus[AppointmentStatus.COMPLETED.ordinal()];
+        long cancelled = byStatus[AppointmentStatus.CANCELLED.ordinal()];
+
+        report.setTotalAppointments(total);
+        report.setCompletedAppointments(completed);
+        report.setCancelledAppointments(cancelled);
+        report.setScheduledAppointments(byStatus[AppointmentStatus.SCHEDULED.ordinal()]);
+
+        if (total > 0) {
+            report.setCompletionRate((double) completed / total * 100);
+            report.setCancellationRate((double) cancelled / total * 100);
+        }
+    }
+
+    private List<AppointmentTypeChartDataDTO> typeDistribution() {
+        List<AppointmentTypeChartDataDTO> distribution = new ArrayList<>();
+        int colorIndex = 0;
+        for (AppointmentType type : TYPES) {
+            long count = byType[type.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            distribution.add(new AppointmentTypeChartDataDTO(type.name(), count, percentage(count),
+                    TYPE_COLORS[colorIndex % TYPE_COLORS.length]));
+            colorIndex++;
+        }
+        return distribution;
+    }
+
+    private List<AppointmentStatusChartDataDTO> statusDistribution() {
+        List<AppointmentStatusChartDataDTO> distribution = new ArrayList<>();
+        for (AppointmentStatus status : STATUSES) {
+            long count = byStatus[status.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+
+            String color;
+            String description;
+            switch (status) {
+                case COMPLETED:
+                    color = "#4CAF50";
+                    description = "Appointments that were successfully completed";
+                    break;
+                case CANCELLED:
+                    color = "#F44336";
+                    description = "Appointments that were cancelled";
+                    break;
+                case SCHEDULED:
+                    color = "#2196F3";
+                    description = "Appointments that are scheduled";
+                    break;
+                default:
+                    color = "#9E9E9E";
+                    description = "Other appointment status";
+            }
+
+            distribution.add(new AppointmentStatusChartDataDTO(status.name(), count, percentage(count), color, description));
+        }
+        return distribution;
+    }
+
+    private List<MonthlyAppointmentTrendDTO> monthlyTrends() {
+        List<MonthlyAppointmentTrendDTO> trends = new ArrayList<>(12);
+        for (int month = 0; month < 12; month++) {
+            long[] statuses = byMonthAndStatus[month];
+            trends.add(new MonthlyAppointmentTrendDTO(month + 1, monthName(month, TextStyle.FULL),
+                    byMonth[month],
+                    statuses[AppointmentStatus.COMPLETED.ordinal()],
+                    statuses[AppointmentStatus.CANCELLED.ordinal()],
+                    statuses[AppointmentStatus.SCHEDULED.ordinal()]));
+        }
+        return trends;
+    }
+
+    private List<DailyAppointmentPatternDTO> dailyPatterns() {
+        List<DailyAppointmentPatternDTO> patterns = new ArrayList<>(7);
+        for (int day = 0; day < 7; day++) {
+            long count = byDayOfWeek[day];
+            DailyAppointmentPatternDTO pattern = new DailyAppointmentPatternDTO(DAY_NAMES[day], day + 1, 0, 0, "N/A");
+            if (count > 0) {
+                pattern.setAppointmentCount(count);
+                pattern.setAverageAppointments(count / 52.0); // Approximate weeks in a year
+            }
+            patterns.add(pattern);
+        }
+        return patterns;
+    }
+
+    private List<DoctorAppointmentStatsDTO> doctorPerformance(Map<Long, Object[]> doctors) {
+        List<DoctorAppointmentStatsDTO> performance = new ArrayList<>(byDoctor.size());
+        for (Map.Entry<Long, long[]> entry : byDoctor.entrySet()) {
+            Object[] doctor = doctors.get(entry.getKey());
+            long[] counts = entry.getValue();
+
+            DoctorAppointmentStatsDTO stats = new DoctorAppointmentStatsDTO(
+                    entry.getKey(),
+                    doctor != null ? (String) doctor[1] : null,
+                    doctor != null ? (String) doctor[2] : null,
+                    counts[DOCTOR_TOTAL], counts[DOCTOR_COMPLETED], counts[DOCTOR_CANCELLED]
+            );
+            stats.setAverageAppointmentsPerDay(counts[DOCTOR_TOTAL] / 250.0);
+            performance.add(stats);
+        }
+
+        // Sort by total appointments descending
+        performance.sort((a, b) -> Long.compare(b.getTotalAppointments(), a.getTotalAppointments()));
+        return performance;
+    }
+
+    private List<TimeSlotAnalysisDTO> timeSlotAnalysis() {
+        long maxCount = 1;
+        for (long count : byHour) {
+            maxCount = Math.max(maxCount, count);
+        }
+
+        List<TimeSlotAnalysisDTO> analysis = new ArrayList<>();
+        for (int hour = 0; hour < 24; hour++) {
+            long count = byHour[hour];
+            if (count == 0) {
+                continue;
+            }
+            String timeSlot = String.format("%02d:00-%02d:00", hour, hour + 1);
+            analysis.add(new TimeSlotAnalysisDTO(timeSlot, hour, count, (double) count / maxCount * 100));
+        }
+        return analysis;
+    }
+
+    private List<WeeklyPatternDTO> weeklyPatterns() {
+        // Simplified weekly patterns - one row per month with appointments
+        List<WeeklyPatternDTO> patterns = new ArrayList<>();
+        for (int month = 0; month < 12; month++) {
+            if (byMonth[month] == 0) {
+                continue;
+            }
+            String weekRange = String.format("%s %d", monthName(month, TextStyle.SHORT), year);
+            patterns.add(new WeeklyPatternDTO(month + 1, weekRange, byMonth[month],
+                    byMonthAndStatus[month][AppointmentStatus.COMPLETED.ordinal()], "Monday", "Sunday"));
+        }
+        return patterns;
+    }
+
+    private static void addInto(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+
+    private double percentage(long count) {
+        return total > 0 ? (double) count / total * 100 : 0;
+    }
+
+    private String monthName(int month, TextStyle style) {
+        return LocalDate.of(year, month + 1, 1).getMonth().getDisplayName(style, Locale.ENGLISH);
+    }
+}
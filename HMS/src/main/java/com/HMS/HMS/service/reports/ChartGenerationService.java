@@ -1163,14 +1163,14 @@ public class ChartGenerationService {
 
         for (Map<String, Object> data : monthlyData) {
             String month = (String) data.get("month");
-            Integer prescriptions = (Integer) data.get("prescriptions");
-            Double revenue = (Double) data.get("revenue");
+            Number prescriptions = (Number) data.get("prescriptions");
+            Number revenue = (Number) data.get("revenue");
             
             // Add prescription count
             dataset.addValue(prescriptions, "Prescriptions Dispensed", month.substring(0, 3));
             
             // Add revenue (scaled down for better visualization)
-            dataset.addValue(revenue / 100, "Revenue (x100)", month.substring(0, 3));
+            dataset.addValue(revenue.doubleValue() / 100, "Revenue (x100)", month.substring(0, 3));
         }
 
         JFreeChart chart = ChartFactory.createLineChart(
@@ -1211,7 +1211,7 @@ public class ChartGenerationService {
 
         for (Map<String, Object> data : monthlyData) {
             String month = (String) data.get("month");
-            Integer prescriptions = (Integer) data.get("prescriptions");
+            Number prescriptions = (Number) data.get("prescriptions");
             
             // Only show prescription count for cleaner visualization
             dataset.addValue(prescriptions, "Monthly Prescriptions", month.substring(0, 3));
@@ -0,0 +1,300 @@
+package com.HMS.HMS.service.reports;
+
+import com.HMS.HMS.model.LabRequest.LabReportRollup;
+import com.HMS.HMS.model.LabRequest.LabReportRollup.Dimension;
+import com.HMS.HMS.model.LabRequest.LabRequestStatus;
+import com.HMS.HMS.repository.LabReportRollupRepository;
+import com.HMS.HMS.repository.LabRequestRepository;
+import com.HMS.HMS.repository.TestResultRepository;
+import com.HMS.HMS.util.QuantileSketch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Builds and serves the stored rollups behind the laboratory annual report.
+ *
+ * A year is rebuilt from lab_requests, lab_tests and test_results with a handful of
+ * grouped queries plus one pass over the year's results for turnaround, then stored in
+ * lab_report_rollups so the report reads a few dozen rows regardless of volume. Past
+ * years are built once; the current year is rebuilt when its rollups are older than
+ * REFRESH_INTERVAL.
+ *
+ * Rebuilds of one year are serialized in this instance and each runs in its own
+ * transaction, so requests that find the year stale together wait for one rebuild and
+ * read its rows instead of each deleting and rewriting them.
+ */
+@Service
+public class LabReportRollupService {
+
+    private static final Duration REFRESH_INTERVAL = Duration.ofMinutes(15);
+
+    private final LabReportRollupRepository rollupRepository;
+    private final LabRequestRepository labRequestRepository;
+    private final TestResultRepository testResultRepository;
+    private final TransactionTemplate transaction;
+
+    // year -> monitor held while that year is rebuilt
+    private final Map<Integer, Object> rebuildLocks = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LabReportRollupService(LabReportRollupRepository rollupRepository,
+                                  LabRequestRepository labRequestRepository,
+                                  TestResultRepository testResultRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.labRequestRepository = labRequestRepository;
+        this.testResultRepository = testResultRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Rollups for a year, building them first when missing or stale
+     */
+    public YearRollups getYear(int year) {
+        List<LabReportRollup> rows = rollupRepository.findByPeriodYear(year);
+        if (rows.isEmpty() || isStale(year, rows)) {
+            synchronized (rebuildLock(year)) {
+                // Another request may have rebuilt the year while this one waited
+                rows = rollupRepository.findByPeriodYear(year);
+                if (rows.isEmpty() || isStale(year, rows)) {
+                    rows = transaction.execute(status -> build(year));
+                }
+            }
+        }
+        return YearRollups.of(year, rows);
+    }
+
+    /**
+     * Stored rollups for a year without building them, or empty when none exist
+     */
+    @Transactional(readOnly = true)
+    public Optional<YearRollups> findYear(int year) {
+        List<LabReportRollup> rows = rollupRepository.findByPeriodYear(year);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(YearRollups.of(year, rows));
+    }
+
+    /**
+     * Recompute a year's rollups from the source tables, after any rebuild of the year
+     * already running
+     */
+    public List<LabReportRollup> rebuildYear(int year) {
+        synchronized (rebuildLock(year)) {
+            return transaction.execute(status -> build(year));
+        }
+    }
+
+    // Helper methods
+    private List<LabReportRollup> build(int year) {
+        LocalDateTime start = LocalDate.of(year, 1, 1).atStartOfDay();
+        LocalDateTime end = LocalDate.of(year, 12, 31).atTime(23, 59, 59);
+
+        Map<Integer, LabReportRollup> months = new TreeMap<>();
+        for (int month = 1; month <= 12; month++) {
+            months.put(month, new LabReportRollup(year, month, Dimension.MONTH, ""));
+        }
+        LabReportRollup yearRow = new LabReportRollup(year, 0, Dimension.YEAR, "");
+        Map<String, LabReportRollup> testTypes = new HashMap<>();
+        Map<String, LabReportRollup> wards = new HashMap<>();
+
+        // Requests by month and ward
+        for (Object[] row : labRequestRepository.aggregateRequestsByMonthAndWard(
+                start, end, LabRequestStatus.COMPLETED, LabRequestStatus.CANCELLED)) {
+            long requests = toLong(row[2]);
+            long completed = toLong(row[3]);
+            long cancelled = toLong(row[4]);
+            for (LabReportRollup rollup : List.of(months.get(toInt(row[0])), ward(wards, year, row[1]))) {
+                rollup.setRequestCount(rollup.getRequestCount() + requests);
+                rollup.setCompletedCount(rollup.getCompletedCount() + completed);
+                rollup.setCancelledCount(rollup.getCancelledCount() + cancelled);
+            }
+        }
+        for (Object[] row : labRequestRepository.countUrgentRequestsByMonthAndWard(start, end)) {
+            long urgent = toLong(row[2]);
+            for (LabReportRollup rollup : List.of(months.get(toInt(row[0])), ward(wards, year, row[1]))) {
+                rollup.setUrgentRequestCount(rollup.getUrgentRequestCount() + urgent);
+            }
+        }
+        for (Object[] row : labRequestRepository.countPatientsByMonth(start, end)) {
+            months.get(toInt(row[0])).setPatientCount(toLong(row[1]));
+        }
+        yearRow.setPatientCount(toLong(labRequestRepository.countDistinctPatients(start, end)));
+
+        // Ordered tests by month, test type and ward
+        Map<String, Map<String, Long>> wardsPerTest = new HashMap<>();
+        Map<String, Map<String, Long>> testsPerWard = new HashMap<>();
+        for (Object[] row : labRequestRepository.aggregateTestsByMonthTypeAndWard(start, end)) {
+            String testName = (String) row[1];
+            String wardName = wardName(row[3]);
+            long tests = toLong(row[4]);
+            long urgent = toLong(row[5]);
+
+            LabReportRollup testType = testTypes.computeIfAbsent(testName,
+                    name -> new LabReportRollup(year, 0, Dimension.TEST_TYPE, name));
+            testType.setCategory((String) row[2]);
+            for (LabReportRollup rollup : List.of(months.get(toInt(row[0])), testType, ward(wards, year, wardName))) {
+                rollup.setTestCount(rollup.getTestCount() + tests);
+                rollup.setUrgentTestCount(rollup.getUrgentTestCount() + urgent);
+            }
+            wardsPerTest.computeIfAbsent(testName, name -> new HashMap<>()).merge(wardName, tests, Long::sum);
+            testsPerWard.computeIfAbsent(wardName, name -> new HashMap<>()).merge(testName, tests, Long::sum);
+        }
+        testTypes.forEach((name, rollup) -> rollup.setTopItem(mostCommon(wardsPerTest.get(name))));
+        wards.forEach((name, rollup) -> rollup.setTopItem(mostCommon(testsPerWard.get(name))));
+
+        // Turnaround: per result for test types, per request (last result) for months and wards
+        Map<Integer, QuantileSketch> monthSketches = new HashMap<>();
+        Map<String, QuantileSketch> testTypeSketches = new HashMap<>();
+        Map<String, QuantileSketch> wardSketches = new HashMap<>();
+        Map<String, Object[]> lastResultPerRequest = new HashMap<>();
+        Map<String, Integer> resultsPerRequestAndTest = new HashMap<>();
+
+        try (Stream<Object[]> results = testResultRepository.streamTurnaroundRows(start, end)) {
+            results.forEach(row -> {
+                String requestId = (String) row[0];
+                String wardName = wardName(row[1]);
+                String testName = (String) row[2];
+                LocalDateTime requestDate = (LocalDateTime) row[3];
+                LocalDateTime completedAt = (LocalDateTime) row[4];
+                if (requestDate == null || completedAt == null) {
+                    return;
+                }
+
+                LabReportRollup testType = testTypes.computeIfAbsent(testName,
+                        name -> new LabReportRollup(year, 0, Dimension.TEST_TYPE, name));
+                LabReportRollup month = months.get(requestDate.getMonthValue());
+                LabReportRollup ward = ward(wards, year, wardName);
+                for (LabReportRollup rollup : List.of(month, testType, ward)) {
+                    rollup.setResultCount(rollup.getResultCount() + 1);
+                }
+                if (resultsPerRequestAndTest.merge(requestId + "|" + testName, 1, Integer::sum) > 1) {
+                    for (LabReportRollup rollup : List.of(month, testType, ward)) {
+                        rollup.setRepeatCount(rollup.getRepeatCount() + 1);
+                    }
+                }
+
+                testTypeSketches.computeIfAbsent(testName, name -> new QuantileSketch())
+                        .add(minutesBetween(requestDate, completedAt));
+                lastResultPerRequest.merge(requestId, row,
+                        (current, candidate) -> ((LocalDateTime) candidate[4]).isAfter((LocalDateTime) current[4]) ? candidate : current);
+            });
+        }
+        for (Object[] row : lastResultPerRequest.values()) {
+            LocalDateTime requestDate = (LocalDateTime) row[3];
+            double minutes = minutesBetween(requestDate, (LocalDateTime) row[4]);
+            monthSketches.computeIfAbsent(requestDate.getMonthValue(), month -> new QuantileSketch()).add(minutes);
+            wardSketches.computeIfAbsent(wardName(row[1]), name -> new QuantileSketch()).add(minutes);
+        }
+        monthSketches.forEach((month, sketch) -> months.get(month).setTurnaroundSketch(sketch.toBytes()));
+        testTypeSketches.forEach((name, sketch) -> testTypes.get(name).setTurnaroundSketch(sketch.toBytes()));
+        wardSketches.forEach((name, sketch) -> wards.get(name).setTurnaroundSketch(sketch.toBytes()));
+
+        List<LabReportRollup> rollups = new ArrayList<>(months.values());
+        rollups.add(yearRow);
+        rollups.addAll(testTypes.values());
+        rollups.addAll(wards.values());
+
+        rollupRepository.deleteByPeriodYear(year);
+        rollupRepository.flush();
+        return rollupRepository.saveAll(rollups);
+    }
+
+    private Object rebuildLock(int year) {
+        return rebuildLocks.computeIfAbsent(year, y -> new Object());
+    }
+
+    private boolean isStale(int year, List<LabReportRollup> rows) {
+        if (year < LocalDate.now().getYear()) {
+            return false;
+        }
+        LocalDateTime builtAt = rows.get(0).getUpdatedAt();
+        return builtAt == null || builtAt.isBefore(LocalDateTime.now().minus(REFRESH_INTERVAL));
+    }
+
+    private static LabReportRollup ward(Map<String, LabReportRollup> wards, int year, Object wardName) {
+        return wards.computeIfAbsent(wardName(wardName), name -> new LabReportRollup(year, 0, Dimension.WARD, name));
+    }
+
+    private static String wardName(Object value) {
+        return value != null ? (String) value : "Unassigned";
+    }
+
+    private static String mostCommon(Map<String, Long> counts) {
+        if (counts == null || counts.isEmpty()) {
+            return null;
+        }
+        return Collections.max(counts.entrySet(), Map.Entry.comparingByValue()).getKey();
+    }
+
+    private static double minutesBetween(LocalDateTime from, LocalDateTime to) {
+        return Math.max(0, Duration.between(from, to).getSeconds() / 60.0);
+    }
+
+    private static int toInt(Object value) {
+        return ((Number) value).intValue();
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    /**
+     * One year's rollups split by dimension. Months are ordered January to December.
+     */
+    public record YearRollups(int year, List<LabReportRollup> months, LabReportRollup total,
+                              List<LabReportRollup> testTypes, List<LabReportRollup> wards) {
+
+        static YearRollups of(int year, List<LabReportRollup> rows) {
+            LabReportRollup[] months = new LabReportRollup[12];
+            LabReportRollup total = null;
+            List<LabReportRollup> testTypes = new ArrayList<>();
+            List<LabReportRollup> wards = new ArrayList<>();
+            for (LabReportRollup row : rows) {
+                switch (row.getDimension()) {
+                    case MONTH -> months[row.getPeriodMonth() - 1] = row;
+                    case YEAR -> total = row;
+                    case TEST_TYPE -> testTypes.add(row);
+                    case WARD -> wards.add(row);
+                }
+            }
+            for (int i = 0; i < months.length; i++) {
+                if (months[i] == null) {
+                    months[i] = new LabReportRollup(year, i + 1, Dimension.MONTH, "");
+                }
+            }
+            if (total == null) {
+                total = new LabReportRollup(year, 0, Dimension.YEAR, "");
+            }
+            return new YearRollups(year, List.of(months), total, testTypes, wards);
+        }
+
+        /**
+         * Request turnaround for the whole year, merged from the monthly sketches
+         */
+        public QuantileSketch turnaround() {
+            QuantileSketch merged = new QuantileSketch();
+            for (LabReportRollup month : months) {
+                merged.merge(QuantileSketch.fromBytes(month.getTurnaroundSketch()));
+            }
+            return merged;
+        }
+
+        public long sum(Function<LabReportRollup, Long> field) {
+            long total = 0;
+            for (LabReportRollup month : months) {
+                total += field.apply(month);
+            }
+            return total;
+        }
+    }
+}
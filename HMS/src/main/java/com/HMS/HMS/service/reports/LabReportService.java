@@ -1,25 +1,50 @@
 package com.HMS.HMS.service.reports;
 
 import com.HMS.HMS.DTO.reports.*;
+import com.HMS.HMS.model.LabRequest.LabReportRollup;
+import com.HMS.HMS.model.ward.Ward;
+import com.HMS.HMS.repository.WardRepository;
+import com.HMS.HMS.service.LabEquipmentService;
+import com.HMS.HMS.service.LabResultFlagService;
+import com.HMS.HMS.service.reports.LabReportRollupService.YearRollups;
+import com.HMS.HMS.util.QuantileSketch;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.TextStyle;
+import java.util.*;
 
 /**
- * Service for generating Laboratory Annual Reports with mock data for 2025
+ * Service for generating Laboratory Annual Reports from the stored lab rollups
  */
 @Service
 public class LabReportService {
 
-    private final Random random = new Random();
-    
+    // Request-to-result target used by the report, in hours
+    private static final double TURNAROUND_TARGET_HOURS = 4.0;
+
+    private final LabReportRollupService rollupService;
+    private final WardRepository wardRepository;
+    private final LabResultFlagService labResultFlagService;
+    private final LabEquipmentService equipmentService;
+
+    @Autowired
+    public LabReportService(LabReportRollupService rollupService, WardRepository wardRepository,
+                            LabResultFlagService labResultFlagService, LabEquipmentService equipmentService) {
+        this.rollupService = rollupService;
+        this.wardRepository = wardRepository;
+        this.labResultFlagService = labResultFlagService;
+        this.equipmentService = equipmentService;
+    }
+
     /**
-     * Generate comprehensive Laboratory Annual Report for 2025
+     * Generate comprehensive Laboratory Annual Report for a year
      */
     public LabAnnualReportDTO generateAnnualReport(int year) {
         LabAnnualReportDTO report = new LabAnnualReportDTO(
@@ -27,266 +52,260 @@ public class LabReportService {
             LocalDateTime.now(),
             "Laboratory Department Annual Report " + year
         );
-        
-        // Generate all report sections with mock data
-        report.setOverallStatistics(generateOverallStatistics());
-        report.setMonthlyVolumes(generateMonthlyVolumes());
-        report.setTestTypeStatistics(generateTestTypeStatistics());
-        report.setEquipmentUtilization(generateEquipmentUtilization());
-        report.setPerformanceMetrics(generatePerformanceMetrics());
-        report.setWardRequests(generateWardRequests());
-        report.setQualityMetrics(generateQualityMetrics());
-        
+
+        YearRollups rollups = rollupService.getYear(year);
+        YearRollups previous = rollupService.findYear(year - 1).orElse(null);
+
+        List<EquipmentUtilizationDTO> equipment = equipmentService.getUtilization(
+                LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+
+        report.setOverallStatistics(buildOverallStatistics(rollups, equipment));
+        report.setMonthlyVolumes(buildMonthlyVolumes(rollups));
+        report.setTestTypeStatistics(buildTestTypeStatistics(rollups));
+        report.setEquipmentUtilization(equipment);
+        report.setPerformanceMetrics(buildPerformanceMetrics(rollups, previous));
+        report.setWardRequests(buildWardRequests(rollups));
+        report.setQualityMetrics(buildQualityMetrics(rollups, previous));
+
         return report;
     }
-    
+
     /**
-     * Generate overall statistics for the laboratory
+     * Overall statistics for the laboratory
      */
-    private LabOverallStatisticsDTO generateOverallStatistics() {
+    private LabOverallStatisticsDTO buildOverallStatistics(YearRollups rollups, List<EquipmentUtilizationDTO> equipment) {
         LabOverallStatisticsDTO stats = new LabOverallStatisticsDTO();
-        
-        // Generate realistic annual figures for 2025
-        stats.setTotalTests(125000L + random.nextInt(25000)); // 125K-150K tests per year
-        stats.setTotalPatients(45000L + random.nextInt(10000)); // 45K-55K patients
-        stats.setAvgTurnaroundTime(BigDecimal.valueOf(4.2 + random.nextDouble() * 2).setScale(1, RoundingMode.HALF_UP));
-        stats.setQualityScore(92.0 + random.nextDouble() * 6); // 92-98%
-        stats.setUrgentTests(15000L + random.nextInt(5000));
-        stats.setNormalTests(stats.getTotalTests() - stats.getUrgentTests());
-        stats.setEquipmentCount(25L + random.nextInt(10));
-        stats.setEquipmentUptime(95.0 + random.nextDouble() * 4); // 95-99%
-        stats.setTestsCancelled(1200L + random.nextInt(300));
-        stats.setTestsRepeated(800L + random.nextInt(200));
-        
+
+        long totalTests = rollups.sum(LabReportRollup::getTestCount);
+        long urgentTests = rollups.sum(LabReportRollup::getUrgentTestCount);
+
+        stats.setTotalTests(totalTests);
+        stats.setTotalPatients(rollups.total().getPatientCount());
+        stats.setAvgTurnaroundTime(hours(rollups.turnaround().getMean()));
+        stats.setQualityScore(qualityScore(rollups));
+        stats.setUrgentTests(urgentTests);
+        stats.setNormalTests(totalTests - urgentTests);
+        stats.setEquipmentCount((long) equipment.size());
+        stats.setEquipmentUptime(equipment.stream()
+                .mapToDouble(EquipmentUtilizationDTO::getUptimePercentage).average().orElse(0.0));
+        stats.setTestsCancelled(rollups.sum(LabReportRollup::getCancelledCount));
+        stats.setTestsRepeated(rollups.sum(LabReportRollup::getRepeatCount));
+
         return stats;
     }
-    
+
     /**
-     * Generate monthly volume data for the year
+     * Monthly volume data for the year
      */
-    private List<MonthlyLabVolumeDTO> generateMonthlyVolumes() {
+    private List<MonthlyLabVolumeDTO> buildMonthlyVolumes(YearRollups rollups) {
         List<MonthlyLabVolumeDTO> monthlyData = new ArrayList<>();
-        
-        // Base monthly values with seasonal variation
-        int[] baseTestCounts = {9500, 9200, 10800, 11200, 11500, 12000, 
-                               11800, 11900, 12200, 12500, 11800, 10600};
-        
-        String[] monthNames = {"January", "February", "March", "April", "May", "June",
-                              "July", "August", "September", "October", "November", "December"};
-        
-        for (int i = 0; i < 12; i++) {
+
+        for (LabReportRollup month : rollups.months()) {
             MonthlyLabVolumeDTO monthly = new MonthlyLabVolumeDTO();
-            monthly.setMonth(i + 1);
-            monthly.setMonthName(monthNames[i]);
-            
-            // Add some randomness to base values
-            Long testCount = (long) (baseTestCounts[i] + random.nextInt(1000) - 500);
-            monthly.setTestCount(testCount);
-            monthly.setPatientCount((long) (testCount * 0.35 + random.nextInt(200)));
-            monthly.setAvgTurnaroundTime(BigDecimal.valueOf(3.8 + random.nextDouble() * 2.4).setScale(1, RoundingMode.HALF_UP));
-            monthly.setUrgentTests((long) (testCount * 0.12 + random.nextInt(100)));
-            monthly.setNormalTests(testCount - monthly.getUrgentTests());
-            monthly.setQualityScore(90.0 + random.nextDouble() * 8);
-            
+            monthly.setMonth(month.getPeriodMonth());
+            monthly.setMonthName(Month.of(month.getPeriodMonth()).getDisplayName(TextStyle.FULL, Locale.ENGLISH));
+            monthly.setTestCount(month.getTestCount());
+            monthly.setPatientCount(month.getPatientCount());
+            monthly.setAvgTurnaroundTime(hours(QuantileSketch.fromBytes(month.getTurnaroundSketch()).getMean()));
+            monthly.setUrgentTests(month.getUrgentTestCount());
+            monthly.setNormalTests(month.getTestCount() - month.getUrgentTestCount());
+            monthly.setQualityScore(qualityScore(month.getRequestCount(), month.getCancelledCount(),
+                    month.getResultCount(), month.getRepeatCount()));
+
             monthlyData.add(monthly);
         }
-        
+
         return monthlyData;
     }
-    
+
     /**
-     * Generate test type statistics
+     * Test type statistics, by ordered tests
      */
-    private List<TestTypeStatisticsDTO> generateTestTypeStatistics() {
+    private List<TestTypeStatisticsDTO> buildTestTypeStatistics(YearRollups rollups) {
         List<TestTypeStatisticsDTO> testStats = new ArrayList<>();
-        
-        // Define common laboratory tests with realistic distribution
-        String[][] testData = {
-            {"Complete Blood Count (CBC)", "Hematology"},
-            {"Basic Metabolic Panel", "Chemistry"},
-            {"Glucose", "Chemistry"},
-            {"Cholesterol Panel", "Chemistry"},
-            {"Urine Analysis", "Urinalysis"},
-            {"Thyroid Function Tests", "Endocrinology"},
-            {"Liver Function Tests", "Chemistry"},
-            {"Cardiac Enzymes", "Chemistry"},
-            {"Blood Culture", "Microbiology"},
-            {"COVID-19 PCR", "Molecular"},
-            {"Hemoglobin A1C", "Chemistry"},
-            {"Vitamin D", "Chemistry"},
-            {"Electrolytes", "Chemistry"},
-            {"Coagulation Studies", "Hematology"},
-            {"Tumor Markers", "Oncology"}
-        };
-        
-        // Distribution percentages that should sum to approximately 100%
-        double[] percentages = {18.5, 12.3, 11.8, 8.7, 8.2, 6.9, 6.1, 5.4, 4.8, 4.2, 3.9, 3.1, 2.8, 2.5, 2.2};
-        
-        String[] wards = {"ICU", "Emergency", "Cardiology", "Internal Medicine", "Pediatrics"};
-        
-        for (int i = 0; i < testData.length; i++) {
+        long totalTests = rollups.sum(LabReportRollup::getTestCount);
+        int daysInYear = Year.of(rollups.year()).length();
+
+        for (LabReportRollup testType : rollups.testTypes()) {
+            if (testType.getTestCount() == 0) {
+                // Results whose test name no longer matches an ordered test
+                continue;
+            }
+            QuantileSketch turnaround = QuantileSketch.fromBytes(testType.getTurnaroundSketch());
+
             TestTypeStatisticsDTO stat = new TestTypeStatisticsDTO();
-            stat.setTestType(testData[i][0]);
-            stat.setTestCategory(testData[i][1]);
-            stat.setPercentage(percentages[i] + random.nextDouble() * 2 - 1); // Add some variance
-            stat.setTotalTests((long) (140000 * percentages[i] / 100 + random.nextInt(1000)));
-            stat.setAvgProcessingTime((long) (45 + random.nextInt(90))); // 45-135 minutes
-            stat.setSuccessRate(95.0 + random.nextDouble() * 4); // 95-99%
-            stat.setTestsPerDay((long) (stat.getTotalTests() / 365 + random.nextInt(5)));
-            stat.setMostCommonWard(wards[random.nextInt(wards.length)]);
-            
+            stat.setTestType(testType.getDimensionKey());
+            stat.setTestCategory(testType.getCategory() != null ? testType.getCategory() : "General");
+            stat.setTotalTests(testType.getTestCount());
+            stat.setPercentage(percent(testType.getTestCount(), totalTests));
+            stat.setAvgProcessingTime(Math.round(turnaround.getMean()));
+            stat.setSuccessRate(Math.min(100.0, percent(testType.getResultCount() - testType.getRepeatCount(),
+                    testType.getTestCount())));
+            stat.setTestsPerDay(testType.getTestCount() / daysInYear);
+            stat.setMostCommonWard(testType.getTopItem() != null ? testType.getTopItem() : "N/A");
+
             testStats.add(stat);
         }
-        
+
+        testStats.sort((a, b) -> Long.compare(b.getTotalTests(), a.getTotalTests()));
         return testStats;
     }
-    
-    /**
-     * Generate equipment utilization data
-     */
-    private List<EquipmentUtilizationDTO> generateEquipmentUtilization() {
-        List<EquipmentUtilizationDTO> equipmentData = new ArrayList<>();
-        
-        String[][] equipment = {
-            {"Automated Chemistry Analyzer", "Chemistry", "CHEM-001"},
-            {"Hematology Analyzer", "Hematology", "HEMA-001"},
-            {"Blood Gas Analyzer", "Chemistry", "BGA-001"},
-            {"Coagulation Analyzer", "Hematology", "COAG-001"},
-            {"Immunoassay Analyzer", "Immunology", "IA-001"},
-            {"PCR Machine", "Molecular", "PCR-001"},
-            {"Microscope Station 1", "Microscopy", "MICRO-001"},
-            {"Centrifuge High-Speed", "General", "CENT-001"},
-            {"Urine Analyzer", "Urinalysis", "URINE-001"},
-            {"Blood Culture System", "Microbiology", "BC-001"}
-        };
-        
-        String[] statuses = {"Active", "Active", "Active", "Maintenance", "Active"};
-        
-        for (String[] eq : equipment) {
-            EquipmentUtilizationDTO util = new EquipmentUtilizationDTO();
-            util.setEquipmentName(eq[0]);
-            util.setEquipmentType(eq[1]);
-            util.setEquipmentId(eq[2]);
-            util.setUtilizationPercentage(75.0 + random.nextDouble() * 20); // 75-95%
-            util.setTestsProcessed((long) (8000 + random.nextInt(12000)));
-            util.setUptimePercentage(92.0 + random.nextDouble() * 6); // 92-98%
-            util.setDowntimeHours((long) (20 + random.nextInt(40)));
-            util.setStatus(statuses[random.nextInt(statuses.length)]);
-            util.setMaintenanceCount((long) (4 + random.nextInt(8)));
-            
-            equipmentData.add(util);
-        }
-        
-        return equipmentData;
-    }
-    
+
     /**
-     * Generate performance metrics
+     * Performance metrics, compared with the previous year when it has rollups
      */
-    private List<LabPerformanceMetricsDTO> generatePerformanceMetrics() {
+    private List<LabPerformanceMetricsDTO> buildPerformanceMetrics(YearRollups rollups, YearRollups previous) {
         List<LabPerformanceMetricsDTO> metrics = new ArrayList<>();
-        
-        String[][] metricsData = {
-            {"Average Turnaround Time", "Efficiency", "hours"},
-            {"Test Accuracy Rate", "Quality", "%"},
-            {"Sample Processing Speed", "Efficiency", "samples/hour"},
-            {"Equipment Uptime", "Reliability", "%"},
-            {"Error Rate", "Quality", "%"},
-            {"Patient Satisfaction", "Service", "score"},
-            {"Cost Per Test", "Financial", "USD"},
-            {"Staff Productivity", "Efficiency", "tests/staff/day"}
-        };
-        
-        BigDecimal[] values = {
-            BigDecimal.valueOf(4.2),
-            BigDecimal.valueOf(97.8),
-            BigDecimal.valueOf(125.5),
-            BigDecimal.valueOf(96.2),
-            BigDecimal.valueOf(0.8),
-            BigDecimal.valueOf(4.6),
-            BigDecimal.valueOf(12.50),
-            BigDecimal.valueOf(45.3)
-        };
-        
-        String[] trends = {"decreasing", "increasing", "stable", "increasing", "decreasing", "increasing", "stable", "increasing"};
-        String[] statuses = {"good", "good", "good", "good", "good", "good", "good", "good"};
-        
-        for (int i = 0; i < metricsData.length; i++) {
-            LabPerformanceMetricsDTO metric = new LabPerformanceMetricsDTO();
-            metric.setMetricName(metricsData[i][0]);
-            metric.setMetricCategory(metricsData[i][1]);
-            metric.setValue(values[i]);
-            metric.setUnit(metricsData[i][2]);
-            metric.setTargetValue(values[i].multiply(BigDecimal.valueOf(0.95 + random.nextDouble() * 0.1)));
-            metric.setPreviousValue(values[i].multiply(BigDecimal.valueOf(0.9 + random.nextDouble() * 0.2)));
-            metric.setTrend(trends[i]);
-            metric.setStatus(statuses[i]);
-            
-            metrics.add(metric);
-        }
-        
+        QuantileSketch turnaround = rollups.turnaround();
+        QuantileSketch previousTurnaround = previous != null ? previous.turnaround() : null;
+        int daysInYear = Year.of(rollups.year()).length();
+
+        metrics.add(metric("Average Turnaround Time", "Efficiency", "hours",
+                hours(turnaround.getMean()), BigDecimal.valueOf(TURNAROUND_TARGET_HOURS),
+                previousTurnaround != null ? hours(previousTurnaround.getMean()) : null, false));
+        metrics.add(metric("Median Turnaround Time", "Efficiency", "hours",
+                hours(turnaround.quantile(0.5)), BigDecimal.valueOf(TURNAROUND_TARGET_HOURS),
+                previousTurnaround != null ? hours(previousTurnaround.quantile(0.5)) : null, false));
+        metrics.add(metric("90th Percentile Turnaround", "Efficiency", "hours",
+                hours(turnaround.quantile(0.9)), BigDecimal.valueOf(TURNAROUND_TARGET_HOURS * 2),
+                previousTurnaround != null ? hours(previousTurnaround.quantile(0.9)) : null, false));
+        metrics.add(metric("Request Completion Rate", "Service", "%",
+                scaled(percent(rollups.sum(LabReportRollup::getCompletedCount), rollups.sum(LabReportRollup::getRequestCount))),
+                BigDecimal.valueOf(95.0),
+                previous != null ? scaled(percent(previous.sum(LabReportRollup::getCompletedCount), previous.sum(LabReportRollup::getRequestCount))) : null,
+                true));
+        metrics.add(metric("Cancellation Rate", "Quality", "%",
+                scaled(cancellationRate(rollups)), BigDecimal.valueOf(2.0),
+                previous != null ? scaled(cancellationRate(previous)) : null, false));
+        metrics.add(metric("Repeat Test Rate", "Quality", "%",
+                scaled(repeatRate(rollups)), BigDecimal.valueOf(1.5),
+                previous != null ? scaled(repeatRate(previous)) : null, false));
+        metrics.add(metric("Tests Per Day", "Volume", "tests/day",
+                scaled((double) rollups.sum(LabReportRollup::getTestCount) / daysInYear), null,
+                previous != null ? scaled((double) previous.sum(LabReportRollup::getTestCount) / Year.of(previous.year()).length()) : null,
+                true));
+
         return metrics;
     }
-    
+
     /**
-     * Generate ward-wise laboratory requests data
+     * Ward-wise laboratory requests data
      */
-    private List<WardLabRequestsDTO> generateWardRequests() {
+    private List<WardLabRequestsDTO> buildWardRequests(YearRollups rollups) {
         List<WardLabRequestsDTO> wardData = new ArrayList<>();
-        
-        String[][] wards = {
-            {"ICU", "Critical Care"},
-            {"Emergency Department", "Emergency"},
-            {"Internal Medicine", "General"},
-            {"Cardiology", "Specialized"},
-            {"Pediatrics", "Specialized"},
-            {"Oncology", "Specialized"},
-            {"Orthopedics", "Surgical"},
-            {"Nephrology", "Specialized"},
-            {"General Surgery", "Surgical"},
-            {"Neurology", "Specialized"}
-        };
-        
-        // Distribution percentages for wards
-        double[] percentages = {22.5, 18.3, 15.8, 12.1, 9.4, 7.2, 6.1, 4.8, 3.2, 2.6};
-        String[] commonTests = {"CBC", "Basic Metabolic Panel", "Glucose", "Cardiac Enzymes", "Urine Analysis"};
-        
-        for (int i = 0; i < wards.length; i++) {
+        long totalRequests = rollups.sum(LabReportRollup::getRequestCount);
+        int daysInYear = Year.of(rollups.year()).length();
+
+        Map<String, String> wardTypes = new HashMap<>();
+        for (Ward ward : wardRepository.findAll()) {
+            if (ward.getWardName() != null) {
+                wardTypes.put(ward.getWardName().toLowerCase(Locale.ROOT), ward.getWardType());
+            }
+        }
+
+        for (LabReportRollup wardRollup : rollups.wards()) {
+            if (wardRollup.getRequestCount() == 0) {
+                continue;
+            }
             WardLabRequestsDTO ward = new WardLabRequestsDTO();
-            ward.setWardName(wards[i][0]);
-            ward.setWardType(wards[i][1]);
-            ward.setPercentage(percentages[i]);
-            
-            Long totalRequests = (long) (140000 * percentages[i] / 100 + random.nextInt(2000));
-            ward.setTotalRequests(totalRequests);
-            ward.setUrgentRequests((long) (totalRequests * (0.15 + random.nextDouble() * 0.1)));
-            ward.setNormalRequests(totalRequests - ward.getUrgentRequests());
-            ward.setAvgRequestsPerDay((double) totalRequests / 365);
-            ward.setMostCommonTest(commonTests[random.nextInt(commonTests.length)]);
-            
+            ward.setWardName(wardRollup.getDimensionKey());
+            ward.setWardType(wardTypes.getOrDefault(wardRollup.getDimensionKey().toLowerCase(Locale.ROOT), "General"));
+            ward.setPercentage(percent(wardRollup.getRequestCount(), totalRequests));
+            ward.setTotalRequests(wardRollup.getRequestCount());
+            ward.setUrgentRequests(wardRollup.getUrgentRequestCount());
+            ward.setNormalRequests(wardRollup.getRequestCount() - wardRollup.getUrgentRequestCount());
+            ward.setAvgRequestsPerDay((double) wardRollup.getRequestCount() / daysInYear);
+            ward.setMostCommonTest(wardRollup.getTopItem() != null ? wardRollup.getTopItem() : "N/A");
+
             wardData.add(ward);
         }
-        
+
+        wardData.sort((a, b) -> Long.compare(b.getTotalRequests(), a.getTotalRequests()));
         return wardData;
     }
-    
+
     /**
-     * Generate quality metrics
+     * Quality metrics derived from cancellations, repeated results and the abnormal result
+     * index. Values with no recorded source (QC runs, calibration) are reported as zero.
      */
-    private LabQualityMetricsDTO generateQualityMetrics() {
+    private LabQualityMetricsDTO buildQualityMetrics(YearRollups rollups, YearRollups previous) {
         LabQualityMetricsDTO quality = new LabQualityMetricsDTO();
-        
-        quality.setOverallQualityScore(BigDecimal.valueOf(96.5 + random.nextDouble() * 2).setScale(1, RoundingMode.HALF_UP));
-        quality.setErrorRate(0.5 + random.nextDouble() * 1.0); // 0.5-1.5%
-        quality.setRepeatTestRate(0.8 + random.nextDouble() * 0.7); // 0.8-1.5%
-        quality.setSampleRejectionRate(1.2 + random.nextDouble() * 0.8); // 1.2-2.0%
-        quality.setCriticalValueAlerts(450L + random.nextInt(100));
-        quality.setAccuracyScore(97.5 + random.nextDouble() * 2);
-        quality.setPrecisionScore(96.8 + random.nextDouble() * 2.2);
-        quality.setQualityControlTests(2400L + random.nextInt(200));
-        quality.setCalibrationEvents(156L + random.nextInt(24));
-        quality.setQualityTrend("improving");
-        
+        double score = qualityScore(rollups);
+        double repeatRate = repeatRate(rollups);
+        double cancellationRate = cancellationRate(rollups);
+
+        quality.setOverallQualityScore(BigDecimal.valueOf(score).setScale(1, RoundingMode.HALF_UP));
+        quality.setErrorRate(repeatRate);
+        quality.setRepeatTestRate(repeatRate);
+        quality.setSampleRejectionRate(cancellationRate);
+        quality.setCriticalValueAlerts(labResultFlagService.countCritical(
+                LocalDate.of(rollups.year(), 1, 1), LocalDate.of(rollups.year(), 12, 31)));
+        quality.setAccuracyScore(100.0 - repeatRate);
+        quality.setPrecisionScore(100.0 - repeatRate);
+        quality.setQualityControlTests(0L);
+        quality.setCalibrationEvents(0L);
+
+        if (previous == null) {
+            quality.setQualityTrend("stable");
+        } else {
+            double previousScore = qualityScore(previous);
+            quality.setQualityTrend(score > previousScore + 0.5 ? "improving"
+                    : score < previousScore - 0.5 ? "declining" : "stable");
+        }
+
         return quality;
     }
-}
\ No newline at end of file
+
+    // Helper methods
+    private static LabPerformanceMetricsDTO metric(String name, String category, String unit, BigDecimal value,
+                                                   BigDecimal target, BigDecimal previousValue, boolean higherIsBetter) {
+        LabPerformanceMetricsDTO metric = new LabPerformanceMetricsDTO();
+        metric.setMetricName(name);
+        metric.setMetricCategory(category);
+        metric.setValue(value);
+        metric.setUnit(unit);
+        metric.setTargetValue(target != null ? target : value);
+        metric.setPreviousValue(previousValue != null ? previousValue : value);
+
+        int change = previousValue != null ? value.compareTo(previousValue) : 0;
+        metric.setTrend(change > 0 ? "increasing" : change < 0 ? "decreasing" : "stable");
+
+        if (target == null) {
+            metric.setStatus("good");
+        } else {
+            boolean met = higherIsBetter ? value.compareTo(target) >= 0 : value.compareTo(target) <= 0;
+            metric.setStatus(met ? "good" : "warning");
+        }
+        return metric;
+    }
+
+    private static double qualityScore(YearRollups rollups) {
+        return qualityScore(rollups.sum(LabReportRollup::getRequestCount), rollups.sum(LabReportRollup::getCancelledCount),
+                rollups.sum(LabReportRollup::getResultCount), rollups.sum(LabReportRollup::getRepeatCount));
+    }
+
+    // 100 less the cancellation and repeat rates; 100 when there was nothing to measure
+    private static double qualityScore(long requests, long cancelled, long results, long repeats) {
+        return Math.max(0.0, 100.0 - percent(cancelled, requests) - percent(repeats, results));
+    }
+
+    private static double cancellationRate(YearRollups rollups) {
+        return percent(rollups.sum(LabReportRollup::getCancelledCount), rollups.sum(LabReportRollup::getRequestCount));
+    }
+
+    private static double repeatRate(YearRollups rollups) {
+        return percent(rollups.sum(LabReportRollup::getRepeatCount), rollups.sum(LabReportRollup::getResultCount));
+    }
+
+    private static double percent(long part, long whole) {
+        return whole > 0 ? part * 100.0 / whole : 0.0;
+    }
+
+    private static BigDecimal hours(double minutes) {
+        return BigDecimal.valueOf(minutes / 60.0).setScale(1, RoundingMode.HALF_UP);
+    }
+
+    private static BigDecimal scaled(double value) {
+        return BigDecimal.valueOf(value).setScale(1, RoundingMode.HALF_UP);
+    }
+}
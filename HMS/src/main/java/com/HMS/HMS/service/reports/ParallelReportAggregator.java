@@ -0,0 +1,139 @@
+package com.HMS.HMS.service.reports;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Runs a report's aggregation over a date range in parallel.
+ *
+ * The range is split in halves on a fork-join pool until each piece spans at most a
+ * chunk of days; every chunk is fetched and folded into a fresh accumulator inside its
+ * own read-only transaction, so each worker streams over its own connection, and the
+ * accumulators are merged pairwise as the halves join. Accumulators only need a merge
+ * that adds one into another (counters, histograms, TopK, QuantileSketch), which makes
+ * the result the same as folding the whole range on one thread.
+ *
+ * The pool is capped at MAX_PARALLELISM so a large report leaves connections in the
+ * default pool of ten for the rest of the application.
+ */
+@Component
+public class ParallelReportAggregator {
+
+    private static final int MAX_PARALLELISM = 6;
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public ParallelReportAggregator(PlatformTransactionManager transactionManager) {
+        this(transactionManager, Math.min(Runtime.getRuntime().availableProcessors(), MAX_PARALLELISM));
+    }
+
+    public ParallelReportAggregator(PlatformTransactionManager transactionManager, int parallelism) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.pool = new ForkJoinPool(Math.max(1, parallelism), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("report-aggregator-" + thread.getPoolIndex());
+            thread.setDaemon(true);
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdown();
+        try {
+            pool.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Fold every day from startDate to endDate (inclusive) into one accumulator. Each chunk
+     * gets a new accumulator from newAccumulator and is passed to folder with its first and
+     * last day; the chunk accumulators are then combined with merge.
+     */
+    public <A> A aggregate(LocalDate startDate, LocalDate endDate, Supplier<A> newAccumulator,
+                           ChunkFolder<A> folder, BinaryOperator<A> merge) {
+        long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (days <= 0) {
+            return newAccumulator.get();
+        }
+        long chunkDays = Math.max(1, (days + chunkCount() - 1) / chunkCount());
+        return pool.invoke(new ChunkTask<>(startDate, days, chunkDays, newAccumulator, folder, merge));
+    }
+
+    private int chunkCount() {
+        return pool.getParallelism() * CHUNKS_PER_WORKER;
+    }
+
+    private <A> A foldChunk(LocalDate first, LocalDate last, Supplier<A> newAccumulator, ChunkFolder<A> folder) {
+        return readOnlyTransaction.execute(status -> {
+            A accumulator = newAccumulator.get();
+            folder.fold(accumulator, first, last);
+            return accumulator;
+        });
+    }
+
+    /**
+     * Folds the rows of one chunk, from first to last day inclusive, into the accumulator
+     */
+    @FunctionalInterface
+    public interface ChunkFolder<A> {
+        void fold(A accumulator, LocalDate first, LocalDate last);
+    }
+
+    private final class ChunkTask<A> extends RecursiveTask<A> {
+
+        private final LocalDate first;
+        private final long days;
+        private final long chunkDays;
+        private final Supplier<A> newAccumulator;
+        private final ChunkFolder<A> folder;
+        private final BinaryOperator<A> merge;
+
+        ChunkTask(LocalDate first, long days, long chunkDays, Supplier<A> newAccumulator,
+                  ChunkFolder<A> folder, BinaryOperator<A> merge) {
+            this.first = first;
+            this.days = days;
+            this.chunkDays = chunkDays;
+            this.newAccumulator = newAccumulator;
+            this.folder = folder;
+            this.merge = merge;
+        }
+
+        @Override
+        protected A compute() {
+            if (days <= chunkDays) {
+                return foldChunk(first, first.plusDays(days - 1), newAccumulator, folder);
+            }
+            // Split on a chunk boundary so every leaf is a whole chunk
+            long half = (days / 2 + chunkDays - 1) / chunkDays * chunkDays;
+            ChunkTask<A> right = new ChunkTask<>(first.plusDays(half), days - half, chunkDays, newAccumulator, folder, merge);
+            right.fork();
+            A left = new ChunkTask<>(first, half, chunkDays, newAccumulator, folder, merge).compute();
+            return merge.apply(left, right.join());
+        }
+    }
+}
@@ -2,11 +2,12 @@ package com.HMS.HMS.service.reports;
 
 import com.HMS.HMS.DTO.PharmacyAnalyticsDTO.PharmacyAnalyticsDTO;
 import com.HMS.HMS.service.PharmacyAnalyticsService;
+import com.HMS.HMS.service.PharmacyService.PharmacyDispenseRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.Month;
 import java.util.*;
 
 @Service
@@ -14,12 +15,15 @@ public class PharmacyReportService {
 
     private final PharmacyAnalyticsService analyticsService;
     private final PDFReportGeneratorService pdfGeneratorService;
+    private final PharmacyDispenseRollupService dispenseRollupService;
 
     @Autowired
     public PharmacyReportService(PharmacyAnalyticsService analyticsService,
-                                PDFReportGeneratorService pdfGeneratorService) {
+                                PDFReportGeneratorService pdfGeneratorService,
+                                PharmacyDispenseRollupService dispenseRollupService) {
         this.analyticsService = analyticsService;
         this.pdfGeneratorService = pdfGeneratorService;
+        this.dispenseRollupService = dispenseRollupService;
     }
 
     /**
@@ -90,43 +94,39 @@ public class PharmacyReportService {
     }
 
     /**
-     * Get monthly prescription dispensing trends
+     * Get monthly prescription dispensing trends from the dispensing rollups
      */
     public Map<String, Object> getMonthlyPrescriptionTrends(int year) {
         Map<String, Object> trendsData = new HashMap<>();
 
         try {
-            // Get monthly data for the specified year
+            dispenseRollupService.ensureYear(year);
             List<Map<String, Object>> monthlyData = new ArrayList<>();
-            
-            for (int month = 1; month <= 12; month++) {
+            // Rollup rows count dispensed lines; prescriptions are counted from the prescriptions themselves
+            long[] prescriptions = dispenseRollupService.getMonthlyPrescriptionCounts(year);
+
+            for (Map<String, Object> monthTotals : dispenseRollupService.getMonthlyTotals(year)) {
                 Map<String, Object> monthData = new HashMap<>();
-                monthData.put("month", Month.of(month).name());
-                monthData.put("monthNumber", month);
-                
-                // Simulate prescription counts - in real implementation, query from database
-                int prescriptionCount = generateMockPrescriptionCount(month, year);
-                monthData.put("prescriptions", prescriptionCount);
-                
-                // Revenue calculation (mock data)
-                double revenue = prescriptionCount * 45.0; // Average prescription value
-                monthData.put("revenue", revenue);
-                
+                monthData.put("month", monthTotals.get("month"));
+                monthData.put("monthNumber", monthTotals.get("monthNumber"));
+                monthData.put("prescriptions", prescriptions[(Integer) monthTotals.get("monthNumber")]);
+                monthData.put("dispenseLines", monthTotals.get("dispenseCount"));
+                monthData.put("quantity", monthTotals.get("quantity"));
+                monthData.put("revenue", monthTotals.get("totalValue"));
                 monthlyData.add(monthData);
             }
 
             trendsData.put("monthlyData", monthlyData);
             trendsData.put("year", year);
 
-            // Calculate year-over-year growth
-            int totalPrescriptions = monthlyData.stream()
-                .mapToInt(data -> (Integer) data.get("prescriptions"))
-                .sum();
-            
-            double totalRevenue = monthlyData.stream()
-                .mapToDouble(data -> (Double) data.get("revenue"))
+            long totalPrescriptions = monthlyData.stream()
+                .mapToLong(data -> (Long) data.get("prescriptions"))
                 .sum();
 
+            BigDecimal totalRevenue = monthlyData.stream()
+                .map(data -> (BigDecimal) data.get("revenue"))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
             trendsData.put("totalPrescriptions", totalPrescriptions);
             trendsData.put("totalRevenue", totalRevenue);
             trendsData.put("averageMonthlyPrescriptions", totalPrescriptions / 12.0);
@@ -140,37 +140,26 @@ public class PharmacyReportService {
     }
 
     /**
-     * Get top dispensed medications for the year
+     * Get top dispensed medications for the year from the dispensing rollups
      */
     public Map<String, Object> getTopDispensedMedications(int year) {
         Map<String, Object> medicationsData = new HashMap<>();
 
         try {
-            // In real implementation, query from database
-            List<Map<String, Object>> topMedications = Arrays.asList(
-                createMedicationData("Amoxicillin", "Antibiotic", 2450, 122500.0),
-                createMedicationData("Lisinopril", "ACE Inhibitor", 2180, 130800.0),
-                createMedicationData("Metformin", "Diabetes", 2050, 82000.0),
-                createMedicationData("Atorvastatin", "Cholesterol", 1890, 151200.0),
-                createMedicationData("Omeprazole", "Acid Reducer", 1750, 87500.0),
-                createMedicationData("Amlodipine", "Blood Pressure", 1620, 64800.0),
-                createMedicationData("Gabapentin", "Nerve Pain", 1580, 110600.0),
-                createMedicationData("Hydrochlorothiazide", "Diuretic", 1450, 58000.0),
-                createMedicationData("Sertraline", "Antidepressant", 1380, 110400.0),
-                createMedicationData("Ibuprofen", "Pain Relief", 1290, 38700.0)
-            );
+            dispenseRollupService.ensureYear(year);
+            List<Map<String, Object>> topMedications = dispenseRollupService.getTopMedications(year, null, 10);
 
             medicationsData.put("topMedications", topMedications);
             medicationsData.put("year", year);
-            
-            int totalQuantity = topMedications.stream()
-                .mapToInt(med -> (Integer) med.get("quantity"))
-                .sum();
-            
-            double totalValue = topMedications.stream()
-                .mapToDouble(med -> (Double) med.get("totalValue"))
+
+            long totalQuantity = topMedications.stream()
+                .mapToLong(med -> (Long) med.get("quantity"))
                 .sum();
 
+            BigDecimal totalValue = topMedications.stream()
+                .map(med -> (BigDecimal) med.get("totalValue"))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
             medicationsData.put("totalQuantityDispensed", totalQuantity);
             medicationsData.put("totalValueDispensed", totalValue);
 
@@ -191,63 +180,18 @@ public class PharmacyReportService {
         return pdfGeneratorService.generatePharmacyAnnualReportPDF(reportData, year);
     }
 
-    // Helper methods
-    private Map<String, Object> createMedicationData(String name, String category, int quantity, double totalValue) {
-        Map<String, Object> medication = new HashMap<>();
-        medication.put("medicationName", name);
-        medication.put("category", category);
-        medication.put("quantity", quantity);
-        medication.put("totalValue", totalValue);
-        medication.put("averagePrice", totalValue / quantity);
-        return medication;
-    }
-
-    private int generateMockPrescriptionCount(int month, int year) {
-        // Generate realistic mock data based on seasonal patterns
-        int baseCount = 800;
-        
-        // Seasonal adjustments
-        if (month >= 10 || month <= 3) { // Winter months
-            baseCount += 150; // More prescriptions during flu season
-        } else if (month >= 6 && month <= 8) { // Summer months
-            baseCount -= 50; // Fewer prescriptions in summer
-        }
-        
-        // Add some randomness
-        Random random = new Random(year * 12 + month); // Consistent for same month/year
-        int variation = random.nextInt(200) - 100; // ±100 variation
-        
-        return Math.max(500, baseCount + variation); // Minimum 500 prescriptions
-    }
-
     /**
      * Check if there's any pharmacy data available for the specified year
      */
     private boolean hasDataForYear(int year) {
         try {
-            // Check if there are any prescriptions for the given year
-            // In a real implementation, this would query the database
-            // For now, let's assume data is only available for recent years
-            
-            int currentYear = LocalDateTime.now().getYear();
-            
-            // Only allow data for years where we might realistically have data
-            if (year > currentYear) {
+            if (year > LocalDateTime.now().getYear()) {
                 return false; // Future years
             }
-            
-            if (year < 2020) {
-                return false; // Too old, no data available
-            }
-            
-            // For simulation purposes, let's say we only have data for specific years
-            // In real implementation, query prescription or inventory tables:
-            // SELECT COUNT(*) FROM prescriptions WHERE YEAR(created_date) = ?
-            // or check if any pharmacy transactions exist for that year
-            
-            // Mock validation - assume we have data for current year and previous 2 years
-            return year >= (currentYear - 2) && year <= currentYear;
-            
+
+            dispenseRollupService.ensureYear(year);
+            return dispenseRollupService.hasDataForYear(year);
+
         } catch (Exception e) {
             System.err.println("Error checking data availability for year " + year + ": " + e.getMessage());
             return false;
@@ -0,0 +1,163 @@
+package com.HMS.HMS.service.reports;
+
+import com.HMS.HMS.DTO.reports.DailyPrescriptionDataDTO;
+import com.HMS.HMS.DTO.reports.WardPrescriptionDataDTO;
+import com.HMS.HMS.model.Prescription.PrescriptionStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Counters for the prescription dispensing report, filled from (created at, last
+ * modified, status, ward name) rows.
+ *
+ * Keeps one counter array per status, per day and per ward, so memory depends on the
+ * length of the range and the number of wards rather than on the number of
+ * prescriptions. Accumulators filled from different parts of the range merge by adding
+ * their counters.
+ */
+public class PrescriptionDispensingAccumulator {
+
+    private static final PrescriptionStatus[] STATUSES = PrescriptionStatus.values();
+
+    // Processing times of a week or more are treated as stale records and left out
+    private static final long MAX_PROCESSING_HOURS = 168;
+
+    private static final int DAY_TOTAL = 0;
+    private static final int DAY_COMPLETED = 1;
+    private static final int DAY_PENDING = 2;
+    private static final int DAY_IN_PROGRESS = 3;
+    private static final int DAY_READY = 4;
+    private static final int DAY_CANCELLED = 5;
+
+    private static final int WARD_TOTAL = 0;
+    private static final int WARD_COMPLETED = 1;
+
+    private long total;
+    private final long[] byStatus = new long[STATUSES.length];
+    private long processingHours;
+    private long processingCount;
+    private final Map<LocalDate, long[]> byDay = new TreeMap<>();
+    private final Map<String, long[]> byWard = new HashMap<>();
+
+    public void add(LocalDateTime createdAt, LocalDateTime lastModified, PrescriptionStatus status, String wardName) {
+        total++;
+        if (status != null) {
+            byStatus[status.ordinal()]++;
+        }
+
+        if (status == PrescriptionStatus.COMPLETED && createdAt != null && lastModified != null) {
+            long hours = ChronoUnit.HOURS.between(createdAt, lastModified);
+            if (hours >= 0 && hours < MAX_PROCESSING_HOURS) {
+                processingHours += hours;
+                processingCount++;
+            }
+        }
+
+        if (createdAt != null) {
+            long[] day = byDay.computeIfAbsent(createdAt.toLocalDate(), d -> new long[6]);
+            day[DAY_TOTAL]++;
+            day[dayColumn(status)]++;
+        }
+
+        long[] ward = byWard.computeIfAbsent(wardName != null ? wardName : "Unknown", w -> new long[2]);
+        ward[WARD_TOTAL]++;
+        if (status == PrescriptionStatus.COMPLETED) {
+            ward[WARD_COMPLETED]++;
+        }
+    }
+
+    /**
+     * Add the counters of another accumulator into this one
+     */
+    public PrescriptionDispensingAccumulator merge(PrescriptionDispensingAccumulator other) {
+        total += other.total;
+        addInto(byStatus, other.byStatus);
+        processingHours += other.processingHours;
+        processingCount += other.processingCount;
+        for (Map.Entry<LocalDate, long[]> entry : other.byDay.entrySet()) {
+            addInto(byDay.computeIfAbsent(entry.getKey(), d -> new long[6]), entry.getValue());
+        }
+        for (Map.Entry<String, long[]> entry : other.byWard.entrySet()) {
+            addInto(byWard.computeIfAbsent(entry.getKey(), w -> new long[2]), entry.getValue());
+        }
+        return this;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long count(PrescriptionStatus status) {
+        return byStatus[status.ordinal()];
+    }
+
+    /**
+     * Count per status, for the statuses that occur
+     */
+    public Map<PrescriptionStatus, Long> getStatusCounts() {
+        Map<PrescriptionStatus, Long> counts = new EnumMap<>(PrescriptionStatus.class);
+        for (PrescriptionStatus status : STATUSES) {
+            if (byStatus[status.ordinal()] > 0) {
+                counts.put(status, byStatus[status.ordinal()]);
+            }
+        }
+        return counts;
+    }
+
+    public double getAverageProcessingHours() {
+        return processingCount > 0 ? (double) processingHours / processingCount : 0.0;
+    }
+
+    /**
+     * One entry per day with prescriptions, in date order
+     */
+    public List<DailyPrescriptionDataDTO> dailyBreakdown() {
+        List<DailyPrescriptionDataDTO> breakdown = new ArrayList<>(byDay.size());
+        for (Map.Entry<LocalDate, long[]> entry : byDay.entrySet()) {
+            long[] day = entry.getValue();
+            breakdown.add(new DailyPrescriptionDataDTO(entry.getKey(), entry.getKey().toString(),
+                    day[DAY_TOTAL], day[DAY_COMPLETED], day[DAY_PENDING],
+                    day[DAY_IN_PROGRESS], day[DAY_READY], day[DAY_CANCELLED]));
+        }
+        return breakdown;
+    }
+
+    public List<WardPrescriptionDataDTO> wardBreakdown() {
+        List<WardPrescriptionDataDTO> breakdown = new ArrayList<>(byWard.size());
+        for (Map.Entry<String, long[]> entry : byWard.entrySet()) {
+            long[] ward = entry.getValue();
+            double rate = ward[WARD_TOTAL] > 0 ? ward[WARD_COMPLETED] * 100.0 / ward[WARD_TOTAL] : 0.0;
+            breakdown.add(new WardPrescriptionDataDTO(entry.getKey(), ward[WARD_TOTAL], ward[WARD_COMPLETED],
+                    ward[WARD_TOTAL] - ward[WARD_COMPLETED], Math.round(rate * 10.0) / 10.0));
+        }
+        return breakdown;
+    }
+
+    // Helper methods
+    private static int dayColumn(PrescriptionStatus status) {
+        if (status == null) {
+            return DAY_PENDING;
+        }
+        switch (status) {
+            case COMPLETED:
+                return DAY_COMPLETED;
+            case IN_PROGRESS:
+                return DAY_IN_PROGRESS;
+            case READY:
+                return DAY_READY;
+            case DISCONTINUED:
+                return DAY_CANCELLED;
+            default:
+                return DAY_PENDING;
+        }
+    }
+
+    private static void addInto(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+}
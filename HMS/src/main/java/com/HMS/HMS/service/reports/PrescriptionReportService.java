@@ -1,7 +1,6 @@
 package com.HMS.HMS.service.reports;
 
 import com.HMS.HMS.DTO.reports.*;
-import com.HMS.HMS.model.Prescription.Prescription;
 import com.HMS.HMS.model.Prescription.PrescriptionStatus;
 import com.HMS.HMS.repository.PrescriptionRepository;
 import com.itextpdf.kernel.pdf.PdfDocument;
@@ -18,51 +17,55 @@ import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class PrescriptionReportService {
 
     private final PrescriptionRepository prescriptionRepository;
+    private final ParallelReportAggregator aggregator;
 
-    public PrescriptionReportService(PrescriptionRepository prescriptionRepository) {
+    public PrescriptionReportService(PrescriptionRepository prescriptionRepository,
+                                     ParallelReportAggregator aggregator) {
         this.prescriptionRepository = prescriptionRepository;
+        this.aggregator = aggregator;
     }
 
+    /**
+     * Build the report from streamed passes over the prescriptions created in the range,
+     * one per chunk of days on the report aggregator; see PrescriptionDispensingAccumulator
+     */
     public PrescriptionDispensingReportDTO generatePrescriptionDispensingReport(LocalDate startDate, LocalDate endDate) {
-        // Convert LocalDate to LocalDateTime for database queries
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-
-        // Fetch all prescriptions within date range
-        List<Prescription> prescriptions = prescriptionRepository.findAllByCreatedAtBetween(startDateTime, endDateTime);
+        // Fold every prescription created within the date range into the counters
+        PrescriptionDispensingAccumulator accumulator = aggregator.aggregate(startDate, endDate,
+                PrescriptionDispensingAccumulator::new,
+                this::foldPrescriptions,
+                PrescriptionDispensingAccumulator::merge);
 
         // Calculate summary statistics
-        long totalPrescriptions = prescriptions.size();
-        long completed = prescriptions.stream().filter(p -> p.getStatus() == PrescriptionStatus.COMPLETED).count();
-        long pending = prescriptions.stream().filter(p -> p.getStatus() == PrescriptionStatus.PENDING || p.getStatus() == PrescriptionStatus.ACTIVE).count();
-        long inProgress = prescriptions.stream().filter(p -> p.getStatus() == PrescriptionStatus.IN_PROGRESS).count();
-        long ready = prescriptions.stream().filter(p -> p.getStatus() == PrescriptionStatus.READY).count();
-        long cancelled = prescriptions.stream().filter(p -> p.getStatus() == PrescriptionStatus.DISCONTINUED).count();
+        long totalPrescriptions = accumulator.getTotal();
+        long completed = accumulator.count(PrescriptionStatus.COMPLETED);
+        long pending = accumulator.count(PrescriptionStatus.PENDING) + accumulator.count(PrescriptionStatus.ACTIVE);
+        long inProgress = accumulator.count(PrescriptionStatus.IN_PROGRESS);
+        long ready = accumulator.count(PrescriptionStatus.READY);
+        long cancelled = accumulator.count(PrescriptionStatus.DISCONTINUED);
 
         double completionRate = totalPrescriptions > 0 ? (completed * 100.0 / totalPrescriptions) : 0.0;
 
         // Calculate average processing time
-        double averageProcessingTime = calculateAverageProcessingTime(prescriptions);
+        double averageProcessingTime = accumulator.getAverageProcessingHours();
 
         // Generate daily breakdown
-        List<DailyPrescriptionDataDTO> dailyBreakdown = generateDailyBreakdown(prescriptions);
+        List<DailyPrescriptionDataDTO> dailyBreakdown = accumulator.dailyBreakdown();
 
         // Generate ward-wise breakdown
-        List<WardPrescriptionDataDTO> wardBreakdown = generateWardBreakdown(prescriptions);
+        List<WardPrescriptionDataDTO> wardBreakdown = accumulator.wardBreakdown();
 
         // Generate status distribution
-        List<StatusDistributionDTO> statusDistribution = generateStatusDistribution(prescriptions, totalPrescriptions);
+        List<StatusDistributionDTO> statusDistribution = generateStatusDistribution(accumulator.getStatusCounts(), totalPrescriptions);
 
         // Generate text summaries
         String summaryText = generateSummaryText(totalPrescriptions, completed, completionRate);
@@ -91,108 +94,17 @@ public class PrescriptionReportService {
                 .build();
     }
 
-    private double calculateAverageProcessingTime(List<Prescription> prescriptions) {
-        List<Prescription> completedPrescriptions = prescriptions.stream()
-                .filter(p -> p.getStatus() == PrescriptionStatus.COMPLETED)
-                .collect(Collectors.toList());
-
-        if (completedPrescriptions.isEmpty()) {
-            return 0.0;
-        }
-
-        long totalHours = 0;
-        int validCount = 0;
-
-        for (Prescription prescription : completedPrescriptions) {
-            LocalDateTime created = prescription.getCreatedAt();
-            LocalDateTime modified = prescription.getLastModified();
-
-            if (created != null && modified != null) {
-                long hours = ChronoUnit.HOURS.between(created, modified);
-                if (hours >= 0 && hours < 168) { // Less than 7 days
-                    totalHours += hours;
-                    validCount++;
-                }
-            }
-        }
-
-        return validCount > 0 ? (double) totalHours / validCount : 0.0;
-    }
-
-    private List<DailyPrescriptionDataDTO> generateDailyBreakdown(List<Prescription> prescriptions) {
-        Map<LocalDate, DailyPrescriptionDataDTO> dailyMap = new HashMap<>();
-
-        for (Prescription prescription : prescriptions) {
-            LocalDate date = prescription.getCreatedAt().toLocalDate();
-
-            DailyPrescriptionDataDTO dayData = dailyMap.getOrDefault(date,
-                    new DailyPrescriptionDataDTO(date, date.toString(), 0L, 0L, 0L, 0L, 0L, 0L));
-
-            dayData.setTotal(dayData.getTotal() + 1);
-
-            switch (prescription.getStatus()) {
-                case COMPLETED:
-                    dayData.setCompleted(dayData.getCompleted() + 1);
-                    break;
-                case IN_PROGRESS:
-                    dayData.setInProgress(dayData.getInProgress() + 1);
-                    break;
-                case READY:
-                    dayData.setReady(dayData.getReady() + 1);
-                    break;
-                case DISCONTINUED:
-                    dayData.setCancelled(dayData.getCancelled() + 1);
-                    break;
-                case PENDING:
-                case ACTIVE:
-                default:
-                    dayData.setPending(dayData.getPending() + 1);
-                    break;
-            }
-
-            dailyMap.put(date, dayData);
-        }
-
-        return dailyMap.values().stream()
-                .sorted((a, b) -> a.getDate().compareTo(b.getDate()))
-                .collect(Collectors.toList());
-    }
-
-    private List<WardPrescriptionDataDTO> generateWardBreakdown(List<Prescription> prescriptions) {
-        Map<String, WardPrescriptionDataDTO> wardMap = new HashMap<>();
-
-        for (Prescription prescription : prescriptions) {
-            String wardName = prescription.getWardName() != null ? prescription.getWardName() : "Unknown";
-
-            WardPrescriptionDataDTO wardData = wardMap.getOrDefault(wardName,
-                    new WardPrescriptionDataDTO(wardName, 0L, 0L, 0L, 0.0));
-
-            wardData.setTotalPrescriptions(wardData.getTotalPrescriptions() + 1);
-
-            if (prescription.getStatus() == PrescriptionStatus.COMPLETED) {
-                wardData.setCompletedPrescriptions(wardData.getCompletedPrescriptions() + 1);
-            } else {
-                wardData.setPendingPrescriptions(wardData.getPendingPrescriptions() + 1);
-            }
-
-            wardMap.put(wardName, wardData);
+    private void foldPrescriptions(PrescriptionDispensingAccumulator accumulator, LocalDate first, LocalDate last) {
+        try (Stream<Object[]> rows = prescriptionRepository.streamDispensingRows(first.atStartOfDay(), last.atTime(23, 59, 59))) {
+            rows.forEach(row -> accumulator.add(
+                    (LocalDateTime) row[0],
+                    (LocalDateTime) row[1],
+                    (PrescriptionStatus) row[2],
+                    (String) row[3]));
         }
-
-        // Calculate completion rates
-        wardMap.values().forEach(ward -> {
-            if (ward.getTotalPrescriptions() > 0) {
-                double rate = (ward.getCompletedPrescriptions() * 100.0 / ward.getTotalPrescriptions());
-                ward.setCompletionRate(Math.round(rate * 10.0) / 10.0);
-            }
-        });
-
-        return new ArrayList<>(wardMap.values());
     }
 
-    private List<StatusDistributionDTO> generateStatusDistribution(List<Prescription> prescriptions, long total) {
-        Map<PrescriptionStatus, Long> statusCounts = prescriptions.stream()
-                .collect(Collectors.groupingBy(Prescription::getStatus, Collectors.counting()));
-
+    private List<StatusDistributionDTO> generateStatusDistribution(Map<PrescriptionStatus, Long> statusCounts, long total) {
         List<StatusDistributionDTO> distribution = new ArrayList<>();
 
         for (Map.Entry<PrescriptionStatus, Long> entry : statusCounts.entrySet()) {
@@ -0,0 +1,192 @@
+package com.HMS.HMS.service.reports;
+
+import com.HMS.HMS.DTO.reports.WardStatisticsReportDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Counters for a ward's yearly statistics, filled from (admission date, discharge date,
+ * patient national id, date of birth, gender) rows of the admissions made that year.
+ *
+ * Admissions are counted per admission month, with the discharges and lengths of stay
+ * that belong to them; patients are kept once each by national id for the
+ * demographics. Accumulators filled from different parts of the year merge by adding
+ * their counters and joining their patients.
+ */
+public class WardStatisticsAccumulator {
+
+    private final int year;
+
+    private long total;
+    private long dischargedInYear;
+    private long active;
+    private long stayDays;
+    private long stays;
+    private final long[] admissionsByMonth = new long[12];
+    // discharged in the month the patient was admitted
+    private final long[] dischargesByMonth = new long[12];
+    private final long[] stayDaysByMonth = new long[12];
+    private final long[] staysByMonth = new long[12];
+    // national id -> {age group, gender}
+    private final Map<String, String[]> patients = new HashMap<>();
+
+    public WardStatisticsAccumulator(int year) {
+        this.year = year;
+    }
+
+    public void add(LocalDateTime admissionDate, LocalDateTime dischargeDate,
+                    String nationalId, LocalDate dateOfBirth, String gender) {
+        total++;
+        int month = admissionDate.getMonthValue() - 1;
+        admissionsByMonth[month]++;
+
+        if (dischargeDate == null) {
+            active++;
+        } else {
+            long days = ChronoUnit.DAYS.between(admissionDate.toLocalDate(), dischargeDate.toLocalDate());
+            stayDays += days;
+            stays++;
+            stayDaysByMonth[month] += days;
+            staysByMonth[month]++;
+            if (dischargeDate.getYear() == year) {
+                dischargedInYear++;
+                if (dischargeDate.getMonthValue() - 1 == month) {
+                    dischargesByMonth[month]++;
+                }
+            }
+        }
+
+        if (nationalId != null) {
+            patients.putIfAbsent(nationalId, new String[]{ageGroup(dateOfBirth), gender != null ? gender : "Unknown"});
+        }
+    }
+
+    /**
+     * Add the counters of another accumulator for the same year into this one
+     */
+    public WardStatisticsAccumulator merge(WardStatisticsAccumulator other) {
+        if (other.year != year) {
+            throw new IllegalArgumentException("Cannot merge ward statistics for " + other.year + " into " + year);
+        }
+        total += other.total;
+        dischargedInYear += other.dischargedInYear;
+        active += other.active;
+        stayDays += other.stayDays;
+        stays += other.stays;
+        addInto(admissionsByMonth, other.admissionsByMonth);
+        addInto(dischargesByMonth, other.dischargesByMonth);
+        addInto(stayDaysByMonth, other.stayDaysByMonth);
+        addInto(staysByMonth, other.staysByMonth);
+        other.patients.forEach(patients::putIfAbsent);
+        return this;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Fill the core, performance, monthly and demographic sections of the report, all but
+     * the occupancy and utilization figures, which come from the ward census
+     */
+    public void fill(WardStatisticsReportDTO report) {
+        fillCoreStatistics(report);
+        fillPerformanceMetrics(report);
+        report.setMonthlyData(monthlyBreakdown());
+        fillDemographics(report);
+    }
+
+    /**
+     * Age band of a patient today
+     */
+    public static String ageGroup(LocalDate dateOfBirth) {
+        if (dateOfBirth == null) return "Unknown";
+
+        int age = (int) ChronoUnit.YEARS.between(dateOfBirth, LocalDate.now());
+
+        if (age < 18) return "0-17";
+        else if (age < 30) return "18-29";
+        else if (age < 50) return "30-49";
+        else if (age < 65) return "50-64";
+        else return "65+";
+    }
+
+    // Helper methods
+    private void fillCoreStatistics(WardStatisticsReportDTO report) {
+        report.setTotalAdmissions(total);
+        report.setTotalDischarges(dischargedInYear);
+        report.setCurrentActiveAdmissions(active);
+
+        double avgLOS = stays > 0 ? (double) stayDays / stays : 0.0;
+        report.setAverageLengthOfStay(Math.round(avgLOS * 100.0) / 100.0);
+
+        report.setMonthlyAverageAdmissions(Math.round((total / 12.0) * 100.0) / 100.0);
+    }
+
+    private void fillPerformanceMetrics(WardStatisticsReportDTO report) {
+        // Peak and low months among the months with admissions, earliest month on ties
+        int peakMonth = -1;
+        int lowMonth = -1;
+        for (int month = 0; month < 12; month++) {
+            if (admissionsByMonth[month] == 0) {
+                continue;
+            }
+            if (peakMonth < 0 || admissionsByMonth[month] > admissionsByMonth[peakMonth]) {
+                peakMonth = month;
+            }
+            if (lowMonth < 0 || admissionsByMonth[month] < admissionsByMonth[lowMonth]) {
+                lowMonth = month;
+            }
+        }
+        if (peakMonth >= 0) {
+            report.setPeakMonthAdmissions((int) admissionsByMonth[peakMonth]);
+            report.setPeakMonthName(monthName(peakMonth));
+            report.setLowMonthAdmissions((int) admissionsByMonth[lowMonth]);
+            report.setLowMonthName(monthName(lowMonth));
+        }
+    }
+
+    private List<WardStatisticsReportDTO.MonthlyWardDataDTO> monthlyBreakdown() {
+        List<WardStatisticsReportDTO.MonthlyWardDataDTO> monthlyData = new ArrayList<>(12);
+        for (int month = 0; month < 12; month++) {
+            WardStatisticsReportDTO.MonthlyWardDataDTO monthData = new WardStatisticsReportDTO.MonthlyWardDataDTO();
+            monthData.setMonth(month + 1);
+            monthData.setMonthName(monthName(month));
+            monthData.setAdmissions(admissionsByMonth[month]);
+            monthData.setDischarges(dischargesByMonth[month]);
+            monthData.setDeaths(0L); // Not implemented yet
+
+            double avgLOS = staysByMonth[month] > 0 ? (double) stayDaysByMonth[month] / staysByMonth[month] : 0.0;
+            monthData.setAverageLengthOfStay(Math.round(avgLOS * 100.0) / 100.0);
+
+            monthlyData.add(monthData);
+        }
+        return monthlyData;
+    }
+
+    private void fillDemographics(WardStatisticsReportDTO report) {
+        Map<String, Long> ageGroups = new HashMap<>();
+        Map<String, Long> genders = new HashMap<>();
+        for (String[] patient : patients.values()) {
+            ageGroups.merge(patient[0], 1L, Long::sum);
+            genders.merge(patient[1], 1L, Long::sum);
+        }
+        report.setAgeGroupBreakdown(ageGroups);
+        report.setGenderBreakdown(genders);
+    }
+
+    private static String monthName(int month) {
+        return Month.of(month + 1).getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+    }
+
+    private static void addInto(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package com.HMS.HMS.service.reports;
 
+import com.HMS.HMS.DTO.reports.WardCensusSummaryDTO;
 import com.HMS.HMS.DTO.reports.WardStatisticsReportDTO;
 import com.HMS.HMS.DTO.reports.HospitalWideStatisticsDTO;
-import com.HMS.HMS.model.Admission.Admission;
-import com.HMS.HMS.model.Patient.Patient;
+import com.HMS.HMS.model.ward.Ward;
 import com.HMS.HMS.repository.AdmissionRepository;
 import com.HMS.HMS.repository.PatientRepository;
+import com.HMS.HMS.repository.WardRepository;
+import com.HMS.HMS.service.TransferFlowService;
+import com.HMS.HMS.service.WardCensusService;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.kernel.colors.ColorConstants;
@@ -31,64 +34,70 @@ import org.springframework.stereotype.Service;
 import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.Month;
+import java.time.YearMonth;
 import java.time.format.TextStyle;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class WardStatisticsService {
 
     private final AdmissionRepository admissionRepository;
-
-    public WardStatisticsService(AdmissionRepository admissionRepository, PatientRepository patientRepository) {
+    private final WardRepository wardRepository;
+    private final ParallelReportAggregator aggregator;
+    private final TransferFlowService transferFlowService;
+    private final WardCensusService wardCensusService;
+
+    public WardStatisticsService(AdmissionRepository admissionRepository, PatientRepository patientRepository,
+                                 WardRepository wardRepository, ParallelReportAggregator aggregator,
+                                 TransferFlowService transferFlowService, WardCensusService wardCensusService) {
         this.admissionRepository = admissionRepository;
+        this.wardRepository = wardRepository;
+        this.aggregator = aggregator;
+        this.transferFlowService = transferFlowService;
+        this.wardCensusService = wardCensusService;
     }
 
+    /**
+     * Build the report from streamed passes over the ward's admissions of the year, one per
+     * chunk of days on the report aggregator; see WardStatisticsAccumulator
+     */
     public WardStatisticsReportDTO generateWardStatistics(String wardName, int year) {
         WardStatisticsReportDTO report = new WardStatisticsReportDTO(wardName, year);
 
         LocalDate startDate = LocalDate.of(year, 1, 1);
         LocalDate endDate = LocalDate.of(year, 12, 31);
 
-        // Get all admissions for the ward in the given year
-        List<Admission> allAdmissions = admissionRepository.findAll();
-
-        // Normalize ward name for matching (handle both "Ward1" and "Ward 1" patterns)
-        String normalizedWardName = wardName.replaceAll("(Ward)(\\d+)", "Ward $2").trim();
-        String alternativeWardName = wardName.replaceAll("(Ward)\\s+(\\d+)", "Ward$2").trim();
+        // Wards the name refers to (handles both "Ward1" and "Ward 1" patterns)
+        List<Long> wardIds = findMatchingWardIds(wardName);
 
+        // Fold the ward's admissions of the year into the counters
+        WardStatisticsAccumulator accumulator = wardIds.isEmpty()
+                ? new WardStatisticsAccumulator(year)
+                : aggregator.aggregate(startDate, endDate,
+                        () -> new WardStatisticsAccumulator(year),
+                        (chunk, first, last) -> foldAdmissions(chunk, wardIds, first, last),
+                        WardStatisticsAccumulator::merge);
 
-        List<Admission> wardAdmissions = allAdmissions.stream()
-                .filter(admission -> admission.getWard() != null &&
-                       admission.getAdmissionDate() != null &&
-                       (admission.getWard().getWardName().equalsIgnoreCase(wardName) ||
-                        admission.getWard().getWardName().equalsIgnoreCase(normalizedWardName) ||
-                        admission.getWard().getWardName().equalsIgnoreCase(alternativeWardName) ||
-                        admission.getWard().getWardName().contains(wardName) ||
-                        admission.getWard().getWardName().contains(normalizedWardName)) &&
-                       admission.getAdmissionDate().toLocalDate().isAfter(startDate.minusDays(1)) &&
-                       admission.getAdmissionDate().toLocalDate().isBefore(endDate.plusDays(1)))
-                .collect(Collectors.toList());
+        // Core statistics, performance metrics, monthly breakdown and patient demographics
+        accumulator.fill(report);
 
-        // Calculate core statistics
-        calculateCoreStatistics(report, wardAdmissions, year);
+        // Transfers in from and out to other wards, read from the in-memory flow matrix
+        TransferFlowService.TransferCounts transfers = transferFlowService.countTransfers(wardIds, startDate, endDate);
+        report.setTotalTransfersIn(transfers.in());
+        report.setTotalTransfersOut(transfers.out());
 
-        // Calculate performance metrics
-        calculatePerformanceMetrics(report, wardAdmissions);
+        // Occupancy, bed utilization and length of stay percentiles from the daily ward census
+        fillCensusMetrics(report, wardIds, startDate, endDate);
 
         // Calculate mortality and safety metrics
-        calculateMortalityMetrics(report, wardAdmissions);
+        calculateMortalityMetrics(report);
 
         // Calculate comparative data
-        calculateComparativeData(report, wardName, year);
-
-        // Generate monthly breakdown
-        generateMonthlyBreakdown(report, wardAdmissions, year);
-
-        // Generate patient demographics
-        generatePatientDemographics(report, wardAdmissions);
+        calculateComparativeData(report, wardIds, year);
 
         // Generate analysis text
         generateAnalysisText(report);
@@ -99,76 +108,55 @@ public class WardStatisticsService {
         return report;
     }
 
-    private void calculateCoreStatistics(WardStatisticsReportDTO report, List<Admission> admissions, int year) {
-        report.setTotalAdmissions(admissions.size());
-
-        long discharges = admissions.stream()
-                .filter(a -> a.getDischargeDate() != null && a.getDischargeDate().getYear() == year)
-                .count();
-        report.setTotalDischarges(discharges);
-
-        long activeAdmissions = admissions.stream()
-                .filter(a -> a.getDischargeDate() == null)
-                .count();
-        report.setCurrentActiveAdmissions(activeAdmissions);
-
-        // Calculate occupancy rate (assuming 20 beds per ward)
-        double occupancyRate = activeAdmissions / 20.0 * 100;
-        report.setCurrentOccupancyRate(Math.round(occupancyRate * 100.0) / 100.0);
-
-        // Calculate average length of stay
-        double avgLOS = admissions.stream()
-                .filter(a -> a.getDischargeDate() != null)
-                .mapToLong(a -> ChronoUnit.DAYS.between(a.getAdmissionDate().toLocalDate(), a.getDischargeDate().toLocalDate()))
-                .average()
-                .orElse(0.0);
-        report.setAverageLengthOfStay(Math.round(avgLOS * 100.0) / 100.0);
-
-        // Calculate monthly average admissions
-        report.setMonthlyAverageAdmissions(Math.round((admissions.size() / 12.0) * 100.0) / 100.0);
-    }
-
-    private void calculatePerformanceMetrics(WardStatisticsReportDTO report, List<Admission> admissions) {
-        // For now, set transfers to 0 as the model doesn't include transfer data
-        report.setTotalTransfersIn(0L);
-        report.setTotalTransfersOut(0L);
-
-        // Calculate bed utilization rate
-        long totalBedDays = admissions.stream()
-                .filter(a -> a.getDischargeDate() != null)
-                .mapToLong(a -> ChronoUnit.DAYS.between(a.getAdmissionDate().toLocalDate(), a.getDischargeDate().toLocalDate()))
-                .sum();
-
-        double bedUtilizationRate = totalBedDays / (20.0 * 365) * 100;
-        report.setBedUtilizationRate(Math.round(bedUtilizationRate * 100.0) / 100.0);
-
-        // Find peak and low months
-        Map<Integer, Long> monthlyAdmissions = admissions.stream()
-                .collect(Collectors.groupingBy(
-                        a -> a.getAdmissionDate().getMonthValue(),
-                        Collectors.counting()
-                ));
-
-        if (!monthlyAdmissions.isEmpty()) {
-            int peakMonth = monthlyAdmissions.entrySet().stream()
-                    .max(Map.Entry.comparingByValue())
-                    .map(Map.Entry::getKey)
-                    .orElse(1);
+    private List<Long> findMatchingWardIds(String wardName) {
+        String normalizedWardName = wardName.replaceAll("(Ward)(\\d+)", "Ward $2").trim();
+        String alternativeWardName = wardName.replaceAll("(Ward)\\s+(\\d+)", "Ward$2").trim();
 
-            int lowMonth = monthlyAdmissions.entrySet().stream()
-                    .min(Map.Entry.comparingByValue())
-                    .map(Map.Entry::getKey)
-                    .orElse(1);
+        return wardRepository.findAll().stream()
+                .filter(ward -> ward.getWardName() != null &&
+                       (ward.getWardName().equalsIgnoreCase(wardName) ||
+                        ward.getWardName().equalsIgnoreCase(normalizedWardName) ||
+                        ward.getWardName().equalsIgnoreCase(alternativeWardName) ||
+                        ward.getWardName().contains(wardName) ||
+                        ward.getWardName().contains(normalizedWardName)))
+                .map(Ward::getWardId)
+                .collect(Collectors.toList());
+    }
 
-            report.setPeakMonthAdmissions(monthlyAdmissions.get(peakMonth).intValue());
-            report.setPeakMonthName(Month.of(peakMonth).getDisplayName(TextStyle.FULL, Locale.ENGLISH));
+    private void foldAdmissions(WardStatisticsAccumulator accumulator, List<Long> wardIds, LocalDate first, LocalDate last) {
+        try (Stream<Object[]> rows = admissionRepository.streamWardStatisticsRows(wardIds, first.atStartOfDay(), last.atTime(LocalTime.MAX))) {
+            rows.forEach(row -> accumulator.add(
+                    (LocalDateTime) row[0],
+                    (LocalDateTime) row[1],
+                    (String) row[2],
+                    (LocalDate) row[3],
+                    (String) row[4]));
+        }
+    }
 
-            report.setLowMonthAdmissions(monthlyAdmissions.get(lowMonth).intValue());
-            report.setLowMonthName(Month.of(lowMonth).getDisplayName(TextStyle.FULL, Locale.ENGLISH));
+    /**
+     * Occupancy at the end of the year (now for the current year), bed utilization as
+     * occupied bed days over bed days, monthly average occupancy and the median and 90th
+     * percentile length of stay of the year's discharges
+     */
+    private void fillCensusMetrics(WardStatisticsReportDTO report, List<Long> wardIds, LocalDate startDate, LocalDate endDate) {
+        WardCensusService.CensusRange census = wardCensusService.getCensus(wardIds, startDate, endDate);
+        report.setCurrentOccupancyRate(round(census.occupancyAtEnd()));
+        report.setBedUtilizationRate(round(census.total().occupancyRate()));
+        report.setMedianLengthOfStay(round(census.total().lengthOfStayDays(0.5)));
+        report.setP90LengthOfStay(round(census.total().lengthOfStayDays(0.9)));
+
+        for (WardStatisticsReportDTO.MonthlyWardDataDTO monthData : report.getMonthlyData()) {
+            WardCensusService.CensusTotals month = census.months().get(YearMonth.of(report.getYear(), monthData.getMonth()));
+            monthData.setAverageOccupancy(month != null ? round(month.occupancyRate()) : 0.0);
         }
     }
 
-    private void calculateMortalityMetrics(WardStatisticsReportDTO report, List<Admission> admissions) {
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    private void calculateMortalityMetrics(WardStatisticsReportDTO report) {
         // For now, set mortality metrics to 0 as the model doesn't include death data
         report.setTotalDeaths(0L);
         report.setDeathsWithin48Hours(0L);
@@ -176,32 +164,17 @@ public class WardStatisticsService {
         report.setEarlyMortalityRate(0.0);
     }
 
-    private void calculateComparativeData(WardStatisticsReportDTO report, String wardName, int year) {
+    private void calculateComparativeData(WardStatisticsReportDTO report, List<Long> wardIds, int year) {
         LocalDate prevYearStart = LocalDate.of(year - 1, 1, 1);
         LocalDate prevYearEnd = LocalDate.of(year - 1, 12, 31);
 
-        List<Admission> allPrevAdmissions = admissionRepository.findAll();
-
-        // Use same ward name normalization logic
-        String normalizedWardName = wardName.replaceAll("(Ward)(\\d+)", "Ward $2").trim();
-        String alternativeWardName = wardName.replaceAll("(Ward)\\s+(\\d+)", "Ward$2").trim();
-
-        List<Admission> prevYearAdmissions = allPrevAdmissions.stream()
-                .filter(admission -> admission.getWard() != null &&
-                       admission.getAdmissionDate() != null &&
-                       (admission.getWard().getWardName().equalsIgnoreCase(wardName) ||
-                        admission.getWard().getWardName().equalsIgnoreCase(normalizedWardName) ||
-                        admission.getWard().getWardName().equalsIgnoreCase(alternativeWardName) ||
-                        admission.getWard().getWardName().contains(wardName) ||
-                        admission.getWard().getWardName().contains(normalizedWardName)) &&
-                       admission.getAdmissionDate().toLocalDate().isAfter(prevYearStart.minusDays(1)) &&
-                       admission.getAdmissionDate().toLocalDate().isBefore(prevYearEnd.plusDays(1)))
-                .collect(Collectors.toList());
+        long prevYearAdmissions = wardIds.isEmpty() ? 0 : admissionRepository.countByWardsAndAdmissionDateBetween(
+                wardIds, prevYearStart.atStartOfDay(), prevYearEnd.atTime(LocalTime.MAX));
 
-        report.setPreviousYearAdmissions(prevYearAdmissions.size());
+        report.setPreviousYearAdmissions(prevYearAdmissions);
 
-        if (prevYearAdmissions.size() > 0) {
-            double growth = ((double) report.getTotalAdmissions() - prevYearAdmissions.size()) / prevYearAdmissions.size() * 100;
+        if (prevYearAdmissions > 0) {
+            double growth = ((double) report.getTotalAdmissions() - prevYearAdmissions) / prevYearAdmissions * 100;
             report.setYearOverYearGrowth(Math.round(growth * 100.0) / 100.0);
         } else {
             report.setYearOverYearGrowth(0.0);
@@ -211,81 +184,6 @@ public class WardStatisticsService {
         report.setOccupancyTrend(report.getYearOverYearGrowth());
     }
 
-    private void generateMonthlyBreakdown(WardStatisticsReportDTO report, List<Admission> admissions, int year) {
-        List<WardStatisticsReportDTO.MonthlyWardDataDTO> monthlyData = new ArrayList<>();
-
-        for (int month = 1; month <= 12; month++) {
-            LocalDate monthStart = LocalDate.of(year, month, 1);
-            LocalDate monthEnd = monthStart.withDayOfMonth(monthStart.lengthOfMonth());
-
-            List<Admission> monthAdmissions = admissions.stream()
-                    .filter(a -> a.getAdmissionDate().toLocalDate().isAfter(monthStart.minusDays(1)) &&
-                               a.getAdmissionDate().toLocalDate().isBefore(monthEnd.plusDays(1)))
-                    .collect(Collectors.toList());
-
-            long monthDischarges = monthAdmissions.stream()
-                    .filter(a -> a.getDischargeDate() != null &&
-                               a.getDischargeDate().toLocalDate().isAfter(monthStart.minusDays(1)) &&
-                               a.getDischargeDate().toLocalDate().isBefore(monthEnd.plusDays(1)))
-                    .count();
-
-            WardStatisticsReportDTO.MonthlyWardDataDTO monthData = new WardStatisticsReportDTO.MonthlyWardDataDTO();
-            monthData.setMonth(month);
-            monthData.setMonthName(Month.of(month).getDisplayName(TextStyle.FULL, Locale.ENGLISH));
-            monthData.setAdmissions(monthAdmissions.size());
-            monthData.setDischarges(monthDischarges);
-            monthData.setDeaths(0L); // Not implemented yet
-            monthData.setAverageOccupancy(monthAdmissions.size() / 20.0 * 100);
-
-            double avgLOS = monthAdmissions.stream()
-                    .filter(a -> a.getDischargeDate() != null)
-                    .mapToLong(a -> ChronoUnit.DAYS.between(a.getAdmissionDate().toLocalDate(), a.getDischargeDate().toLocalDate()))
-                    .average()
-                    .orElse(0.0);
-            monthData.setAverageLengthOfStay(Math.round(avgLOS * 100.0) / 100.0);
-
-            monthlyData.add(monthData);
-        }
-
-        report.setMonthlyData(monthlyData);
-    }
-
-    private void generatePatientDemographics(WardStatisticsReportDTO report, List<Admission> admissions) {
-        // Get patient demographics
-        List<Patient> patients = admissions.stream()
-                .map(Admission::getPatient)
-                .distinct()
-                .collect(Collectors.toList());
-
-        // Age group breakdown
-        Map<String, Long> ageGroups = patients.stream()
-                .collect(Collectors.groupingBy(
-                        patient -> getAgeGroup(patient.getDateOfBirth()),
-                        Collectors.counting()
-                ));
-        report.setAgeGroupBreakdown(ageGroups);
-
-        // Gender breakdown
-        Map<String, Long> genderBreakdown = patients.stream()
-                .collect(Collectors.groupingBy(
-                        Patient::getGender,
-                        Collectors.counting()
-                ));
-        report.setGenderBreakdown(genderBreakdown);
-    }
-
-    private String getAgeGroup(LocalDate dateOfBirth) {
-        if (dateOfBirth == null) return "Unknown";
-
-        int age = (int) ChronoUnit.YEARS.between(dateOfBirth, LocalDate.now());
-
-        if (age < 18) return "0-17";
-        else if (age < 30) return "18-29";
-        else if (age < 50) return "30-49";
-        else if (age < 65) return "50-64";
-        else return "65+";
-    }
-
     private void generateAnalysisText(WardStatisticsReportDTO report) {
         StringBuilder executiveSummary = new StringBuilder();
         executiveSummary.append(String.format("Ward %s processed %d admissions in %d with an average occupancy rate of %.1f%%. ",
@@ -377,6 +275,7 @@ public class WardStatisticsService {
         kpis.put("totalAdmissions", report.getTotalAdmissions());
         kpis.put("currentOccupancy", report.getCurrentOccupancyRate());
         kpis.put("averageLengthOfStay", report.getAverageLengthOfStay());
+        kpis.put("medianLengthOfStay", report.getMedianLengthOfStay());
         kpis.put("bedUtilizationRate", report.getBedUtilizationRate());
         kpis.put("monthlyAverage", report.getMonthlyAverageAdmissions());
         kpis.put("yearOverYearGrowth", report.getYearOverYearGrowth());
@@ -384,6 +283,32 @@ public class WardStatisticsService {
         return kpis;
     }
 
+    /**
+     * Census of the wards the name refers to from startDate to endDate inclusive
+     */
+    public WardCensusSummaryDTO getCensusSummary(String wardName, LocalDate startDate, LocalDate endDate) {
+        WardCensusService.CensusRange census = wardCensusService.getCensus(findMatchingWardIds(wardName), startDate, endDate);
+        WardCensusService.CensusTotals total = census.total();
+
+        WardCensusSummaryDTO summary = new WardCensusSummaryDTO();
+        summary.setWardName(wardName);
+        summary.setStartDate(startDate);
+        summary.setEndDate(endDate);
+        summary.setBedDays(total.getBedDays());
+        summary.setOccupiedBedDays(total.getOccupiedBedDays());
+        summary.setOccupancyRate(round(total.occupancyRate()));
+        summary.setBedsAtEnd(census.bedsAtEnd());
+        summary.setOccupiedBedsAtEnd(census.occupiedAtEnd());
+        summary.setAdmissions(total.getAdmissions());
+        summary.setDischarges(total.getDischarges());
+        summary.setTransfersIn(total.getTransfersIn());
+        summary.setTransfersOut(total.getTransfersOut());
+        summary.setAverageLengthOfStay(round(total.averageLengthOfStayDays()));
+        summary.setMedianLengthOfStay(round(total.lengthOfStayDays(0.5)));
+        summary.setP90LengthOfStay(round(total.lengthOfStayDays(0.9)));
+        return summary;
+    }
+
     public Map<String, Object> getYearOverYearComparison(String wardName, int year) {
         WardStatisticsReportDTO currentYear = generateWardStatistics(wardName, year);
         WardStatisticsReportDTO previousYear = generateWardStatistics(wardName, year - 1);
@@ -0,0 +1,76 @@
+package com.HMS.HMS.util;
+
+import com.HMS.HMS.DTO.KeysetPageDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Trims the items of a list page to the fields a client asked for, e.g.
+ * fields=admissionId,patientName,bedNumber, so a screen showing three columns doesn't
+ * download every field of every row. Field names are the item's JSON property names.
+ */
+@Component
+public class FieldSelector {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> PROPERTIES = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+    // JSON property names per item type, from Jackson's serialization view of the class
+    private final Map<Class<?>, Set<String>> propertyNames = new ConcurrentHashMap<>();
+
+    public FieldSelector(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * The page with each item reduced to the comma-separated fields, in the order given,
+     * or the page unchanged if fields is null or blank. Throws IllegalArgumentException
+     * naming any field that is not a JSON property of itemType, even when the page is empty.
+     */
+    public <T> KeysetPageDTO<?> select(KeysetPageDTO<T> page, Class<T> itemType, String fields) {
+        if (fields == null || fields.isBlank()) {
+            return page;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            if (!name.isBlank()) {
+                names.add(name.trim());
+            }
+        }
+        Set<String> known = propertyNames.computeIfAbsent(itemType, this::propertiesOf);
+        if (!known.containsAll(names)) {
+            Set<String> unknown = new LinkedHashSet<>(names);
+            unknown.removeAll(known);
+            throw new IllegalArgumentException("Unknown fields " + unknown + ", expected any of " + known);
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>(page.getItems().size());
+        for (T item : page.getItems()) {
+            Map<String, Object> properties = objectMapper.convertValue(item, PROPERTIES);
+            Map<String, Object> selected = new LinkedHashMap<>();
+            for (String name : names) {
+                selected.put(name, properties.get(name));
+            }
+            items.add(selected);
+        }
+        return new KeysetPageDTO<>(items, page.isHasMore(), page.getNextCursor());
+    }
+
+    private Set<String> propertiesOf(Class<?> itemType) {
+        BeanDescription description = objectMapper.getSerializationConfig()
+                .introspect(objectMapper.constructType(itemType));
+        Set<String> names = new LinkedHashSet<>();
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            if (property.couldSerialize()) {
+                names.add(property.getName());
+            }
+        }
+        return Collections.unmodifiableSet(names);
+    }
+}
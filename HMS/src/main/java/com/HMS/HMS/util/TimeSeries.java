@@ -0,0 +1,257 @@
+package com.HMS.HMS.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Time-ordered (timestamp, value) series held as two parallel primitive arrays.
+ *
+ * Timestamps are epoch seconds kept sorted, so range queries are two binary searches and
+ * a slice. Points sharing a timestamp, such as two results completed in the same second,
+ * are all kept in the order they were added. The binary form
+ * stores the timestamp column delta-encoded as variable-length longs followed by the
+ * value column, which keeps a few years of one patient's results to a few kilobytes.
+ */
+public class TimeSeries {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private long[] times;
+    private double[] values;
+    private int size;
+
+    public TimeSeries() {
+        this(16);
+    }
+
+    public TimeSeries(int capacity) {
+        this.times = new long[Math.max(1, capacity)];
+        this.values = new double[Math.max(1, capacity)];
+    }
+
+    public void add(long time, double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Series values must be numbers");
+        }
+        // Appending in time order is the common case
+        if (size == 0 || time >= times[size - 1]) {
+            ensureCapacity(size + 1);
+            times[size] = time;
+            values[size] = value;
+            size++;
+            return;
+        }
+        // After any points already at this time
+        int insertAt = lowerBound(time + 1);
+        ensureCapacity(size + 1);
+        System.arraycopy(times, insertAt, times, insertAt + 1, size - insertAt);
+        System.arraycopy(values, insertAt, values, insertAt + 1, size - insertAt);
+        times[insertAt] = time;
+        values[insertAt] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long timeAt(int index) {
+        checkIndex(index);
+        return times[index];
+    }
+
+    public double valueAt(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * Points with from <= time <= to, as a new series
+     */
+    public TimeSeries range(long from, long to) {
+        int start = lowerBound(from);
+        int end = to == Long.MAX_VALUE ? size : lowerBound(to + 1);
+        TimeSeries slice = new TimeSeries(Math.max(1, end - start));
+        if (end > start) {
+            System.arraycopy(times, start, slice.times, 0, end - start);
+            System.arraycopy(values, start, slice.values, 0, end - start);
+            slice.size = end - start;
+        }
+        return slice;
+    }
+
+    /**
+     * Split the series into at most maxBuckets equal time spans and summarise each
+     * non-empty span. A series already within the limit gives one bucket per point.
+     */
+    public List<Bucket> downsample(int maxBuckets) {
+        if (maxBuckets <= 0) {
+            throw new IllegalArgumentException("maxBuckets must be positive");
+        }
+        List<Bucket> buckets = new ArrayList<>(Math.min(size, maxBuckets));
+        if (size == 0) {
+            return buckets;
+        }
+        if (size <= maxBuckets) {
+            for (int i = 0; i < size; i++) {
+                buckets.add(new Bucket(times[i], times[i], 1, values[i], values[i], values[i], values[i]));
+            }
+            return buckets;
+        }
+
+        long first = times[0];
+        double width = (double) (times[size - 1] - first + 1) / maxBuckets;
+        int i = 0;
+        while (i < size) {
+            int slot = (int) Math.min(maxBuckets - 1, (long) ((times[i] - first) / width));
+            long start = times[i];
+            long end = start;
+            int count = 0;
+            double sum = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            double last = 0;
+            while (i < size && (int) Math.min(maxBuckets - 1, (long) ((times[i] - first) / width)) == slot) {
+                end = times[i];
+                count++;
+                sum += values[i];
+                min = Math.min(min, values[i]);
+                max = Math.max(max, values[i]);
+                last = values[i];
+                i++;
+            }
+            buckets.add(new Bucket(start, end, count, sum / count, min, max, last));
+        }
+        return buckets;
+    }
+
+    /**
+     * Compact binary form for storing the series in a single column
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + size * 11);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            writeVarLong(out, size);
+            long previous = 0;
+            for (int i = 0; i < size; i++) {
+                // First entry is absolute, the rest are non-negative gaps
+                writeVarLong(out, i == 0 ? zigZag(times[i]) : times[i] - previous);
+                previous = times[i];
+            }
+            for (int i = 0; i < size; i++) {
+                out.writeDouble(values[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Read a series written by toBytes; null or empty input gives an empty series
+     */
+    public static TimeSeries fromBytes(byte[] data) {
+        if (data == null || data.length == 0) {
+            return new TimeSeries();
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported series format version " + version);
+            }
+            int size = (int) readVarLong(in);
+            TimeSeries series = new TimeSeries(size);
+            long previous = 0;
+            for (int i = 0; i < size; i++) {
+                long encoded = readVarLong(in);
+                previous = i == 0 ? unZigZag(encoded) : previous + encoded;
+                series.times[i] = previous;
+            }
+            for (int i = 0; i < size; i++) {
+                series.values[i] = in.readDouble();
+            }
+            series.size = size;
+            return series;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Helper methods
+    private int lowerBound(long time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > times.length) {
+            int grown = Math.max(capacity, times.length * 2);
+            times = Arrays.copyOf(times, grown);
+            values = Arrays.copyOf(values, grown);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IOException("Malformed variable-length value");
+            }
+        }
+    }
+
+    /**
+     * Summary of the points between start and end (both inclusive, epoch seconds)
+     */
+    public record Bucket(long start, long end, int count, double mean, double min, double max, double last) {}
+}
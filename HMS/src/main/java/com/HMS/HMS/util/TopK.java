@@ -0,0 +1,56 @@
+package com.HMS.HMS.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Bounded top-K selection over a stream of weighted entries.
+ * Keeps a min-heap of at most k entries, so offering n entries costs O(n log k).
+ * Two instances can be merged, which lets per-month selections feed a yearly one.
+ */
+public class TopK<T> {
+
+    private final int k;
+    private final PriorityQueue<Entry<T>> heap;
+
+    public TopK(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        this.k = k;
+        this.heap = new PriorityQueue<>(k, Comparator.comparingLong(Entry::weight));
+    }
+
+    public void offer(T item, long weight) {
+        if (heap.size() < k) {
+            heap.add(new Entry<>(item, weight));
+        } else if (weight > heap.peek().weight()) {
+            heap.poll();
+            heap.add(new Entry<>(item, weight));
+        }
+    }
+
+    public TopK<T> merge(TopK<T> other) {
+        for (Entry<T> entry : other.heap) {
+            offer(entry.item(), entry.weight());
+        }
+        return this;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * Entries ordered by descending weight.
+     */
+    public List<Entry<T>> toSortedList() {
+        List<Entry<T>> result = new ArrayList<>(heap);
+        result.sort(Comparator.comparingLong((Entry<T> e) -> e.weight()).reversed());
+        return result;
+    }
+
+    public record Entry<T>(T item, long weight) {}
+}
@@ -111,6 +111,19 @@ public class AdmissionNotificationService {
         System.out.println("WebSocket notification sent for discharge: " + admission.getAdmissionId());
     }
 
+    /**
+     * Notify a ward's subscribers that a bed was taken or freed
+     */
+    public void notifyBedOccupancy(Long wardId, Map<String, Object> occupancy) {
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("type", "BED_OCCUPANCY");
+        notification.put("action", "OCCUPANCY_CHANGED");
+        notification.put("occupancy", occupancy);
+        notification.put("timestamp", System.currentTimeMillis());
+
+        messagingTemplate.convertAndSend("/topic/admissions/ward/" + wardId, notification);
+    }
+
     /**
      * Notify dialysis department about real-time updates
      */
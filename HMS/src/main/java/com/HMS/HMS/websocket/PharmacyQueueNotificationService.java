@@ -0,0 +1,47 @@
+package com.HMS.HMS.websocket;
+
+import com.HMS.HMS.service.PharmacyService.PharmacyWorkQueueService.WorkItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+public class PharmacyQueueNotificationService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    public PharmacyQueueNotificationService(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    /**
+     * Notify dispensing stations that a work item was added, changed or claimed
+     */
+    public void notifyItemUpserted(WorkItem item) {
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("type", "QUEUE_ITEM_UPSERTED");
+        notification.put("action", "UPSERT");
+        notification.put("item", item);
+        notification.put("timestamp", System.currentTimeMillis());
+
+        // Stations keep a local copy of the queue and apply deltas from /topic/pharmacy/queue
+        messagingTemplate.convertAndSend("/topic/pharmacy/queue", notification);
+    }
+
+    /**
+     * Notify dispensing stations that a work item left the queue
+     */
+    public void notifyItemRemoved(String key) {
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("type", "QUEUE_ITEM_REMOVED");
+        notification.put("action", "REMOVE");
+        notification.put("key", key);
+        notification.put("timestamp", System.currentTimeMillis());
+
+        messagingTemplate.convertAndSend("/topic/pharmacy/queue", notification);
+    }
+}
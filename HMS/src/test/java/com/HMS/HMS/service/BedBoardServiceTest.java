@@ -0,0 +1,166 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.DTO.AdmissionDTO.AdmissionRequestDTO;
+import com.HMS.HMS.model.Admission.Admission;
+import com.HMS.HMS.model.Patient.Patient;
+import com.HMS.HMS.model.ward.Ward;
+import com.HMS.HMS.repository.AdmissionRepository;
+import com.HMS.HMS.repository.PatientRepository;
+import com.HMS.HMS.repository.WardRepository;
+import com.HMS.HMS.websocket.AdmissionNotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BedBoardServiceTest {
+
+    private static final int THREADS = 64;
+    private static final long WARD_ID = 1L;
+
+    @Mock
+    private AdmissionRepository admissionRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    @Mock
+    private WardRepository wardRepository;
+
+    @Mock
+    private AdmissionNotificationService notificationService;
+
+    @Mock
+    private Ward ward;
+
+    private BedBoardService bedBoardService;
+    private AdmissionService admissionService;
+
+    @BeforeEach
+    void setUp() {
+        when(ward.getWardId()).thenReturn(WARD_ID);
+        when(ward.getWardName()).thenReturn("Ward 1");
+        when(ward.getWardType()).thenReturn("General");
+        when(ward.getBedCount()).thenReturn(20);
+        when(wardRepository.findAll()).thenReturn(List.of(ward));
+        when(wardRepository.findById(WARD_ID)).thenReturn(Optional.of(ward));
+        when(admissionRepository.findActiveBeds()).thenReturn(List.of());
+        when(patientRepository.findForUpdate(anyString())).thenAnswer(invocation -> {
+            Patient patient = new Patient();
+            patient.setNationalId(invocation.getArgument(0));
+            return Optional.of(patient);
+        });
+        when(admissionRepository.save(any(Admission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        bedBoardService = new BedBoardService(wardRepository, admissionRepository, notificationService);
+        bedBoardService.load();
+        admissionService = new AdmissionService(admissionRepository, patientRepository, wardRepository, bedBoardService,
+                mock(WardCensusService.class));
+    }
+
+    @Test
+    void concurrentAdmissionsToOneBedAdmitExactlyOnePatient() throws Exception {
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(i -> {
+            try {
+                admissionService.admitPatient(new AdmissionRequestDTO("P" + i, WARD_ID, "101"));
+                admitted.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, admitted.get());
+        assertEquals(THREADS - 1, rejected.get());
+        verify(admissionRepository, times(1)).save(any(Admission.class));
+        assertEquals(List.of("101"), bedBoardService.getOccupiedBeds(WARD_ID));
+        assertEquals(19, bedBoardService.getFreeBeds(WARD_ID).size());
+    }
+
+    @Test
+    void concurrentAdmissionsFillEveryBedOnce() throws Exception {
+        Set<String> beds = ConcurrentHashMap.newKeySet();
+        AtomicInteger admitted = new AtomicInteger();
+
+        runConcurrently(i -> {
+            for (String bed : bedBoardService.getFreeBeds(WARD_ID)) {
+                try {
+                    admissionService.admitPatient(new AdmissionRequestDTO("P" + i, WARD_ID, bed));
+                    assertTrue(beds.add(bed), "bed " + bed + " given out twice");
+                    admitted.incrementAndGet();
+                    return;
+                } catch (IllegalArgumentException e) {
+                    // taken by another thread since the listing, try the next free bed
+                }
+            }
+        });
+
+        assertEquals(20, admitted.get());
+        assertEquals(20, beds.size());
+        assertTrue(bedBoardService.getFreeBeds(WARD_ID).isEmpty());
+        assertEquals(20, bedBoardService.getOccupancy(WARD_ID).get("occupiedBeds"));
+    }
+
+    @Test
+    void reservationIsReleasedWhenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(bedBoardService.reserve(WARD_ID, "105"));
+            assertFalse(bedBoardService.reserve(WARD_ID, "105"));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(bedBoardService.isOccupied(WARD_ID, "105"));
+        assertEquals(20, bedBoardService.getFreeBeds(WARD_ID).size());
+        verify(notificationService, never()).notifyBedOccupancy(any(), any());
+    }
+
+    private static void runConcurrently(IntTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int index);
+    }
+}
@@ -0,0 +1,202 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.DTO.appoinmenetDTO.AvailableSlotResponse;
+import com.HMS.HMS.DTO.appoinmenetDTO.CreateAppointmentRequest;
+import com.HMS.HMS.model.Appointment.Appointment;
+import com.HMS.HMS.model.Patient.Patient;
+import com.HMS.HMS.model.doctor.Doctor;
+import com.HMS.HMS.repository.AppointmentRepository;
+import com.HMS.HMS.repository.DoctorRepository;
+import com.HMS.HMS.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DoctorCalendarServiceTest {
+
+    private static final int THREADS = 64;
+    private static final LocalDate TOMORROW = LocalDate.now().plusDays(1);
+
+    @Mock
+    private AppointmentRepository appointmentRepository;
+
+    @Mock
+    private DoctorRepository doctorRepository;
+
+    @Mock
+    private PatientRepository patientRepository;
+
+    private DoctorCalendarService calendarService;
+    private AppointmentService appointmentService;
+
+    @BeforeEach
+    void setUp() {
+        Doctor cardiologist = new Doctor(1L, "Dr. Perera", "Cardiology");
+        Doctor secondCardiologist = new Doctor(2L, "Dr. Silva", "Cardiology");
+        Doctor neurologist = new Doctor(3L, "Dr. Fernando", "Neurology");
+        when(doctorRepository.findAll()).thenReturn(List.of(cardiologist, secondCardiologist, neurologist));
+        when(doctorRepository.findById(1L)).thenReturn(Optional.of(cardiologist));
+        when(patientRepository.findById(anyString())).thenAnswer(invocation -> {
+            Patient patient = new Patient();
+            patient.setNationalId(invocation.getArgument(0));
+            return Optional.of(patient);
+        });
+        when(appointmentRepository.saveAndFlush(any(Appointment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // appointment id, doctor id, date, time, booked slot
+        List<Object[]> booked = new ArrayList<>();
+        booked.add(new Object[]{10L, 1L, TOMORROW, LocalTime.of(8, 0), null});
+        booked.add(new Object[]{11L, 2L, TOMORROW, LocalTime.of(8, 0), LocalTime.of(8, 0)});
+        booked.add(new Object[]{12L, 3L, TOMORROW, LocalTime.of(8, 5), null});
+        // Saved before booked_slot existed into a slot appointment 11 already holds
+        booked.add(0, new Object[]{13L, 2L, TOMORROW, LocalTime.of(8, 10), null});
+        when(appointmentRepository.findBookedSlotsFrom(any())).thenReturn(booked);
+        when(appointmentRepository.markBookedSlots(any(), any())).thenAnswer(invocation ->
+                ((Collection<?>) invocation.getArgument(0)).size());
+
+        calendarService = new DoctorCalendarService(appointmentRepository, doctorRepository);
+        calendarService.rebuild();
+        appointmentService = new AppointmentService(appointmentRepository, doctorRepository, patientRepository,
+                calendarService);
+    }
+
+    @Test
+    void rebuildMarksUnmarkedAppointmentsInOneUpdatePerSlot() {
+        verify(appointmentRepository, times(1)).markBookedSlots(List.of(10L, 12L), LocalTime.of(8, 0));
+        verify(appointmentRepository, times(1)).markBookedSlots(any(), any());
+        assertFalse(calendarService.getFreeSlots(3L, TOMORROW).contains(LocalTime.of(8, 0)));
+        assertEquals(DoctorCalendarService.SLOTS_PER_DAY - 1, calendarService.getFreeSlots(2L, TOMORROW).size());
+    }
+
+    @Test
+    void concurrentBookingsOfOneSlotBookItOnce() throws Exception {
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(i -> {
+            try {
+                appointmentService.createAppointment(
+                        new CreateAppointmentRequest(1L, "P" + i, TOMORROW, LocalTime.of(9, i % 15)));
+                booked.incrementAndGet();
+            } catch (RuntimeException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, booked.get());
+        assertEquals(THREADS - 1, rejected.get());
+        verify(appointmentRepository, times(1)).saveAndFlush(any(Appointment.class));
+        assertFalse(calendarService.getFreeSlots(1L, TOMORROW).contains(LocalTime.of(9, 0)));
+    }
+
+    @Test
+    void concurrentBookingsFillEveryFreeSlotOnce() throws Exception {
+        Set<LocalTime> slots = ConcurrentHashMap.newKeySet();
+        AtomicInteger booked = new AtomicInteger();
+
+        runConcurrently(i -> {
+            for (LocalTime slot : calendarService.getFreeSlots(1L, TOMORROW)) {
+                try {
+                    appointmentService.createAppointment(new CreateAppointmentRequest(1L, "P" + i, TOMORROW, slot));
+                    assertTrue(slots.add(slot), "slot " + slot + " booked twice");
+                    booked.incrementAndGet();
+                    return;
+                } catch (RuntimeException e) {
+                    // taken by another thread since the listing, try the next free slot
+                }
+            }
+        });
+
+        assertEquals(DoctorCalendarService.SLOTS_PER_DAY - 1, booked.get());
+        assertTrue(calendarService.getFreeSlots(1L, TOMORROW).isEmpty());
+    }
+
+    @Test
+    void findFreeSlotsSkipsBookedSlotsAndOtherSpecializations() {
+        List<AvailableSlotResponse> slots = calendarService.findFreeSlots(" cardiology ", TOMORROW.atTime(7, 0), 3);
+
+        assertEquals(3, slots.size());
+        assertSlot(slots.get(0), 1L, LocalTime.of(8, 15));
+        assertSlot(slots.get(1), 2L, LocalTime.of(8, 15));
+        assertSlot(slots.get(2), 1L, LocalTime.of(8, 30));
+        assertTrue(slots.stream().allMatch(slot -> slot.getDate().equals(TOMORROW)));
+    }
+
+    @Test
+    void findFreeSlotsStartsFromTheSlotAfterTheRequestedTime() {
+        List<AvailableSlotResponse> slots = calendarService.findFreeSlots("Neurology", TOMORROW.atTime(17, 40), 2);
+
+        assertEquals(2, slots.size());
+        assertSlot(slots.get(0), 3L, LocalTime.of(17, 45));
+        assertEquals(TOMORROW.plusDays(1), slots.get(1).getDate());
+        assertSlot(slots.get(1), 3L, DoctorCalendarService.DAY_START);
+    }
+
+    @Test
+    void reservationIsReleasedWhenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(calendarService.reserve(1L, TOMORROW, LocalTime.of(10, 0)));
+            assertFalse(calendarService.reserve(1L, TOMORROW, LocalTime.of(10, 10)));
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(calendarService.getFreeSlots(1L, TOMORROW).contains(LocalTime.of(10, 0)));
+    }
+
+    private static void assertSlot(AvailableSlotResponse slot, Long doctorId, LocalTime startTime) {
+        assertEquals(doctorId, slot.getDoctorEmployeeId());
+        assertEquals(startTime, slot.getStartTime());
+        assertEquals(startTime.plusMinutes(DoctorCalendarService.SLOT_MINUTES), slot.getEndTime());
+    }
+
+    private static void runConcurrently(IntTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int index);
+    }
+}
@@ -0,0 +1,104 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.model.LabRequest.LabEquipment;
+import com.HMS.HMS.model.LabRequest.LabEquipmentUsage;
+import com.HMS.HMS.model.LabRequest.TestResult;
+import com.HMS.HMS.repository.LabEquipmentRepository;
+import com.HMS.HMS.repository.LabEquipmentUsageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LabEquipmentServiceTest {
+
+    private static final LocalDateTime COMPLETED_AT = LocalDate.now().minusDays(1).atTime(10, 15);
+
+    private LabEquipmentUsageRepository usageRepository;
+    private PlatformTransactionManager transactionManager;
+    private LabEquipmentService service;
+    private final List<LabEquipmentUsage> written = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        LabEquipmentRepository equipmentRepository = mock(LabEquipmentRepository.class);
+        usageRepository = mock(LabEquipmentUsageRepository.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        LabSlaMonitorService slaMonitorService = mock(LabSlaMonitorService.class);
+
+        LabEquipment analyser = new LabEquipment("AN-1", "Chemistry analyser", "Chemistry", "Lab 1", 10, Set.of("Blood Glucose"));
+        when(equipmentRepository.findAll()).thenReturn(List.of(analyser));
+        when(equipmentRepository.findByEquipmentId("AN-1")).thenReturn(Optional.of(analyser));
+        when(equipmentRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(slaMonitorService.getPendingTestCounts()).thenReturn(Map.of());
+        when(usageRepository.findByEquipmentIdAndPeriodDateAndPeriodHour(any(), any(), any())).thenReturn(Optional.empty());
+
+        service = new LabEquipmentService();
+        ReflectionTestUtils.setField(service, "equipmentRepository", equipmentRepository);
+        ReflectionTestUtils.setField(service, "usageRepository", usageRepository);
+        ReflectionTestUtils.setField(service, "slaMonitorService", slaMonitorService);
+        ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+        service.reload();
+    }
+
+    @Test
+    void failedFlushKeepsCountersForTheNextFlush() {
+        service.recordCompleted(List.of(result(), result()));
+        service.updateStatus("AN-1", LabEquipment.Status.MAINTENANCE);
+        when(usageRepository.saveAll(anyIterable()))
+                .thenThrow(new CannotAcquireLockException("Deadlock found when trying to get lock"))
+                .thenAnswer(this::capture);
+
+        assertThrows(CannotAcquireLockException.class, () -> service.flush());
+        verify(transactionManager).rollback(any());
+        assertTrue(written.isEmpty());
+
+        service.flush();
+        assertEquals(2, testsAt(COMPLETED_AT));
+        assertEquals(1, written.stream().mapToInt(LabEquipmentUsage::getMaintenanceEvents).sum());
+    }
+
+    @Test
+    void committedFlushWritesCountersOnce() {
+        service.recordCompleted(List.of(result(), result(), result()));
+        when(usageRepository.saveAll(anyIterable())).thenAnswer(this::capture);
+
+        service.flush();
+        service.flush();
+
+        assertEquals(3, written.stream().mapToLong(LabEquipmentUsage::getTestsProcessed).sum());
+        assertEquals(3, testsAt(COMPLETED_AT));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    private Object capture(InvocationOnMock invocation) {
+        Iterable<LabEquipmentUsage> rows = invocation.getArgument(0);
+        rows.forEach(written::add);
+        return written;
+    }
+
+    private long testsAt(LocalDateTime time) {
+        return written.stream()
+                .filter(row -> row.getPeriodDate().equals(time.toLocalDate()) && row.getPeriodHour() == time.getHour())
+                .mapToLong(LabEquipmentUsage::getTestsProcessed)
+                .sum();
+    }
+
+    private static TestResult result() {
+        TestResult testResult = new TestResult();
+        testResult.setTestName("Blood Glucose");
+        testResult.setEquipmentId("AN-1");
+        testResult.setCompletedAt(COMPLETED_AT);
+        return testResult;
+    }
+}
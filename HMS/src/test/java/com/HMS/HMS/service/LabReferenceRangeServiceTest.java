@@ -0,0 +1,111 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.model.LabRequest.LabAnalyte;
+import com.HMS.HMS.model.LabRequest.LabReferenceRange;
+import com.HMS.HMS.model.LabRequest.LabReferenceRange.Sex;
+import com.HMS.HMS.model.LabRequest.LabResultFlag;
+import com.HMS.HMS.repository.LabReferenceRangeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LabReferenceRangeServiceTest {
+
+    private LabReferenceRangeService service;
+
+    @BeforeEach
+    void setUp() {
+        LabReferenceRangeRepository repository = mock(LabReferenceRangeRepository.class);
+        when(repository.findAll()).thenReturn(List.of(
+                new LabReferenceRange(LabAnalyte.GLUCOSE, Sex.ANY, 0, 200, 70.0, 100.0, 40.0, 400.0),
+                // adults by sex, children and a catch-all for unknown sex or age
+                new LabReferenceRange(LabAnalyte.HEMOGLOBIN, Sex.ANY, 0, 200, 12.0, 17.0, 7.0, 20.0),
+                new LabReferenceRange(LabAnalyte.HEMOGLOBIN, Sex.ANY, 0, 18, 11.0, 14.0, 7.0, 20.0),
+                new LabReferenceRange(LabAnalyte.HEMOGLOBIN, Sex.MALE, 18, 200, 13.5, 17.5, 7.0, 20.0),
+                new LabReferenceRange(LabAnalyte.HEMOGLOBIN, Sex.FEMALE, 18, 200, 12.0, 15.5, 7.0, 20.0),
+                // only a high limit
+                new LabReferenceRange(LabAnalyte.LDL_CHOLESTEROL, Sex.ANY, 0, 200, null, 130.0, null, null)));
+
+        service = new LabReferenceRangeService();
+        ReflectionTestUtils.setField(service, "referenceRangeRepository", repository);
+        assertEquals(6, service.reload());
+    }
+
+    @Test
+    void limitsThemselvesAreWithinTheRange() {
+        assertEquals(LabResultFlag.NORMAL, glucose(70));
+        assertEquals(LabResultFlag.NORMAL, glucose(100));
+        assertEquals(LabResultFlag.LOW, glucose(69.9));
+        assertEquals(LabResultFlag.HIGH, glucose(100.1));
+    }
+
+    @Test
+    void criticalLimitsWinOverLowAndHigh() {
+        assertEquals(LabResultFlag.LOW, glucose(40));
+        assertEquals(LabResultFlag.CRITICAL, glucose(39.9));
+        assertEquals(LabResultFlag.HIGH, glucose(400));
+        assertEquals(LabResultFlag.CRITICAL, glucose(400.1));
+    }
+
+    @Test
+    void unsetLimitsNeverTrigger() {
+        assertEquals(LabResultFlag.NORMAL, service.evaluate(LabAnalyte.LDL_CHOLESTEROL, 0, 40, "Male"));
+        assertEquals(LabResultFlag.HIGH, service.evaluate(LabAnalyte.LDL_CHOLESTEROL, 5_000, 40, "Male"));
+        assertNull(service.evaluate(LabAnalyte.PLATELETS, 150, 40, "Male"));
+    }
+
+    @Test
+    void sexSpecificRangesComeBeforeRangesForAnySex() {
+        assertEquals(LabResultFlag.LOW, service.evaluate(LabAnalyte.HEMOGLOBIN, 13.0, 40, "Male"));
+        assertEquals(LabResultFlag.NORMAL, service.evaluate(LabAnalyte.HEMOGLOBIN, 13.0, 40, " f "));
+        assertEquals(LabResultFlag.HIGH, service.evaluate(LabAnalyte.HEMOGLOBIN, 16.0, 40, "FEMALE"));
+        // other or missing sex falls back to the range for any sex
+        assertEquals(LabResultFlag.NORMAL, service.evaluate(LabAnalyte.HEMOGLOBIN, 16.0, 40, "Other"));
+        assertEquals(LabResultFlag.NORMAL, service.evaluate(LabAnalyte.HEMOGLOBIN, 16.0, 40, null));
+    }
+
+    @Test
+    void ageBandsIncludeTheirMinimumAndExcludeTheirMaximum() {
+        // a child's range for any sex beats the adult catch-all
+        assertEquals(LabResultFlag.HIGH, service.evaluate(LabAnalyte.HEMOGLOBIN, 14.5, 17, "Male"));
+        // at 18 the adult male range applies
+        assertEquals(LabResultFlag.NORMAL, service.evaluate(LabAnalyte.HEMOGLOBIN, 14.5, 18, "Male"));
+        assertEquals(LabResultFlag.LOW, service.evaluate(LabAnalyte.HEMOGLOBIN, 13.0, 18, "Male"));
+    }
+
+    @Test
+    void unknownAgeMatchesOnlyRangesCoveringAllAges() {
+        assertEquals(LabResultFlag.NORMAL, service.evaluate(LabAnalyte.HEMOGLOBIN, 13.0, null, "Male"));
+        assertEquals(LabResultFlag.HIGH, service.evaluate(LabAnalyte.HEMOGLOBIN, 17.2, null, "Female"));
+    }
+
+    @Test
+    void ruleMatchesOnSexAndAgeBand() {
+        LabReferenceRangeService.Rule adultMale = LabReferenceRangeService.Rule.of(
+                new LabReferenceRange(LabAnalyte.HEMOGLOBIN, Sex.MALE, 18, 65, 13.5, 17.5, 7.0, 20.0));
+        assertTrue(adultMale.matches(Sex.MALE, 18));
+        assertTrue(adultMale.matches(Sex.MALE, 64));
+        assertFalse(adultMale.matches(Sex.MALE, 65));
+        assertFalse(adultMale.matches(Sex.MALE, 17));
+        assertFalse(adultMale.matches(Sex.FEMALE, 30));
+        assertFalse(adultMale.matches(Sex.ANY, 30));
+        assertFalse(adultMale.matches(Sex.MALE, null));
+
+        // unset sex and age limits cover everyone
+        LabReferenceRangeService.Rule anyone = LabReferenceRangeService.Rule.of(
+                new LabReferenceRange(LabAnalyte.HEMOGLOBIN, null, null, null, 12.0, 17.0, null, null));
+        assertTrue(anyone.matches(Sex.FEMALE, 120));
+        assertTrue(anyone.matches(Sex.ANY, null));
+        assertEquals(LabResultFlag.NORMAL, anyone.flag(12.0));
+        assertEquals(LabResultFlag.LOW, anyone.flag(1.0));
+    }
+
+    private LabResultFlag glucose(double value) {
+        return service.evaluate(LabAnalyte.GLUCOSE, value, 40, "Male");
+    }
+}
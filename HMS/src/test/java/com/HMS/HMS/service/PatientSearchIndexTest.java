@@ -0,0 +1,156 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.DTO.PatientDTO.PatientSearchResultDTO;
+import com.HMS.HMS.model.Patient.Patient;
+import com.HMS.HMS.repository.PatientRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PatientSearchIndexTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientSearchIndexTest.class);
+
+    private static final String[] FIRST_NAMES = {"Amal", "Nimal", "Kamal", "Sunil", "Saman", "Kasun", "Dilini",
+            "Nadeesha", "Chamari", "Ruwan", "Tharindu", "Ishara", "Sanduni", "Pradeep", "Lakshmi", "Anura"};
+    private static final String[] LAST_NAMES = {"Perera", "Fernando", "Silva", "Jayasinghe", "Bandara",
+            "Wickramasinghe", "Gunawardena", "Rajapaksa", "Dissanayake", "Herath", "Kumara", "Senanayake"};
+
+    private static final int PATIENTS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int QUERIES_PER_ROUND = 2_000;
+
+    @Test
+    void ranksAndPagesMatches() {
+        PatientSearchIndex index = load(
+                row("199012345678", "Nimal", "Perera", "077-123 4567"),
+                row("198811112222", "Kamal", "Pereira", "0712223333"),
+                row("200100000001", "Perera", "Silva", "0719998888"),
+                row("199512345000", "Sunil", "Jayasinghe", "0771234000"));
+
+        // whole word beats substring, exact name beats a longer one
+        assertEquals(List.of("200100000001", "199012345678"), ids(index.search("perera", PageRequest.of(0, 10))));
+        assertEquals(List.of("199012345678"), ids(index.search("Nimal  PERERA", PageRequest.of(0, 10))));
+        // short tokens match the start of a word; equal scores keep load order
+        assertEquals(List.of("200100000001", "199012345678", "198811112222"), ids(index.search("pe", PageRequest.of(0, 10))));
+        // two-letter tokens never match inside a word
+        assertTrue(ids(index.search("er", PageRequest.of(0, 10))).isEmpty());
+
+        // exact national ID first, then ID prefixes
+        assertEquals(List.of("199012345678"), ids(index.search("199012345678", PageRequest.of(0, 10))));
+        assertEquals(List.of("199012345678"), ids(index.search("1990", PageRequest.of(0, 10))));
+        assertTrue(ids(index.search("199", PageRequest.of(0, 10))).isEmpty());
+        // contact numbers match on digits only
+        assertEquals(List.of("199012345678", "199512345000"), ids(index.search("077 1234", PageRequest.of(0, 10))));
+
+        Page<PatientSearchResultDTO> first = index.search("s", PageRequest.of(0, 1));
+        Page<PatientSearchResultDTO> second = index.search("s", PageRequest.of(1, 1));
+        assertEquals(1, first.getContent().size());
+        assertEquals(2, first.getTotalElements());
+        assertEquals(2, second.getTotalElements());
+        assertNotEquals(first.getContent().get(0).getNationalId(), second.getContent().get(0).getNationalId());
+    }
+
+    @Test
+    void namesRepeatingATrigramOrWordInitialMatchOnce() {
+        PatientSearchIndex index = load(
+                row("199012345678", "Saman", "Silva", "0771234567"),
+                row("198811112222", "Gunananda", "Perera", "0712223333"));
+
+        Page<PatientSearchResultDTO> initial = index.search("s", PageRequest.of(0, 10));
+        assertEquals(1, initial.getTotalElements());
+        assertEquals(List.of("199012345678"), ids(initial));
+        assertEquals(List.of("199012345678"), index.searchNationalIds("s"));
+        assertEquals(List.of("199012345678"), index.searchNationalIds("sa"));
+
+        Page<PatientSearchResultDTO> trigram = index.search("nan", PageRequest.of(0, 10));
+        assertEquals(1, trigram.getTotalElements());
+        assertEquals(List.of("198811112222"), ids(trigram));
+    }
+
+    @Test
+    void followsPatientWrites() {
+        PatientSearchIndex index = load(row("199012345678", "Nimal", "Perera", "0771234567"));
+
+        Patient patient = new Patient("199012345678", "Nimal", "Fernando", null, null, "0771234567", null, "Male");
+        index.index(patient);
+        assertTrue(index.search("perera", PageRequest.of(0, 10)).isEmpty());
+        assertEquals(List.of("199012345678"), ids(index.search("fernando", PageRequest.of(0, 10))));
+
+        index.remove("199012345678");
+        assertTrue(index.search("nimal", PageRequest.of(0, 10)).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void millionPatientSearchLatency() {
+        SplittableRandom random = new SplittableRandom(7);
+        List<Object[]> rows = new ArrayList<>(PATIENTS);
+        for (int i = 0; i < PATIENTS; i++) {
+            rows.add(row(String.format("%09dV", i),
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + (char) ('a' + random.nextInt(26)),
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)] + (char) ('a' + random.nextInt(26)),
+                    String.format("07%08d", random.nextInt(100_000_000))));
+        }
+
+        long loadStarted = System.nanoTime();
+        PatientSearchIndex index = load(rows.toArray(new Object[0][]));
+        long loadNanos = System.nanoTime() - loadStarted;
+        assertEquals(PATIENTS, index.size());
+
+        // the kinds of queries the admission, appointment and transfer screens send
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < QUERIES_PER_ROUND; i++) {
+            Object[] patient = rows.get(random.nextInt(PATIENTS));
+            String first = (String) patient[1];
+            String last = (String) patient[2];
+            switch (i % 4) {
+                case 0 -> queries.add(first + " " + last);
+                case 1 -> queries.add(first.substring(0, 3) + " " + last.substring(0, 4));
+                case 2 -> queries.add((String) patient[0]);
+                default -> queries.add((String) patient[3]);
+            }
+        }
+
+        long elapsedNanos = 0;
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            long started = System.nanoTime();
+            for (String query : queries) {
+                Page<PatientSearchResultDTO> results = index.search(query, PageRequest.of(0, 20));
+                assertFalse(results.isEmpty(), query);
+            }
+            elapsedNanos = System.nanoTime() - started;
+        }
+
+        log.info("Patient search: {} patients indexed in {} ms, {} us per query",
+                PATIENTS, loadNanos / 1_000_000, String.format("%.1f", elapsedNanos / 1e3 / queries.size()));
+    }
+
+    private static PatientSearchIndex load(Object[]... rows) {
+        PatientRepository repository = mock(PatientRepository.class);
+        when(repository.streamSearchFields()).thenReturn(Stream.of(rows));
+        PatientSearchIndex index = new PatientSearchIndex(repository);
+        index.load();
+        return index;
+    }
+
+    private static Object[] row(String nationalId, String firstName, String lastName, String contactNumber) {
+        return new Object[]{nationalId, firstName, lastName, contactNumber, LocalDate.of(1990, 1, 1), "Male"};
+    }
+
+    private static List<String> ids(Page<PatientSearchResultDTO> page) {
+        return page.getContent().stream().map(PatientSearchResultDTO::getNationalId).toList();
+    }
+}
@@ -0,0 +1,127 @@
+package com.HMS.HMS.service.PharmacyService;
+
+import com.HMS.HMS.model.Medication.Medication;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrugInteractionServiceTest {
+
+    private static final Logger log = LoggerFactory.getLogger(DrugInteractionServiceTest.class);
+
+    private static final String[] POLYPHARMACY = {"warfarin", "aspirin", "clopidogrel", "ibuprofen", "naproxen",
+            "diclofenac", "paracetamol", "lisinopril", "enalapril", "losartan", "spironolactone", "potassium chloride",
+            "furosemide", "hydrochlorothiazide", "digoxin", "amiodarone", "simvastatin", "atorvastatin",
+            "clarithromycin", "erythromycin", "ciprofloxacin", "metronidazole", "fluconazole", "methotrexate",
+            "trimethoprim sulfamethoxazole", "sildenafil", "nitroglycerin", "isosorbide mononitrate", "fluoxetine",
+            "sertraline", "tramadol"};
+    private static final int PRESCRIPTION_SIZE = 30;
+    private static final int PRESCRIPTIONS = 200;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int CHECKS_PER_ROUND = 50_000;
+
+    private DrugInteractionService service;
+    private long nextId;
+
+    @BeforeEach
+    void setUp() {
+        service = new DrugInteractionService();
+        service.loadDataset();
+    }
+
+    @Test
+    void resolvesGenericNamesSynonymsAndNamesWithStrength() {
+        int warfarin = service.resolve(medication("Warfarin", null));
+        assertEquals("warfarin", service.getGenericName(warfarin));
+        assertEquals(warfarin, service.resolve(medication("Coumadin", null)));
+        assertEquals(warfarin, service.resolve(medication(null, "WARFARIN SODIUM")));
+        assertEquals(warfarin, service.resolve(medication(null, "Warfarin 5mg tablets")));
+        assertEquals("aspirin", service.getGenericName(service.resolve(medication("Aspirin EC 75mg", null))));
+        assertEquals("trimethoprim sulfamethoxazole", service.getGenericName(
+                service.resolve(medication(null, "Trimethoprim-Sulfamethoxazole 800/160"))));
+    }
+
+    @Test
+    void fallbackMatchesOnlyWholeGenericNames() {
+        // a synonym, or one word of a longer generic name, inside a name is not a match
+        assertFalse(service.isKnown(medication("Potassium citrate", null)));
+        assertFalse(service.isKnown(medication(null, "ASA free cough syrup")));
+        assertFalse(service.isKnown(medication(null, "Trimethoprim 200mg")));
+        assertFalse(service.isKnown(medication("Warfarinol", null)));
+        // the same names on their own still resolve
+        assertTrue(service.isKnown(medication("ASA", null)));
+        assertTrue(service.isKnown(medication("Potassium", null)));
+    }
+
+    @Test
+    void checkReportsEachInteractingPairOnce() {
+        List<Medication> medications = List.of(
+                medication("Warfarin", null), medication(null, "Disprin 300mg"),
+                medication("Unlisted herbal", null), medication("Aspirin", null), medication("Warfarin 1mg", null));
+
+        List<DrugInteractionService.InteractionHit> hits = service.check(medications);
+
+        // Disprin with a strength is not a whole generic name; the same drug twice is no interaction
+        assertEquals(2, hits.size());
+        assertEquals(List.of(0, 3), List.of(hits.get(0).firstIndex(), hits.get(0).secondIndex()));
+        assertEquals(List.of(3, 4), List.of(hits.get(1).firstIndex(), hits.get(1).secondIndex()));
+        assertEquals("HIGH", hits.get(0).interaction().severity());
+    }
+
+    @Test
+    void forgottenMedicationResolvesItsCurrentNames() {
+        Medication medication = medication("Unlisted herbal", null);
+        assertFalse(service.isKnown(medication));
+
+        medication.setGenericName("Warfarin");
+        // still the cached drug id until the medication is forgotten
+        assertFalse(service.isKnown(medication));
+        service.forget(medication.getId());
+        assertEquals("warfarin", service.getGenericName(service.resolve(medication)));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void polypharmacyCheckThroughput() {
+        SplittableRandom random = new SplittableRandom(11);
+        List<List<Medication>> prescriptions = new ArrayList<>(PRESCRIPTIONS);
+        for (int p = 0; p < PRESCRIPTIONS; p++) {
+            List<Medication> prescription = new ArrayList<>(PRESCRIPTION_SIZE);
+            for (int i = 0; i < PRESCRIPTION_SIZE; i++) {
+                prescription.add(medication(POLYPHARMACY[random.nextInt(POLYPHARMACY.length)], null));
+            }
+            prescriptions.add(prescription);
+        }
+
+        long hits = 0;
+        long elapsedNanos = 0;
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            hits = 0;
+            long started = System.nanoTime();
+            for (int i = 0; i < CHECKS_PER_ROUND; i++) {
+                hits += service.check(prescriptions.get(i % PRESCRIPTIONS)).size();
+            }
+            elapsedNanos = System.nanoTime() - started;
+        }
+
+        assertTrue(hits > 0);
+        log.info("Drug interactions: {} checks of {} medications in {} ms, {} ns per check, {} hits",
+                CHECKS_PER_ROUND, PRESCRIPTION_SIZE, elapsedNanos / 1_000_000, elapsedNanos / CHECKS_PER_ROUND, hits);
+    }
+
+    private Medication medication(String genericName, String drugName) {
+        Medication medication = new Medication();
+        medication.setId(++nextId);
+        medication.setGenericName(genericName);
+        medication.setDrugName(drugName);
+        return medication;
+    }
+}
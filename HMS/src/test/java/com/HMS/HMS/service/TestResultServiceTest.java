@@ -0,0 +1,114 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.DTO.LabRequest.TestResultResponseDTO;
+import com.HMS.HMS.model.LabRequest.LabAnalyte;
+import com.HMS.HMS.model.LabRequest.LabAnalyteDefinition;
+import com.HMS.HMS.model.LabRequest.LabAnalyteDefinition.ValueType;
+import com.HMS.HMS.model.LabRequest.LabTestDefinition;
+import com.HMS.HMS.model.LabRequest.TestResult;
+import com.HMS.HMS.model.LabRequest.TestResultValue;
+import com.HMS.HMS.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TestResultServiceTest {
+
+    @Mock
+    private TestResultRepository testResultRepository;
+
+    @Mock
+    private TestResultValueRepository testResultValueRepository;
+
+    @Mock
+    private LabTestDefinitionRepository definitionRepository;
+
+    @Mock
+    private LabRequestRepository labRequestRepository;
+
+    @InjectMocks
+    private TestResultService testResultService;
+
+    @BeforeEach
+    void setUpDefinitions() {
+        LabTestDefinition glucose = new LabTestDefinition("Blood Glucose", "Chemistry")
+                .addAnalyte(analyte(10L, "glucose", "glucoseLevel", ValueType.NUMBER, LabAnalyte.GLUCOSE))
+                .addAnalyte(analyte(11L, "testType", "testType", ValueType.TEXT, null));
+        LabTestDefinition cbc = new LabTestDefinition("Complete Blood Count", "Hematology")
+                .addAnalyte(analyte(20L, "wbc", "wbc", ValueType.NUMBER, LabAnalyte.WBC))
+                .addAnalyte(analyte(21L, "platelets", "platelets", ValueType.INTEGER, LabAnalyte.PLATELETS));
+        when(definitionRepository.findAllWithAnalytes()).thenReturn(List.of(glucose, cbc));
+
+        LabTestDefinitionRegistry registry = new LabTestDefinitionRegistry();
+        ReflectionTestUtils.setField(registry, "definitionRepository", definitionRepository);
+        registry.reload();
+        ReflectionTestUtils.setField(testResultService, "definitionRegistry", registry);
+    }
+
+    @Test
+    void pageIsAssembledWithOneValueQuery() {
+        List<TestResult> rows = List.of(
+                testResult(1L, "Blood Glucose"),
+                testResult(2L, "Complete Blood Count"),
+                testResult(3L, "Blood Glucose"),
+                testResult(4L, "Complete Blood Count"),
+                testResult(5L, "Blood Glucose"));
+        when(testResultRepository.findAll(any(Pageable.class)))
+                .thenAnswer(invocation -> new PageImpl<>(rows, invocation.getArgument(0), 40));
+        when(testResultValueRepository.findByTestResultIdIn(anyCollection())).thenReturn(List.of(
+                new TestResultValue(1L, 10L, 95.0, null),
+                new TestResultValue(1L, 11L, null, "fasting"),
+                new TestResultValue(2L, 20L, 7.5, null),
+                new TestResultValue(2L, 21L, 350.0, null),
+                new TestResultValue(3L, 10L, 130.0, null),
+                new TestResultValue(4L, 21L, 280.0, null),
+                new TestResultValue(5L, 10L, 101.0, null)));
+
+        Page<TestResultResponseDTO> page = testResultService.getTestResults(PageRequest.of(0, 5));
+
+        assertEquals(5, page.getContent().size());
+        assertEquals(40, page.getTotalElements());
+        assertEquals(130.0, page.getContent().get(2).getResults().get("glucoseLevel"));
+        assertEquals("fasting", page.getContent().get(0).getResults().get("testType"));
+        assertEquals(280, page.getContent().get(3).getResults().get("platelets"));
+        assertEquals(null, page.getContent().get(3).getResults().get("wbc"));
+
+        // One query for the page and one for all of its values, regardless of page size or test mix
+        verify(testResultRepository, times(1)).findAll(any(Pageable.class));
+        verify(testResultRepository).findAll(PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "completedAt", "id")));
+        verify(testResultValueRepository, times(1)).findByTestResultIdIn(List.of(1L, 2L, 3L, 4L, 5L));
+        verify(definitionRepository, times(1)).findAllWithAnalytes();
+    }
+
+    private static LabAnalyteDefinition analyte(Long id, String inputKey, String resultKey,
+                                                ValueType valueType, LabAnalyte trackedAnalyte) {
+        LabAnalyteDefinition analyte = new LabAnalyteDefinition(inputKey, resultKey, valueType, null, trackedAnalyte);
+        analyte.setId(id);
+        return analyte;
+    }
+
+    private static TestResult testResult(Long id, String testName) {
+        TestResult testResult = new TestResult("LAB-" + id, testName, "123456789V", "John Doe", "ICU",
+                "Lab Tech", LocalDateTime.now().minusHours(id), null);
+        testResult.setId(id);
+        return testResult;
+    }
+}
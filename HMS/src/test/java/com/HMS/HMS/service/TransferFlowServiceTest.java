@@ -0,0 +1,113 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.DTO.transferDTO.TransferFlowMatrixDTO;
+import com.HMS.HMS.DTO.transferDTO.WardTransferSummaryDTO;
+import com.HMS.HMS.model.ward.Ward;
+import com.HMS.HMS.repository.TransferRepository;
+import com.HMS.HMS.repository.WardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TransferFlowServiceTest {
+
+    private TransferRepository transferRepository;
+    private WardRepository wardRepository;
+    private TransferFlowService service;
+
+    @BeforeEach
+    void setUp() {
+        transferRepository = mock(TransferRepository.class);
+        wardRepository = mock(WardRepository.class);
+        Ward ward1 = ward(1L, "Ward 1");
+        Ward ward2 = ward(2L, "Ward 2");
+        Ward ward3 = ward(3L, "Ward 3");
+        when(wardRepository.findAll()).thenReturn(List.of(ward1, ward2, ward3));
+        when(wardRepository.findById(1L)).thenReturn(Optional.of(ward1));
+        service = new TransferFlowService(transferRepository, wardRepository);
+    }
+
+    @Test
+    void answersRangesFromMonthAndDayCells() {
+        List<Object[]> rows = new ArrayList<>();
+        // Ward 1 -> 2 on the 15th of every month of 2024, after 10 hours in ward 1
+        for (int month = 1; month <= 12; month++) {
+            LocalDateTime at = LocalDateTime.of(2024, month, 15, 12, 0);
+            rows.add(new Object[]{(long) month, 1L, 2L, at, at.minusHours(10)});
+        }
+        // Ward 2 -> 1 and 3 -> 1 at the end of January, after 30 hours
+        LocalDateTime endOfJanuary = LocalDateTime.of(2024, 1, 31, 8, 0);
+        rows.add(new Object[]{13L, 2L, 1L, endOfJanuary, endOfJanuary.minusHours(30)});
+        rows.add(new Object[]{14L, 3L, 1L, endOfJanuary, endOfJanuary.minusHours(30)});
+        when(transferRepository.streamFlowRows()).thenReturn(rows.stream());
+        service.load();
+
+        TransferFlowMatrixDTO year = service.getFlowMatrix(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+        assertEquals(14, year.getTotalTransfers());
+        assertEquals(1L, year.getFlows().get(0).getFromWardId());
+        assertEquals(2L, year.getFlows().get(0).getToWardId());
+        assertEquals(12, year.getFlows().get(0).getTransfers());
+        assertEquals("Ward 2", year.getFlows().get(0).getToWardName());
+
+        // Partial months on both ends: 20 January to 14 March
+        TransferFlowMatrixDTO partial = service.getFlowMatrix(LocalDate.of(2024, 1, 20), LocalDate.of(2024, 3, 14));
+        assertEquals(3, partial.getTotalTransfers());
+
+        TransferFlowService.TransferCounts wards12 = service.countTransfers(
+                List.of(1L, 2L), LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+        assertEquals(1, wards12.in());
+        assertEquals(0, wards12.out());
+
+        WardTransferSummaryDTO summary = service.getWardSummary(1L, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 6, 30));
+        assertEquals(2, summary.getTransfersIn());
+        assertEquals(6, summary.getTransfersOut());
+        assertEquals(10.0, summary.getMedianHoursBeforeTransfer(), 0.2);
+    }
+
+    @Test
+    void recordsTransfersOutsideATransactionImmediately() {
+        when(transferRepository.streamFlowRows()).thenReturn(Stream.empty());
+        service.load();
+
+        LocalDateTime at = LocalDateTime.of(2024, 5, 2, 9, 0);
+        service.record(new TransferFlowService.Flow(1L, 1L, 3L, at, at.minusHours(4)));
+
+        assertEquals(1, service.getFlowMatrix(LocalDate.of(2024, 5, 2), LocalDate.of(2024, 5, 2)).getTotalTransfers());
+        assertEquals(0, service.getFlowMatrix(LocalDate.of(2024, 5, 3), LocalDate.of(2024, 5, 31)).getTotalTransfers());
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getFlowMatrix(LocalDate.of(2024, 5, 3), LocalDate.of(2024, 5, 2)));
+    }
+
+    @Test
+    void keepsTransfersThatCommitWhileLoading() {
+        LocalDateTime at = LocalDateTime.of(2024, 6, 1, 9, 0);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, 1L, 2L, at, at.minusHours(5)});
+        rows.add(new Object[]{2L, 2L, 3L, at, at.minusHours(5)});
+        // Transfer 2 commits once its row was streamed and transfer 3 after the snapshot
+        when(transferRepository.streamFlowRows()).thenReturn(rows.stream().peek(row -> {
+            if (row[0].equals(2L)) {
+                service.record(new TransferFlowService.Flow(2L, 2L, 3L, at, at.minusHours(5)));
+                service.record(new TransferFlowService.Flow(3L, 3L, 1L, at, at.minusHours(5)));
+            }
+        }));
+        service.load();
+
+        TransferFlowMatrixDTO day = service.getFlowMatrix(LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 1));
+        assertEquals(3, day.getTotalTransfers());
+        assertEquals(3, day.getFlows().size());
+    }
+
+    private static Ward ward(Long id, String name) {
+        Ward ward = new Ward(name, "General");
+        ward.setWardId(id);
+        return ward;
+    }
+}
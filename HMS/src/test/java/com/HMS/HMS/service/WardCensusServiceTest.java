@@ -0,0 +1,176 @@
+package com.HMS.HMS.service;
+
+import com.HMS.HMS.model.Admission.AdmissionStatus;
+import com.HMS.HMS.model.ward.Ward;
+import com.HMS.HMS.model.ward.WardCensus;
+import com.HMS.HMS.repository.AdmissionRepository;
+import com.HMS.HMS.repository.WardCensusJdbcRepository;
+import com.HMS.HMS.repository.WardCensusRepository;
+import com.HMS.HMS.repository.WardRepository;
+import com.HMS.HMS.util.QuantileSketch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class WardCensusServiceTest {
+
+    private AdmissionRepository admissionRepository;
+    private WardCensusRepository censusRepository;
+    private WardCensusJdbcRepository censusJdbcRepository;
+    private WardCensusService service;
+    private final List<WardCensus> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        admissionRepository = mock(AdmissionRepository.class);
+        censusRepository = mock(WardCensusRepository.class);
+        censusJdbcRepository = mock(WardCensusJdbcRepository.class);
+        WardRepository wardRepository = mock(WardRepository.class);
+        Ward general = ward(1L, "Ward 1", "General", 4);
+        Ward icu = ward(2L, "ICU", "ICU", null);
+        when(wardRepository.findAll()).thenReturn(List.of(general, icu));
+        when(censusJdbcRepository.insertCensus(anyList())).thenAnswer(invocation -> {
+            List<WardCensus> rows = invocation.getArgument(0);
+            saved.addAll(rows);
+            return rows.size();
+        });
+        service = new WardCensusService(censusRepository, censusJdbcRepository, admissionRepository, wardRepository,
+                mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void rebuildCountsEveryDayAndRunsOccupiedBedsForward() {
+        LocalDate start = LocalDate.now().minusDays(3);
+        List<Object[]> admissions = List.of(
+                // In ward 1 before the first day, discharged on the second after 6 days
+                new Object[]{1L, start.minusDays(5).atTime(9, 0), start.plusDays(1).atTime(9, 0), AdmissionStatus.DISCHARGED, null},
+                // Admitted to ward 1 on the first day, transferred out on the third
+                new Object[]{1L, start.atTime(10, 0), start.plusDays(2).atTime(11, 0), AdmissionStatus.TRANSFERRED, null},
+                // Admitted and discharged on the second day after 12 hours
+                new Object[]{1L, start.plusDays(1).atTime(8, 0), start.plusDays(1).atTime(20, 0), AdmissionStatus.DISCHARGED, null},
+                // Transferred into the ICU on the third day and still there
+                new Object[]{2L, start.plusDays(2).atTime(11, 0), null, AdmissionStatus.ACTIVE, 7L});
+        when(admissionRepository.streamCensusRows(any(), any())).thenReturn(admissions.stream());
+
+        service.rebuildFrom(start);
+
+        verify(censusRepository).deleteFrom(start);
+        assertEquals(6, saved.size());
+
+        WardCensus first = row(start, 1L);
+        assertEquals(4, first.getBedCount());
+        assertEquals(2, first.getOccupiedBeds());
+        assertEquals(1, first.getAdmissions());
+
+        WardCensus second = row(start.plusDays(1), 1L);
+        assertEquals(1, second.getOccupiedBeds());
+        assertEquals(1, second.getAdmissions());
+        assertEquals(2, second.getDischarges());
+        QuantileSketch lengthOfStay = QuantileSketch.fromBytes(second.getLosSketch());
+        assertEquals(2, lengthOfStay.getCount());
+        assertEquals((144 + 12) / 2.0, lengthOfStay.getMean(), 1.0);
+
+        WardCensus third = row(start.plusDays(2), 1L);
+        assertEquals(0, third.getOccupiedBeds());
+        assertEquals(1, third.getTransfersOut());
+        assertNull(third.getLosSketch());
+
+        assertEquals(0, row(start.plusDays(1), 2L).getOccupiedBeds());
+        WardCensus icu = row(start.plusDays(2), 2L);
+        assertEquals(10, icu.getBedCount());
+        assertEquals(1, icu.getOccupiedBeds());
+        assertEquals(1, icu.getTransfersIn());
+        assertEquals(0, icu.getAdmissions());
+    }
+
+    @Test
+    void countsTheCurrentDayAsAdmissionsAndDischargesCommit() {
+        LocalDate today = LocalDate.now();
+        List<Object[]> admissions = new ArrayList<>();
+        admissions.add(new Object[]{2L, today.minusDays(2).atTime(9, 0), null, AdmissionStatus.ACTIVE, null});
+        when(admissionRepository.streamCensusRows(any(), any())).thenReturn(admissions.stream());
+        service.rebuildFrom(today);
+
+        LocalDateTime now = LocalDateTime.now();
+        service.recordAdmission(1L, false);
+        service.recordDeparture(2L, AdmissionStatus.DISCHARGED, now.minusHours(48), now);
+
+        WardCensusService.CensusRange census = service.getCensus(List.of(1L, 2L), today, today);
+        assertEquals(14, census.bedsAtEnd());
+        assertEquals(1, census.occupiedAtEnd());
+        assertEquals(100.0 / 14, census.occupancyAtEnd(), 0.01);
+        assertEquals(1, census.total().getAdmissions());
+        assertEquals(1, census.total().getDischarges());
+        assertEquals(2.0, census.total().lengthOfStayDays(0.5), 0.05);
+        verify(censusRepository, never()).sumByMonth(any(), any(), any());
+
+        assertThrows(IllegalArgumentException.class, () -> service.getCensus(List.of(1L), today, today.minusDays(1)));
+    }
+
+    @Test
+    void rebuildKeepsTheMovementsCountedToday() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> onStartup = new ArrayList<>();
+        onStartup.add(new Object[]{2L, today.minusDays(2).atTime(9, 0), null, AdmissionStatus.ACTIVE, null});
+        List<Object[]> afterImport = new ArrayList<>();
+        afterImport.add(new Object[]{2L, today.minusDays(2).atTime(9, 0), now, AdmissionStatus.DISCHARGED, null});
+        // Imported admission to ward 1 still in its bed; today's ward 1 admission committed after the rebuild read
+        afterImport.add(new Object[]{1L, today.minusDays(3).atTime(9, 0), null, AdmissionStatus.ACTIVE, null});
+        when(admissionRepository.streamCensusRows(any(), any())).thenReturn(onStartup.stream(), afterImport.stream());
+        service.rebuildFrom(today);
+
+        service.recordAdmission(1L, false);
+        service.recordDeparture(2L, AdmissionStatus.DISCHARGED, now.minusHours(48), now);
+        service.markStale(today.minusDays(3));
+        service.refreshStale();
+
+        verify(censusRepository).deleteFrom(today.minusDays(3));
+        assertEquals(1, row(today.minusDays(1), 1L).getOccupiedBeds());
+        WardCensusService.CensusRange census = service.getCensus(List.of(1L, 2L), today, today);
+        assertEquals(2, census.occupiedAtEnd());
+        assertEquals(1, census.total().getAdmissions());
+        assertEquals(1, census.total().getDischarges());
+    }
+
+    @Test
+    void failedRebuildStaysStaleForTheNextRefresh() {
+        LocalDate from = LocalDate.now().minusDays(2);
+        when(admissionRepository.streamCensusRows(any(), any())).thenAnswer(invocation -> Stream.empty());
+        when(censusJdbcRepository.insertCensus(anyList()))
+                .thenThrow(new QueryTimeoutException("Lock wait timeout exceeded"))
+                .thenReturn(4);
+
+        service.markStale(from);
+        assertThrows(QueryTimeoutException.class, () -> service.refreshStale());
+        service.refreshStale();
+
+        verify(censusRepository, times(2)).deleteFrom(from);
+        verify(censusJdbcRepository, times(2)).insertCensus(anyList());
+    }
+
+    private WardCensus row(LocalDate date, Long wardId) {
+        return saved.stream()
+                .filter(row -> row.getCensusDate().equals(date) && row.getWardId().equals(wardId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static Ward ward(Long id, String name, String type, Integer bedCount) {
+        Ward ward = new Ward(name, type);
+        ward.setWardId(id);
+        ward.setBedCount(bedCount);
+        return ward;
+    }
+}
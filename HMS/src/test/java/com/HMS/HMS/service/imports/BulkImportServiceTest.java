@@ -0,0 +1,177 @@
+package com.HMS.HMS.service.imports;
+
+import com.HMS.HMS.DTO.ImportDTO.ImportErrorDTO;
+import com.HMS.HMS.DTO.ImportDTO.ImportReportDTO;
+import com.HMS.HMS.model.Admission.AdmissionStatus;
+import com.HMS.HMS.model.Patient.Patient;
+import com.HMS.HMS.model.ward.Ward;
+import com.HMS.HMS.repository.*;
+import com.HMS.HMS.repository.BulkImportJdbcRepository.AdmissionRow;
+import com.HMS.HMS.service.BedBoardService;
+import com.HMS.HMS.service.DoctorCalendarService;
+import com.HMS.HMS.service.PatientSearchIndex;
+import com.HMS.HMS.service.TransferFlowService;
+import com.HMS.HMS.service.WardCensusService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BulkImportServiceTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportServiceTest.class);
+
+    private static final int LARGE_IMPORT_ROWS = 200_000;
+
+    private PatientRepository patientRepository;
+    private WardRepository wardRepository;
+    private BulkImportJdbcRepository jdbcRepository;
+    private PatientSearchIndex patientSearchIndex;
+    private BedBoardService bedBoardService;
+    private BulkImportService service;
+
+    @BeforeEach
+    void setUp() {
+        patientRepository = mock(PatientRepository.class);
+        wardRepository = mock(WardRepository.class);
+        jdbcRepository = mock(BulkImportJdbcRepository.class);
+        patientSearchIndex = mock(PatientSearchIndex.class);
+        bedBoardService = mock(BedBoardService.class);
+        service = new BulkImportService(patientRepository, mock(AdmissionRepository.class), wardRepository,
+                mock(DoctorRepository.class), jdbcRepository, patientSearchIndex, bedBoardService,
+                mock(DoctorCalendarService.class), mock(TransferFlowService.class), mock(WardCensusService.class),
+                new ObjectMapper(), mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importsPatientsFromCsvAndReportsRejectedRows() {
+        when(patientRepository.findAdmissionStateByNationalIdIn(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{"198811112222", null}));
+
+        String csv = "nationalId,firstName,lastName,address,dateOfBirth,contactNumber\n" +
+                "199012345678,Nimal,Perera,\"12, Temple Road\",1990-01-01,0771234567\n" +
+                "199112345678,Kamal,Silva,\"No 4\nGalle\",1991-02-03,\n" +
+                "199212345678,,Fernando,,1992-01-01,\n" +
+                "199012345678,Nimal,Perera,,1990-01-01,\n" +
+                "198811112222,Sunil,Bandara,,1988-05-05,\n" +
+                "199312345678,Saman,Herath,,1993-13-01,\n" +
+                "199412345678,Ruwan,Kumara\n";
+
+        ImportReportDTO report = service.importRows(ImportEntity.PATIENTS, ImportFormat.CSV, input(csv));
+
+        assertEquals("COMPLETED", report.getStatus());
+        assertEquals(7, report.getRowsRead());
+        assertEquals(2, report.getRowsImported());
+        assertEquals(5, report.getRowsRejected());
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L), report.getErrors().stream().map(ImportErrorDTO::getRow).sorted().toList());
+
+        ArgumentCaptor<List<Patient>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcRepository).insertPatients(inserted.capture());
+        List<Patient> patients = inserted.getValue();
+        assertEquals(List.of("199012345678", "199112345678"), patients.stream().map(Patient::getNationalId).toList());
+        assertEquals("12, Temple Road", patients.get(0).getAddress());
+        assertEquals("No 4\nGalle", patients.get(1).getAddress());
+        assertEquals(LocalDate.of(1991, 2, 3), patients.get(1).getDateOfBirth());
+        verify(patientSearchIndex).indexAll(patients);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importsAdmissionsOntoBedBoard() {
+        Ward ward = new Ward("Ward 1", "General");
+        ward.setWardId(1L);
+        when(wardRepository.findAll()).thenReturn(List.of(ward));
+        when(patientRepository.findAdmissionStateByNationalIdIn(anyCollection())).thenReturn(List.of(
+                new Object[]{"P1", null}, new Object[]{"P2", 77L}, new Object[]{"P3", null}, new Object[]{"P4", null}));
+        when(bedBoardService.reserve(1L, "01")).thenReturn(true);
+        when(bedBoardService.reserve(1L, "02")).thenReturn(false);
+
+        String ndjson = String.join("\n",
+                "{\"patientNationalId\":\"P1\",\"wardName\":\"ward 1\",\"bedNumber\":\"01\",\"admissionDate\":\"2024-03-01T10:00:00\"}",
+                "{\"patientNationalId\":\"P2\",\"wardId\":1,\"bedNumber\":\"03\",\"admissionDate\":\"2024-03-01 10:00\"}",
+                "{\"patientNationalId\":\"P3\",\"wardId\":1,\"bedNumber\":\"02\",\"admissionDate\":\"2024-03-02\"}",
+                "{\"patientNationalId\":\"P4\",\"wardId\":1,\"bedNumber\":\"04\",\"admissionDate\":\"2024-01-01\",\"dischargeDate\":\"2024-01-05\"}",
+                "{\"patientNationalId\":\"P5\",\"wardId\":1,\"bedNumber\":\"05\",\"admissionDate\":\"2024-01-01\",\"dischargeDate\":\"2024-01-05\"}",
+                "{\"patientNationalId\":\"P4\",\"wardId\":9,\"bedNumber\":\"05\",\"admissionDate\":\"2024-01-01\"}",
+                "{\"patientNationalId\":",
+                "");
+
+        ImportReportDTO report = service.importRows(ImportEntity.ADMISSIONS, ImportFormat.NDJSON, input(ndjson));
+
+        assertEquals(7, report.getRowsRead());
+        assertEquals(2, report.getRowsImported());
+        ArgumentCaptor<List<AdmissionRow>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcRepository).insertAdmissions(inserted.capture());
+        assertEquals(List.of(AdmissionStatus.ACTIVE, AdmissionStatus.DISCHARGED),
+                inserted.getValue().stream().map(AdmissionRow::status).toList());
+        // Already admitted, bed taken, unknown patient, unknown ward, unreadable line
+        assertEquals(List.of(2L, 3L, 5L, 6L, 7L), report.getErrors().stream().map(ImportErrorDTO::getRow).sorted().toList());
+        verify(bedBoardService, never()).reserve(1L, "03");
+        verify(patientRepository).syncCurrentAdmissions(Set.of("P1"));
+    }
+
+    @Test
+    void importIsWrittenInChunks() throws Exception {
+        importPatients(3 * BulkImportService.CHUNK_SIZE + 1);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void largeImportThroughput() throws Exception {
+        ImportReportDTO report = importPatients(LARGE_IMPORT_ROWS);
+        log.info("Bulk import: {} patient rows read, validated and batched at {} rows/s",
+                LARGE_IMPORT_ROWS, Math.round(report.getRowsPerSecond()));
+    }
+
+    private ImportReportDTO importPatients(int patientRows) throws Exception {
+        when(patientRepository.findAdmissionStateByNationalIdIn(anyCollection())).thenReturn(List.of());
+        AtomicInteger chunks = new AtomicInteger();
+        AtomicInteger rows = new AtomicInteger();
+        doAnswer(invocation -> {
+            List<?> patients = invocation.getArgument(0);
+            assertTrue(patients.size() <= BulkImportService.CHUNK_SIZE);
+            chunks.incrementAndGet();
+            rows.addAndGet(patients.size());
+            return null;
+        }).when(jdbcRepository).insertPatients(anyList());
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < patientRows; i++) {
+            String line = String.format("{\"nationalId\":\"%09dV\",\"firstName\":\"First%d\",\"lastName\":\"Last%d\"," +
+                            "\"dateOfBirth\":\"19%02d-%02d-%02d\",\"contactNumber\":\"07%08d\",\"gender\":\"%s\"}%n",
+                    i, random.nextInt(1000), random.nextInt(1000), random.nextInt(100), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(100_000_000), random.nextBoolean() ? "Male" : "Female");
+            ndjson.write(line.getBytes(StandardCharsets.UTF_8));
+        }
+
+        ImportReportDTO report = service.importRows(ImportEntity.PATIENTS, ImportFormat.NDJSON,
+                new ByteArrayInputStream(ndjson.toByteArray()));
+
+        assertEquals(patientRows, report.getRowsImported());
+        assertEquals(patientRows, rows.get());
+        assertEquals((patientRows + BulkImportService.CHUNK_SIZE - 1) / BulkImportService.CHUNK_SIZE, chunks.get());
+        verify(patientRepository, times(chunks.get())).findAdmissionStateByNationalIdIn(anyCollection());
+        return report;
+    }
+
+    private static ByteArrayInputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,99 @@
+package com.HMS.HMS.service.reports;
+
+import com.HMS.HMS.DTO.reports.AppointmentAnalyticsReportDTO;
+import com.HMS.HMS.DTO.reports.DoctorAppointmentStatsDTO;
+import com.HMS.HMS.DTO.reports.MonthlyAppointmentTrendDTO;
+import com.HMS.HMS.model.Appointment.AppointmentStatus;
+import com.HMS.HMS.model.Appointment.AppointmentType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Feeds a synthetic appointment year through the accumulator the way the streamed query
+ * does, one flat row at a time. The million-row run is tagged as a benchmark and logs
+ * the throughput; a small year checks the counts in the default build.
+ */
+class AppointmentAnalyticsAccumulatorBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentAnalyticsAccumulatorBenchmarkTest.class);
+
+    private static final int YEAR = 2024;
+    private static final int APPOINTMENTS = 1_000_000;
+    private static final int DOCTORS = 40;
+    private static final int WARMUP_ROUNDS = 3;
+
+    @Test
+    void smallYearInOnePass() {
+        run(20_000, 0);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void millionAppointmentYearInOnePass() {
+        long elapsedNanos = run(APPOINTMENTS, WARMUP_ROUNDS);
+        log.info("Appointment analytics: {} appointments in {} ms ({} rows/s)",
+                APPOINTMENTS, elapsedNanos / 1_000_000, Math.round(APPOINTMENTS / (elapsedNanos / 1e9)));
+    }
+
+    /**
+     * Accumulate the year warmupRounds + 1 times, check the last report and return how
+     * long the last round took
+     */
+    private static long run(int appointments, int warmupRounds) {
+        AppointmentStatus[] statuses = AppointmentStatus.values();
+        AppointmentType[] types = AppointmentType.values();
+        LocalDate firstDay = LocalDate.of(YEAR, 1, 1);
+        int daysInYear = firstDay.lengthOfYear();
+
+        Map<Long, Object[]> doctors = new HashMap<>();
+        for (long id = 1; id <= DOCTORS; id++) {
+            doctors.put(id, new Object[]{id, "Doctor " + id, id % 2 == 0 ? "Nephrology" : "General"});
+        }
+
+        AppointmentAnalyticsReportDTO report = null;
+        long expectedCompleted = 0;
+        long elapsedNanos = 0;
+        for (int round = 0; round <= warmupRounds; round++) {
+            SplittableRandom random = new SplittableRandom(42);
+            expectedCompleted = 0;
+            long started = System.nanoTime();
+
+            AppointmentAnalyticsAccumulator accumulator = new AppointmentAnalyticsAccumulator(YEAR);
+            for (int i = 0; i < appointments; i++) {
+                AppointmentStatus status = statuses[random.nextInt(statuses.length)];
+                if (status == AppointmentStatus.COMPLETED) {
+                    expectedCompleted++;
+                }
+                accumulator.add(
+                        firstDay.plusDays(random.nextInt(daysInYear)),
+                        LocalTime.of(8 + random.nextInt(10), random.nextInt(4) * 15),
+                        status,
+                        types[random.nextInt(types.length)],
+                        1L + random.nextInt(DOCTORS));
+            }
+            report = new AppointmentAnalyticsReportDTO();
+            accumulator.fill(report, doctors);
+
+            elapsedNanos = System.nanoTime() - started;
+        }
+
+        assertEquals(appointments, report.getTotalAppointments());
+        assertEquals(expectedCompleted, report.getCompletedAppointments());
+        assertEquals(appointments, report.getMonthlyTrends().stream()
+                .mapToLong(MonthlyAppointmentTrendDTO::getTotalAppointments).sum());
+        assertEquals(appointments, report.getDoctorPerformance().stream()
+                .mapToLong(DoctorAppointmentStatsDTO::getTotalAppointments).sum());
+        assertEquals(DOCTORS, report.getDoctorPerformance().size());
+        return elapsedNanos;
+    }
+}
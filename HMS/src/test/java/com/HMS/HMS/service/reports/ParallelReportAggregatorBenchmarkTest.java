@@ -0,0 +1,132 @@
+package com.HMS.HMS.service.reports;
+
+import com.HMS.HMS.DTO.reports.AppointmentAnalyticsReportDTO;
+import com.HMS.HMS.DTO.reports.DoctorAppointmentStatsDTO;
+import com.HMS.HMS.model.Appointment.AppointmentStatus;
+import com.HMS.HMS.model.Appointment.AppointmentType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Aggregates a synthetic appointment year on the report aggregator with several worker
+ * counts; the reports must match the single-worker one exactly. Every chunk generates
+ * its own days' rows in memory the way a chunk query streams them and the transaction
+ * manager is a mock, so the tagged 1.5-million-row run logs how the fold and merge scale
+ * on the CPU only. It says nothing about chunk queries contending for connections and
+ * disk. A small year checks the merged reports in the default build.
+ */
+class ParallelReportAggregatorBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ParallelReportAggregatorBenchmarkTest.class);
+
+    private static final int YEAR = 2024;
+    private static final int DOCTORS = 40;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 3;
+
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+    private static final AppointmentType[] TYPES = AppointmentType.values();
+
+    @Test
+    void smallYearMatchesOneWorker() {
+        run(50, new int[]{1, 3}, 0, 1);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void yearReportSpeedupCurve() {
+        run(4_000, new int[]{1, 2, 4, 8}, WARMUP_ROUNDS, MEASURED_ROUNDS);
+    }
+
+    private static void run(int appointmentsPerDay, int[] parallelisms, int warmupRounds, int measuredRounds) {
+        LocalDate startDate = LocalDate.of(YEAR, 1, 1);
+        LocalDate endDate = LocalDate.of(YEAR, 12, 31);
+        long appointments = (long) startDate.lengthOfYear() * appointmentsPerDay;
+
+        Map<Long, Object[]> doctors = new HashMap<>();
+        for (long id = 1; id <= DOCTORS; id++) {
+            doctors.put(id, new Object[]{id, "Doctor " + id, "General"});
+        }
+
+        AppointmentAnalyticsReportDTO baseline = null;
+        double baselineMillis = 0;
+        for (int parallelism : parallelisms) {
+            PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+            ParallelReportAggregator aggregator = new ParallelReportAggregator(transactionManager, parallelism);
+            try {
+                AppointmentAnalyticsReportDTO report = null;
+                long bestNanos = Long.MAX_VALUE;
+                for (int round = 0; round < warmupRounds + measuredRounds; round++) {
+                    long started = System.nanoTime();
+                    AppointmentAnalyticsAccumulator accumulator = aggregator.aggregate(startDate, endDate,
+                            () -> new AppointmentAnalyticsAccumulator(YEAR),
+                            (acc, first, last) -> foldSyntheticDays(acc, first, last, appointmentsPerDay),
+                            AppointmentAnalyticsAccumulator::merge);
+                    report = new AppointmentAnalyticsReportDTO();
+                    accumulator.fill(report, doctors);
+                    if (round >= warmupRounds) {
+                        bestNanos = Math.min(bestNanos, System.nanoTime() - started);
+                    }
+                }
+
+                double millis = bestNanos / 1e6;
+                if (baseline == null) {
+                    baseline = report;
+                    baselineMillis = millis;
+                }
+                log.info("Report aggregator: {} worker(s), {} appointments in {} ms, CPU-only speedup {}",
+                        parallelism, appointments, String.format("%.1f", millis), String.format("%.2fx", baselineMillis / millis));
+
+                assertEquals(appointments, report.getTotalAppointments());
+                assertEquals(baseline.getCompletedAppointments(), report.getCompletedAppointments());
+                assertEquals(baseline.getCancelledAppointments(), report.getCancelledAppointments());
+                assertEquals(doctorTotals(baseline), doctorTotals(report));
+                // every chunk runs in its own read-only transaction
+                verify(transactionManager, atLeast(parallelism))
+                        .getTransaction(argThat(TransactionDefinition::isReadOnly));
+                verify(transactionManager, never()).rollback(any());
+            } finally {
+                aggregator.stop();
+            }
+        }
+    }
+
+    /**
+     * Stand-in for a chunk query: the same rows for a day whichever chunk it falls in
+     */
+    private static void foldSyntheticDays(AppointmentAnalyticsAccumulator accumulator, LocalDate first, LocalDate last,
+                                          int appointmentsPerDay) {
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            SplittableRandom random = new SplittableRandom(day.toEpochDay());
+            for (int i = 0; i < appointmentsPerDay; i++) {
+                accumulator.add(
+                        day,
+                        LocalTime.of(8 + random.nextInt(10), random.nextInt(4) * 15),
+                        STATUSES[random.nextInt(STATUSES.length)],
+                        TYPES[random.nextInt(TYPES.length)],
+                        1L + random.nextInt(DOCTORS));
+            }
+        }
+    }
+
+    private static Map<Long, Long> doctorTotals(AppointmentAnalyticsReportDTO report) {
+        Map<Long, Long> totals = new TreeMap<>();
+        for (DoctorAppointmentStatsDTO stats : report.getDoctorPerformance()) {
+            totals.put(stats.getDoctorId(), stats.getTotalAppointments());
+        }
+        return totals;
+    }
+}
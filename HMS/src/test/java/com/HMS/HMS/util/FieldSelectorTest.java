@@ -0,0 +1,81 @@
+package com.HMS.HMS.util;
+
+import com.HMS.HMS.DTO.AdmissionDTO.AdmissionResponseDTO;
+import com.HMS.HMS.DTO.KeysetPageDTO;
+import com.HMS.HMS.model.Admission.AdmissionStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldSelectorTest {
+
+    private final FieldSelector fieldSelector = new FieldSelector(new ObjectMapper().findAndRegisterModules());
+
+    @Test
+    void pageKeepsOneRowBeyondPageSizeOutAndPointsTheCursorAtTheLastItem() {
+        List<AdmissionResponseDTO> rows = new ArrayList<>();
+        for (long id = 10; id > 7; id--) {
+            rows.add(admission(id));
+        }
+
+        KeysetPageDTO<AdmissionResponseDTO> page = new KeysetPageDTO<>(rows, 2, AdmissionResponseDTO::getAdmissionId);
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals("9", page.getNextCursor());
+
+        KeysetPageDTO<AdmissionResponseDTO> last = new KeysetPageDTO<>(rows, 3, AdmissionResponseDTO::getAdmissionId);
+        assertFalse(last.isHasMore());
+        assertNull(last.getNextCursor());
+        assertEquals(200, KeysetPageDTO.pageSize(10_000));
+        assertEquals(1, KeysetPageDTO.pageSize(0));
+    }
+
+    @Test
+    void selectsRequestedFieldsInOrder() {
+        KeysetPageDTO<AdmissionResponseDTO> page = new KeysetPageDTO<>(List.of(admission(5L), admission(4L)), true, "4");
+
+        KeysetPageDTO<?> selected = fieldSelector.select(page, AdmissionResponseDTO.class, "wardName, admissionId,status");
+
+        assertEquals("4", selected.getNextCursor());
+        assertTrue(selected.isHasMore());
+        Map<?, ?> first = (Map<?, ?>) selected.getItems().get(0);
+        assertEquals(List.of("wardName", "admissionId", "status"), List.copyOf(first.keySet()));
+        assertEquals("Ward 1", first.get("wardName"));
+        assertEquals(5, ((Number) first.get("admissionId")).intValue());
+        assertEquals("ACTIVE", first.get("status"));
+
+        assertSame(page, fieldSelector.select(page, AdmissionResponseDTO.class, " "));
+        assertThrows(IllegalArgumentException.class,
+                () -> fieldSelector.select(page, AdmissionResponseDTO.class, "admissionId,diagnosis"));
+    }
+
+    @Test
+    void validatesFieldsAgainstTheItemTypeNotTheItems() {
+        KeysetPageDTO<AdmissionResponseDTO> empty = new KeysetPageDTO<>(List.of(), false, null);
+        assertThrows(IllegalArgumentException.class,
+                () -> fieldSelector.select(empty, AdmissionResponseDTO.class, "admissionId,diagnosis"));
+        assertTrue(fieldSelector.select(empty, AdmissionResponseDTO.class, "admissionId").getItems().isEmpty());
+
+        // a property left out of the first item's JSON because it is null is still a known field
+        FieldSelector nonNull = new FieldSelector(new ObjectMapper().findAndRegisterModules()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL));
+        AdmissionResponseDTO discharged = admission(3L);
+        discharged.setDischargeDate(LocalDateTime.of(2024, 3, 4, 9, 0));
+        KeysetPageDTO<AdmissionResponseDTO> page = new KeysetPageDTO<>(List.of(admission(4L), discharged), false, null);
+        KeysetPageDTO<?> selected = nonNull.select(page, AdmissionResponseDTO.class, "dischargeDate");
+        assertNull(((Map<?, ?>) selected.getItems().get(0)).get("dischargeDate"));
+        assertNotNull(((Map<?, ?>) selected.getItems().get(1)).get("dischargeDate"));
+    }
+
+    private static AdmissionResponseDTO admission(Long id) {
+        return new AdmissionResponseDTO(id, "P" + id, "Patient " + id, 1L, "Ward 1", "0" + id,
+                LocalDateTime.of(2024, 3, 1, 10, 0), null, AdmissionStatus.ACTIVE);
+    }
+}
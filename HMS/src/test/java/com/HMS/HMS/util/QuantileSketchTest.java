@@ -0,0 +1,100 @@
+package com.HMS.HMS.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99};
+
+    @Test
+    void quantilesStayWithinTheRelativeAccuracy() {
+        SplittableRandom random = new SplittableRandom(5);
+        double[] values = new double[100_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            // turnaround-like minutes: mostly under an hour with a long tail
+            values[i] = Math.exp(3 + 1.2 * random.nextGaussian(0, 1));
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : QUANTILES) {
+            double exact = values[(int) Math.floor(q * (values.length - 1))];
+            assertEquals(exact, sketch.quantile(q), exact * QuantileSketch.DEFAULT_RELATIVE_ACCURACY * 1.0001, "q=" + q);
+        }
+        assertEquals(values[0], sketch.quantile(0));
+        assertEquals(values[values.length - 1], sketch.quantile(1));
+        assertEquals(values.length, sketch.getCount());
+        assertEquals(Arrays.stream(values).average().orElseThrow(), sketch.getMean(), 1e-6);
+    }
+
+    @Test
+    void zerosAndEmptySketches() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertTrue(sketch.isEmpty());
+        assertEquals(0, sketch.quantile(0.5));
+        assertEquals(0, sketch.getMin());
+
+        sketch.add(0, 3);
+        sketch.add(10);
+        assertEquals(0, sketch.quantile(0.5));
+        assertEquals(10, sketch.quantile(1));
+        assertThrows(IllegalArgumentException.class, () -> sketch.add(-1));
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.5));
+    }
+
+    @Test
+    void mergedSketchMatchesOneBuiltFromAllValues() {
+        SplittableRandom random = new SplittableRandom(9);
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (int i = 0; i < 20_000; i++) {
+            double value = random.nextInt(5) == 0 ? 0 : random.nextDouble(1, 10_000);
+            all.add(value);
+            (i % 3 == 0 ? first : second).add(value);
+        }
+
+        QuantileSketch merged = new QuantileSketch().merge(first).merge(second).merge(null);
+        assertSameSketch(all, merged);
+        assertThrows(IllegalArgumentException.class, () -> merged.merge(sketchOf(new QuantileSketch(0.05), 1.0)));
+    }
+
+    @Test
+    void bytesRoundTrip() {
+        QuantileSketch sketch = sketchOf(new QuantileSketch(0.02), 0, 0.5, 3, 42, 42, 1_000, 86_400);
+
+        QuantileSketch read = QuantileSketch.fromBytes(sketch.toBytes());
+        assertSameSketch(sketch, read);
+        // same accuracy after reading, so it still merges with sketches of that accuracy
+        assertEquals(14, read.merge(sketch).getCount());
+
+        assertTrue(QuantileSketch.fromBytes(null).isEmpty());
+        assertTrue(QuantileSketch.fromBytes(new byte[0]).isEmpty());
+        byte[] unknownVersion = sketch.toBytes();
+        unknownVersion[0] = 99;
+        assertThrows(IllegalArgumentException.class, () -> QuantileSketch.fromBytes(unknownVersion));
+    }
+
+    private static QuantileSketch sketchOf(QuantileSketch sketch, double... values) {
+        for (double value : values) {
+            sketch.add(value);
+        }
+        return sketch;
+    }
+
+    private static void assertSameSketch(QuantileSketch expected, QuantileSketch actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getSum(), actual.getSum(), 1e-6 * Math.max(1, expected.getSum()));
+        assertEquals(expected.getMin(), actual.getMin());
+        assertEquals(expected.getMax(), actual.getMax());
+        for (double q : QUANTILES) {
+            assertEquals(expected.quantile(q), actual.quantile(q), "q=" + q);
+        }
+    }
+}